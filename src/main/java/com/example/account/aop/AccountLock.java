@@ -7,5 +7,25 @@ import java.lang.annotation.*;
 @Documented
 @Inherited
 public @interface AccountLock {
-    long tryLockTime() default 5000L;
+    /**
+     * 락 키 SpEL. 메서드 인자는 #인자이름 또는 #p0 로 참조한다.
+     * 예) "'user:' + #request.userId"
+     * 비어있으면 AccountLockIdInterface 인자의 계좌번호로 잠근다.
+     */
+    String key() default "";
+
+    /**
+     * 락 대기 시간(ms)
+     */
+    long tryLockTime() default 1000L;
+
+    /**
+     * 락 자동 해제 시간(ms). autoRenew 이면 쓰지 않는다.
+     */
+    long leaseTime() default 15000L;
+
+    /**
+     * 메서드가 끝날 때까지 Redisson watchdog 이 lease 를 연장한다. 오래 걸리는 작업용
+     */
+    boolean autoRenew() default false;
 }
@@ -0,0 +1,133 @@
+package com.example.account.binary;
+
+import com.example.account.exception.AccountException;
+import com.example.account.service.BalanceEngine;
+import com.example.account.service.LockService;
+import com.example.account.service.TransactionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import static com.example.account.binary.BinaryProtocol.*;
+import static com.example.account.type.ErrorCode.INTERNAL_SERVER_ERROR;
+import static com.example.account.type.ErrorCode.INVALID_REQUEST;
+
+/**
+ * 바이너리 요청을 BalanceEngine(거래 조회는 TransactionService) 으로 바로 전달한다.
+ * REST 컨트롤러와 같은 검증 규칙, 계좌 락, 실패 거래 저장을 따른다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BinaryBalanceHandler {
+    private static final long MIN_AMOUNT = 10L;
+    private static final long MAX_AMOUNT = 1000_000_000L;
+
+    private final BalanceEngine balanceEngine;
+    private final TransactionService transactionService;
+    private final LockService lockService;
+
+    //메모리 엔진은 계좌마다 한 스레드에서 처리하므로 계좌 락이 필요 없다.
+    @Value("#{'${balance.engine}' == 'memory'}")
+    private boolean lockFree;
+
+    public BinaryResponse handle(BinaryRequest request) {
+        long correlationId = request.getCorrelationId();
+        if (!isValid(request)) {
+            return BinaryResponse.error(correlationId, INVALID_REQUEST);
+        }
+        try {
+            switch (request.getOpcode()) {
+                case OP_USE:
+                    return useBalance(request);
+                case OP_CANCEL:
+                    return cancelBalance(request);
+                default:
+                    return BinaryResponse.ok(correlationId,
+                            transactionService.getTransactionByTransactionId(
+                                    request.getTransactionId()));
+            }
+        } catch (AccountException e) {
+            return BinaryResponse.error(correlationId, e.getErrorCode());
+        } catch (Exception e) {
+            log.error("Binary request failed.", e);
+            return BinaryResponse.error(correlationId, INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private BinaryResponse useBalance(BinaryRequest request) {
+        lock(request.getAccountNumber());
+        try {
+            return BinaryResponse.ok(request.getCorrelationId(),
+                    balanceEngine.useBalance(
+                            request.getUserId(),
+                            request.getAccountNumber(),
+                            request.getAmount()));
+        } catch (AccountException e) {
+            transactionService.saveFailedUseTransaction(
+                    request.getAccountNumber(), request.getAmount());
+            throw e;
+        } finally {
+            unlock(request.getAccountNumber());
+        }
+    }
+
+    private BinaryResponse cancelBalance(BinaryRequest request) {
+        lock(request.getAccountNumber());
+        try {
+            return BinaryResponse.ok(request.getCorrelationId(),
+                    balanceEngine.cancelBalance(
+                            request.getTransactionId(),
+                            request.getAccountNumber(),
+                            request.getAmount()));
+        } catch (AccountException e) {
+            transactionService.saveFailedCancelTransaction(
+                    request.getAccountNumber(), request.getAmount());
+            throw e;
+        } finally {
+            unlock(request.getAccountNumber());
+        }
+    }
+
+    private void lock(String accountNumber) {
+        if (!lockFree) {
+            lockService.lock(accountNumber);
+        }
+    }
+
+    private void unlock(String accountNumber) {
+        if (!lockFree) {
+            lockService.unlock(accountNumber);
+        }
+    }
+
+    private boolean isValid(BinaryRequest request) {
+        switch (request.getOpcode()) {
+            case OP_USE:
+                return request.getUserId() >= 1
+                        && isAccountNumber(request.getAccountNumber())
+                        && isAmount(request.getAmount());
+            case OP_CANCEL:
+                return hasText(request.getTransactionId())
+                        && isAccountNumber(request.getAccountNumber())
+                        && isAmount(request.getAmount());
+            case OP_GET:
+                return hasText(request.getTransactionId());
+            default:
+                return false;
+        }
+    }
+
+    private boolean isAccountNumber(String accountNumber) {
+        return accountNumber != null && accountNumber.length() == 10;
+    }
+
+    private boolean isAmount(long amount) {
+        return amount >= MIN_AMOUNT && amount <= MAX_AMOUNT;
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.account.binary;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 내부 결제 게이트웨이용 TCP 서버
+ * 연결은 유지되고, 클라이언트는 응답을 기다리지 않고 요청을 이어 보낼 수 있다(pipelining).
+ * 한 연결의 요청은 순서대로 처리되며, 더 읽을 요청이 없을 때만 flush 해 응답을 묶어 보낸다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "binary.server.enabled", havingValue = "true")
+public class BinaryBalanceServer implements SmartLifecycle {
+    private final BinaryBalanceHandler binaryBalanceHandler;
+
+    @Value("${binary.server.port}")
+    private int port;
+
+    @Value("${binary.server.max-connections}")
+    private int maxConnections;
+
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+    private ExecutorService connectionExecutor;
+
+    @Override
+    public void start() {
+        try {
+            serverSocket = new ServerSocket(port);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open binary server port " + port, e);
+        }
+        connectionExecutor = new ThreadPoolExecutor(1, maxConnections,
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> new Thread(runnable, "binary-connection"),
+                new ThreadPoolExecutor.AbortPolicy());
+        running = true;
+
+        Thread acceptor = new Thread(this::acceptLoop, "binary-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Binary balance server listening on port {}", port);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.warn("Failed to close binary server socket", e);
+        }
+        connectionExecutor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                try {
+                    connectionExecutor.execute(() -> serve(socket));
+                } catch (RuntimeException e) {
+                    log.warn("Too many binary connections. Closing {}", socket.getRemoteSocketAddress());
+                    socket.close();
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.error("Binary server accept failed", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            s.setTcpNoDelay(true);
+            BinaryRequest request;
+            while ((request = BinaryProtocol.readRequest(in)) != null) {
+                BinaryProtocol.writeResponse(out, binaryBalanceHandler.handle(request));
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (SocketException e) {
+            log.debug("Binary connection closed : {}", e.getMessage());
+        } catch (IOException e) {
+            log.warn("Binary connection failed", e);
+        }
+    }
+}
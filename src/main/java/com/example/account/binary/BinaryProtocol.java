@@ -0,0 +1,265 @@
+package com.example.account.binary;
+
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 잔액 사용/취소/조회용 바이너리 프로토콜
+ * 프레임 = [int 길이][byte opcode 또는 status][long correlationId][본문]
+ * 문자열은 [byte 길이][US-ASCII] 로 쓴다.
+ *
+ * 요청 본문
+ * - USE    : long userId, string accountNumber, long amount
+ * - CANCEL : string transactionId, string accountNumber, long amount
+ * - GET    : string transactionId
+ *
+ * 응답 본문
+ * - OK     : byte transactionType, byte transactionResultType, string accountNumber,
+ *            long amount, long balanceSnapshot, string transactionId, long transactedAt(epoch millis)
+ * - ERROR  : short errorCode
+ *
+ * 열거형은 ordinal 이 아니라 각 열거형의 고정 번호(code)로 싣는다.
+ * 프레임은 길이만큼 먼저 읽은 뒤 해석하고, 본문이 모자라거나 남으면 잘못된 프레임으로 본다.
+ */
+public final class BinaryProtocol {
+    public static final byte OP_USE = 1;
+    public static final byte OP_CANCEL = 2;
+    public static final byte OP_GET = 3;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ERROR = 1;
+
+    public static final int MAX_FRAME_LENGTH = 1024;
+
+    private static final int HEADER_LENGTH = 1 + 8;
+    private static final Map<Integer, ErrorCode> ERROR_CODES =
+            byCode(ErrorCode.values(), ErrorCode::getCode);
+    private static final Map<Integer, TransactionType> TRANSACTION_TYPES =
+            byCode(TransactionType.values(), TransactionType::getCode);
+    private static final Map<Integer, TransactionResultType> RESULT_TYPES =
+            byCode(TransactionResultType.values(), TransactionResultType::getCode);
+
+    private BinaryProtocol() {
+    }
+
+    public static void writeRequest(DataOutputStream out, BinaryRequest request) throws IOException {
+        byte[] accountNumber = ascii(request.getAccountNumber());
+        byte[] transactionId = ascii(request.getTransactionId());
+        switch (request.getOpcode()) {
+            case OP_USE:
+                out.writeInt(HEADER_LENGTH + 8 + 1 + accountNumber.length + 8);
+                writeHeader(out, request.getOpcode(), request.getCorrelationId());
+                out.writeLong(request.getUserId());
+                writeString(out, accountNumber);
+                out.writeLong(request.getAmount());
+                break;
+            case OP_CANCEL:
+                out.writeInt(HEADER_LENGTH + 1 + transactionId.length + 1 + accountNumber.length + 8);
+                writeHeader(out, request.getOpcode(), request.getCorrelationId());
+                writeString(out, transactionId);
+                writeString(out, accountNumber);
+                out.writeLong(request.getAmount());
+                break;
+            case OP_GET:
+                out.writeInt(HEADER_LENGTH + 1 + transactionId.length);
+                writeHeader(out, request.getOpcode(), request.getCorrelationId());
+                writeString(out, transactionId);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown opcode " + request.getOpcode());
+        }
+    }
+
+    /**
+     * @return 연결이 정상 종료되었으면 null
+     */
+    public static BinaryRequest readRequest(DataInputStream in) throws IOException {
+        DataInputStream frame = readFrame(in);
+        if (frame == null) {
+            return null;
+        }
+        BinaryRequest request;
+        try {
+            request = parseRequest(frame);
+        } catch (EOFException e) {
+            throw new IOException("Truncated request frame", e);
+        }
+        requireConsumed(frame);
+        return request;
+    }
+
+    private static BinaryRequest parseRequest(DataInputStream in) throws IOException {
+        byte opcode = in.readByte();
+        long correlationId = in.readLong();
+        BinaryRequest.BinaryRequestBuilder builder = BinaryRequest.builder()
+                .opcode(opcode)
+                .correlationId(correlationId);
+        switch (opcode) {
+            case OP_USE:
+                return builder.userId(in.readLong())
+                        .accountNumber(readString(in))
+                        .amount(in.readLong())
+                        .build();
+            case OP_CANCEL:
+                return builder.transactionId(readString(in))
+                        .accountNumber(readString(in))
+                        .amount(in.readLong())
+                        .build();
+            case OP_GET:
+                return builder.transactionId(readString(in))
+                        .build();
+            default:
+                throw new IOException("Unknown opcode " + opcode);
+        }
+    }
+
+    public static void writeResponse(DataOutputStream out, BinaryResponse response) throws IOException {
+        if (response.getStatus() == STATUS_ERROR) {
+            out.writeInt(HEADER_LENGTH + 2);
+            writeHeader(out, STATUS_ERROR, response.getCorrelationId());
+            out.writeShort(response.getErrorCode().getCode());
+            return;
+        }
+
+        byte[] accountNumber = ascii(response.getAccountNumber());
+        byte[] transactionId = ascii(response.getTransactionId());
+        out.writeInt(HEADER_LENGTH + 1 + 1 + 1 + accountNumber.length + 8 + 8
+                + 1 + transactionId.length + 8);
+        writeHeader(out, STATUS_OK, response.getCorrelationId());
+        out.writeByte(response.getTransactionType().getCode());
+        out.writeByte(response.getTransactionResultType().getCode());
+        writeString(out, accountNumber);
+        out.writeLong(response.getAmount());
+        out.writeLong(response.getBalanceSnapshot());
+        writeString(out, transactionId);
+        out.writeLong(response.getTransactedAt()
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    public static BinaryResponse readResponse(DataInputStream in) throws IOException {
+        DataInputStream frame = readFrame(in);
+        if (frame == null) {
+            return null;
+        }
+        BinaryResponse response;
+        try {
+            response = parseResponse(frame);
+        } catch (EOFException e) {
+            throw new IOException("Truncated response frame", e);
+        }
+        requireConsumed(frame);
+        return response;
+    }
+
+    private static BinaryResponse parseResponse(DataInputStream in) throws IOException {
+        byte status = in.readByte();
+        long correlationId = in.readLong();
+        if (status == STATUS_ERROR) {
+            return BinaryResponse.error(correlationId, decode(ERROR_CODES, in.readShort()));
+        }
+        if (status != STATUS_OK) {
+            throw new IOException("Unknown status " + status);
+        }
+        return BinaryResponse.builder()
+                .status(status)
+                .correlationId(correlationId)
+                .transactionType(decode(TRANSACTION_TYPES, in.readByte()))
+                .transactionResultType(decode(RESULT_TYPES, in.readByte()))
+                .accountNumber(readString(in))
+                .amount(in.readLong())
+                .balanceSnapshot(in.readLong())
+                .transactionId(readString(in))
+                .transactedAt(LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault()))
+                .build();
+    }
+
+    /**
+     * 길이만큼 프레임을 읽어 둔다. 연결이 정상 종료되었으면 null
+     */
+    private static DataInputStream readFrame(DataInputStream in) throws IOException {
+        Integer length = readFrameLength(in);
+        if (length == null) {
+            return null;
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return new DataInputStream(new ByteArrayInputStream(frame));
+    }
+
+    private static void requireConsumed(DataInputStream frame) throws IOException {
+        int remaining = frame.available();
+        if (remaining > 0) {
+            throw new IOException(remaining + " unexpected bytes left in frame");
+        }
+    }
+
+    private static <T> T decode(Map<Integer, T> values, int code) throws IOException {
+        T value = values.get(code);
+        if (value == null) {
+            throw new IOException("Unknown code " + code);
+        }
+        return value;
+    }
+
+    private static <T> Map<Integer, T> byCode(T[] values, Function<T, Integer> code) {
+        return Arrays.stream(values)
+                .collect(Collectors.toMap(code, Function.identity()));
+    }
+
+    private static Integer readFrameLength(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < HEADER_LENGTH || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        return length;
+    }
+
+    private static void writeHeader(DataOutputStream out, byte type, long correlationId)
+            throws IOException {
+        out.writeByte(type);
+        out.writeLong(correlationId);
+    }
+
+    private static void writeString(DataOutputStream out, byte[] value) throws IOException {
+        out.writeByte(value.length);
+        out.write(value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] value = new byte[in.readUnsignedByte()];
+        in.readFully(value);
+        return new String(value, StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] ascii(String value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length > 255) {
+            throw new IllegalArgumentException("String too long for binary frame");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.account.binary;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BinaryRequest {
+    private byte opcode;
+    private long correlationId;
+    private long userId;
+    private String accountNumber;
+    private String transactionId;
+    private long amount;
+}
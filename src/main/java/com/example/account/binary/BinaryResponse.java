@@ -0,0 +1,48 @@
+package com.example.account.binary;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BinaryResponse {
+    private byte status;
+    private long correlationId;
+    private ErrorCode errorCode;
+    private TransactionType transactionType;
+    private TransactionResultType transactionResultType;
+    private String accountNumber;
+    private long amount;
+    private long balanceSnapshot;
+    private String transactionId;
+    private LocalDateTime transactedAt;
+
+    public static BinaryResponse ok(long correlationId, TransactionDto transactionDto) {
+        return BinaryResponse.builder()
+                .status(BinaryProtocol.STATUS_OK)
+                .correlationId(correlationId)
+                .transactionType(transactionDto.getTransactionType())
+                .transactionResultType(transactionDto.getTransactionResultType())
+                .accountNumber(transactionDto.getAccountNumber())
+                .amount(transactionDto.getAmount())
+                .balanceSnapshot(transactionDto.getBalanceSnapshot())
+                .transactionId(transactionDto.getTransactionId())
+                .transactedAt(transactionDto.getTransactedAt())
+                .build();
+    }
+
+    public static BinaryResponse error(long correlationId, ErrorCode errorCode) {
+        return BinaryResponse.builder()
+                .status(BinaryProtocol.STATUS_ERROR)
+                .correlationId(correlationId)
+                .errorCode(errorCode)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.account.bulkhead;
+
+import com.example.account.config.BulkheadProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 동시 처리 수를 제한하는 격벽
+ * 자리가 없으면 maxWaiting 개까지만 maxWaitMs 동안 기다리게 하고, 나머지는 바로 거절한다.
+ */
+public class Bulkhead {
+    private final Semaphore permits;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final Counter rejected;
+    private final Timer waitTimer;
+
+    public Bulkhead(String name, BulkheadProperties.Pool config) {
+        this.permits = new Semaphore(config.getMaxConcurrent());
+        this.maxWaiting = config.getMaxWaiting();
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMs());
+        this.rejected = Metrics.counter("account.bulkhead.rejected", "name", name);
+        this.waitTimer = Metrics.timer("account.bulkhead.wait", "name", name);
+        Metrics.gauge("account.bulkhead.active", Tags.of("name", name), active);
+        Metrics.gauge("account.bulkhead.waiting", Tags.of("name", name), waiting);
+    }
+
+    /**
+     * 자리를 얻으면 true. true 면 반드시 exit 해야 한다.
+     */
+    public boolean tryEnter() throws InterruptedException {
+        if (!permits.tryAcquire()) {
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                rejected.increment();
+                return false;
+            }
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } finally {
+                waiting.decrementAndGet();
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (!acquired) {
+                rejected.increment();
+                return false;
+            }
+        }
+        active.incrementAndGet();
+        return true;
+    }
+
+    public void exit() {
+        active.decrementAndGet();
+        permits.release();
+    }
+
+    int getActive() {
+        return active.get();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.account.bulkhead;
+
+import com.example.account.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static com.example.account.type.ErrorCode.SERVER_BUSY;
+
+/**
+ * 쓰기(락을 기다리는 POST/DELETE)와 읽기(GET) 요청을 서로 다른 격벽에 나눠 담는다.
+ * 쓰기가 몰려 격벽이 차도 읽기는 자기 몫의 작업 스레드로 처리된다.
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+    private final Bulkhead writeBulkhead;
+    private final Bulkhead readBulkhead;
+    private final ObjectMapper objectMapper;
+
+    public BulkheadFilter(Bulkhead writeBulkhead, Bulkhead readBulkhead, ObjectMapper objectMapper) {
+        this.writeBulkhead = writeBulkhead;
+        this.readBulkhead = readBulkhead;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Bulkhead bulkhead = isRead(request) ? readBulkhead : writeBulkhead;
+        boolean entered;
+        try {
+            entered = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.exit();
+        }
+    }
+
+    private boolean isRead(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(SERVER_BUSY, SERVER_BUSY.getDescription()));
+    }
+}
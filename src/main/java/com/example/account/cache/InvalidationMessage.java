@@ -0,0 +1,29 @@
+package com.example.account.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 로컬 캐시 무효화 메시지
+ * 한 노드가 한 주기 동안 모은 키를 한 번에 보낸다. 보낸 노드는 자기 메시지를 무시한다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationMessage {
+    private String origin;
+    private List<Entry> entries;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String cache;
+        private String key;
+        //커밋된 값의 버전. 이 버전보다 오래된 로컬 값만 지운다.
+        private long version;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.account.cache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 버전이 붙은 노드 로컬 캐시
+ * 값은 버전과 함께 넣고, 무효화는 메시지 버전보다 오래된 값만 지운다.
+ * 늦게 도착한 오래된 메시지는 더 새로운 값을 지우지 못하고,
+ * 무효화보다 늦게 끝난 오래된 조회 결과는 남겨둔 무효화 버전보다 낮아서 들어가지 못한다.
+ * 무효화 메시지는 유실될 수 있으므로 값과 흔적은 넣은 지 ttlMs 가 지나면 버린다.
+ * 크기를 넘으면 임의의 항목을 버린다.
+ */
+public class NearCache<V> implements NearCacheInvalidationListener {
+    //버전이 없는 변경용. 값을 지우고 흔적이 만료될 때까지 어떤 버전도 넣지 않는다.
+    public static final long ANY_VERSION = Long.MAX_VALUE;
+
+    private final int maxSize;
+    private final long ttlMs;
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    public NearCache(String name, int maxSize, long ttlMs, NearCacheInvalidationBus invalidationBus) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        invalidationBus.register(name, this);
+    }
+
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * 가지고 있는 값이나 무효화 흔적보다 새 버전일 때만 넣는다.
+     */
+    public void put(String key, V value, long version) {
+        long now = System.currentTimeMillis();
+        entries.compute(key, (k, current) -> {
+            if (current == null || current.isExpired(now)
+                    || (current.value == null ? version >= current.version : version > current.version)) {
+                return new Entry<>(value, version, now + ttlMs);
+            }
+            return current;
+        });
+        evictIfFull();
+    }
+
+    @Override
+    public void invalidate(String key, long version) {
+        long now = System.currentTimeMillis();
+        entries.compute(key, (k, current) -> {
+            if (current != null && !current.isExpired(now) && current.version >= version
+                    && version != ANY_VERSION) {
+                return current;
+            }
+            //같은 버전 값은 다시 넣을 수 있도록 흔적만 남긴다.
+            //버전이 없으면 먼저 시작한 조회가 옛 값을 넣지 못하도록 흔적이 만료될 때까지 막는다.
+            return new Entry<>(null, version, now + ttlMs);
+        });
+        evictIfFull();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long version;
+        private final long expiresAt;
+
+        private Entry(V value, long version, long expiresAt) {
+            this.value = value;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
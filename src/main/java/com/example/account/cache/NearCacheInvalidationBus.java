@@ -0,0 +1,249 @@
+package com.example.account.cache;
+
+import com.example.account.domain.Account;
+import com.example.account.event.AccountChangedEvent;
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 노드 간 로컬 캐시 무효화 버스 (Redis pub/sub)
+ * 커밋된 변경의 키를 바로 이 노드의 캐시에서 지우고, 다른 노드에 보낼 키는 모아둔다.
+ * 같은 키가 한 주기 안에 여러 번 바뀌면 가장 높은 버전 하나로 합쳐서 주기마다 한 메시지로 보낸다.
+ * 받은 노드는 메시지 버전보다 오래된 값만 지우므로(NearCache) 순서가 뒤바뀐 메시지는 무시된다.
+ * 보내지 못한 키는 다음 주기에 다시 보낸다.
+ * pub/sub 은 전달을 보장하지 않으므로 로컬 캐시는 짧은 수명을 같이 둔다(NearCache ttlMs).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NearCacheInvalidationBus implements SmartLifecycle {
+    public static final String ACCOUNT_CACHE = "account";
+    public static final String ACCOUNT_USER_CACHE = "account-user";
+
+    private static final Counter PUBLISHED = Metrics.counter("account.cache.invalidation.published");
+    private static final Counter RECEIVED = Metrics.counter("account.cache.invalidation.received");
+    private static final Counter FAILURES = Metrics.counter("account.cache.invalidation.failures");
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cache.invalidation.enabled}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation.topic}")
+    private String topicName;
+
+    @Value("${cache.invalidation.interval-ms}")
+    private long intervalMs;
+
+    @Value("${cache.invalidation.max-batch}")
+    private int maxBatch;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<NearCacheInvalidationListener>> listeners = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CacheKey, Long> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private RTopic topic;
+    private int listenerId;
+    private ScheduledExecutorService publisher;
+
+    public void register(String cacheName, NearCacheInvalidationListener listener) {
+        listeners.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>())
+                .add(listener);
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에, 밖이면 바로 무효화한다. 롤백되면 아무것도 보내지 않는다.
+     */
+    public void invalidate(String cacheName, String key, long version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(cacheName, key, version);
+                }
+            });
+            return;
+        }
+        invalidateNow(cacheName, key, version);
+    }
+
+    @TransactionalEventListener
+    public void onAccountChanged(AccountChangedEvent event) {
+        Account account = event.getAccount();
+        long version = account.getVersion() == null ? NearCache.ANY_VERSION : account.getVersion();
+        invalidateNow(ACCOUNT_CACHE, account.getAccountNumber(), version);
+        //사용자 캐시는 계좌 수 같은 값이 버전 없이 바뀌므로 무조건 지운다.
+        invalidateNow(ACCOUNT_USER_CACHE, String.valueOf(event.getUserId()), NearCache.ANY_VERSION);
+    }
+
+    @TransactionalEventListener
+    public void onAccountsBulkChanged(AccountsBulkChangedEvent event) {
+        Map<String, Long> versions = new HashMap<>();
+        for (AccountsBulkChangedEvent.Balance balance : event.getBalances()) {
+            versions.put(balance.getAccountNumber(), balance.getVersion());
+        }
+        for (String accountNumber : event.getAccountNumbers()) {
+            invalidateNow(ACCOUNT_CACHE, accountNumber,
+                    versions.getOrDefault(accountNumber, NearCache.ANY_VERSION));
+        }
+        for (Long userId : event.getUserIds()) {
+            invalidateNow(ACCOUNT_USER_CACHE, String.valueOf(userId), NearCache.ANY_VERSION);
+        }
+    }
+
+    private void invalidateNow(String cacheName, String key, long version) {
+        dispatch(cacheName, key, version);
+        if (enabled) {
+            pending.merge(new CacheKey(cacheName, key), version, Math::max);
+        }
+    }
+
+    /**
+     * 모아둔 키를 maxBatch 개씩 나눠서 보낸다. 보내지 못한 키는 다시 모아둔다.
+     */
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<InvalidationMessage.Entry> failed = new ArrayList<>();
+        List<InvalidationMessage.Entry> entries = new ArrayList<>();
+        for (CacheKey cacheKey : pending.keySet()) {
+            Long version = pending.remove(cacheKey);
+            if (version == null) {
+                continue;
+            }
+            entries.add(new InvalidationMessage.Entry(cacheKey.cache, cacheKey.key, version));
+            if (entries.size() == maxBatch) {
+                publish(entries, failed);
+                entries = new ArrayList<>();
+            }
+        }
+        if (!entries.isEmpty()) {
+            publish(entries, failed);
+        }
+        for (InvalidationMessage.Entry entry : failed) {
+            pending.merge(new CacheKey(entry.getCache(), entry.getKey()), entry.getVersion(), Math::max);
+        }
+    }
+
+    private void publish(List<InvalidationMessage.Entry> entries, List<InvalidationMessage.Entry> failed) {
+        try {
+            topic.publish(objectMapper.writeValueAsString(new InvalidationMessage(nodeId, entries)));
+            PUBLISHED.increment(entries.size());
+        } catch (Exception e) {
+            FAILURES.increment();
+            log.error("Failed to publish {} cache invalidations. Will retry.", entries.size(), e);
+            failed.addAll(entries);
+        }
+    }
+
+    void onMessage(String payload) {
+        InvalidationMessage message;
+        try {
+            message = objectMapper.readValue(payload, InvalidationMessage.class);
+        } catch (Exception e) {
+            FAILURES.increment();
+            log.error("Malformed cache invalidation message", e);
+            return;
+        }
+        if (nodeId.equals(message.getOrigin())) {
+            return;
+        }
+        RECEIVED.increment(message.getEntries().size());
+        for (InvalidationMessage.Entry entry : message.getEntries()) {
+            dispatch(entry.getCache(), entry.getKey(), entry.getVersion());
+        }
+    }
+
+    private void dispatch(String cacheName, String key, long version) {
+        for (NearCacheInvalidationListener listener
+                : listeners.getOrDefault(cacheName, List.of())) {
+            listener.invalidate(key, version);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        topic = redissonClient.getTopic(topicName, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, payload) -> onMessage(payload));
+
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "near-cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        running = true;
+        log.info("Near cache invalidation bus started. topic={}, node={}", topicName, nodeId);
+    }
+
+    /**
+     * 남은 키를 보내고 구독을 끊는다.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        publisher.shutdown();
+        try {
+            publisher.awaitTermination(intervalMs * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        topic.removeListener(listenerId);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 웹 서버보다 먼저 시작하고 나중에 멈춘다.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2;
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class CacheKey {
+        private final String cache;
+        private final String key;
+    }
+}
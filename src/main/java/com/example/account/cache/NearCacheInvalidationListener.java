@@ -0,0 +1,9 @@
+package com.example.account.cache;
+
+/**
+ * 캐시 이름 단위로 무효화 버스에 등록하는 로컬 캐시
+ */
+@FunctionalInterface
+public interface NearCacheInvalidationListener {
+    void invalidate(String key, long version);
+}
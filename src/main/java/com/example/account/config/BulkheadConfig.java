@@ -0,0 +1,32 @@
+package com.example.account.config;
+
+import com.example.account.bulkhead.Bulkhead;
+import com.example.account.bulkhead.BulkheadFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+@ConditionalOnProperty(name = "bulkhead.enabled", havingValue = "true")
+public class BulkheadConfig {
+
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(
+            BulkheadProperties bulkheadProperties,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<BulkheadFilter> registration = new FilterRegistrationBean<>(
+                new BulkheadFilter(
+                        new Bulkhead("write", bulkheadProperties.getWrite()),
+                        new Bulkhead("read", bulkheadProperties.getRead()),
+                        objectMapper));
+        registration.addUrlPatterns("/transaction/*", "/account", "/account/*");
+        //한도 초과로 거절될 요청이 격벽 자리를 차지하지 않도록 요청 한도 필터 다음에 둔다.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
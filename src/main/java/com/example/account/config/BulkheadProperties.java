@@ -0,0 +1,27 @@
+package com.example.account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 쓰기/읽기 API 격벽
+ * 종류별로 동시에 처리하는 요청 수(maxConcurrent)와 자리를 기다리는 요청 수(maxWaiting)를 따로 제한한다.
+ * 두 종류의 합이 Tomcat 작업 스레드 수보다 작아야 쓰기가 몰려도 읽기 몫의 스레드가 남는다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+    private boolean enabled = true;
+    private Pool write = new Pool();
+    private Pool read = new Pool();
+
+    @Getter
+    @Setter
+    public static class Pool {
+        private int maxConcurrent = 64;
+        private int maxWaiting = 16;
+        private long maxWaitMs = 100;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.account.config;
+
+import com.example.account.jdbc.QueryCountFilter;
+import com.example.account.jdbc.QueryCountingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class JdbcInstrumentationConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor(
+            @Value("${jdbc.slow-query-threshold-ms}") long slowQueryThresholdMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource((DataSource) bean, slowQueryThresholdMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(
+            @Value("${jdbc.query-count-warn-threshold}") long queryCountWarnThreshold) {
+        FilterRegistrationBean<QueryCountFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(queryCountWarnThreshold));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
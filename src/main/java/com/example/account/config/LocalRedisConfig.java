@@ -1,29 +1,72 @@
 package com.example.account.config;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import redis.embedded.RedisServer;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * local 프로필 전용 내장 Redis
+ * 컨텍스트 기동을 막지 않도록 별도 스레드에서 띄우고, RedissonClient 생성 직전에만 기다린다.
+ * 이미 해당 포트에서 Redis 가 떠 있으면 그대로 사용한다.
+ */
+@Slf4j
 @Configuration
+@Profile("local")
 public class LocalRedisConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
 
     private RedisServer redisServer;
+    private CompletableFuture<Void> started;
 
     @PostConstruct
     public void startRedis() {
-        redisServer = new RedisServer(redisPort);
-        redisServer.start();
+        started = CompletableFuture.runAsync(this::doStartRedis, runnable -> {
+            Thread thread = new Thread(runnable, "embedded-redis-starter");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    public void awaitStarted() {
+        started.join();
     }
 
     @PreDestroy
     public void stopRedis() {
+        if (started != null) {
+            started.exceptionally(e -> null).join();
+        }
         if (redisServer != null) {
             redisServer.stop();
         }
     }
+
+    private void doStartRedis() {
+        if (isPortInUse(redisPort)) {
+            log.info("Redis is already listening on port {}. Skip embedded redis.", redisPort);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        log.info("Embedded redis started on port {} in {} ms",
+                redisPort, System.currentTimeMillis() - start);
+    }
+
+    private boolean isPortInUse(int port) {
+        try (ServerSocket ignored = new ServerSocket(port)) {
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package com.example.account.config;
+
+import com.example.account.ratelimit.RateLimitFilter;
+import com.example.account.ratelimit.RequestRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public RequestRateLimiter requestRateLimiter(RedissonClient redissonClient,
+                                                 RateLimitProperties rateLimitProperties) {
+        return new RequestRateLimiter(redissonClient, rateLimitProperties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            RequestRateLimiter requestRateLimiter,
+            RateLimitProperties rateLimitProperties,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(requestRateLimiter, rateLimitProperties, objectMapper));
+        registration.addUrlPatterns("/transaction/*", "/account", "/account/*");
+        //한도 초과 요청은 다른 필터보다 먼저 거른다.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
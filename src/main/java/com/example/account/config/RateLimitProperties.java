@@ -0,0 +1,24 @@
+package com.example.account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 거래/조회 API 요청 한도
+ * windowMs 마다 사용자, 계좌, 클라이언트 주소별로 허용하는 요청 수.
+ * 노드는 Redis 카운터에서 한도의 leasePercent 만큼씩 토큰을 받아 로컬에서 나눠 쓴다.
+ * 한도가 작아도 요청마다 Redis 에 가지 않도록 묶음은 minLease 보다 작게 받지 않는다(한도 이내).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private long windowMs = 1000;
+    private int leasePercent = 10;
+    private int minLease = 5;
+    private int userLimit = 20;
+    private int accountLimit = 10;
+    private int clientLimit = 50;
+}
@@ -0,0 +1,74 @@
+package com.example.account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 계좌 락 Redis 구성
+ * - SINGLE  : spring.redis 단일 서버
+ * - REPLICA : spring.redis 를 master 로, replicas 를 replica 로 사용
+ * - QUORUM  : 서로 독립된 nodes 에 Redlock. 키마다 consistent hashing 으로 nodesPerKey 개 노드를 골라 과반을 잡는다.
+ * Redis 오류나 응답 시간 초과(timeoutMs)가 잦으면 circuitBreaker 기준으로 서킷을 열고 fallback 방식으로 동작한다.
+ * admission 은 Redis 에 가기 전에 키별 대기 수와 노드 동시 처리 수로 요청을 거른다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "redis.lock")
+public class RedisLockProperties {
+    private Mode mode = Mode.SINGLE;
+    private List<String> replicas = new ArrayList<>();
+    private List<String> nodes = new ArrayList<>();
+    //노드 3개 과반으로 한 노드 장애를 견딘다. 노드가 이보다 많아야 키가 분산된다.
+    private int nodesPerKey = 3;
+    private int virtualNodes = 160;
+    private int timeoutMs = 1000;
+    private Fallback fallback = Fallback.LOCAL;
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Admission admission = new Admission();
+
+    public enum Mode {
+        SINGLE, REPLICA, QUORUM
+    }
+
+    /**
+     * 서킷이 열렸을 때 동작
+     * - LOCAL  : 노드 로컬 락 + DB 행 락
+     * - REJECT : 즉시 거절
+     */
+    public enum Fallback {
+        LOCAL, REJECT
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        private int windowSize = 100;
+        private int minimumCalls = 20;
+        private int failureRateThreshold = 50;
+        private long openDurationMs = 5000;
+        private int halfOpenCalls = 5;
+    }
+
+    /**
+     * 락 입장 제어
+     * - maxPerKey : 키 하나에 처리 중 + 대기 중으로 둘 수 있는 요청 수
+     * - limit     : 노드 동시 처리 수. 락 구간 처리 시간이 targetLatencyMs 이하면 조금씩 늘리고
+     *               넘으면 backoffRatio 를 곱해 줄인다.
+     */
+    @Getter
+    @Setter
+    public static class Admission {
+        private boolean enabled = true;
+        private int maxPerKey = 4;
+        private int initialLimit = 64;
+        private int minLimit = 8;
+        private int maxLimit = 256;
+        private long targetLatencyMs = 200;
+        private double backoffRatio = 0.9;
+        private long retryAfterMs = 1000;
+    }
+}
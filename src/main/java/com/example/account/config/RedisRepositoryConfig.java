@@ -1,13 +1,23 @@
 package com.example.account.config;
 
+import com.example.account.service.LocalLockStripes;
+import com.example.account.service.LockAdmissionControl;
+import com.example.account.service.LockCircuitBreaker;
+import com.example.account.service.RedisLockRouter;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
+@EnableConfigurationProperties(RedisLockProperties.class)
 public class RedisRepositoryConfig {
     @Value("${spring.redis.host}")
     private String redisHost;
@@ -16,10 +26,63 @@ public class RedisRepositoryConfig {
     private int redisPort;
 
     @Bean
-    public RedissonClient redissonClient() {
+    public RedissonClient redissonClient(ObjectProvider<LocalRedisConfig> localRedisConfig,
+                                         RedisLockProperties redisLockProperties) {
+        //local 프로필이면 내장 Redis 기동 완료까지만 대기
+        localRedisConfig.ifAvailable(LocalRedisConfig::awaitStarted);
+
         Config config = new Config();
-        config.useSingleServer().setAddress("redis://" + redisHost + ":" + redisPort);
+        if (redisLockProperties.getMode() == RedisLockProperties.Mode.REPLICA) {
+            config.useMasterSlaveServers()
+                    .setTimeout(redisLockProperties.getTimeoutMs())
+                    .setMasterAddress(getAddress())
+                    .addSlaveAddress(redisLockProperties.getReplicas().toArray(new String[0]));
+        } else {
+            config.useSingleServer()
+                    .setTimeout(redisLockProperties.getTimeoutMs())
+                    .setAddress(getAddress());
+        }
 
         return Redisson.create(config);
     }
+
+    @Bean(destroyMethod = "shutdown")
+    public RedisLockRouter redisLockRouter(RedissonClient redissonClient,
+                                           RedisLockProperties redisLockProperties) {
+        if (redisLockProperties.getMode() != RedisLockProperties.Mode.QUORUM) {
+            return RedisLockRouter.single(redissonClient);
+        }
+
+        List<RedissonClient> nodes = new ArrayList<>();
+        for (String address : redisLockProperties.getNodes()) {
+            Config config = new Config();
+            config.useSingleServer()
+                    .setTimeout(redisLockProperties.getTimeoutMs())
+                    .setAddress(address);
+            nodes.add(Redisson.create(config));
+        }
+        return new RedisLockRouter(nodes, redisLockProperties.getNodes(),
+                redisLockProperties.getNodesPerKey(),
+                redisLockProperties.getVirtualNodes(),
+                true);
+    }
+
+    @Bean
+    public LockCircuitBreaker lockCircuitBreaker(RedisLockProperties redisLockProperties) {
+        return new LockCircuitBreaker(redisLockProperties.getCircuitBreaker());
+    }
+
+    @Bean
+    public LockAdmissionControl lockAdmissionControl(RedisLockProperties redisLockProperties) {
+        return new LockAdmissionControl(redisLockProperties.getAdmission());
+    }
+
+    @Bean
+    public LocalLockStripes localLockStripes() {
+        return new LocalLockStripes();
+    }
+
+    private String getAddress() {
+        return "redis://" + redisHost + ":" + redisPort;
+    }
 }
@@ -2,13 +2,21 @@ package com.example.account.controller;
 
 import com.example.account.domain.Account;
 import com.example.account.dto.AccountInfo;
+import com.example.account.dto.AccountSummary;
+import com.example.account.dto.BulkCreateAccount;
 import com.example.account.dto.CreateAccount;
 import com.example.account.dto.DeleteAccount;
+import com.example.account.service.AccountBalanceCacheService;
+import com.example.account.service.AccountBulkService;
 import com.example.account.service.AccountService;
+import com.example.account.service.AccountSummaryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,6 +24,9 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AccountController {
     private final AccountService accountService;
+    private final AccountBulkService accountBulkService;
+    private final AccountSummaryService accountSummaryService;
+    private final AccountBalanceCacheService accountBalanceCacheService;
 
     @PostMapping("/account")
     public CreateAccount.Response createAccount(
@@ -28,6 +39,15 @@ public class AccountController {
         );
     }
 
+    @PostMapping(value = "/account/bulk",
+            consumes = {BulkCreateAccount.TEXT_CSV, BulkCreateAccount.APPLICATION_NDJSON})
+    public BulkCreateAccount.Response bulkCreateAccounts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        return accountBulkService.createAccounts(
+                body, BulkCreateAccount.Format.fromContentType(contentType));
+    }
+
     @DeleteMapping("/account")
     public DeleteAccount.Response deleteAccount(
             @RequestBody @Valid DeleteAccount.Request request) {
@@ -47,6 +67,18 @@ public class AccountController {
                 .collect(Collectors.toList());
     }
 
+    @GetMapping("/account/summary")
+    public AccountSummary getAccountSummary(
+            @RequestParam("user_id") Long userId) {
+        return accountSummaryService.getSummary(userId);
+    }
+
+    @GetMapping("/account/{accountNumber}/balance")
+    public AccountInfo getBalance(
+            @PathVariable String accountNumber) {
+        return accountBalanceCacheService.getBalance(accountNumber);
+    }
+
     @GetMapping("/account/{id}")
     public Account getAccount(
             @PathVariable Long id) {
@@ -0,0 +1,66 @@
+package com.example.account.controller;
+
+import com.example.account.dto.Posting;
+import com.example.account.dto.ReconciliationReport;
+import com.example.account.service.AccountSummaryService;
+import com.example.account.service.PostingService;
+import com.example.account.service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+/**
+ * 운영용 컨트롤러
+ * 1. 계좌 요약 읽기 모델 재구성
+ * 2. 원장 대사 작업 시작/재개/조회
+ * 3. 이자/수수료 일괄 반영 시작/재개/조회
+ */
+@RestController
+@RequiredArgsConstructor
+public class AdminController {
+    private final AccountSummaryService accountSummaryService;
+    private final ReconciliationService reconciliationService;
+    private final PostingService postingService;
+
+    @PostMapping("/admin/account-summary/rebuild")
+    public int rebuildAccountSummary(
+            @RequestParam(value = "user_id", required = false) Long userId) {
+        if (userId != null) {
+            accountSummaryService.rebuild(userId);
+            return 1;
+        }
+        return accountSummaryService.rebuildAll();
+    }
+
+    @PostMapping("/admin/reconciliation")
+    public ReconciliationReport startReconciliation() {
+        return reconciliationService.start();
+    }
+
+    @PostMapping("/admin/reconciliation/{runId}/resume")
+    public ReconciliationReport resumeReconciliation(@PathVariable Long runId) {
+        return reconciliationService.resume(runId);
+    }
+
+    @GetMapping("/admin/reconciliation/{runId}")
+    public ReconciliationReport getReconciliation(@PathVariable Long runId) {
+        return reconciliationService.getReport(runId);
+    }
+
+    @PostMapping("/admin/postings")
+    public Posting.Response startPosting(
+            @RequestBody @Valid Posting.Request request) {
+        return postingService.start(request);
+    }
+
+    @PostMapping("/admin/postings/{runId}/resume")
+    public Posting.Response resumePosting(@PathVariable Long runId) {
+        return postingService.resume(runId);
+    }
+
+    @GetMapping("/admin/postings/{runId}")
+    public Posting.Response getPosting(@PathVariable Long runId) {
+        return postingService.getRun(runId);
+    }
+}
@@ -5,12 +5,15 @@ import com.example.account.dto.CancelBalance;
 import com.example.account.dto.TransactionInfo;
 import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
+import com.example.account.exception.ErrorLogThrottle;
+import com.example.account.service.BalanceEngine;
 import com.example.account.service.TransactionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.time.Duration;
 
 /**
  * 잔액 관련 컨트롤러
@@ -22,22 +25,25 @@ import javax.validation.Valid;
 @RestController
 @RequiredArgsConstructor
 public class TransactionController {
+    private static final ErrorLogThrottle FAILED_LOG_THROTTLE =
+            new ErrorLogThrottle(Duration.ofSeconds(1));
+
+    private final BalanceEngine balanceEngine;
     private final TransactionService transactionService;
 
     @PostMapping("/transaction/use")
     @AccountLock
     public UseBalance.Response useBalance(
             @RequestBody @Valid UseBalance.Request request
-    ) throws InterruptedException {
+    ) {
         try {
-            Thread.sleep(3000L);
-            return UseBalance.Response.from(transactionService.useBalance(
+            return UseBalance.Response.from(balanceEngine.useBalance(
                     request.getUserId(),
                     request.getAccountNumber(),
                     request.getAmount()
             ));
         } catch (AccountException e) {
-            log.error("Failed to use balance. ");
+            logFailure("use", e);
 
             transactionService.saveFailedUseTransaction(
                     request.getAccountNumber(),
@@ -53,13 +59,13 @@ public class TransactionController {
             @RequestBody @Valid CancelBalance.Request request) {
         try {
             return CancelBalance.Response.from(
-                    transactionService.cancelBalance(
+                    balanceEngine.cancelBalance(
                     request.getTransactionId(),
                     request.getAccountNumber(),
                     request.getAmount()
             ));
         } catch (AccountException e) {
-            log.error("Failed to use balance. ");
+            logFailure("cancel", e);
 
             transactionService.saveFailedCancelTransaction(
                     request.getAccountNumber(),
@@ -69,6 +75,14 @@ public class TransactionController {
         }
     }
 
+    private void logFailure(String operation, AccountException e) {
+        long suppressed = FAILED_LOG_THROTTLE.acquire(e.getErrorCode());
+        if (suppressed >= 0) {
+            log.warn("Failed to {} balance : {} ({} suppressed since last log)",
+                    operation, e.getErrorCode(), suppressed);
+        }
+    }
+
     @GetMapping("/transaction/{transactionId}")
     public TransactionInfo getTransactionByTransactionId(
             @PathVariable("transactionId") String transactionId)
@@ -9,6 +9,9 @@ import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
 @Getter
@@ -17,6 +20,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_account_account_number",
+        columnNames = "accountNumber"))
 public class Account extends BaseEntity{
     @ManyToOne
     private AccountUser accountUser;
@@ -29,6 +34,10 @@ public class Account extends BaseEntity{
     private LocalDateTime registeredAt;
     private LocalDateTime unregisteredAt;
 
+    //잔액 캐시가 오래된 값으로 덮어쓰지 않도록 비교하는 버전
+    @Version
+    private Long version;
+
     public void useBalance(Long amount) {
         if (amount > balance) {
             throw new AccountException(ErrorCode.BALANCE_IS_SMALLER_THAN_AMOUNT);
@@ -11,8 +11,10 @@ import javax.persistence.Entity;
 @Builder
 @Entity
 public class AccountUser extends BaseEntity{
-
+    public static final long MAX_ACCOUNT_COUNT = 10;
 
     private String name;
 
+    //해지되지 않은 계좌 수. 계좌 개설/해지 시 조건부 update 로만 바꾼다.
+    private long accountCount;
 }
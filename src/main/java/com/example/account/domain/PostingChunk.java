@@ -0,0 +1,28 @@
+package com.example.account.domain;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * 반영이 끝난 계좌 id 구간 [firstAccountId, lastAccountId]
+ * 청크의 잔액 변경, 거래 기록과 같은 트랜잭션에서 저장되므로 재시작 시 이 구간은 건너뛴다.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"runId", "firstAccountId"}))
+public class PostingChunk extends BaseEntity {
+    private Long runId;
+    private Long firstAccountId;
+    private Long lastAccountId;
+
+    private Long postedCount;
+    //라이브 거래와 충돌해 계좌 락을 잡고 다시 반영한 수
+    private Long retriedCount;
+}
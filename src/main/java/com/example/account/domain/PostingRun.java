@@ -0,0 +1,34 @@
+package com.example.account.domain;
+
+import com.example.account.type.PostingStatus;
+import com.example.account.type.TransactionType;
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import java.time.LocalDateTime;
+
+/**
+ * 이자/수수료 일괄 반영 작업
+ * INTEREST 는 잔액의 rateBasisPoints/10000, FEE 는 fixedAmount(잔액 한도) 를 모든 IN_USE 계좌에 반영한다.
+ * 청크별 진행은 PostingChunk 에 남긴다.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+public class PostingRun extends BaseEntity {
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+    private Long rateBasisPoints;
+    private Long fixedAmount;
+
+    @Enumerated(EnumType.STRING)
+    private PostingStatus status;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
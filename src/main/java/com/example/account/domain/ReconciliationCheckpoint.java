@@ -0,0 +1,28 @@
+package com.example.account.domain;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * 대사가 끝난 계좌 id 구간 [rangeStart, rangeEnd)
+ * 재개 시 이미 기록된 구간은 건너뛴다.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"runId", "rangeStart"}))
+public class ReconciliationCheckpoint extends BaseEntity {
+    private Long runId;
+    private Long rangeStart;
+    private Long rangeEnd;
+
+    private Long accountCount;
+    private Long transactionCount;
+    private Long mismatchCount;
+}
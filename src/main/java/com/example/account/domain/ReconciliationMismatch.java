@@ -0,0 +1,26 @@
+package com.example.account.domain;
+
+import com.example.account.type.MismatchType;
+import lombok.*;
+
+import javax.persistence.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(name = "idx_reconciliation_mismatch_run_id", columnList = "runId"))
+public class ReconciliationMismatch extends BaseEntity {
+    private Long runId;
+    private Long accountId;
+    private String accountNumber;
+    //BALANCE 불일치는 null
+    private String transactionId;
+
+    @Enumerated(EnumType.STRING)
+    private MismatchType mismatchType;
+    private Long expected;
+    private Long actual;
+}
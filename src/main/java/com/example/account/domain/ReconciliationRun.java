@@ -0,0 +1,31 @@
+package com.example.account.domain;
+
+import com.example.account.type.ReconciliationStatus;
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import java.time.LocalDateTime;
+
+/**
+ * 원장 대사 작업
+ * 계좌 id 공간을 rangeSize 단위 구간으로 나누며, 구간별 진행은 ReconciliationCheckpoint 에 남긴다.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+public class ReconciliationRun extends BaseEntity {
+    @Enumerated(EnumType.STRING)
+    private ReconciliationStatus status;
+
+    private Long rangeSize;
+    private Long maxAccountId;
+    private Long totalRanges;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,33 @@
+package com.example.account.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 보관 거래 (cold store)
+ * 취소 가능 기간이 지난 거래와 보관 기간이 지난 실패 거래를 옮겨 둔다.
+ * 조회에 필요한 키만 컬럼으로 두고, 나머지는 GZIP 압축한 JSON 으로 저장한다.
+ * id 는 원래 거래의 id 를 그대로 쓴다.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(name = "idx_transaction_archive_transaction_id",
+        columnList = "transactionId", unique = true))
+public class TransactionArchive {
+    @Id
+    private Long id;
+
+    private String transactionId;
+    private LocalDateTime transactedAt;
+
+    @Lob
+    private byte[] payload;
+
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,40 @@
+package com.example.account.dto;
+
+import com.example.account.domain.Account;
+import com.example.account.type.AccountStatus;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountSummary {
+    private Long userId;
+    private Long totalBalance;
+    private List<Item> accounts;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+        private String accountNumber;
+        private Long balance;
+        private AccountStatus accountStatus;
+        //Account.version. 읽기 모델에 늦게 도착한 이전 변경이 새 값을 덮지 않게 비교한다.
+        private Long version;
+
+        public static Item from(Account account) {
+            return Item.builder()
+                    .accountNumber(account.getAccountNumber())
+                    .balance(account.getBalance())
+                    .accountStatus(account.getAccountStatus())
+                    .version(account.getVersion() == null ? 0L : account.getVersion())
+                    .build();
+        }
+    }
+}
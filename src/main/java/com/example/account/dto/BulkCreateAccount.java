@@ -0,0 +1,62 @@
+package com.example.account.dto;
+
+import com.example.account.type.ErrorCode;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkCreateAccount {
+    public static final String TEXT_CSV = "text/csv";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format fromContentType(String contentType) {
+            if (contentType != null && contentType.startsWith(APPLICATION_NDJSON)) {
+                return NDJSON;
+            }
+            return CSV;
+        }
+    }
+
+    /**
+     * 업로드 파일의 한 줄
+     * CSV 는 user_id,initial_balance, NDJSON 은 {"userId":..,"initialBalance":..}
+     */
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Row {
+        private long line;
+        private Long userId;
+        private Long initialBalance;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private long line;
+        private ErrorCode errorCode;
+        private String errorMessage;
+
+        public static RowError of(long line, ErrorCode errorCode) {
+            return new RowError(line, errorCode, errorCode.getDescription());
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Response {
+        private long totalRows;
+        private long createdCount;
+        private long failedCount;
+        //메모리를 제한하기 위해 앞쪽 일부 행의 오류만 담는다.
+        private List<RowError> errors = new ArrayList<>();
+    }
+}
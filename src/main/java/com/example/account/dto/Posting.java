@@ -0,0 +1,46 @@
+package com.example.account.dto;
+
+import com.example.account.type.PostingStatus;
+import com.example.account.type.TransactionType;
+import lombok.*;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+public class Posting {
+
+    /**
+     * INTEREST 는 rateBasisPoints, FEE 는 amount 를 사용한다.
+     */
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Request {
+        @NotNull
+        private TransactionType transactionType;
+
+        @Min(1)
+        private Long rateBasisPoints;
+
+        @Min(1)
+        private Long amount;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private Long runId;
+        private TransactionType transactionType;
+        private PostingStatus status;
+        private long completedChunks;
+        private long postedCount;
+        private long retriedCount;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.account.dto;
+
+import com.example.account.domain.ReconciliationMismatch;
+import com.example.account.type.MismatchType;
+import com.example.account.type.ReconciliationStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationReport {
+    private Long runId;
+    private ReconciliationStatus status;
+    private long totalRanges;
+    private long completedRanges;
+    private long accountCount;
+    private long transactionCount;
+    private long mismatchCount;
+    private long rowsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<Mismatch> mismatches;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Mismatch {
+        private String accountNumber;
+        private String transactionId;
+        private MismatchType mismatchType;
+        private Long expected;
+        private Long actual;
+
+        public static Mismatch from(ReconciliationMismatch mismatch) {
+            return Mismatch.builder()
+                    .accountNumber(mismatch.getAccountNumber())
+                    .transactionId(mismatch.getTransactionId())
+                    .mismatchType(mismatch.getMismatchType())
+                    .expected(mismatch.getExpected())
+                    .actual(mismatch.getActual())
+                    .build();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.account.dto;
 
 import com.example.account.domain.Transaction;
+import com.example.account.journal.JournalRecord;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
 import lombok.*;
@@ -32,4 +33,16 @@ public class TransactionDto {
                 .transactedAt(transaction.getTransactedAt())
                 .build();
     }
+
+    public static TransactionDto fromJournal(JournalRecord record) {
+        return TransactionDto.builder()
+                .accountNumber(record.getAccountNumber())
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .amount(record.getAmount())
+                .balanceSnapshot(record.getBalanceSnapshot())
+                .transactionId(record.getTransactionId())
+                .transactedAt(record.getTransactedAt())
+                .build();
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.account.dto;
+
+import com.example.account.domain.TransactionOutbox;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionEvent {
+    private Long eventId;
+    private String accountNumber;
+    private TransactionType transactionType;
+    private TransactionResultType transactionResultType;
+    private Long amount;
+    private Long balanceSnapshot;
+    private String transactionId;
+    private LocalDateTime transactedAt;
+
+    public static TransactionEvent from(TransactionOutbox outbox) {
+        return TransactionEvent.builder()
+                .eventId(outbox.getId())
+                .accountNumber(outbox.getAccountNumber())
+                .transactionType(outbox.getTransactionType())
+                .transactionResultType(outbox.getTransactionResultType())
+                .amount(outbox.getAmount())
+                .balanceSnapshot(outbox.getBalanceSnapshot())
+                .transactionId(outbox.getTransactionId())
+                .transactedAt(outbox.getTransactedAt())
+                .build();
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.account.engine;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.ErrorCode.*;
+import static com.example.account.type.TransactionType.*;
+
+/**
+ * 계좌 일부를 소유하는 샤드
+ * 샤드의 계좌 잔액은 샤드 스레드 하나만 읽고 쓰므로 락 없이 처리한다.
+ * 계좌번호 -> 슬롯 번호는 LongIntHashMap 으로, 슬롯별 값은 기본형 배열로 들고 있다.
+ */
+@Slf4j
+class AccountShard {
+    private static final long POLL_MILLIS = 100;
+    private static final int DRAIN_SIZE = 256;
+
+    /**
+     * 샤드에 없는 계좌를 DB 에서 읽는다. IN_USE 가 아니면 AccountException.
+     */
+    interface Loader {
+        long[] load(String accountNumber);
+    }
+
+    /**
+     * 처리된 거래를 저장 단계로 넘긴다. 저장이 밀리면 막혀서 샤드 처리 속도를 늦춘다.
+     */
+    interface ChangeSink {
+        void accept(BalanceChange change) throws InterruptedException;
+    }
+
+    private final int shardId;
+    private final Loader loader;
+    private final ChangeSink changeSink;
+    private final BlockingQueue<Command> commands;
+
+    private final LongIntHashMap slots;
+    private long[] accountNumbers;
+    private long[] accountIds;
+    private long[] userIds;
+    private long[] balances;
+    //해지 중인 계좌. 해지가 끝나거나 취소될 때까지 사용/취소를 받지 않는다.
+    private boolean[] closed;
+    private int size;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    AccountShard(int shardId, int expectedAccounts, int queueCapacity,
+                 Loader loader, ChangeSink changeSink) {
+        this.shardId = shardId;
+        this.loader = loader;
+        this.changeSink = changeSink;
+        this.commands = new ArrayBlockingQueue<>(queueCapacity);
+        int capacity = Math.max(16, expectedAccounts);
+        this.slots = new LongIntHashMap(capacity);
+        this.accountNumbers = new long[capacity];
+        this.accountIds = new long[capacity];
+        this.userIds = new long[capacity];
+        this.balances = new long[capacity];
+        this.closed = new boolean[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 시작 전 초기 적재용. 샤드 스레드가 돌기 시작한 뒤에는 호출하지 않는다.
+     */
+    void load(long accountNumber, long accountId, long userId, long balance) {
+        int slot = slots.get(accountNumber);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = addSlot(accountNumber);
+        }
+        accountIds[slot] = accountId;
+        userIds[slot] = userId;
+        balances[slot] = balance;
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "balance-shard-" + shardId);
+        thread.start();
+    }
+
+    /**
+     * 이미 받은 명령은 모두 처리하고 멈춘다.
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join();
+        Command command;
+        while ((command = commands.poll()) != null) {
+            command.result.completeExceptionally(stopped());
+        }
+    }
+
+    TransactionDto use(long userId, String accountNumber, long amount) {
+        return (TransactionDto) call(new Command(Action.USE, userId, accountNumber, amount, null));
+    }
+
+    TransactionDto cancel(TransactionDto original, String accountNumber, long amount) {
+        return (TransactionDto) call(new Command(Action.CANCEL, 0, accountNumber, amount, original));
+    }
+
+    /**
+     * 사용자의 계좌면 닫는다. 없는 계좌나 다른 사용자의 계좌는 그대로 두고 false (해지 검증에서 거절된다).
+     */
+    boolean close(long userId, String accountNumber) {
+        return (Boolean) call(new Command(Action.CLOSE, userId, accountNumber, 0, null));
+    }
+
+    void reopen(String accountNumber) {
+        call(new Command(Action.REOPEN, 0, accountNumber, 0, null));
+    }
+
+    void remove(String accountNumber) {
+        call(new Command(Action.REMOVE, 0, accountNumber, 0, null));
+    }
+
+    private Object call(Command command) {
+        if (!running) {
+            throw stopped();
+        }
+        try {
+            commands.put(command);
+            //stop 이 큐를 비운 뒤에 넣었으면 아무도 처리하지 않는다.
+            if (!thread.isAlive() && commands.remove(command)) {
+                throw stopped();
+            }
+            return command.result.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for balance shard", e);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AccountException) {
+                throw (AccountException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void run() {
+        List<Command> batch = new ArrayList<>(DRAIN_SIZE);
+        while (running || !commands.isEmpty()) {
+            try {
+                Command first = commands.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                commands.drainTo(batch, DRAIN_SIZE - 1);
+                for (Command command : batch) {
+                    execute(command);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failAll(batch, e);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void execute(Command command) throws InterruptedException {
+        try {
+            switch (command.action) {
+                case REMOVE:
+                    removeSlot(Long.parseLong(command.accountNumber));
+                    command.result.complete(null);
+                    return;
+                case CLOSE:
+                    command.result.complete(close(command));
+                    return;
+                case REOPEN:
+                    int reopened = slots.get(Long.parseLong(command.accountNumber));
+                    if (reopened != LongIntHashMap.MISSING) {
+                        closed[reopened] = false;
+                    }
+                    command.result.complete(null);
+                    return;
+                default:
+                    break;
+            }
+            int slot = findSlot(command.accountNumber);
+            if (closed[slot]) {
+                throw new AccountException(ACCOUNT_ALREADY_UNREGISTERED);
+            }
+            BalanceChange change = command.action == Action.USE
+                    ? use(slot, command) : cancel(slot, command);
+            changeSink.accept(change);
+            command.result.complete(change.toTransactionDto());
+        } catch (AccountException e) {
+            command.result.completeExceptionally(e);
+        } catch (InterruptedException e) {
+            command.result.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("Balance shard {} failed to execute {}", shardId, command.action, e);
+            command.result.completeExceptionally(e);
+        }
+    }
+
+    private boolean close(Command command) {
+        int slot;
+        try {
+            slot = findSlot(command.accountNumber);
+        } catch (AccountException e) {
+            return false;
+        }
+        if (userIds[slot] != command.userId) {
+            return false;
+        }
+        closed[slot] = true;
+        return true;
+    }
+
+    private BalanceChange use(int slot, Command command) {
+        if (userIds[slot] != command.userId) {
+            throw new AccountException(USER_ACCOUNT_UN_MATCH);
+        }
+        if (balances[slot] < command.amount) {
+            throw new AccountException(BALANCE_IS_SMALLER_THAN_AMOUNT);
+        }
+        return post(slot, USE, command.amount);
+    }
+
+    /**
+     * TransactionService.validateCancelBalance 와 같은 규칙
+     */
+    private BalanceChange cancel(int slot, Command command) {
+        TransactionDto original = command.original;
+        if (original.getTransactionType() == INTEREST || original.getTransactionType() == FEE) {
+            throw new AccountException(TRANSACTION_NOT_CANCELLABLE);
+        }
+        if (!Objects.equals(original.getAccountNumber(), command.accountNumber)) {
+            throw new AccountException(TRANSACTION_UN_MATCH_ACCOUNT);
+        }
+        if (!Objects.equals(original.getAmount(), command.amount)) {
+            throw new AccountException(CANCEL_AMOUNT_UN_MATCH_USE_AMOUNT);
+        }
+        if (original.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1))) {
+            throw new AccountException(TOO_OLD_TRANSACTION);
+        }
+        return post(slot, CANCEL, command.amount);
+    }
+
+    private BalanceChange post(int slot, TransactionType transactionType, long amount) {
+        balances[slot] = transactionType.apply(balances[slot], amount);
+        return new BalanceChange(accountIds[slot], userIds[slot], Long.toString(accountNumbers[slot]),
+                transactionType, amount, balances[slot],
+                UUID.randomUUID().toString().replace("-", ""), LocalDateTime.now());
+    }
+
+    private int findSlot(String accountNumber) {
+        long key;
+        try {
+            key = Long.parseLong(accountNumber);
+        } catch (NumberFormatException e) {
+            throw new AccountException(ACCOUNT_NOT_FOUND);
+        }
+        int slot = slots.get(key);
+        if (slot != LongIntHashMap.MISSING) {
+            return slot;
+        }
+        //워밍업 뒤에 개설된 계좌
+        long[] account = loader.load(accountNumber);
+        slot = addSlot(key);
+        accountIds[slot] = account[0];
+        userIds[slot] = account[1];
+        balances[slot] = account[2];
+        closed[slot] = false;
+        return slot;
+    }
+
+    private int addSlot(long accountNumber) {
+        if (size == balances.length) {
+            int capacity = size * 2;
+            accountNumbers = Arrays.copyOf(accountNumbers, capacity);
+            accountIds = Arrays.copyOf(accountIds, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            balances = Arrays.copyOf(balances, capacity);
+            closed = Arrays.copyOf(closed, capacity);
+        }
+        int slot = size++;
+        accountNumbers[slot] = accountNumber;
+        closed[slot] = false;
+        slots.put(accountNumber, slot);
+        return slot;
+    }
+
+    /**
+     * 마지막 슬롯을 지운 자리로 옮겨 배열에 빈칸이 없게 한다.
+     */
+    private void removeSlot(long accountNumber) {
+        int slot = slots.remove(accountNumber);
+        if (slot == LongIntHashMap.MISSING) {
+            return;
+        }
+        int last = --size;
+        if (slot != last) {
+            accountNumbers[slot] = accountNumbers[last];
+            accountIds[slot] = accountIds[last];
+            userIds[slot] = userIds[last];
+            balances[slot] = balances[last];
+            closed[slot] = closed[last];
+            slots.put(accountNumbers[slot], slot);
+        }
+    }
+
+    private IllegalStateException stopped() {
+        return new IllegalStateException("Balance shard " + shardId + " is not running");
+    }
+
+    private void failAll(List<Command> batch, InterruptedException e) {
+        for (Command command : batch) {
+            command.result.completeExceptionally(e);
+        }
+    }
+
+    enum Action {
+        USE, CANCEL, CLOSE, REOPEN, REMOVE
+    }
+
+    static class Command {
+        private final Action action;
+        private final long userId;
+        private final String accountNumber;
+        private final long amount;
+        private final TransactionDto original;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Command(Action action, long userId, String accountNumber,
+                long amount, TransactionDto original) {
+            this.action = action;
+            this.userId = userId;
+            this.accountNumber = accountNumber;
+            this.amount = amount;
+            this.original = original;
+        }
+    }
+}
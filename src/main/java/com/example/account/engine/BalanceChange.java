@@ -0,0 +1,38 @@
+package com.example.account.engine;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.type.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+import static com.example.account.type.TransactionResultType.S;
+
+/**
+ * 메모리 엔진에서 처리된 거래 한 건. DB 에 저장되기 전까지 취소 대상 조회에도 쓰인다.
+ */
+@Getter
+@AllArgsConstructor
+public class BalanceChange {
+    private final long accountId;
+    private final long userId;
+    private final String accountNumber;
+    private final TransactionType transactionType;
+    private final long amount;
+    private final long balanceSnapshot;
+    private final String transactionId;
+    private final LocalDateTime transactedAt;
+
+    public TransactionDto toTransactionDto() {
+        return TransactionDto.builder()
+                .accountNumber(accountNumber)
+                .transactionType(transactionType)
+                .transactionResultType(S)
+                .amount(amount)
+                .balanceSnapshot(balanceSnapshot)
+                .transactionId(transactionId)
+                .transactedAt(transactedAt)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.account.engine;
+
+import com.example.account.event.AccountsBulkChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 메모리 엔진의 거래를 묶음 단위로 DB 에 저장한다.
+ * 잔액은 묶음 안의 계좌별 증감 합계를 더하므로 다른 경로의 DB 갱신을 덮어쓰지 않는다. 거래와 아웃박스는 모두 쓴다.
+ */
+@Component
+@RequiredArgsConstructor
+public class BalanceEngineWriter {
+    private static final String UPDATE_BALANCE_SQL =
+            "update account set balance = balance + ?, version = version + 1, updated_at = ? where id = ?";
+    private static final String SELECT_BALANCES_SQL =
+            "select account_number, balance, version from account where id in (%s)";
+    private static final RowMapper<AccountsBulkChangedEvent.Balance> BALANCE_MAPPER = (rs, rowNum) ->
+            new AccountsBulkChangedEvent.Balance(rs.getString(1), rs.getLong(2), rs.getLong(3));
+    private static final String INSERT_TRANSACTION_SQL =
+            "insert into transaction (id, account_id, transaction_type, transaction_result_type, amount, " +
+            "balance_snapshot, transaction_id, transacted_at, created_at, updated_at) " +
+            "values (next value for hibernate_sequence, ?, ?, 'S', ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_OUTBOX_SQL =
+            "insert into transaction_outbox (id, account_number, transaction_type, transaction_result_type, " +
+            "amount, balance_snapshot, transaction_id, transacted_at, created_at, updated_at) " +
+            "values (next value for hibernate_sequence, ?, ?, 'S', ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * @param changes 계좌별로는 처리된 순서
+     */
+    @Transactional
+    public void write(List<BalanceChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        Set<Long> userIds = new HashSet<>();
+        Set<String> accountNumbers = new HashSet<>();
+        for (BalanceChange change : changes) {
+            deltas.merge(change.getAccountId(),
+                    change.getTransactionType().apply(0L, change.getAmount()), Long::sum);
+            userIds.add(change.getUserId());
+            accountNumbers.add(change.getAccountNumber());
+        }
+        List<Map.Entry<Long, Long>> balances = new ArrayList<>(deltas.entrySet());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Long> delta = balances.get(i);
+                ps.setLong(1, delta.getValue());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, delta.getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return balances.size();
+            }
+        });
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BalanceChange change = changes.get(i);
+                ps.setLong(1, change.getAccountId());
+                setTransaction(ps, change, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return changes.size();
+            }
+        });
+        //거래와 같은 트랜잭션에서 아웃박스 기록
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BalanceChange change = changes.get(i);
+                ps.setString(1, change.getAccountNumber());
+                setTransaction(ps, change, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return changes.size();
+            }
+        });
+
+        //행 락을 잡은 채 읽으므로 커밋될 잔액과 version 이다. 캐시는 이 version 으로 비교해 기록한다.
+        String sql = String.format(SELECT_BALANCES_SQL,
+                String.join(",", Collections.nCopies(deltas.size(), "?")));
+        List<AccountsBulkChangedEvent.Balance> committed =
+                jdbcTemplate.query(sql, BALANCE_MAPPER, deltas.keySet().toArray());
+        applicationEventPublisher.publishEvent(
+                new AccountsBulkChangedEvent(userIds, accountNumbers, committed));
+    }
+
+    private static void setTransaction(PreparedStatement ps, BalanceChange change, Timestamp now)
+            throws SQLException {
+        ps.setString(2, change.getTransactionType().name());
+        ps.setLong(3, change.getAmount());
+        ps.setLong(4, change.getBalanceSnapshot());
+        ps.setString(5, change.getTransactionId());
+        ps.setTimestamp(6, Timestamp.valueOf(change.getTransactedAt()));
+        ps.setTimestamp(7, now);
+        ps.setTimestamp(8, now);
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.account.engine;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.event.AccountChangedEvent;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.service.BalanceEngine;
+import com.example.account.service.TransactionArchiveService;
+import com.example.account.service.VelocityLimitService;
+import com.example.account.type.AccountStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.ErrorCode.*;
+
+/**
+ * 메모리 잔액 엔진 (balance.engine=memory)
+ * IN_USE 계좌 잔액을 계좌번호 해시로 나눈 샤드에 들고, 샤드마다 스레드 하나가 잔액 사용/취소를 처리한다.
+ * 같은 계좌의 요청은 항상 같은 샤드 스레드에서 순서대로 처리되므로 계좌 락(Redis)을 쓰지 않는다.
+ * 처리된 거래는 저장 스레드가 flush-interval-ms 마다 묶어서 DB 에 쓴다.
+ *
+ * 메모리 잔액이 기준이므로 이 모드에서는 잔액을 바꾸는 다른 경로(이자/수수료 일괄 반영, 거래 저널)를 함께 쓰지 않는다.
+ * 저널이 켜져 있으면 시작하지 않는다. 다른 노드의 잔액 변경은 보지 못하므로 이 엔진은 한 노드에서만 켠다.
+ * DB 에는 증감만 더하므로(BalanceEngineWriter) 다른 경로의 갱신을 덮어쓰지는 않는다.
+ * 사용 한도(VelocityLimitService)는 샤드에 넘기기 전에 확인하고, 샤드에서 거절되면 늘린 만큼 되돌린다.
+ * 응답한 거래 중 아직 저장되지 않은 거래는 프로세스가 죽으면 잃는다.
+ * 저장이 max-flush-attempts 번 실패한 묶음은 한 건씩 저장하고, 그래도 실패한 거래는 dead-letter 로그에 남기고 넘어간다.
+ */
+@Slf4j
+@Primary
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "balance.engine", havingValue = "memory")
+public class InMemoryBalanceEngine implements BalanceEngine, SmartLifecycle {
+    private static final String WARMUP_SQL =
+            "select account_number, id, account_user_id, balance from account where account_status = 'IN_USE'";
+    private static final String LOAD_SQL =
+            "select id, account_user_id, balance, account_status from account where account_number = ?";
+    private static final long POLL_MILLIS = 100;
+    //저장하지 못한 거래. 수동으로 반영해야 한다.
+    private static final Logger DEAD_LETTER = LoggerFactory.getLogger("balance-engine-dead-letter");
+    private static final Counter DEAD_LETTER_COUNTER = Metrics.counter("account.engine.dead.letter");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BalanceEngineWriter balanceEngineWriter;
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchiveService transactionArchiveService;
+    private final AccountUserRepository accountUserRepository;
+    private final VelocityLimitService velocityLimitService;
+
+    @Value("${balance.memory.shards}")
+    private int shardCount;
+
+    @Value("${balance.memory.expected-accounts}")
+    private int expectedAccounts;
+
+    @Value("${balance.memory.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${balance.memory.warmup-fetch-size}")
+    private int warmupFetchSize;
+
+    @Value("${balance.memory.persist-queue-capacity}")
+    private int persistQueueCapacity;
+
+    @Value("${balance.memory.flush-batch-size}")
+    private int flushBatchSize;
+
+    @Value("${balance.memory.flush-interval-ms}")
+    private long flushIntervalMs;
+
+    @Value("${balance.memory.retry-backoff-ms}")
+    private long retryBackoffMs;
+
+    @Value("${balance.memory.max-flush-attempts}")
+    private int maxFlushAttempts;
+
+    //해지 전에 계좌의 저장 전 거래가 저장되기를 기다리는 시간
+    @Value("${balance.memory.close-timeout-ms}")
+    private long closeTimeoutMs;
+
+    @Value("${journal.enabled}")
+    private boolean journalEnabled;
+
+    //저장 전 거래. 취소 요청이 원거래를 찾을 때 DB 보다 먼저 본다.
+    private final Map<String, BalanceChange> unflushedChanges = new ConcurrentHashMap<>();
+
+    private AccountShard[] shards;
+    private BlockingQueue<BalanceChange> persistQueue;
+    private volatile boolean running;
+    private Thread flusher;
+
+    @Override
+    public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
+        //한도 확인은 Redis 호출이므로 샤드 스레드를 막지 않도록 요청 스레드에서 한다.
+        Runnable releaseVelocity = velocityLimitService.reserve(userId, accountNumber, amount);
+        boolean used = false;
+        try {
+            TransactionDto transaction = shardOf(accountNumber).use(userId, accountNumber, amount);
+            used = true;
+            return transaction;
+        } catch (AccountException e) {
+            //JPA 엔진과 같은 오류를 내도록 사용자 확인은 소유주가 다를 때만 한다.
+            if (e.getErrorCode() == USER_ACCOUNT_UN_MATCH && !accountUserRepository.existsById(userId)) {
+                throw new AccountException(USER_NOT_FOUND);
+            }
+            throw e;
+        } finally {
+            //샤드에서 거절된 요청은 한도에 세지 않는다.
+            if (!used) {
+                releaseVelocity.run();
+            }
+        }
+    }
+
+    @Override
+    public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
+        BalanceChange unflushed = unflushedChanges.get(transactionId);
+        TransactionDto original = unflushed != null
+                ? unflushed.toTransactionDto()
+                : transactionRepository.findByTransactionId(transactionId)
+                .map(TransactionDto::fromEntity)
+                .orElseThrow(() -> new AccountException(
+                        transactionArchiveService.isArchived(transactionId)
+                                ? TOO_OLD_TRANSACTION : TRANSACTION_NOT_FOUND));
+        return shardOf(accountNumber).cancel(original, accountNumber, amount);
+    }
+
+    /**
+     * 해지 전에 계좌를 닫고 저장 전 거래가 모두 저장되기를 기다린다.
+     * 이후 DB 잔액이 메모리 잔액과 같으므로 해지 검증은 DB 값으로 한다.
+     * 해지 트랜잭션이 커밋되지 않으면 다시 연다.
+     */
+    @Override
+    public void prepareClose(Long userId, String accountNumber) {
+        AccountShard shard = shardOf(accountNumber);
+        if (!shard.close(userId, accountNumber)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        shard.reopen(accountNumber);
+                    }
+                }
+            });
+        }
+        awaitFlushed(accountNumber);
+    }
+
+    private void awaitFlushed(String accountNumber) {
+        long deadline = System.currentTimeMillis() + closeTimeoutMs;
+        while (hasUnflushed(accountNumber)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AccountException(SERVER_BUSY);
+            }
+            try {
+                Thread.sleep(flushIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AccountException(SERVER_BUSY);
+            }
+        }
+    }
+
+    private boolean hasUnflushed(String accountNumber) {
+        for (BalanceChange change : unflushedChanges.values()) {
+            if (change.getAccountNumber().equals(accountNumber)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 해지된 계좌는 샤드에서 뺀다. 이후 요청은 DB 에서 해지 상태를 확인한다.
+     */
+    @TransactionalEventListener
+    public void onAccountChanged(AccountChangedEvent event) {
+        if (running && event.getAccount().getAccountStatus() == AccountStatus.UNREGISTERED) {
+            shardOf(event.getAccountNumber()).remove(event.getAccountNumber());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (journalEnabled) {
+            throw new IllegalStateException("balance.engine=memory cannot run with journal.enabled=true");
+        }
+        persistQueue = new ArrayBlockingQueue<>(persistQueueCapacity);
+        shards = new AccountShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new AccountShard(i, expectedAccounts / shardCount, queueCapacity,
+                    this::loadAccount, this::enqueue);
+        }
+        warmUp();
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "balance-engine-flusher");
+        flusher.start();
+        for (AccountShard shard : shards) {
+            shard.start();
+        }
+        Metrics.gauge("account.engine.unflushed", unflushedChanges, Map::size);
+    }
+
+    /**
+     * 샤드가 받은 요청을 모두 처리한 뒤 남은 거래를 저장하고 멈춘다.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        try {
+            for (AccountShard shard : shards) {
+                shard.stop();
+            }
+            running = false;
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!unflushedChanges.isEmpty()) {
+            log.error("Balance engine stopped with {} unflushed transactions", unflushedChanges.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 웹 서버보다 먼저 시작하고 나중에 멈춘다.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2;
+    }
+
+    /**
+     * 시작 전 초기 적재용. 샤드 스레드가 돌기 전에만 호출한다.
+     */
+    void load(String accountNumber, long accountId, long userId, long balance) {
+        shardOf(accountNumber).load(Long.parseLong(accountNumber), accountId, userId, balance);
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(WARMUP_SQL);
+            ps.setFetchSize(warmupFetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> load(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+
+        int accounts = 0;
+        for (AccountShard shard : shards) {
+            accounts += shard.size();
+        }
+        log.info("Balance engine warmed up {} accounts into {} shards in {}ms",
+                accounts, shards.length, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 워밍업 뒤 개설된 계좌를 샤드 스레드에서 읽는다.
+     * @return {id, userId, balance}
+     */
+    private long[] loadAccount(String accountNumber) {
+        List<long[]> accounts = jdbcTemplate.query(LOAD_SQL, (rs, rowNum) -> {
+            if (AccountStatus.valueOf(rs.getString(4)) != AccountStatus.IN_USE) {
+                throw new AccountException(ACCOUNT_ALREADY_UNREGISTERED);
+            }
+            return new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)};
+        }, accountNumber);
+        if (accounts.isEmpty()) {
+            throw new AccountException(ACCOUNT_NOT_FOUND);
+        }
+        return accounts.get(0);
+    }
+
+    private void enqueue(BalanceChange change) throws InterruptedException {
+        unflushedChanges.put(change.getTransactionId(), change);
+        persistQueue.put(change);
+    }
+
+    private void flushLoop() {
+        List<BalanceChange> batch = new ArrayList<>(flushBatchSize);
+        while (running || !persistQueue.isEmpty()) {
+            try {
+                BalanceChange first = persistQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                //flush-interval-ms 동안 더 모아서 한 번에 쓴다.
+                Thread.sleep(flushIntervalMs);
+                batch.add(first);
+                persistQueue.drainTo(batch, flushBatchSize - 1);
+                if (!writeWithRetry(batch)) {
+                    return;
+                }
+                for (BalanceChange change : batch) {
+                    unflushedChanges.remove(change.getTransactionId());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * DB 에 닿지 못하는 동안은 계속 다시 시도하고, 그 밖의 오류가 이어지면 한 건씩 저장해 실패한 거래만 빼낸다.
+     * @return 종료 중에 저장하지 못했으면 false
+     */
+    private boolean writeWithRetry(List<BalanceChange> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (attempt <= maxFlushAttempts) {
+                    balanceEngineWriter.write(batch);
+                } else {
+                    writeEach(batch);
+                }
+                return true;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Failed to flush {} transactions while stopping", batch.size(), e);
+                    return false;
+                }
+                log.error("Failed to flush balance engine (attempt {}). Retrying in {}ms",
+                        attempt, retryBackoffMs, e);
+                Thread.sleep(retryBackoffMs);
+            }
+        }
+    }
+
+    /**
+     * 저장했거나 dead-letter 로 보낸 거래는 묶음에서 뺀다. DB 연결 오류는 묶음째 다시 시도하도록 던진다.
+     */
+    private void writeEach(List<BalanceChange> batch) {
+        Iterator<BalanceChange> changes = batch.iterator();
+        while (changes.hasNext()) {
+            BalanceChange change = changes.next();
+            try {
+                balanceEngineWriter.write(List.of(change));
+            } catch (TransientDataAccessException | DataAccessResourceFailureException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                DEAD_LETTER_COUNTER.increment();
+                DEAD_LETTER.error("transactionId={}, accountId={}, accountNumber={}, type={}, amount={}, "
+                                + "balanceSnapshot={}, transactedAt={}",
+                        change.getTransactionId(), change.getAccountId(), change.getAccountNumber(),
+                        change.getTransactionType(), change.getAmount(), change.getBalanceSnapshot(),
+                        change.getTransactedAt(), e);
+            }
+            unflushedChanges.remove(change.getTransactionId());
+            changes.remove();
+        }
+    }
+
+    private AccountShard shardOf(String accountNumber) {
+        return shards[Math.floorMod(accountNumber.hashCode(), shards.length)];
+    }
+}
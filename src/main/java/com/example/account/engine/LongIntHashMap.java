@@ -0,0 +1,103 @@
+package com.example.account.engine;
+
+import java.util.Arrays;
+
+/**
+ * long 키 -> int 값 open addressing(linear probing) 맵
+ * 키/값을 박싱하지 않으므로 계좌 수백만 개를 들고 있어도 객체가 생기지 않는다. 한 스레드에서만 쓴다.
+ */
+final class LongIntHashMap {
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(8, expectedSize) * 2 - 1) << 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        for (int i = index(key); values[i] != MISSING; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * @param value 0 이상
+     */
+    void put(long key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int i = index(key);
+        for (; values[i] != MISSING; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    int remove(long key) {
+        int i = index(key);
+        for (; values[i] != MISSING; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                break;
+            }
+        }
+        if (values[i] == MISSING) {
+            return MISSING;
+        }
+        int removed = values[i];
+
+        //묘비 대신 뒤의 항목을 당겨 와 탐색 길이가 늘지 않게 한다.
+        int hole = i;
+        for (int j = (i + 1) & mask; values[j] != MISSING; j = (j + 1) & mask) {
+            int home = index(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        values[hole] = MISSING;
+        size--;
+        return removed;
+    }
+
+    private int index(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != MISSING) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+    }
+}
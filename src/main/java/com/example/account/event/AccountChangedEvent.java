@@ -0,0 +1,23 @@
+package com.example.account.event;
+
+import com.example.account.domain.Account;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 계좌 생성/해지, 잔액 변경 시 발행되는 이벤트
+ * 커밋 이후 리스너가 최종 값을 읽을 수 있도록 엔티티를 그대로 담는다.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountChangedEvent {
+    private final Account account;
+
+    public Long getUserId() {
+        return account.getAccountUser().getId();
+    }
+
+    public String getAccountNumber() {
+        return account.getAccountNumber();
+    }
+}
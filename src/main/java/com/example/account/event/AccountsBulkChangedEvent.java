@@ -0,0 +1,33 @@
+package com.example.account.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * 대량 계좌 개설, 이자/수수료 일괄 반영, 저널/메모리 엔진 반영 시 묶음 단위로 발행되는 이벤트
+ * 계좌마다 이벤트를 내는 대신 영향을 받은 사용자, 잔액이 바뀐 계좌번호와 그 커밋된 잔액/version 을 담는다.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountsBulkChangedEvent {
+    private final Collection<Long> userIds;
+    //잔액이 바뀐 기존 계좌. 새로 개설된 계좌는 캐시가 없으므로 담지 않는다.
+    private final Collection<String> accountNumbers;
+    //잔액이 바뀐 계좌의 커밋된 잔액과 version. 캐시는 지우지 않고 version 비교로 기록한다.
+    private final Collection<Balance> balances;
+
+    public AccountsBulkChangedEvent(Collection<Long> userIds, Collection<String> accountNumbers) {
+        this(userIds, accountNumbers, Collections.emptyList());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Balance {
+        private final String accountNumber;
+        private final long balance;
+        private final long version;
+    }
+}
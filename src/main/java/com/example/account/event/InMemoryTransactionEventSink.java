@@ -0,0 +1,28 @@
+package com.example.account.event;
+
+import com.example.account.dto.TransactionEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTransactionEventSink implements TransactionEventSink {
+    private final ConcurrentLinkedQueue<TransactionEvent> events = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void publish(List<TransactionEvent> events) {
+        this.events.addAll(events);
+    }
+
+    public List<TransactionEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.account.event;
+
+import com.example.account.dto.TransactionEvent;
+
+import java.util.List;
+
+/**
+ * 아웃박스 이벤트를 내보낼 대상
+ * 배치 단위로 호출되며, 예외를 던지면 해당 배치는 삭제되지 않고 다음 주기에 다시 발행된다.
+ */
+public interface TransactionEventSink {
+    void publish(List<TransactionEvent> events);
+}
@@ -16,4 +16,12 @@ public class AccountException extends RuntimeException{ //도움 될 정보가 
         this.errorCode = errorCode;
         this.errorMessage = errorCode.getDescription();
     }
+
+    /**
+     * 비즈니스 예외는 에러코드로 식별되므로 스택트레이스를 수집하지 않는다.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
 }
@@ -0,0 +1,17 @@
+package com.example.account.exception;
+
+import com.example.account.type.ErrorCode;
+import lombok.Getter;
+
+/**
+ * 락 입장 제어에서 거절된 요청. 429 와 Retry-After 로 응답한다.
+ */
+@Getter
+public class AdmissionRejectedException extends AccountException {
+    private final long retryAfterMs;
+
+    public AdmissionRejectedException(long retryAfterMs) {
+        super(ErrorCode.TOO_MANY_REQUESTS);
+        this.retryAfterMs = retryAfterMs;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.account.exception;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 키(에러코드 등)별로 interval 마다 한 번만 로그를 남기도록 거른다.
+ * 거부 폭주 시에도 로그 비용이 초당 키 개수 수준으로 제한된다.
+ */
+public class ErrorLogThrottle {
+    private final long intervalNanos;
+    private final ConcurrentHashMap<Object, Window> windows = new ConcurrentHashMap<>();
+
+    public ErrorLogThrottle(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * @return 로그를 남겨야 하면 직전 로그 이후 생략된 건수, 생략해야 하면 -1
+     */
+    public long acquire(Object key) {
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        long now = System.nanoTime();
+        long last = window.lastLoggedAt.get();
+        if (last != 0 && now - last < intervalNanos) {
+            window.suppressed.incrementAndGet();
+            return -1;
+        }
+        if (!window.lastLoggedAt.compareAndSet(last, now)) {
+            window.suppressed.incrementAndGet();
+            return -1;
+        }
+        return window.suppressed.getAndSet(0);
+    }
+
+    private static class Window {
+        private final AtomicLong lastLoggedAt = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+    }
+}
@@ -3,22 +3,47 @@ package com.example.account.exception;
 import com.example.account.dto.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.time.Duration;
+
 import static com.example.account.type.ErrorCode.INTERNAL_SERVER_ERROR;
 import static com.example.account.type.ErrorCode.INVALID_REQUEST;
 
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private final ErrorLogThrottle errorLogThrottle = new ErrorLogThrottle(Duration.ofSeconds(1));
+
    @ExceptionHandler(AccountException.class)
     public ErrorResponse handleAccountException(AccountException e) {
-        log.error("{} is occurred", e.getErrorCode());
+        long suppressed = errorLogThrottle.acquire(e.getErrorCode());
+        if (suppressed >= 0) {
+            log.warn("{} is occurred. ({} suppressed since last log)", e.getErrorCode(), suppressed);
+        }
 
         return new ErrorResponse(e.getErrorCode(), e.getErrorMessage());
     }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleAdmissionRejectedException(AdmissionRejectedException e) {
+        long suppressed = errorLogThrottle.acquire(e.getErrorCode());
+        if (suppressed >= 0) {
+            log.warn("{} is occurred. ({} suppressed since last log)", e.getErrorCode(), suppressed);
+        }
+
+        //Retry-After 는 초 단위
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfterMs() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorResponse(e.getErrorCode(), e.getErrorMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ErrorResponse handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
         log.error("MethodArgumentNotValidException is occurred.", e);
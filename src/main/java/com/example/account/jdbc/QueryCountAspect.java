@@ -0,0 +1,57 @@
+package com.example.account.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 서비스 메서드 단위 SQL 실행 수 기록 (ex. TransactionService.cancelBalance)
+ * 트랜잭션을 여는 서비스 메서드만 센다. 락, 한도 같은 요청마다 도는 서비스는 프록시를 거치지 않게 한다.
+ */
+@Slf4j
+@Aspect
+@Component
+public class QueryCountAspect {
+    @Value("${jdbc.query-count-warn-threshold}")
+    private long queryCountWarnThreshold;
+
+    //메서드마다 한 번만 등록한다.
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.example.account.service..*(..)) " +
+            "&& @annotation(javax.transaction.Transactional)")
+    public Object countQueries(ProceedingJoinPoint pjp) throws Throwable {
+        QueryScope scope = QueryCountHolder.open();
+        try {
+            return pjp.proceed();
+        } finally {
+            String method = pjp.getSignature().getDeclaringType().getSimpleName()
+                    + "." + pjp.getSignature().getName();
+            long statements = scope.getStatements();
+
+            summaries.computeIfAbsent(((MethodSignature) pjp.getSignature()).getMethod(),
+                            key -> DistributionSummary.builder("service.jdbc.statements")
+                                    .tag("method", method)
+                                    .register(Metrics.globalRegistry))
+                    .record(statements);
+
+            if (statements > queryCountWarnThreshold) {
+                log.warn("{} executed {} statements in {} ms. Check for N+1 queries.",
+                        method, statements, scope.getElapsedMillis());
+            } else {
+                log.debug("{} executed {} statements in {} ms",
+                        method, statements, scope.getElapsedMillis());
+            }
+        }
+    }
+}
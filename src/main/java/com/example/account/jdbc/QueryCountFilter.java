@@ -0,0 +1,53 @@
+package com.example.account.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * HTTP 요청 단위 SQL 실행 수/시간 기록
+ */
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+    private final long queryCountWarnThreshold;
+
+    public QueryCountFilter(long queryCountWarnThreshold) {
+        this.queryCountWarnThreshold = queryCountWarnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryScope scope = QueryCountHolder.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            long statements = scope.getStatements();
+
+            DistributionSummary.builder("http.server.requests.jdbc.statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(Metrics.globalRegistry)
+                    .record(statements);
+
+            if (statements > queryCountWarnThreshold) {
+                log.warn("{} {} executed {} statements in {} ms",
+                        request.getMethod(), uri, statements, scope.getElapsedMillis());
+            } else {
+                log.debug("{} {} executed {} statements in {} ms",
+                        request.getMethod(), uri, statements, scope.getElapsedMillis());
+            }
+        }
+    }
+}
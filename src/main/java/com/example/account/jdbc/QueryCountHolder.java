@@ -0,0 +1,32 @@
+package com.example.account.jdbc;
+
+/**
+ * 스레드별 누적 SQL 실행 수/시간
+ * 카운터는 초기화하지 않고 누적만 하며, 구간 측정은 open() 으로 시작점을 잡아 차이로 계산한다.
+ * 그래서 요청 단위 측정 안에 서비스 메서드 단위 측정이 겹쳐도 서로 영향을 주지 않는다.
+ */
+public final class QueryCountHolder {
+    private static final ThreadLocal<long[]> COUNTER = ThreadLocal.withInitial(() -> new long[2]);
+
+    private QueryCountHolder() {
+    }
+
+    static void record(long elapsedNanos) {
+        long[] counter = COUNTER.get();
+        counter[0]++;
+        counter[1] += elapsedNanos;
+    }
+
+    public static QueryScope open() {
+        long[] counter = COUNTER.get();
+        return new QueryScope(counter[0], counter[1]);
+    }
+
+    static long statements() {
+        return COUNTER.get()[0];
+    }
+
+    static long elapsedNanos() {
+        return COUNTER.get()[1];
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.account.jdbc;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 커넥션/스테이트먼트를 프록시로 감싸 execute* 호출마다 실행 수와 시간을 기록한다.
+ * 임계값보다 느린 SQL 은 warn 으로 남긴다.
+ */
+@Slf4j
+public class QueryCountingDataSource extends DelegatingDataSource {
+    private final long slowQueryThresholdNanos;
+    private final Timer statementTimer = Metrics.timer("jdbc.statements");
+
+    public QueryCountingDataSource(DataSource targetDataSource, long slowQueryThresholdMs) {
+        super(targetDataSource);
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxyConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxyConnection(super.getConnection(username, password));
+    }
+
+    private Connection proxyConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String
+                                ? (String) args[0] : null;
+                        return proxyStatement((Statement) result, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement proxyStatement(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        long elapsed = System.nanoTime() - start;
+                        QueryCountHolder.record(elapsed);
+                        statementTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                        if (elapsed > slowQueryThresholdNanos) {
+                            String sql = args != null && args.length > 0 && args[0] instanceof String
+                                    ? (String) args[0] : preparedSql;
+                            log.warn("Slow query took {} ms : {}",
+                                    TimeUnit.NANOSECONDS.toMillis(elapsed), sql);
+                        }
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.account.jdbc;
+
+import java.util.concurrent.TimeUnit;
+
+public class QueryScope {
+    private final long startStatements;
+    private final long startElapsedNanos;
+
+    QueryScope(long startStatements, long startElapsedNanos) {
+        this.startStatements = startStatements;
+        this.startElapsedNanos = startElapsedNanos;
+    }
+
+    public long getStatements() {
+        return QueryCountHolder.statements() - startStatements;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(QueryCountHolder.elapsedNanos() - startElapsedNanos);
+    }
+}
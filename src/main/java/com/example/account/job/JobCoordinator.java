@@ -0,0 +1,333 @@
+package com.example.account.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 노드 간 배치 작업 조정 (Redis)
+ * 노드마다 heartbeat 로 살아 있는 노드 목록에 자기를 올리고, 가지고 있는 리스를 연장한다.
+ * - 단일 작업은 작업 이름의 리더 리스를 가진 노드만 실행한다(tryLead).
+ * - 나눠서 하는 작업은 살아 있는 노드 순서로 파티션을 나눠 자기 몫을 먼저 하고,
+ *   실행(runId)별 파티션 리스와 완료 표시로 같은 파티션이 두 번 실행되지 않게 한다(claim/complete).
+ * 노드가 죽으면 리스는 leaseMs 안에 만료되고, 노드 목록에서는 memberTtlMs 뒤에 빠져 다른 노드가 이어받는다.
+ * 정상 종료 시에는 리스를 바로 놓는다. Redis 장애 시에는 중복 실행보다 건너뛰는 쪽을 택한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobCoordinator implements SmartLifecycle {
+    private static final Counter REDIS_FAILURES = Metrics.counter("account.job.redis.failures");
+    private static final Counter LEASES_LOST = Metrics.counter("account.job.leases.lost");
+    private static final String MEMBERS_KEY = "JOB : members";
+
+    //KEYS 리스, (완료 표시), ARGV 노드, 리스(ms). 이미 가지고 있으면 연장한다.
+    private static final String ACQUIRE_SCRIPT =
+            "if #KEYS > 1 and redis.call('exists', KEYS[2]) == 1 then return 0 end " +
+            "local owner = redis.call('get', KEYS[1]) " +
+            "if owner == ARGV[1] then redis.call('pexpire', KEYS[1], ARGV[2]) return 1 end " +
+            "if owner then return 0 end " +
+            "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "return 1";
+    //KEYS 리스들, ARGV 노드, 리스(ms). 잃은 리스의 번호를 돌려준다.
+    private static final String RENEW_SCRIPT =
+            "local lost = {} " +
+            "for i, key in ipairs(KEYS) do " +
+            "  if redis.call('get', key) == ARGV[1] then redis.call('pexpire', key, ARGV[2]) " +
+            "  else lost[#lost + 1] = i end " +
+            "end " +
+            "return lost";
+    //KEYS 리스, (완료 표시), ARGV 노드, (완료 표시 보관 ms)
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then redis.call('del', KEYS[1]) end " +
+            "if #KEYS > 1 then redis.call('set', KEYS[2], ARGV[1], 'PX', ARGV[2]) end " +
+            "return 1";
+    //KEYS 노드 목록, ARGV 노드, 현재 시각, 만료 기준 시각
+    private static final String HEARTBEAT_SCRIPT =
+            "redis.call('zadd', KEYS[1], ARGV[2], ARGV[1]) " +
+            "redis.call('zremrangebyscore', KEYS[1], '-inf', ARGV[3]) " +
+            "return redis.call('zrange', KEYS[1], 0, -1)";
+    //KEYS 값, ARGV 제안 값, 보관(ms). 먼저 정해진 값을 돌려준다.
+    private static final String AGREE_SCRIPT =
+            "redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) " +
+            "return redis.call('get', KEYS[1])";
+
+    private final RedissonClient redissonClient;
+
+    @Value("${job.coordination.enabled}")
+    private boolean enabled;
+
+    @Value("${job.coordination.heartbeat-ms}")
+    private long heartbeatMs;
+
+    @Value("${job.coordination.lease-ms}")
+    private long leaseMs;
+
+    @Value("${job.coordination.member-ttl-ms}")
+    private long memberTtlMs;
+
+    //완료 표시와 실행 값은 같은 실행이 다시 돌 수 있는 동안 남겨둔다.
+    @Value("${job.coordination.run-ttl-ms}")
+    private long runTtlMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    //가지고 있는 리스와 연장 없이 믿을 수 있는 시각
+    private final Map<String, Long> leases = new ConcurrentHashMap<>();
+
+    private volatile List<String> members = Collections.emptyList();
+    private volatile boolean running;
+    private ScheduledExecutorService heartbeat;
+
+    /**
+     * 리더 리스를 가지고 있거나 얻으면 true. 리스는 heartbeat 가 연장하므로 리더는 바뀌지 않는다.
+     */
+    public boolean tryLead(String job) {
+        if (!enabled) {
+            return true;
+        }
+        if (!running) {
+            return false;
+        }
+        String key = "JOB : " + job + " : leader";
+        Long validUntil = leases.get(key);
+        if (validUntil != null && validUntil > System.currentTimeMillis()) {
+            return true;
+        }
+        return acquire(key, null);
+    }
+
+    /**
+     * 리더 리스를 놓는다. 요청으로 시작해 끝이 있는 작업이 끝난 뒤 다른 노드가 바로 맡을 수 있게 한다.
+     */
+    public void resign(String job) {
+        if (enabled) {
+            release("JOB : " + job + " : leader", null);
+        }
+    }
+
+    /**
+     * 살아 있는 노드 순서로 나눈 자기 파티션.
+     * 나머지 파티션은 주인 노드가 먼저 맡도록 takeoverDelayMs 가 지난 뒤에만 이어받는다.
+     */
+    public List<Integer> ownedPartitions(int partitions) {
+        List<String> live = members;
+        int index = live.indexOf(nodeId);
+        int size = live.size();
+        if (!enabled || index < 0) {
+            index = 0;
+            size = 1;
+        }
+        List<Integer> owned = new ArrayList<>(partitions);
+        for (int partition = index; partition < partitions; partition += size) {
+            owned.add(partition);
+        }
+        return owned;
+    }
+
+    /**
+     * 다른 노드의 파티션을 이어받기 전에 기다릴 시간.
+     * 그동안 살아 있는 주인은 자기 파티션을 맡고, 죽은 노드는 노드 목록에서 빠진다.
+     */
+    public long getTakeoverDelayMs() {
+        return enabled ? memberTtlMs : 0;
+    }
+
+    /**
+     * 실행의 파티션을 맡는다. 다른 노드가 하고 있거나 이미 끝났으면 false.
+     * 맡은 파티션은 끝나면 complete, 실패하면 release 해야 한다.
+     */
+    public boolean claim(String job, String runId, int partition) {
+        if (!enabled) {
+            return true;
+        }
+        return running && acquire(partitionKey(job, runId, partition), doneKey(job, runId, partition));
+    }
+
+    /**
+     * 완료를 표시하고 리스를 놓는다. 같은 실행에서 이 파티션은 다시 맡을 수 없다.
+     */
+    public void complete(String job, String runId, int partition) {
+        if (enabled) {
+            release(partitionKey(job, runId, partition), doneKey(job, runId, partition));
+        }
+    }
+
+    /**
+     * 리스만 놓는다. 다른 노드나 다음 실행이 다시 맡을 수 있다.
+     */
+    public void release(String job, String runId, int partition) {
+        if (enabled) {
+            release(partitionKey(job, runId, partition), null);
+        }
+    }
+
+    /**
+     * 실행에 쓸 값을 노드 간에 맞춘다. 먼저 제안한 노드의 값을 모두가 쓴다.
+     * 파티션 경계처럼 노드마다 다르게 계산될 수 있는 값에 쓴다.
+     */
+    public long agree(String job, String runId, String name, long proposed) {
+        if (!enabled) {
+            return proposed;
+        }
+        return redissonClient.getScript(LongCodec.INSTANCE).<Long>eval(
+                RScript.Mode.READ_WRITE, AGREE_SCRIPT, RScript.ReturnType.VALUE,
+                List.of("JOB : " + job + " : " + runId + " : " + name), proposed, runTtlMs);
+    }
+
+    private boolean acquire(String key, String doneKey) {
+        long start = System.currentTimeMillis();
+        List<Object> keys = doneKey == null ? List.of(key) : List.of(key, doneKey);
+        try {
+            Long acquired = redissonClient.getScript(LongCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE, ACQUIRE_SCRIPT, RScript.ReturnType.INTEGER,
+                    keys, nodeId, leaseMs);
+            if (acquired != null && acquired == 1L) {
+                leases.put(key, start + leaseMs - heartbeatMs);
+                return true;
+            }
+        } catch (Exception e) {
+            REDIS_FAILURES.increment();
+            log.error("Failed to acquire job lease {}", key, e);
+        }
+        leases.remove(key);
+        return false;
+    }
+
+    private void release(String key, String doneKey) {
+        leases.remove(key);
+        List<Object> keys = doneKey == null ? List.of(key) : List.of(key, doneKey);
+        try {
+            redissonClient.getScript(LongCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE, RELEASE_SCRIPT, RScript.ReturnType.INTEGER,
+                    keys, nodeId, runTtlMs);
+        } catch (Exception e) {
+            //놓지 못한 리스는 leaseMs 뒤에 만료된다.
+            REDIS_FAILURES.increment();
+            log.error("Failed to release job lease {}", key, e);
+        }
+    }
+
+    void heartbeat() {
+        long now = System.currentTimeMillis();
+        try {
+            List<String> live = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE, HEARTBEAT_SCRIPT, RScript.ReturnType.MULTI,
+                    List.of(MEMBERS_KEY), nodeId, now, now - memberTtlMs);
+            List<String> sorted = new ArrayList<>(live);
+            Collections.sort(sorted);
+            members = sorted;
+        } catch (Exception e) {
+            REDIS_FAILURES.increment();
+            log.error("Job coordination heartbeat failed", e);
+        }
+        renew(now);
+    }
+
+    private void renew(long now) {
+        List<Object> keys = new ArrayList<>(leases.keySet());
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> lost = redissonClient.getScript(LongCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE, RENEW_SCRIPT, RScript.ReturnType.MULTI,
+                    keys, nodeId, leaseMs);
+            for (Object key : keys) {
+                leases.computeIfPresent((String) key, (k, validUntil) -> now + leaseMs - heartbeatMs);
+            }
+            for (Long index : lost) {
+                String key = (String) keys.get(index.intValue() - 1);
+                leases.remove(key);
+                LEASES_LOST.increment();
+                log.warn("Lost job lease {}", key);
+            }
+        } catch (Exception e) {
+            //연장하지 못한 리스는 믿을 수 있는 시각이 지나면 다시 얻어야 한다.
+            REDIS_FAILURES.increment();
+            log.error("Failed to renew job leases", e);
+        }
+    }
+
+    List<String> getMembers() {
+        return members;
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-coordinator-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat();
+        heartbeat.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        running = true;
+        log.info("Job coordinator started. node={}, members={}", nodeId, members.size());
+    }
+
+    /**
+     * 가지고 있는 리스를 놓고 노드 목록에서 빠져서 다른 노드가 바로 이어받게 한다.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        heartbeat.shutdownNow();
+        for (String key : new ArrayList<>(leases.keySet())) {
+            release(key, null);
+        }
+        try {
+            redissonClient.getScoredSortedSet(MEMBERS_KEY, StringCodec.INSTANCE).remove(nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to leave job coordination members", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 웹 서버보다 먼저 시작하고 나중에 멈춘다.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2;
+    }
+
+    private static String partitionKey(String job, String runId, int partition) {
+        return "JOB : " + job + " : " + runId + " : " + partition;
+    }
+
+    private static String doneKey(String job, String runId, int partition) {
+        return partitionKey(job, runId, partition) + " : done";
+    }
+}
@@ -0,0 +1,474 @@
+package com.example.account.journal;
+
+import com.example.account.exception.AccountException;
+import com.example.account.service.LockService;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static com.example.account.type.ErrorCode.DEBIT_JOURNAL_UNAVAILABLE;
+
+/**
+ * 잔액 사용 저널 (journal.enabled)
+ * 승인한 차감을 memory-map 한 로컬 저널 파일에 CRC 와 함께 기록하고, 디스크에 내려간 뒤 응답한다.
+ * 쓰기 스레드 하나가 대기 중인 기록을 모아 한 번에 force 하므로(group commit) 동시 요청이 많을수록 fsync 당 건수가 늘어난다.
+ * DB 반영은 반영 스레드가 순서대로 묶어서 하고, 반영이 끝난 저널 파일은 지운다.
+ * 시작할 때 남아 있는 저널을 모두 반영한 뒤에 새 기록을 받는다.
+ *
+ * 아직 반영되지 않은 차감은 계좌별 대기 금액으로 들고 있으므로, 잔액 확인은 DB 잔액 - pendingAmount 로 한다.
+ * 대기 금액은 저널에 내려간 뒤 Redis 에도 올려서(SharedPendingDebits) 다른 노드의 잔액 확인에도 빠지지 않게 한다.
+ * Redis 에 올리지 못한 차감 때문에 잔액이 모자라게 되면 반영 시 잔액 하한에서 거절된다(JournalApplier).
+ *
+ * 반영과 대기 금액 해제는 계좌 락 안에서 하므로 라이브 거래의 version 갱신과 겹치지 않고,
+ * 락을 잡은 요청은 DB 잔액과 대기 금액을 어긋남 없이 읽는다. 취소는 그 계좌의 대기 차감을 먼저 반영한 뒤 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DebitJournal implements SmartLifecycle {
+    private static final String SEGMENT_PREFIX = "debits-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final long POLL_MILLIS = 100;
+
+    private final JournalApplier journalApplier;
+    private final SharedPendingDebits sharedPendingDebits;
+    private final LockService lockService;
+
+    @Value("${journal.enabled}")
+    private boolean enabled;
+
+    @Value("${journal.directory}")
+    private String directory;
+
+    @Value("${journal.segment-size}")
+    private int segmentSize;
+
+    @Value("${journal.max-batch}")
+    private int maxBatch;
+
+    @Value("${journal.retry-backoff-ms}")
+    private long retryBackoffMs;
+
+    private final BlockingQueue<Append> appendQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<JournalRecord> applyQueue = new LinkedBlockingQueue<>();
+    private final Map<String, Long> pendingAmounts = new ConcurrentHashMap<>();
+    //거래 id 별 반영되지 않은 기록. 취소 요청과 반영 스레드가 같은 기록을 두 번 해제하지 않게 한다.
+    private final Map<String, JournalRecord> unapplied = new ConcurrentHashMap<>();
+    private final AtomicLong pendingRecords = new AtomicLong();
+    private final Deque<JournalSegment> segments = new ConcurrentLinkedDeque<>();
+    private final Timer appendTimer = Metrics.timer("account.journal.append");
+
+    private long sequence;
+    private volatile boolean running;
+    private Thread writer;
+    private Thread applier;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 아직 DB 에 반영되지 않은 계좌의 차감 합계 (모든 노드)
+     * Redis 에서 읽지 못하면 다른 노드의 차감을 모르므로 승인하지 않는다.
+     */
+    public long pendingAmount(String accountNumber) {
+        if (!enabled) {
+            return 0;
+        }
+        long shared = sharedPendingDebits.amount(accountNumber);
+        if (shared < 0) {
+            throw new AccountException(DEBIT_JOURNAL_UNAVAILABLE);
+        }
+        //Redis 에 올리지 못한 이 노드의 차감도 빠지지 않게 한다.
+        return Math.max(shared, pendingAmounts.getOrDefault(accountNumber, 0L));
+    }
+
+    /**
+     * 차감을 저널에 기록하고 디스크에 내려갈 때까지 기다린다. 계좌 락 안에서 호출한다.
+     */
+    public JournalRecord append(long accountId, long userId, String accountNumber,
+                                long amount, long balanceSnapshot) {
+        long start = System.nanoTime();
+        Append append;
+        //sequence 순서와 큐 순서를 맞추고, 종료 뒤에는 큐에 넣지 않는다.
+        synchronized (appendQueue) {
+            if (!running) {
+                throw new AccountException(DEBIT_JOURNAL_UNAVAILABLE);
+            }
+            append = new Append(JournalRecord.builder()
+                    .sequence(++sequence)
+                    .accountId(accountId)
+                    .userId(userId)
+                    .accountNumber(accountNumber)
+                    .amount(amount)
+                    .balanceSnapshot(balanceSnapshot)
+                    .transactionId(UUID.randomUUID().toString().replaceAll("-", ""))
+                    .transactedAt(LocalDateTime.now())
+                    .build());
+            pendingAmounts.merge(accountNumber, amount, Long::sum);
+            pendingRecords.incrementAndGet();
+            unapplied.put(append.record.getTransactionId(), append.record);
+            appendQueue.add(append);
+        }
+
+        try {
+            return append.future.join();
+        } catch (CompletionException e) {
+            throw new AccountException(DEBIT_JOURNAL_UNAVAILABLE);
+        } finally {
+            appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 계좌의 반영되지 않은 차감을 호출한 트랜잭션에서 먼저 반영한다. 계좌 락 안에서 호출한다.
+     * 취소 거래가 앞선 차감 거래 뒤에 쌓이고, 잔액 스냅샷에 대기 중인 차감이 빠지지 않게 한다.
+     * 다른 노드의 차감은 이 노드에서 반영할 수 없으므로 그 노드가 반영할 때까지 거절한다.
+     */
+    public void applyPending(String accountNumber) {
+        if (!enabled) {
+            return;
+        }
+        List<JournalRecord> records = new ArrayList<>();
+        long amount = 0;
+        for (JournalRecord record : unapplied.values()) {
+            if (record.getAccountNumber().equals(accountNumber)) {
+                records.add(record);
+                amount += record.getAmount();
+            }
+        }
+        long shared = sharedPendingDebits.amount(accountNumber);
+        if (shared < 0) {
+            throw new AccountException(DEBIT_JOURNAL_UNAVAILABLE);
+        }
+        if (shared > amount) {
+            throw new AccountException(ACCOUNT_TRANSACTION_LOCK);
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+
+        records.sort(Comparator.comparingLong(JournalRecord::getSequence));
+        journalApplier.apply(records);
+        //롤백되면 반영 스레드가 다시 반영하므로 커밋된 뒤에만 대기 금액을 줄인다. 반영 스레드는 이미 있는 거래를 건너뛴다.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sharedPendingDebits.remove(records);
+                for (JournalRecord record : records) {
+                    release(record);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path journalDirectory = Files.createDirectories(Paths.get(directory));
+            long lastIndex = replay(journalDirectory);
+            segments.add(JournalSegment.create(segmentPath(journalDirectory, lastIndex + 1),
+                    lastIndex + 1, segmentSize));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open debit journal " + directory, e);
+        }
+        Metrics.gauge("account.journal.pending", pendingRecords);
+
+        running = true;
+        writer = new Thread(this::writeLoop, "debit-journal-writer");
+        applier = new Thread(this::applyLoop, "debit-journal-applier");
+        writer.start();
+        applier.start();
+        log.info("Debit journal started. directory={}", directory);
+    }
+
+    /**
+     * 받은 기록은 모두 디스크에 쓰고, DB 반영은 가능한 만큼 한다. 반영하지 못한 기록은 다음 시작 때 재생된다.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        synchronized (appendQueue) {
+            running = false;
+        }
+        try {
+            writer.join();
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (JournalSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.warn("Failed to close journal segment {}", segment.getPath(), e);
+            }
+        }
+        log.info("Debit journal stopped. unapplied={}", pendingRecords.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 웹 서버보다 먼저 시작하고 나중에 멈춘다.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2;
+    }
+
+    /**
+     * 남아 있는 저널을 파일 순서대로 모두 반영하고 지운다. 반영하지 못하면 시작하지 않는다.
+     * @return 마지막 파일 번호
+     */
+    private long replay(Path journalDirectory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                journalDirectory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+
+        long lastIndex = 0;
+        long replayed = 0;
+        for (Path file : files) {
+            List<JournalRecord> records = JournalSegment.read(file);
+            for (int from = 0; from < records.size(); from += maxBatch) {
+                List<JournalRecord> batch = records.subList(from, Math.min(records.size(), from + maxBatch));
+                replayed += applyUnderLock(batch);
+            }
+            if (!records.isEmpty()) {
+                sequence = Math.max(sequence, records.get(records.size() - 1).getSequence());
+            }
+            lastIndex = Math.max(lastIndex, segmentIndex(file));
+            Files.delete(file);
+        }
+        if (!files.isEmpty()) {
+            log.info("Replayed debit journal. files={}, applied={}", files.size(), replayed);
+        }
+        return lastIndex;
+    }
+
+    private void writeLoop() {
+        List<Append> batch = new ArrayList<>(maxBatch);
+        while (running || !appendQueue.isEmpty()) {
+            try {
+                Append first = appendQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                //이전 force 동안 쌓인 기록을 한 번에 내린다.
+                appendQueue.drainTo(batch, maxBatch - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Append> batch) {
+        JournalSegment segment = segments.getLast();
+        int position = segment.position();
+        try {
+            int size = 0;
+            for (Append append : batch) {
+                size += append.record.encodedSize();
+            }
+            if (segment.remaining() < size) {
+                segment = roll(segment);
+                position = segment.position();
+            }
+            for (Append append : batch) {
+                segment.append(append.record);
+            }
+            segment.force();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write debit journal. {} debits rejected", batch.size(), e);
+            segment.truncate(position);
+            for (Append append : batch) {
+                release(append.record);
+                append.future.completeExceptionally(e);
+            }
+            return;
+        }
+
+        //응답(계좌 락 해제) 전에 올려야 다음 락 보유자가 본다.
+        List<JournalRecord> records = new ArrayList<>(batch.size());
+        for (Append append : batch) {
+            records.add(append.record);
+        }
+        sharedPendingDebits.add(records);
+        for (Append append : batch) {
+            applyQueue.add(append.record);
+            append.future.complete(append.record);
+        }
+    }
+
+    private JournalSegment roll(JournalSegment current) throws IOException {
+        current.force();
+        current.close();
+        long index = current.getIndex() + 1;
+        JournalSegment next = JournalSegment.create(
+                segmentPath(current.getPath().getParent(), index), index, segmentSize);
+        segments.add(next);
+        return next;
+    }
+
+    private void applyLoop() {
+        List<JournalRecord> batch = new ArrayList<>(maxBatch);
+        while (running || writer.isAlive() || !applyQueue.isEmpty()) {
+            try {
+                JournalRecord first = applyQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                applyQueue.drainTo(batch, maxBatch - 1);
+                if (!applyWithRetry(batch)) {
+                    return;
+                }
+                deleteAppliedSegments(batch.get(batch.size() - 1).getSequence());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * DB 가 돌아오거나 계좌 락을 잡을 때까지 같은 묶음을 다시 반영한다. 그동안 대기 금액은 그대로 잔액 확인에 쓰인다.
+     * @return 종료 중에 반영하지 못했으면 false (다음 시작 때 재생된다)
+     */
+    private boolean applyWithRetry(List<JournalRecord> batch) throws InterruptedException {
+        while (true) {
+            try {
+                applyUnderLock(batch);
+                return true;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.warn("Stopping with {} unapplied journal records", pendingRecords.get(), e);
+                    return false;
+                }
+                log.error("Failed to apply debit journal. Retrying in {}ms", retryBackoffMs, e);
+                Thread.sleep(retryBackoffMs);
+            }
+        }
+    }
+
+    /**
+     * 묶음의 계좌 락을 모두 잡고 반영한 뒤 대기 금액을 줄인다.
+     * 락은 계좌번호 순으로 잡아 다른 노드의 반영 스레드와 서로 기다리지 않게 한다.
+     * @return 새로 반영한 건수
+     */
+    private int applyUnderLock(List<JournalRecord> batch) {
+        Set<String> accountNumbers = new TreeSet<>();
+        for (JournalRecord record : batch) {
+            accountNumbers.add(record.getAccountNumber());
+        }
+        List<String> locked = new ArrayList<>(accountNumbers.size());
+        try {
+            for (String accountNumber : accountNumbers) {
+                lockService.lock(accountNumber);
+                locked.add(accountNumber);
+            }
+            int applied = journalApplier.apply(batch);
+            sharedPendingDebits.remove(batch);
+            for (JournalRecord record : batch) {
+                release(record);
+            }
+            return applied;
+        } finally {
+            for (String accountNumber : locked) {
+                lockService.unlock(accountNumber);
+            }
+        }
+    }
+
+    /**
+     * 쓰기 중인 마지막 파일을 제외하고, 모든 기록이 반영된 파일을 지운다.
+     */
+    private void deleteAppliedSegments(long appliedSequence) {
+        while (segments.size() > 1 && segments.getFirst().getLastSequence() <= appliedSequence) {
+            JournalSegment applied = segments.removeFirst();
+            try {
+                Files.deleteIfExists(applied.getPath());
+            } catch (IOException e) {
+                log.warn("Failed to delete applied journal segment {}", applied.getPath(), e);
+            }
+        }
+    }
+
+    /**
+     * 재생한 기록이나 이미 해제한 기록은 건너뛴다.
+     */
+    private void release(JournalRecord record) {
+        if (unapplied.remove(record.getTransactionId()) == null) {
+            return;
+        }
+        pendingRecords.decrementAndGet();
+        pendingAmounts.computeIfPresent(record.getAccountNumber(),
+                (accountNumber, amount) -> amount == record.getAmount() ? null : amount - record.getAmount());
+    }
+
+    private static Path segmentPath(Path journalDirectory, long index) {
+        return journalDirectory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static class Append {
+        private final JournalRecord record;
+        private final CompletableFuture<JournalRecord> future = new CompletableFuture<>();
+
+        Append(JournalRecord record) {
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.account.journal;
+
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.example.account.type.TransactionResultType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 저널 기록을 DB 에 반영한다.
+ * 잔액 차감, 거래, 아웃박스를 묶음 단위 한 트랜잭션으로 저장하고,
+ * 이미 거래가 있는 기록은 건너뛰므로 재시작 후 같은 기록을 다시 반영해도 안전하다.
+ * 잔액이 모자라면 차감하지 않고 실패 거래로 남긴다. 다른 노드가 이 차감을 모르고 승인한 경우이다.
+ * 기록한 계좌의 락을 잡은 채로 호출해야 한다(DebitJournal). 라이브 거래의 JPA version 갱신과 겹치지 않게 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JournalApplier {
+    private static final Counter REJECTED = Metrics.counter("account.journal.rejected");
+    private static final String SELECT_EXISTING_SQL =
+            "select transaction_id from transaction where transaction_id in (%s)";
+    private static final String SELECT_BALANCES_SQL =
+            "select account_number, balance, version from account where id in (%s)";
+    private static final RowMapper<AccountsBulkChangedEvent.Balance> BALANCE_MAPPER = (rs, rowNum) ->
+            new AccountsBulkChangedEvent.Balance(rs.getString(1), rs.getLong(2), rs.getLong(3));
+    private static final String UPDATE_BALANCE_SQL =
+            "update account set balance = balance - ?, version = version + 1, updated_at = ? " +
+            "where id = ? and balance >= ?";
+    private static final String INSERT_TRANSACTION_SQL =
+            "insert into transaction (id, account_id, transaction_type, transaction_result_type, amount, " +
+            "balance_snapshot, transaction_id, transacted_at, created_at, updated_at) " +
+            "values (next value for hibernate_sequence, ?, 'USE', ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_OUTBOX_SQL =
+            "insert into transaction_outbox (id, account_number, transaction_type, transaction_result_type, " +
+            "amount, balance_snapshot, transaction_id, transacted_at, created_at, updated_at) " +
+            "values (next value for hibernate_sequence, ?, 'USE', ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * @param records sequence 순서
+     * @return 새로 반영한 건수 (잔액 하한에 걸려 실패로 남긴 기록 포함)
+     */
+    @Transactional
+    public int apply(List<JournalRecord> records) {
+        Set<String> existing = findExistingTransactionIds(records);
+        List<JournalRecord> pending = new ArrayList<>(records.size());
+        for (JournalRecord record : records) {
+            if (!existing.contains(record.getTransactionId())) {
+                pending.add(record);
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        //같은 계좌의 기록은 순서대로 실행되므로 앞선 차감까지 반영된 잔액으로 하한을 확인한다.
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, new RecordSetter(pending) {
+            @Override
+            void setValues(PreparedStatement ps, JournalRecord record, int i) throws SQLException {
+                ps.setLong(1, record.getAmount());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, record.getAccountId());
+                ps.setLong(4, record.getAmount());
+            }
+        });
+        List<TransactionResultType> results = new ArrayList<>(pending.size());
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> accountIds = new HashSet<>();
+        Set<String> accountNumbers = new HashSet<>();
+        for (int i = 0; i < pending.size(); i++) {
+            JournalRecord record = pending.get(i);
+            if (updated[i] == 0) {
+                REJECTED.increment();
+                log.error("Journaled debit exceeds balance. Recorded as failed. transactionId={}, account={}",
+                        record.getTransactionId(), record.getAccountNumber());
+                results.add(TransactionResultType.F);
+                continue;
+            }
+            results.add(TransactionResultType.S);
+            userIds.add(record.getUserId());
+            accountIds.add(record.getAccountId());
+            accountNumbers.add(record.getAccountNumber());
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, new RecordSetter(pending) {
+            @Override
+            void setValues(PreparedStatement ps, JournalRecord record, int i) throws SQLException {
+                ps.setLong(1, record.getAccountId());
+                setTransaction(ps, record, results.get(i), now);
+            }
+        });
+        //거래와 같은 트랜잭션에서 아웃박스 기록
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, new RecordSetter(pending) {
+            @Override
+            void setValues(PreparedStatement ps, JournalRecord record, int i) throws SQLException {
+                ps.setString(1, record.getAccountNumber());
+                setTransaction(ps, record, results.get(i), now);
+            }
+        });
+
+        if (!accountNumbers.isEmpty()) {
+            applicationEventPublisher.publishEvent(new AccountsBulkChangedEvent(
+                    userIds, accountNumbers, findBalances(accountIds)));
+        }
+        return pending.size();
+    }
+
+    private Set<String> findExistingTransactionIds(List<JournalRecord> records) {
+        if (records.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Object[] transactionIds = records.stream()
+                .map(JournalRecord::getTransactionId)
+                .toArray();
+        String sql = String.format(SELECT_EXISTING_SQL,
+                String.join(",", Collections.nCopies(transactionIds.length, "?")));
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, transactionIds));
+    }
+
+    /**
+     * 이 트랜잭션이 행 락을 잡고 있으므로 읽은 잔액과 version 이 곧 커밋될 값이다.
+     */
+    private List<AccountsBulkChangedEvent.Balance> findBalances(Set<Long> accountIds) {
+        String sql = String.format(SELECT_BALANCES_SQL,
+                String.join(",", Collections.nCopies(accountIds.size(), "?")));
+        return jdbcTemplate.query(sql, BALANCE_MAPPER, accountIds.toArray());
+    }
+
+    /**
+     * 실패 거래의 잔액 스냅샷은 차감 전 잔액
+     */
+    private static void setTransaction(PreparedStatement ps, JournalRecord record,
+                                       TransactionResultType result, Timestamp now)
+            throws SQLException {
+        ps.setString(2, result.name());
+        ps.setLong(3, record.getAmount());
+        ps.setLong(4, result == TransactionResultType.S
+                ? record.getBalanceSnapshot()
+                : record.getBalanceSnapshot() + record.getAmount());
+        ps.setString(5, record.getTransactionId());
+        ps.setTimestamp(6, Timestamp.valueOf(record.getTransactedAt()));
+        ps.setTimestamp(7, now);
+        ps.setTimestamp(8, now);
+    }
+
+    private abstract static class RecordSetter implements BatchPreparedStatementSetter {
+        private final List<JournalRecord> records;
+
+        RecordSetter(List<JournalRecord> records) {
+            this.records = records;
+        }
+
+        abstract void setValues(PreparedStatement ps, JournalRecord record, int i) throws SQLException;
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            setValues(ps, records.get(i), i);
+        }
+
+        @Override
+        public int getBatchSize() {
+            return records.size();
+        }
+    }
+}
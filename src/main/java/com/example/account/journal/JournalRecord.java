@@ -0,0 +1,104 @@
+package com.example.account.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * 저널에 기록되는 잔액 사용(차감) 한 건
+ * [payload 길이 int][payload CRC32 int][payload] 로 기록한다.
+ * 길이가 0 이거나 CRC 가 맞지 않으면 그 지점에서 저널이 끝난 것으로 본다.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class JournalRecord {
+    public static final int HEADER_SIZE = 8;
+
+    private final long sequence;
+    private final long accountId;
+    private final long userId;
+    private final String accountNumber;
+    private final long amount;
+    private final long balanceSnapshot;
+    private final String transactionId;
+    private final LocalDateTime transactedAt;
+
+    public int encodedSize() {
+        return HEADER_SIZE + payloadSize();
+    }
+
+    public void encode(ByteBuffer target) {
+        byte[] accountNumberBytes = accountNumber.getBytes(StandardCharsets.US_ASCII);
+        byte[] transactionIdBytes = transactionId.getBytes(StandardCharsets.US_ASCII);
+
+        int start = target.position();
+        target.putInt(payloadSize());
+        target.putInt(0);
+        target.putLong(sequence);
+        target.putLong(accountId);
+        target.putLong(userId);
+        target.putLong(amount);
+        target.putLong(balanceSnapshot);
+        target.putLong(transactedAt.toEpochSecond(ZoneOffset.UTC));
+        target.putInt(transactedAt.getNano());
+        target.putShort((short) accountNumberBytes.length);
+        target.put(accountNumberBytes);
+        target.putShort((short) transactionIdBytes.length);
+        target.put(transactionIdBytes);
+        target.putInt(start + 4, crc(target, start + HEADER_SIZE, payloadSize()));
+    }
+
+    /**
+     * @return 더 읽을 기록이 없거나 기록이 손상되었으면 null. null 이 아니면 source 는 다음 기록 위치로 이동한다.
+     */
+    public static JournalRecord decode(ByteBuffer source) {
+        int start = source.position();
+        if (source.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int length = source.getInt(start);
+        int checksum = source.getInt(start + 4);
+        if (length <= 0 || length > source.remaining() - HEADER_SIZE
+                || crc(source, start + HEADER_SIZE, length) != checksum) {
+            return null;
+        }
+
+        source.position(start + HEADER_SIZE);
+        long sequence = source.getLong();
+        long accountId = source.getLong();
+        long userId = source.getLong();
+        long amount = source.getLong();
+        long balanceSnapshot = source.getLong();
+        LocalDateTime transactedAt = LocalDateTime.ofEpochSecond(
+                source.getLong(), source.getInt(), ZoneOffset.UTC);
+        String accountNumber = readAscii(source);
+        String transactionId = readAscii(source);
+        return new JournalRecord(sequence, accountId, userId, accountNumber,
+                amount, balanceSnapshot, transactionId, transactedAt);
+    }
+
+    private int payloadSize() {
+        return 8 * 6 + 4 + 2 + accountNumber.length() + 2 + transactionId.length();
+    }
+
+    private static String readAscii(ByteBuffer source) {
+        byte[] bytes = new byte[source.getShort()];
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(offset + length).position(offset);
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload);
+        return (int) crc32.getValue();
+    }
+}
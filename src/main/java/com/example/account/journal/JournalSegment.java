@@ -0,0 +1,85 @@
+package com.example.account.journal;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 고정 크기로 미리 잡아 memory-map 한 저널 파일 하나
+ * 쓰기는 저널 쓰기 스레드 하나만 하므로 동기화하지 않는다.
+ */
+@Getter
+class JournalSegment {
+    private final Path path;
+    private final long index;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    //이 파일에 기록된 마지막 sequence. 반영이 이 값을 넘으면 파일을 지운다.
+    private volatile long lastSequence;
+
+    private JournalSegment(Path path, long index, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.index = index;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path path, long index, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(path, index, channel,
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    /**
+     * 손상되지 않은 기록을 처음부터 순서대로 읽는다. 마지막에 쓰다 만 기록은 버린다.
+     */
+    static List<JournalRecord> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            List<JournalRecord> records = new ArrayList<>();
+            JournalRecord record;
+            while ((record = JournalRecord.decode(buffer)) != null) {
+                records.add(record);
+            }
+            return records;
+        }
+    }
+
+    int remaining() {
+        return buffer.remaining();
+    }
+
+    int position() {
+        return buffer.position();
+    }
+
+    void append(JournalRecord record) {
+        record.encode(buffer);
+        lastSequence = record.getSequence();
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * 실패한 묶음이 나중에 다른 묶음과 함께 디스크에 내려가 재생되지 않도록 position 이후를 0 으로 되돌린다.
+     */
+    void truncate(int position) {
+        for (int i = position; i < buffer.position(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.position(position);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.account.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 모든 노드의 아직 반영되지 않은 차감 (Redis)
+ * 계좌마다 해시 하나에 거래 id 별 금액을 둔다. 저널에 내려간 뒤 넣고, DB 에 반영된 뒤 뺀다.
+ * 거래 id 단위로 넣고 빼므로 재시작 후 재생에서 다시 빼도 안전하다.
+ * 계좌 락 안에서 넣으므로 다음 락 보유자는 어느 노드에서든 이 차감을 본다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SharedPendingDebits {
+    private static final Counter REDIS_FAILURES = Metrics.counter("account.journal.pending.redis.failures");
+
+    //KEYS 계좌별 해시, ARGV 거래 id, 금액 쌍
+    private static final String ADD_SCRIPT =
+            "for i, key in ipairs(KEYS) do " +
+            "  redis.call('hset', key, ARGV[2 * i - 1], ARGV[2 * i]) " +
+            "end " +
+            "return 0";
+    //KEYS 계좌별 해시, ARGV 거래 id
+    private static final String REMOVE_SCRIPT =
+            "for i, key in ipairs(KEYS) do " +
+            "  redis.call('hdel', key, ARGV[i]) " +
+            "end " +
+            "return 0";
+    private static final String SUM_SCRIPT =
+            "local sum = 0 " +
+            "for _, amount in ipairs(redis.call('hvals', KEYS[1])) do sum = sum + tonumber(amount) end " +
+            "return sum";
+
+    private final RedissonClient redissonClient;
+    //빼지 못한 기록. 남겨두면 그 계좌 잔액이 계속 적게 보이므로 다음에 다시 뺀다.
+    private final Queue<JournalRecord> unreleased = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 넣지 못하면 다른 노드가 이 차감을 모르고 승인할 수 있다. 그때는 반영 시 잔액 하한이 막는다.
+     */
+    public void add(List<JournalRecord> records) {
+        List<Object> keys = new ArrayList<>(records.size());
+        List<Object> args = new ArrayList<>(records.size() * 2);
+        for (JournalRecord record : records) {
+            keys.add(getKey(record.getAccountNumber()));
+            args.add(record.getTransactionId());
+            args.add(record.getAmount());
+        }
+        try {
+            redissonClient.getScript(LongCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE, ADD_SCRIPT, RScript.ReturnType.INTEGER,
+                    keys, args.toArray());
+        } catch (Exception e) {
+            REDIS_FAILURES.increment();
+            log.error("Failed to share {} pending debits", records.size(), e);
+        }
+    }
+
+    public void remove(List<JournalRecord> records) {
+        List<JournalRecord> targets = new ArrayList<>(records);
+        JournalRecord retry;
+        while ((retry = unreleased.poll()) != null) {
+            targets.add(retry);
+        }
+        List<Object> keys = new ArrayList<>(targets.size());
+        List<Object> args = new ArrayList<>(targets.size());
+        for (JournalRecord record : targets) {
+            keys.add(getKey(record.getAccountNumber()));
+            args.add(record.getTransactionId());
+        }
+        try {
+            redissonClient.getScript(LongCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE, REMOVE_SCRIPT, RScript.ReturnType.INTEGER,
+                    keys, args.toArray());
+        } catch (Exception e) {
+            REDIS_FAILURES.increment();
+            log.error("Failed to release {} pending debits. Will retry", targets.size(), e);
+            unreleased.addAll(targets);
+        }
+    }
+
+    /**
+     * @return 조회하지 못하면 -1
+     */
+    public long amount(String accountNumber) {
+        try {
+            Long amount = redissonClient.getScript(LongCodec.INSTANCE).eval(
+                    RScript.Mode.READ_ONLY, SUM_SCRIPT, RScript.ReturnType.INTEGER,
+                    List.of(getKey(accountNumber)));
+            return amount == null ? 0 : amount;
+        } catch (Exception e) {
+            REDIS_FAILURES.increment();
+            log.error("Failed to read pending debits of {}", accountNumber, e);
+            return -1;
+        }
+    }
+
+    private static String getKey(String accountNumber) {
+        return "JP : " + accountNumber;
+    }
+}
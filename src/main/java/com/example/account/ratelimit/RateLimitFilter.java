@@ -0,0 +1,167 @@
+package com.example.account.ratelimit;
+
+import com.example.account.config.RateLimitProperties;
+import com.example.account.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.account.type.ErrorCode.RATE_LIMIT_EXCEEDED;
+
+/**
+ * 거래/조회 API 요청 한도
+ * 요청 본문 검증과 서비스 로직 전에 사용자, 계좌 단위로 한도를 확인한다.
+ * 사용자나 계좌를 알 수 없는 요청은 클라이언트 주소 단위로 확인한다.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Counter REJECTED =
+            Metrics.counter("account.ratelimit.rejected");
+
+    private final RequestRateLimiter requestRateLimiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RequestRateLimiter requestRateLimiter,
+                           RateLimitProperties properties,
+                           ObjectMapper objectMapper) {
+        this.requestRateLimiter = requestRateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!properties.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest target = request;
+        List<RequestRateLimiter.Quota> quotas = new ArrayList<>(2);
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("POST".equals(request.getMethod()) && path.startsWith("/transaction/")) {
+            //본문은 여기서 한 번 읽고 뒤에서 다시 읽을 수 있게 감싼다.
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            target = cached;
+            JsonNode body = readBody(cached.body);
+            addQuota(quotas, "user", body.path("userId").asText(null), properties.getUserLimit());
+            addQuota(quotas, "account", body.path("accountNumber").asText(null),
+                    properties.getAccountLimit());
+        } else if ("GET".equals(request.getMethod()) && path.startsWith("/account")) {
+            addQuota(quotas, "user", request.getParameter("user_id"), properties.getUserLimit());
+            if (path.endsWith("/balance")) {
+                String[] segments = path.split("/");
+                addQuota(quotas, "account", segments[segments.length - 2],
+                        properties.getAccountLimit());
+            }
+        }
+        if (quotas.isEmpty()) {
+            addQuota(quotas, "client", request.getRemoteAddr(), properties.getClientLimit());
+        }
+
+        if (!requestRateLimiter.tryAcquire(quotas)) {
+            REJECTED.increment();
+            reject(response);
+            return;
+        }
+        filterChain.doFilter(target, response);
+    }
+
+    private void addQuota(List<RequestRateLimiter.Quota> quotas, String type,
+                          String id, int limit) {
+        if (id != null && !id.isEmpty()) {
+            quotas.add(new RequestRateLimiter.Quota(type + ":" + id, limit));
+        }
+    }
+
+    private JsonNode readBody(byte[] body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            //잘못된 본문은 뒤의 검증에서 INVALID_REQUEST 로 응답한다.
+            return objectMapper.missingNode();
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        //Retry-After 는 초 단위
+        long retryAfterSeconds = Math.max(1, (requestRateLimiter.millisUntilNextWindow() + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(RATE_LIMIT_EXCEEDED, RATE_LIMIT_EXCEEDED.getDescription()));
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    getCharacterEncoding() != null
+                            ? Charset.forName(getCharacterEncoding())
+                            : StandardCharsets.UTF_8));
+        }
+    }
+}
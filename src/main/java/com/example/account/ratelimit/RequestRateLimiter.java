@@ -0,0 +1,190 @@
+package com.example.account.ratelimit;
+
+import com.example.account.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 키별 고정 윈도 요청 한도
+ * 윈도마다 Redis 카운터에서 토큰을 묶음(lease)으로 받아 로컬에서 나눠 쓰고, 다 쓰면 다음 묶음을 받는다.
+ * 한 요청에 필요한 키들의 보충은 Lua 스크립트 한 번으로 처리하므로 Redis 호출은 요청당 많아야 한 번이다.
+ * 이번 윈도에서 한도를 다 쓴 키는 윈도가 바뀔 때까지 Redis 없이 거절한다.
+ */
+@Slf4j
+public class RequestRateLimiter {
+    private static final Counter REDIS_FAILURES =
+            Metrics.counter("account.ratelimit.redis.failures");
+    private static final String LEASE_SCRIPT =
+            "local counts = {} " +
+            "for i, key in ipairs(KEYS) do " +
+            "  local lease = tonumber(ARGV[i + 1]) " +
+            "  local count = redis.call('incrby', key, lease) " +
+            "  if count == lease then redis.call('pexpire', key, ARGV[1]) end " +
+            "  counts[i] = count " +
+            "end " +
+            "return counts";
+
+    private final RedissonClient redissonClient;
+    private final RateLimitProperties properties;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Budget> budgets = new ConcurrentHashMap<>();
+    private final AtomicLong sweptWindow = new AtomicLong();
+
+    public RequestRateLimiter(RedissonClient redissonClient, RateLimitProperties properties) {
+        this(redissonClient, properties, System::currentTimeMillis);
+    }
+
+    RequestRateLimiter(RedissonClient redissonClient, RateLimitProperties properties,
+                       LongSupplier clock) {
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Quota {
+        private final String key;
+        private final int limit;
+    }
+
+    /**
+     * 모든 키에서 토큰을 하나씩 받을 수 있을 때만 true. 하나라도 거절되면 받은 토큰은 돌려놓는다.
+     * Redis 장애 시에는 허용한다. 계좌 락 입장 제어가 뒤에서 한 번 더 막는다.
+     */
+    public boolean tryAcquire(List<Quota> quotas) {
+        long window = clock.getAsLong() / properties.getWindowMs();
+        sweep(window);
+
+        List<Budget> taken = new ArrayList<>(quotas.size());
+        List<Quota> refills = new ArrayList<>(quotas.size());
+        for (Quota quota : quotas) {
+            Budget budget = budgets.computeIfAbsent(quota.getKey(), key -> new Budget());
+            synchronized (budget) {
+                budget.resetIfStale(window);
+                if (budget.exhausted) {
+                    refund(taken);
+                    return false;
+                }
+                if (budget.tokens > 0) {
+                    budget.tokens--;
+                    taken.add(budget);
+                    continue;
+                }
+            }
+            refills.add(quota);
+        }
+        if (refills.isEmpty()) {
+            return true;
+        }
+
+        List<Long> counts;
+        try {
+            counts = lease(refills, window);
+        } catch (Exception e) {
+            REDIS_FAILURES.increment();
+            log.error("Rate limit lease failed", e);
+            refund(taken);
+            return true;
+        }
+
+        boolean allowed = true;
+        for (int i = 0; i < refills.size(); i++) {
+            Quota quota = refills.get(i);
+            long lease = leaseSize(quota.getLimit());
+            long before = counts.get(i) - lease;
+            long granted = Math.max(0, Math.min(lease, quota.getLimit() - before));
+
+            Budget budget = budgets.computeIfAbsent(quota.getKey(), key -> new Budget());
+            synchronized (budget) {
+                budget.resetIfStale(window);
+                if (granted == 0) {
+                    budget.exhausted = true;
+                    allowed = false;
+                } else {
+                    budget.tokens += granted - 1;
+                    taken.add(budget);
+                }
+            }
+        }
+        if (!allowed) {
+            refund(taken);
+        }
+        return allowed;
+    }
+
+    /**
+     * 다음 윈도가 시작될 때까지 남은 시간
+     */
+    public long millisUntilNextWindow() {
+        long windowMs = properties.getWindowMs();
+        return windowMs - clock.getAsLong() % windowMs;
+    }
+
+    private List<Long> lease(List<Quota> quotas, long window) {
+        List<Object> keys = new ArrayList<>(quotas.size());
+        Object[] args = new Object[quotas.size() + 1];
+        //윈도 경계에서 늦게 도착한 요청이 있어도 지워지지 않게 윈도 두 개만큼 둔다.
+        args[0] = properties.getWindowMs() * 2;
+        for (int i = 0; i < quotas.size(); i++) {
+            keys.add("RL : " + quotas.get(i).getKey() + " : " + window);
+            args[i + 1] = leaseSize(quotas.get(i).getLimit());
+        }
+        return redissonClient.getScript(LongCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE, LEASE_SCRIPT, RScript.ReturnType.MULTI, keys, args);
+    }
+
+    /**
+     * 한도의 leasePercent 와 minLease 중 큰 값. 한도보다 크게 받지는 않는다.
+     */
+    private long leaseSize(int limit) {
+        long lease = Math.max(properties.getMinLease(), (long) limit * properties.getLeasePercent() / 100);
+        return Math.max(1, Math.min(limit, lease));
+    }
+
+    private void refund(List<Budget> taken) {
+        for (Budget budget : taken) {
+            synchronized (budget) {
+                budget.tokens++;
+            }
+        }
+    }
+
+    //윈도가 바뀌면 지난 윈도의 로컬 예산을 한 번 정리한다.
+    private void sweep(long window) {
+        long swept = sweptWindow.get();
+        if (swept < window && sweptWindow.compareAndSet(swept, window)) {
+            budgets.values().removeIf(budget -> budget.window < window);
+        }
+    }
+
+    int localKeys() {
+        return budgets.size();
+    }
+
+    private static class Budget {
+        private volatile long window = -1;
+        private long tokens;
+        private boolean exhausted;
+
+        private void resetIfStale(long currentWindow) {
+            if (window != currentWindow) {
+                window = currentWindow;
+                tokens = 0;
+                exhausted = false;
+            }
+        }
+    }
+}
@@ -3,8 +3,12 @@ package com.example.account.repository;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,9 +16,23 @@ import java.util.Optional;
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findFirstByOrderByIdDesc();
 
-    Integer countByAccountUser(AccountUser accountUser);
+    //schema.sql 의 계좌번호 시퀀스. 동시에 개설해도 번호가 겹치지 않는다.
+    @Query(value = "select next value for account_number_seq", nativeQuery = true)
+    long nextAccountNumber();
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
     List<Account> findByAccountUser(AccountUser accountUser);
+
+    boolean existsByAccountNumber(String accountNumber);
+
+    @Query("select a from Account a join fetch a.accountUser u " +
+            "where a.accountNumber = :accountNumber and u.id = :userId")
+    Optional<Account> findByAccountNumberAndUserId(@Param("accountNumber") String accountNumber,
+                                                   @Param("userId") Long userId);
+
+    //계좌 행만 잠근다. 사용자를 같이 잠그면 그 사용자의 계좌 개설(계좌 수 증가)이 막힌다.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.accountNumber = :accountNumber")
+    Optional<Account> findByAccountNumberForUpdate(@Param("accountNumber") String accountNumber);
 }
@@ -2,8 +2,38 @@ package com.example.account.repository;
 
 import com.example.account.domain.AccountUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AccountUserRepository extends JpaRepository<AccountUser, Long> {
-}
\ No newline at end of file
+    /**
+     * 계좌 수가 max 를 넘지 않을 때만 늘린다.
+     * @return 늘렸으면 1, 한도에 걸렸거나 사용자가 없으면 0
+     */
+    @Modifying
+    @Query("update AccountUser u set u.accountCount = u.accountCount + :count " +
+            "where u.id = :userId and u.accountCount + :count <= :max")
+    int increaseAccountCount(@Param("userId") Long userId,
+                             @Param("count") long count,
+                             @Param("max") long max);
+
+    @Modifying
+    @Query("update AccountUser u set u.accountCount = u.accountCount - 1 " +
+            "where u.id = :userId and u.accountCount > 0")
+    int decreaseAccountCount(@Param("userId") Long userId);
+
+    /**
+     * 대량 개설 청크에서 사용자별 계좌 수를 읽고 바꾸는 동안 잠근다. 교착을 피하려고 id 순서로 잠근다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from AccountUser u where u.id in :userIds order by u.id")
+    List<AccountUser> findAllByIdForUpdate(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,28 @@
+package com.example.account.repository;
+
+import com.example.account.domain.PostingChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PostingChunkRepository extends JpaRepository<PostingChunk, Long> {
+    List<PostingChunk> findByRunIdOrderByFirstAccountIdAsc(Long runId);
+
+    @Query("select count(c) as chunks, " +
+            "coalesce(sum(c.postedCount), 0) as posted, " +
+            "coalesce(sum(c.retriedCount), 0) as retried " +
+            "from PostingChunk c where c.runId = :runId")
+    Summary summarize(@Param("runId") Long runId);
+
+    interface Summary {
+        long getChunks();
+
+        long getPosted();
+
+        long getRetried();
+    }
+}
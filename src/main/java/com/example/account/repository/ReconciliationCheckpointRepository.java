@@ -0,0 +1,32 @@
+package com.example.account.repository;
+
+import com.example.account.domain.ReconciliationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReconciliationCheckpointRepository extends JpaRepository<ReconciliationCheckpoint, Long> {
+    @Query("select c.rangeStart from ReconciliationCheckpoint c where c.runId = :runId")
+    List<Long> findRangeStartsByRunId(@Param("runId") Long runId);
+
+    @Query("select count(c) as ranges, " +
+            "coalesce(sum(c.accountCount), 0) as accounts, " +
+            "coalesce(sum(c.transactionCount), 0) as transactions, " +
+            "coalesce(sum(c.mismatchCount), 0) as mismatches " +
+            "from ReconciliationCheckpoint c where c.runId = :runId")
+    Summary summarize(@Param("runId") Long runId);
+
+    interface Summary {
+        long getRanges();
+
+        long getAccounts();
+
+        long getTransactions();
+
+        long getMismatches();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.account.repository;
+
+import com.example.account.domain.TransactionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TransactionArchiveRepository extends JpaRepository<TransactionArchive, Long> {
+    Optional<TransactionArchive> findByTransactionId(String transactionId);
+
+    boolean existsByTransactionId(String transactionId);
+}
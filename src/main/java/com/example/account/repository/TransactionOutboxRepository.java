@@ -0,0 +1,15 @@
+package com.example.account.repository;
+
+import com.example.account.domain.TransactionOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TransactionOutboxRepository extends JpaRepository<TransactionOutbox, Long> {
+    @Query("select o from TransactionOutbox o order by o.id asc")
+    List<TransactionOutbox> findBatch(Pageable pageable);
+}
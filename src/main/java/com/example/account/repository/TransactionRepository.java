@@ -1,12 +1,33 @@
 package com.example.account.repository;
 
 import com.example.account.domain.Transaction;
+import com.example.account.type.TransactionResultType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByTransactionId(String transactionId);
+
+    @Query("select t from Transaction t join fetch t.account a join fetch a.accountUser " +
+            "where t.transactionId = :transactionId and a.accountNumber = :accountNumber")
+    Optional<Transaction> findByTransactionIdAndAccountNumber(
+            @Param("transactionId") String transactionId,
+            @Param("accountNumber") String accountNumber);
+
+    @Query("select t from Transaction t join fetch t.account " +
+            "where t.transactedAt < :cancelCutoff " +
+            "or (t.transactionResultType = :failed and t.transactedAt < :failedCutoff) " +
+            "order by t.transactedAt asc")
+    List<Transaction> findArchiveCandidates(@Param("cancelCutoff") LocalDateTime cancelCutoff,
+                                            @Param("failed") TransactionResultType failed,
+                                            @Param("failedCutoff") LocalDateTime failedCutoff,
+                                            Pageable pageable);
 }
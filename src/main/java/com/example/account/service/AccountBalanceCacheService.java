@@ -0,0 +1,137 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.dto.AccountInfo;
+import com.example.account.event.AccountChangedEvent;
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+
+/**
+ * 계좌 잔액 캐시
+ * 계좌번호마다 Redis 해시(balance, version)에 저장하고, 커밋 직후 write-through 로 갱신한다.
+ * 버전이 더 큰 값만 기록하므로 늦게 도착한 이전 값이 최신 값을 덮어쓰지 않는다.
+ * 일괄 변경도 잔액과 version 을 알면 같은 방식으로 한 번에 파이프라인으로 기록하고, 모르는 계좌만 지운다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountBalanceCacheService {
+    private static final String BALANCE = "balance";
+    private static final String PUT_IF_NEWER_SCRIPT =
+            "local current = redis.call('HGET', KEYS[1], 'version') " +
+            "if current and tonumber(current) >= tonumber(ARGV[1]) then return 0 end " +
+            "redis.call('HMSET', KEYS[1], 'version', ARGV[1], 'balance', ARGV[2]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[3]) " +
+            "return 1";
+
+    private final RedissonClient redissonClient;
+    private final AccountRepository accountRepository;
+
+    @Value("${balance.cache.ttl-ms}")
+    private long ttlMs;
+
+    public AccountInfo getBalance(String accountNumber) {
+        try {
+            Map<String, String> entries = redissonClient
+                    .<String, String>getMap(getBalanceKey(accountNumber), StringCodec.INSTANCE)
+                    .readAllMap();
+            String balance = entries.get(BALANCE);
+            if (balance != null) {
+                return new AccountInfo(accountNumber, Long.parseLong(balance));
+            }
+        } catch (RedisException e) {
+            log.warn("Balance cache read failed. accountNumber={}", accountNumber, e);
+        }
+
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+        put(account);
+        return new AccountInfo(accountNumber, account.getBalance());
+    }
+
+    @TransactionalEventListener
+    public void onAccountChanged(AccountChangedEvent event) {
+        put(event.getAccount());
+    }
+
+    @TransactionalEventListener
+    public void onAccountsBulkChanged(AccountsBulkChangedEvent event) {
+        Set<String> written = new HashSet<>();
+        if (!event.getBalances().isEmpty()) {
+            try {
+                RBatch batch = redissonClient.createBatch();
+                RScriptAsync script = batch.getScript(StringCodec.INSTANCE);
+                for (AccountsBulkChangedEvent.Balance balance : event.getBalances()) {
+                    String key = getBalanceKey(balance.getAccountNumber());
+                    script.evalAsync(key, RScript.Mode.READ_WRITE, PUT_IF_NEWER_SCRIPT,
+                            RScript.ReturnType.INTEGER, Collections.singletonList(key),
+                            Long.toString(balance.getVersion()),
+                            Long.toString(balance.getBalance()),
+                            Long.toString(ttlMs));
+                    written.add(balance.getAccountNumber());
+                }
+                batch.execute();
+            } catch (RedisException e) {
+                //기록하지 못한 계좌는 아래에서 지운다.
+                log.warn("Balance cache write failed. accounts={}", event.getBalances().size(), e);
+                written.clear();
+            }
+        }
+
+        String[] keys = event.getAccountNumbers().stream()
+                .filter(accountNumber -> !written.contains(accountNumber))
+                .map(this::getBalanceKey)
+                .toArray(String[]::new);
+        if (keys.length == 0) {
+            return;
+        }
+        try {
+            redissonClient.getKeys().delete(keys);
+        } catch (RedisException e) {
+            log.warn("Balance cache eviction failed. accounts={}", keys.length, e);
+        }
+    }
+
+    private void put(Account account) {
+        if (account.getVersion() == null) {
+            return;
+        }
+        try {
+            redissonClient.getScript(StringCodec.INSTANCE).eval(
+                    getBalanceKey(account.getAccountNumber()),
+                    RScript.Mode.READ_WRITE,
+                    PUT_IF_NEWER_SCRIPT,
+                    RScript.ReturnType.INTEGER,
+                    Collections.singletonList(getBalanceKey(account.getAccountNumber())),
+                    account.getVersion().toString(),
+                    account.getBalance().toString(),
+                    Long.toString(ttlMs));
+        } catch (RedisException e) {
+            //캐시 갱신 실패가 커밋된 거래를 실패시키지 않도록 한다. 남은 값은 TTL 로 만료된다.
+            log.warn("Balance cache write failed. accountNumber={}", account.getAccountNumber(), e);
+        }
+    }
+
+    private String getBalanceKey(String accountNumber) {
+        return "ACBL : " + accountNumber;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.account.service;
+
+import com.example.account.dto.BulkCreateAccount;
+import com.example.account.dto.CreateAccount;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.account.type.ErrorCode.INVALID_REQUEST;
+
+/**
+ * 대량 계좌 개설
+ * 업로드 파일을 한 줄씩 읽어 CHUNK_SIZE 행마다 저장하므로 파일 크기와 관계없이 메모리 사용량이 일정하다.
+ * 청크마다 커밋되며, 실패한 행은 줄 번호와 오류 코드로 응답한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountBulkService {
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final AccountBulkWriter accountBulkWriter;
+    private final ObjectMapper objectMapper;
+
+    public BulkCreateAccount.Response createAccounts(
+            InputStream inputStream, BulkCreateAccount.Format format) throws IOException {
+        BulkCreateAccount.Response response = new BulkCreateAccount.Response();
+        List<BulkCreateAccount.Row> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty() || (lineNumber == 1 && isCsvHeader(line, format))) {
+                continue;
+            }
+            response.setTotalRows(response.getTotalRows() + 1);
+
+            BulkCreateAccount.Row row = parse(lineNumber, line, format);
+            if (row == null) {
+                addErrors(response, List.of(BulkCreateAccount.RowError.of(lineNumber, INVALID_REQUEST)));
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(response, chunk);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(response, chunk);
+        }
+
+        response.setCreatedCount(response.getTotalRows() - response.getFailedCount());
+        log.info("Bulk account creation finished. total={}, created={}, failed={}",
+                response.getTotalRows(), response.getCreatedCount(), response.getFailedCount());
+        return response;
+    }
+
+    private void writeChunk(BulkCreateAccount.Response response, List<BulkCreateAccount.Row> chunk) {
+        addErrors(response, accountBulkWriter.writeChunk(chunk));
+        chunk.clear();
+    }
+
+    private void addErrors(BulkCreateAccount.Response response,
+                           List<BulkCreateAccount.RowError> errors) {
+        response.setFailedCount(response.getFailedCount() + errors.size());
+        for (BulkCreateAccount.RowError error : errors) {
+            if (response.getErrors().size() >= MAX_REPORTED_ERRORS) {
+                break;
+            }
+            response.getErrors().add(error);
+        }
+    }
+
+    private boolean isCsvHeader(String line, BulkCreateAccount.Format format) {
+        return format == BulkCreateAccount.Format.CSV
+                && !Character.isDigit(line.trim().charAt(0));
+    }
+
+    private BulkCreateAccount.Row parse(long lineNumber, String line,
+                                        BulkCreateAccount.Format format) {
+        Long userId;
+        Long initialBalance;
+        if (format == BulkCreateAccount.Format.NDJSON) {
+            try {
+                CreateAccount.Request request = objectMapper.readValue(line, CreateAccount.Request.class);
+                userId = request.getUserId();
+                initialBalance = request.getInitialBalance();
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        } else {
+            int comma = line.indexOf(',');
+            if (comma < 0) {
+                return null;
+            }
+            try {
+                userId = Long.parseLong(line.substring(0, comma).trim());
+                initialBalance = Long.parseLong(line.substring(comma + 1).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        //CreateAccount.Request 와 같은 검증
+        if (userId == null || userId < 1 || initialBalance == null || initialBalance < 0) {
+            return null;
+        }
+        return new BulkCreateAccount.Row(lineNumber, userId, initialBalance);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.account.service;
+
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.BulkCreateAccount;
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.example.account.repository.AccountUserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static com.example.account.domain.AccountUser.MAX_ACCOUNT_COUNT;
+import static com.example.account.type.AccountStatus.IN_USE;
+import static com.example.account.type.ErrorCode.MAX_ACCOUNT_PER_USER_10;
+import static com.example.account.type.ErrorCode.USER_NOT_FOUND;
+
+/**
+ * 대량 계좌 개설 청크 저장
+ * 청크 하나를 한 트랜잭션에서 검증하고 JDBC batch 로 저장한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountBulkWriter {
+    private static final String INSERT_ACCOUNT_SQL =
+            "insert into account (id, account_user_id, account_number, account_status, balance, " +
+            "registered_at, created_at, updated_at, version) " +
+            "values (next value for hibernate_sequence, ?, cast(next value for account_number_seq as varchar), " +
+            "?, ?, ?, ?, ?, 0)";
+
+    private final AccountUserRepository accountUserRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * 청크의 사용자들을 한 번에 잠가 조회하고 사용자별 계좌 수 컬럼으로 한도를 검사한다.
+     * 통과한 행은 계좌번호 시퀀스에서 번호를 받아 저장하고, 계좌 수는 변경 감지로 커밋 때 반영된다.
+     * @return 거절된 행의 오류
+     */
+    @Transactional
+    public List<BulkCreateAccount.RowError> writeChunk(List<BulkCreateAccount.Row> rows) {
+        Set<Long> userIds = new HashSet<>();
+        for (BulkCreateAccount.Row row : rows) {
+            userIds.add(row.getUserId());
+        }
+
+        Map<Long, AccountUser> accountUsers = new HashMap<>();
+        for (AccountUser accountUser : accountUserRepository.findAllByIdForUpdate(userIds)) {
+            accountUsers.put(accountUser.getId(), accountUser);
+        }
+
+        List<BulkCreateAccount.Row> accepted = new ArrayList<>(rows.size());
+        List<BulkCreateAccount.RowError> errors = new ArrayList<>();
+        for (BulkCreateAccount.Row row : rows) {
+            AccountUser accountUser = accountUsers.get(row.getUserId());
+            if (accountUser == null) {
+                errors.add(BulkCreateAccount.RowError.of(row.getLine(), USER_NOT_FOUND));
+                continue;
+            }
+            if (accountUser.getAccountCount() >= MAX_ACCOUNT_COUNT) {
+                errors.add(BulkCreateAccount.RowError.of(row.getLine(), MAX_ACCOUNT_PER_USER_10));
+                continue;
+            }
+            accountUser.setAccountCount(accountUser.getAccountCount() + 1);
+            accepted.add(row);
+        }
+
+        if (!accepted.isEmpty()) {
+            insertAccounts(accepted);
+            Set<Long> createdUserIds = new HashSet<>();
+            for (BulkCreateAccount.Row row : accepted) {
+                createdUserIds.add(row.getUserId());
+            }
+            applicationEventPublisher.publishEvent(
+                    new AccountsBulkChangedEvent(createdUserIds, Collections.emptyList()));
+        }
+        return errors;
+    }
+
+    private void insertAccounts(List<BulkCreateAccount.Row> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_ACCOUNT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BulkCreateAccount.Row row = rows.get(i);
+                ps.setLong(1, row.getUserId());
+                ps.setString(2, IN_USE.name());
+                ps.setLong(3, row.getInitialBalance());
+                ps.setTimestamp(4, now);
+                ps.setTimestamp(5, now);
+                ps.setTimestamp(6, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.account.service;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 현재 스레드가 Redis 대신 노드 로컬 락으로 잡고 있는 락 키
+ * 비어있지 않으면 다른 노드와의 동시 갱신을 막기 위해 계좌를 DB 행 락으로 조회해야 한다.
+ */
+public final class AccountLockContext {
+    private static final ThreadLocal<Set<String>> LOCAL_LOCK_KEYS =
+            ThreadLocal.withInitial(HashSet::new);
+
+    private AccountLockContext() {
+    }
+
+    public static boolean isDegraded() {
+        return !LOCAL_LOCK_KEYS.get().isEmpty();
+    }
+
+    static boolean holdsLocalLock(String lockKey) {
+        return LOCAL_LOCK_KEYS.get().contains(lockKey);
+    }
+
+    static void addLocalLock(String lockKey) {
+        LOCAL_LOCK_KEYS.get().add(lockKey);
+    }
+
+    static void removeLocalLock(String lockKey) {
+        Set<String> keys = LOCAL_LOCK_KEYS.get();
+        keys.remove(lockKey);
+        if (keys.isEmpty()) {
+            LOCAL_LOCK_KEYS.remove();
+        }
+    }
+}
@@ -3,19 +3,21 @@ package com.example.account.service;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.dto.AccountDto;
+import com.example.account.event.AccountChangedEvent;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
-import java.util.Random;
 import java.util.stream.Collectors;
 
+import static com.example.account.domain.AccountUser.MAX_ACCOUNT_COUNT;
 import static com.example.account.type.AccountStatus.IN_USE;
 import static com.example.account.type.AccountStatus.UNREGISTERED;
 import static com.example.account.type.ErrorCode.*;
@@ -25,6 +27,8 @@ import static com.example.account.type.ErrorCode.*;
 public class AccountService {
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final BalanceEngine balanceEngine;
 
     /**
      * 사용자가 있는지 조회
@@ -34,32 +38,31 @@ public class AccountService {
     @Transactional
     public AccountDto createAccount(Long userId, Long initialBalance) {
         AccountUser accountUser = getAccountUser(userId);
-        Random random = new Random();
-        random.setSeed(System.currentTimeMillis());
 
-        validateCreateAccount(accountUser);
+        increaseAccountCount(accountUser);
 
-        String createNum = "";
-        for (int i = 0; i < 10; i++) {
-            createNum += Integer.toString(random.nextInt(10));
-        }
-        String newAccountNumber = accountRepository.findFirstByOrderByIdDesc()
-                .map(account -> (Long.parseLong(account.getAccountNumber())) + 1 + "")
-                .orElse(createNum);
-        //계좌번호를 랜덤숫자로
-        return AccountDto.fromEntity(
-                accountRepository.save(Account.builder()
-                        .accountUser(accountUser)
-                        .accountNumber(newAccountNumber)
-                        .accountStatus(IN_USE)
-                        .balance(initialBalance)
-                        .registeredAt(LocalDateTime.now())
-                        .build()
-                ));
+        //계좌번호는 시퀀스에서 받는다. 마지막 계좌번호 + 1 은 동시에 개설하면 겹친다.
+        String newAccountNumber = Long.toString(accountRepository.nextAccountNumber());
+        Account account = accountRepository.save(Account.builder()
+                .accountUser(accountUser)
+                .accountNumber(newAccountNumber)
+                .accountStatus(IN_USE)
+                .balance(initialBalance)
+                .registeredAt(LocalDateTime.now())
+                .build()
+        );
+        applicationEventPublisher.publishEvent(new AccountChangedEvent(account));
+
+        return AccountDto.fromEntity(account);
     }
 
-    private void validateCreateAccount(AccountUser accountUser) {
-        if (accountRepository.countByAccountUser(accountUser) == 10) {
+    /**
+     * 한도 확인과 증가를 조건부 update 한 번으로 해서 동시에 개설해도 한도를 넘지 않는다.
+     * 계좌 저장이 실패하면 같은 트랜잭션이므로 함께 롤백된다.
+     */
+    private void increaseAccountCount(AccountUser accountUser) {
+        if (accountUserRepository.increaseAccountCount(
+                accountUser.getId(), 1, MAX_ACCOUNT_COUNT) == 0) {
            throw new AccountException(MAX_ACCOUNT_PER_USER_10);
         }
     }
@@ -75,6 +78,8 @@ public class AccountService {
     @Transactional
     public AccountDto deleteAccount(Long userId, String accountNumber) {
         AccountUser accountUser = getAccountUser(userId);
+        //메모리 엔진이면 저장 전 거래가 DB 에 반영된 뒤에 계좌를 읽는다.
+        balanceEngine.prepareClose(userId, accountNumber);
         Account account = accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
 
@@ -84,6 +89,8 @@ public class AccountService {
         account.setUnregisteredAt(LocalDateTime.now());
 
         accountRepository.save(account);
+        accountUserRepository.decreaseAccountCount(accountUser.getId());
+        applicationEventPublisher.publishEvent(new AccountChangedEvent(account));
 
         return AccountDto.fromEntity(account);
     }
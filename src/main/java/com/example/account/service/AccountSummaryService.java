@@ -0,0 +1,200 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountSummary;
+import com.example.account.event.AccountChangedEvent;
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.example.account.type.AccountStatus.IN_USE;
+import static com.example.account.type.ErrorCode.USER_NOT_FOUND;
+
+/**
+ * 사용자별 계좌 요약 읽기 모델
+ * 사용자 하나당 Redis 해시 하나(계좌번호 -> 요약 JSON)에 저장해 키 한 번 조회로 응답한다.
+ * 계좌 변경 이벤트가 커밋된 후 비동기로 갱신되며, 유실 시 rebuild 로 복구한다.
+ * 비동기 갱신은 순서가 바뀔 수 있으므로 계좌 version 이 더 큰 값만 쓴다.
+ * rebuild 는 임시 키에 만든 뒤 그 사이 들어온 더 새 값을 합쳐 rename 하므로, 조회 중에 비어 보이지 않는다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountSummaryService {
+    private static final String BUILT_MARKER = "__built";
+
+    //version 이 없는 이전 형식 JSON 은 가장 오래된 값으로 본다.
+    private static final String VERSION_FUNCTION =
+            "local function version(json) " +
+            "  local v = cjson.decode(json).version " +
+            "  if type(v) ~= 'number' then return -1 end " +
+            "  return v " +
+            "end ";
+    //KEYS 요약 해시, ARGV 계좌번호, version, 요약 JSON
+    private static final String PUT_IF_NEWER_SCRIPT = VERSION_FUNCTION +
+            "local current = redis.call('hget', KEYS[1], ARGV[1]) " +
+            "if current and version(current) >= tonumber(ARGV[2]) then return 0 end " +
+            "redis.call('hset', KEYS[1], ARGV[1], ARGV[3]) " +
+            "return 1";
+    //KEYS 요약 해시, 새로 만든 임시 해시, ARGV 완료 표시 필드
+    private static final String REPLACE_SCRIPT = VERSION_FUNCTION +
+            "local current = redis.call('hgetall', KEYS[1]) " +
+            "for i = 1, #current, 2 do " +
+            "  local field, value = current[i], current[i + 1] " +
+            "  if field ~= ARGV[1] then " +
+            "    local rebuilt = redis.call('hget', KEYS[2], field) " +
+            "    if not rebuilt or version(rebuilt) < version(value) then " +
+            "      redis.call('hset', KEYS[2], field, value) " +
+            "    end " +
+            "  end " +
+            "end " +
+            "redis.call('rename', KEYS[2], KEYS[1]) " +
+            "return 1";
+
+    private final RedissonClient redissonClient;
+    private final AccountUserRepository accountUserRepository;
+    private final AccountRepository accountRepository;
+    private final ObjectMapper objectMapper;
+
+    public AccountSummary getSummary(Long userId) {
+        Map<String, String> entries = getSummaryMap(userId).readAllMap();
+        if (!entries.containsKey(BUILT_MARKER)) {
+            return rebuild(userId);
+        }
+
+        List<AccountSummary.Item> items = new ArrayList<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (!BUILT_MARKER.equals(entry.getKey())) {
+                items.add(readItem(entry.getValue()));
+            }
+        }
+        return toSummary(userId, items);
+    }
+
+    @Async("readModelExecutor")
+    @TransactionalEventListener
+    public void onAccountChanged(AccountChangedEvent event) {
+        AccountSummary.Item item = AccountSummary.Item.from(event.getAccount());
+        List<Object> keys = List.of(getSummaryKey(event.getUserId()));
+        redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE, PUT_IF_NEWER_SCRIPT, RScript.ReturnType.INTEGER,
+                keys, item.getAccountNumber(), String.valueOf(item.getVersion()), writeItem(item));
+    }
+
+    @Async("readModelExecutor")
+    @TransactionalEventListener
+    public void onAccountsBulkChanged(AccountsBulkChangedEvent event) {
+        //사용자별로 다시 만들지 않고 지워두면 다음 조회 때 rebuild 된다.
+        String[] keys = event.getUserIds().stream()
+                .map(AccountSummaryService::getSummaryKey)
+                .toArray(String[]::new);
+        redissonClient.getKeys().delete(keys);
+    }
+
+    public AccountSummary rebuild(Long userId) {
+        AccountUser accountUser = accountUserRepository.findById(userId)
+                .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
+        return rebuild(accountUser);
+    }
+
+    public int rebuildAll() {
+        int rebuilt = 0;
+        Page<AccountUser> page = accountUserRepository.findAll(PageRequest.of(0, 500));
+        while (true) {
+            for (AccountUser accountUser : page.getContent()) {
+                rebuild(accountUser);
+                rebuilt++;
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = accountUserRepository.findAll(page.nextPageable());
+        }
+        log.info("Rebuilt account summaries for {} users", rebuilt);
+        return rebuilt;
+    }
+
+    private AccountSummary rebuild(AccountUser accountUser) {
+        List<AccountSummary.Item> items = new ArrayList<>();
+        Map<String, String> entries = new HashMap<>();
+        for (Account account : accountRepository.findByAccountUser(accountUser)) {
+            AccountSummary.Item item = AccountSummary.Item.from(account);
+            items.add(item);
+            entries.put(item.getAccountNumber(), writeItem(item));
+        }
+        entries.put(BUILT_MARKER, "1");
+
+        String key = getSummaryKey(accountUser.getId());
+        String rebuildKey = key + " : " + UUID.randomUUID();
+        RMap<String, String> rebuildMap = redissonClient.getMap(rebuildKey, StringCodec.INSTANCE);
+        rebuildMap.putAll(entries);
+        try {
+            List<Object> keys = List.of(key, rebuildKey);
+            redissonClient.getScript(StringCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE, REPLACE_SCRIPT, RScript.ReturnType.INTEGER,
+                    keys, BUILT_MARKER);
+        } catch (RuntimeException e) {
+            rebuildMap.delete();
+            throw e;
+        }
+
+        return toSummary(accountUser.getId(), items);
+    }
+
+    private AccountSummary toSummary(Long userId, List<AccountSummary.Item> items) {
+        long totalBalance = items.stream()
+                .filter(item -> item.getAccountStatus() == IN_USE)
+                .mapToLong(AccountSummary.Item::getBalance)
+                .sum();
+        return AccountSummary.builder()
+                .userId(userId)
+                .totalBalance(totalBalance)
+                .accounts(items)
+                .build();
+    }
+
+    private RMap<String, String> getSummaryMap(Long userId) {
+        return redissonClient.getMap(getSummaryKey(userId), StringCodec.INSTANCE);
+    }
+
+    private static String getSummaryKey(Long userId) {
+        return "ACSM : " + userId;
+    }
+
+    private String writeItem(AccountSummary.Item item) {
+        try {
+            return objectMapper.writeValueAsString(item);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private AccountSummary.Item readItem(String json) {
+        try {
+            return objectMapper.readValue(json, AccountSummary.Item.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+
+/**
+ * 잔액 사용/취소를 처리하는 엔진
+ * 기본은 JPA 로 바로 커밋하는 TransactionService 이고,
+ * balance.engine=memory 이면 메모리에서 처리하고 DB 는 비동기로 저장하는 InMemoryBalanceEngine 을 쓴다.
+ */
+public interface BalanceEngine {
+    TransactionDto useBalance(Long userId, String accountNumber, Long amount);
+
+    TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount);
+
+    /**
+     * 계좌 해지 검증 전에 호출한다. 호출 뒤에는 DB 잔액이 엔진의 잔액과 같아야 한다.
+     * JPA 엔진은 DB 잔액이 기준이므로 할 일이 없다.
+     */
+    default void prepareClose(Long userId, String accountNumber) {
+    }
+}
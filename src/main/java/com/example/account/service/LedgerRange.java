@@ -0,0 +1,99 @@
+package com.example.account.service;
+
+import com.example.account.domain.ReconciliationMismatch;
+import com.example.account.type.MismatchType;
+import com.example.account.type.TransactionType;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 계좌 id 구간 하나의 대사 결과
+ * (계좌 id, 거래 id) 순으로 정렬된 행을 한 줄씩 받아, 계좌마다 성공 거래의 잔액 스냅샷 연쇄와
+ * 마지막 스냅샷 == 계좌 잔액 을 확인한다. 보관(archive)된 거래 이후부터만 연쇄를 확인한다.
+ */
+@Getter
+public class LedgerRange {
+    private final long runId;
+    private final long rangeStart;
+    private final long rangeEnd;
+    private final int maxStoredMismatches;
+
+    private long accountCount;
+    private long transactionCount;
+    private long mismatchCount;
+    private final List<ReconciliationMismatch> mismatches = new ArrayList<>();
+
+    private Long accountId;
+    private String accountNumber;
+    private long balance;
+    private Long lastSnapshot;
+
+    public LedgerRange(long runId, long rangeStart, long rangeEnd, int maxStoredMismatches) {
+        this.runId = runId;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.maxStoredMismatches = maxStoredMismatches;
+    }
+
+    /**
+     * @param transactionId 거래가 없는 계좌면 null
+     */
+    public void accept(long accountId, String accountNumber, long balance,
+                       String transactionId, TransactionType transactionType,
+                       long amount, long balanceSnapshot) {
+        if (this.accountId == null || this.accountId != accountId) {
+            finishAccount();
+            this.accountId = accountId;
+            this.accountNumber = accountNumber;
+            this.balance = balance;
+            this.lastSnapshot = null;
+            accountCount++;
+        }
+        if (transactionId == null) {
+            return;
+        }
+
+        transactionCount++;
+        if (lastSnapshot != null) {
+            long expected = transactionType.apply(lastSnapshot, amount);
+            if (expected != balanceSnapshot) {
+                addMismatch(MismatchType.SNAPSHOT_CHAIN, transactionId, expected, balanceSnapshot);
+            }
+        }
+        //불일치가 있어도 다음 거래는 실제 스냅샷 기준으로 확인해 한 건이 연쇄 오류로 번지지 않게 한다.
+        lastSnapshot = balanceSnapshot;
+    }
+
+    public void finish() {
+        finishAccount();
+        accountId = null;
+    }
+
+    public long getRowCount() {
+        return accountCount + transactionCount;
+    }
+
+    private void finishAccount() {
+        if (accountId != null && lastSnapshot != null && lastSnapshot != balance) {
+            addMismatch(MismatchType.BALANCE, null, lastSnapshot, balance);
+        }
+    }
+
+    private void addMismatch(MismatchType mismatchType, String transactionId,
+                             long expected, long actual) {
+        mismatchCount++;
+        if (mismatches.size() < maxStoredMismatches) {
+            mismatches.add(ReconciliationMismatch.builder()
+                    .runId(runId)
+                    .accountId(accountId)
+                    .accountNumber(accountNumber)
+                    .transactionId(transactionId)
+                    .mismatchType(mismatchType)
+                    .expected(expected)
+                    .actual(actual)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.account.service;
+
+import com.example.account.domain.ReconciliationCheckpoint;
+import com.example.account.repository.ReconciliationCheckpointRepository;
+import com.example.account.repository.ReconciliationMismatchRepository;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.sql.PreparedStatement;
+
+/**
+ * 계좌 id 구간 단위 원장 대사
+ * 구간의 계좌와 성공 거래를 한 번의 쿼리로 스트리밍해 엔티티를 만들지 않고 확인한다.
+ * 한 문장으로 읽으므로 운영 중에도 구간 안에서는 일관된 스냅샷을 본다.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerReconciler {
+    private static final String RANGE_SQL =
+            "select a.id, a.account_number, a.balance, " +
+            "t.transaction_id, t.transaction_type, t.amount, t.balance_snapshot " +
+            "from account a " +
+            "left join transaction t on t.account_id = a.id and t.transaction_result_type = 'S' " +
+            "where a.id >= ? and a.id < ? " +
+            "order by a.id, t.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReconciliationCheckpointRepository reconciliationCheckpointRepository;
+    private final ReconciliationMismatchRepository reconciliationMismatchRepository;
+
+    @Value("${reconciliation.fetch-size}")
+    private int fetchSize;
+
+    @Value("${reconciliation.max-stored-mismatches-per-range}")
+    private int maxStoredMismatches;
+
+    @Transactional
+    public LedgerRange reconcile(long runId, long rangeStart, long rangeEnd) {
+        LedgerRange range = new LedgerRange(runId, rangeStart, rangeEnd, maxStoredMismatches);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RANGE_SQL);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, rangeStart);
+            ps.setLong(2, rangeEnd);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            String transactionId = rs.getString(4);
+            range.accept(rs.getLong(1), rs.getString(2), rs.getLong(3),
+                    transactionId,
+                    transactionId == null ? null : TransactionType.valueOf(rs.getString(5)),
+                    rs.getLong(6), rs.getLong(7));
+        });
+        range.finish();
+        return range;
+    }
+
+    /**
+     * 불일치와 체크포인트를 한 트랜잭션으로 저장해 재개 시 중복 기록이 없게 한다.
+     */
+    @Transactional
+    public void checkpoint(LedgerRange range) {
+        reconciliationMismatchRepository.saveAll(range.getMismatches());
+        reconciliationCheckpointRepository.save(ReconciliationCheckpoint.builder()
+                .runId(range.getRunId())
+                .rangeStart(range.getRangeStart())
+                .rangeEnd(range.getRangeEnd())
+                .accountCount(range.getAccountCount())
+                .transactionCount(range.getTransactionCount())
+                .mismatchCount(range.getMismatchCount())
+                .build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.account.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Redis 서킷이 열렸을 때 쓰는 노드 로컬 락
+ * 키를 고정 개수의 ReentrantLock 에 나눠 담아 메모리를 제한한다.
+ */
+public class LocalLockStripes {
+    private final ReentrantLock[] stripes;
+
+    public LocalLockStripes() {
+        this(1024);
+    }
+
+    public LocalLockStripes(int size) {
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean tryLock(String lockKey, long waitTime, TimeUnit unit) throws InterruptedException {
+        if (!stripeFor(lockKey).tryLock(waitTime, unit)) {
+            return false;
+        }
+        AccountLockContext.addLocalLock(lockKey);
+        return true;
+    }
+
+    public boolean isHeldByCurrentThread(String lockKey) {
+        return AccountLockContext.holdsLocalLock(lockKey);
+    }
+
+    public void unlock(String lockKey) {
+        AccountLockContext.removeLocalLock(lockKey);
+        stripeFor(lockKey).unlock();
+    }
+
+    private ReentrantLock stripeFor(String lockKey) {
+        return stripes[Math.floorMod(lockKey.hashCode(), stripes.length)];
+    }
+}
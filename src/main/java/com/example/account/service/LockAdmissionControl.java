@@ -0,0 +1,97 @@
+package com.example.account.service;
+
+import com.example.account.config.RedisLockProperties;
+import com.example.account.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 계좌 락 앞단 입장 제어
+ * 키마다 처리 중 + 대기 중인 요청을 maxPerKey 개로 묶고, 노드 전체 동시 처리 수는 AIMD 로 조절한다.
+ * 한도를 넘은 요청은 Redis 를 부르지 않고 바로 거절해서 한 계좌에 몰린 요청이 스레드와 Redis 를 잡아두지 않게 한다.
+ */
+public class LockAdmissionControl {
+    private static final Counter REJECTED_KEY =
+            Metrics.counter("account.admission.rejected", "reason", "key");
+    private static final Counter REJECTED_LIMIT =
+            Metrics.counter("account.admission.rejected", "reason", "limit");
+
+    private final RedisLockProperties.Admission config;
+    private final long targetLatencyNanos;
+    //키별 처리 중 + 대기 중 요청 수. 0 이 되면 지운다.
+    private final ConcurrentHashMap<String, Integer> keyPermits = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double limit;
+
+    public LockAdmissionControl(RedisLockProperties.Admission config) {
+        this.config = config;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.getTargetLatencyMs());
+        this.limit = config.getInitialLimit();
+        Metrics.gauge("account.admission.limit", this, LockAdmissionControl::getLimit);
+        Metrics.gauge("account.admission.in-flight", inFlight);
+    }
+
+    /**
+     * 입장시키지 못하면 AdmissionRejectedException. 입장했으면 반드시 release 해야 한다.
+     */
+    public void acquire(String key) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (inFlight.incrementAndGet() > getLimit()) {
+            inFlight.decrementAndGet();
+            REJECTED_LIMIT.increment();
+            throw new AdmissionRejectedException(config.getRetryAfterMs());
+        }
+        if (!tryAcquireKey(key)) {
+            inFlight.decrementAndGet();
+            REJECTED_KEY.increment();
+            throw new AdmissionRejectedException(config.getRetryAfterMs());
+        }
+    }
+
+    public void release(String key) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        keyPermits.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 락을 잡은 뒤 처리에 걸린 시간으로 한도를 조절한다.
+     * 락 대기 시간은 뜨거운 계좌 하나 때문에 길어지므로 넣지 않는다.
+     */
+    public synchronized void onComplete(long elapsedNanos) {
+        if (elapsedNanos > targetLatencyNanos) {
+            limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+        } else {
+            limit = Math.min(config.getMaxLimit(), limit + 1.0 / limit);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private boolean tryAcquireKey(String key) {
+        boolean[] acquired = new boolean[1];
+        keyPermits.compute(key, (k, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= config.getMaxPerKey()) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+}
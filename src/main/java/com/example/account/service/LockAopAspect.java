@@ -1,29 +1,90 @@
 package com.example.account.service;
 
+import com.example.account.aop.AccountLock;
 import com.example.account.aop.AccountLockIdInterface;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Aspect
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class LockAopAspect {
+    private static final ExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAMES =
+            new DefaultParameterNameDiscoverer();
+
     private final LockService lockService;
-    @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
+    private final LockAdmissionControl lockAdmissionControl;
+    //메서드별로 파싱한 키 식
+    private final Map<Method, Expression> keyExpressions = new ConcurrentHashMap<>();
+
+    //메모리 엔진은 계좌마다 한 스레드에서 처리하므로 계좌 락이 필요 없다.
+    @Value("#{'${balance.engine}' == 'memory'}")
+    private boolean lockFree;
+
+    @Around("@annotation(accountLock)")
     public Object aroundMethod(
             ProceedingJoinPoint pjp,
-            AccountLockIdInterface request
+            AccountLock accountLock
     ) throws Throwable {
-        lockService.lock(request.getAccountNumber());
-        try {
+        if (lockFree) {
             return pjp.proceed();
+        }
+        String lockKey = getLockKey(pjp, accountLock);
+        //Redis 에 가기 전에 입장 제어로 넘치는 요청을 바로 거절한다.
+        lockAdmissionControl.acquire(lockKey);
+        try {
+            lockService.lock(lockKey, accountLock.tryLockTime(),
+                    accountLock.autoRenew() ? LockService.AUTO_RENEW : accountLock.leaseTime());
+            long start = System.nanoTime();
+            try {
+                return pjp.proceed();
+            } finally {
+                lockService.unlock(lockKey);
+                lockAdmissionControl.onComplete(System.nanoTime() - start);
+            }
         } finally {
-            lockService.unlock(request.getAccountNumber());
+            lockAdmissionControl.release(lockKey);
+        }
+    }
+
+    private String getLockKey(ProceedingJoinPoint pjp, AccountLock accountLock) {
+        Object[] args = pjp.getArgs();
+        if (accountLock.key().isEmpty()) {
+            for (Object arg : args) {
+                if (arg instanceof AccountLockIdInterface) {
+                    return ((AccountLockIdInterface) arg).getAccountNumber();
+                }
+            }
+            throw new IllegalStateException(
+                    "@AccountLock needs a key or an AccountLockIdInterface argument");
+        }
+
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        Expression expression = keyExpressions.computeIfAbsent(
+                method, m -> PARSER.parseExpression(accountLock.key()));
+        Object key = expression.getValue(
+                new MethodBasedEvaluationContext(null, method, args, PARAMETER_NAMES));
+        if (key == null) {
+            throw new IllegalStateException("@AccountLock key is null : " + accountLock.key());
         }
+        return key.toString();
     }
 }
@@ -0,0 +1,141 @@
+package com.example.account.service;
+
+import com.example.account.config.RedisLockProperties;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Redis 락 호출용 서킷 브레이커
+ * 최근 windowSize 건 중 실패율이 임계값을 넘으면 openDuration 동안 열린다.
+ * 이후 halfOpenCalls 건을 시험 삼아 통과시키고, 모두 성공하면 닫고 하나라도 실패하면 다시 연다.
+ * 실패는 Redis 오류와 응답 시간 초과(redis.lock.timeout-ms)만 센다. 다른 요청이 락을 잡고 있어 기다린 시간은
+ * Redis 상태와 무관하므로 세지 않는다.
+ */
+@Slf4j
+public class LockCircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final RedisLockProperties.CircuitBreaker config;
+    private final LongSupplier clock;
+    private final long openDurationNanos;
+
+    private final boolean[] failures;
+    private int index;
+    private int recorded;
+    private int failureCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public LockCircuitBreaker(RedisLockProperties.CircuitBreaker config) {
+        this(config, System::nanoTime);
+    }
+
+    LockCircuitBreaker(RedisLockProperties.CircuitBreaker config, LongSupplier clock) {
+        this.config = config;
+        this.clock = clock;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMs());
+        this.failures = new boolean[config.getWindowSize()];
+        Metrics.gauge("account.lock.circuit.state", this, breaker -> breaker.getState().ordinal());
+    }
+
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = config.getHalfOpenCalls();
+            halfOpenSuccesses = 0;
+            log.info("Redis lock circuit half-open");
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits <= 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    /**
+     * Redis 가 응답한 호출. 락을 잡지 못했어도 성공이다.
+     */
+    public synchronized void onSuccess() {
+        record(false);
+    }
+
+    /**
+     * Redis 오류나 응답 시간 초과
+     */
+    public synchronized void onFailure() {
+        record(true);
+    }
+
+    /**
+     * Redis 결과를 보지 못하고 끝난 호출(인터럽트). HALF_OPEN 시험 허가를 돌려준다.
+     */
+    public synchronized void onCancelled() {
+        if (state == State.HALF_OPEN && halfOpenPermits < config.getHalfOpenCalls()) {
+            halfOpenPermits++;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                open();
+            } else if (++halfOpenSuccesses >= config.getHalfOpenCalls()) {
+                state = State.CLOSED;
+                resetWindow();
+                log.info("Redis lock circuit closed");
+            }
+            return;
+        }
+
+        if (recorded == failures.length) {
+            if (failures[index]) {
+                failureCount--;
+            }
+        } else {
+            recorded++;
+        }
+        failures[index] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        index = (index + 1) % failures.length;
+
+        if (recorded >= config.getMinimumCalls()
+                && failureCount * 100 >= config.getFailureRateThreshold() * recorded) {
+            open();
+        }
+    }
+
+    private void open() {
+        log.warn("Redis lock circuit opened. failures={}, calls={}", failureCount, recorded);
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        index = 0;
+        recorded = 0;
+        failureCount = 0;
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.account.service;
 
+import com.example.account.config.RedisLockProperties;
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.TimeUnit;
@@ -14,31 +16,108 @@ import java.util.concurrent.TimeUnit;
 @Service
 @RequiredArgsConstructor
 public class LockService {
-    private final RedissonClient redissonClient;
+    //lease 대신 Redisson watchdog 으로 unlock 할 때까지 연장
+    public static final long AUTO_RENEW = -1L;
+    private static final long DEFAULT_WAIT_MILLIS = 1000L;
+    private static final long DEFAULT_LEASE_MILLIS = 15000L;
+
+    private static final Counter REDIS_LOCKS =
+            Metrics.counter("account.lock.acquired", "mode", "redis");
+    private static final Counter LOCAL_LOCKS =
+            Metrics.counter("account.lock.acquired", "mode", "local");
+    private static final Counter REDIS_FAILURES =
+            Metrics.counter("account.lock.redis.failures");
+    private static final Counter REJECTED_BUSY =
+            Metrics.counter("account.lock.rejected", "reason", "busy");
+    private static final Counter REJECTED_UNAVAILABLE =
+            Metrics.counter("account.lock.rejected", "reason", "unavailable");
+
+    private final RedisLockRouter redisLockRouter;
+    private final LockCircuitBreaker lockCircuitBreaker;
+    private final LocalLockStripes localLockStripes;
+    private final RedisLockProperties redisLockProperties;
 
     public void lock(String accountNumber) {
-        RLock lock = redissonClient.getLock(getLockKey(accountNumber));
-        log.debug("Trying lock for accountNumber : {}", accountNumber);
+        lock(accountNumber, DEFAULT_WAIT_MILLIS, DEFAULT_LEASE_MILLIS);
+    }
+
+    /**
+     * @param key 계좌번호 또는 @AccountLock 키 식으로 만든 키
+     * @param waitMillis 락 대기 시간
+     * @param leaseMillis 락 자동 해제 시간. AUTO_RENEW 이면 unlock 할 때까지 연장한다.
+     */
+    public void lock(String key, long waitMillis, long leaseMillis) {
+        String lockKey = getLockKey(key);
+        log.debug("Trying lock for key : {}", key);
+
+        if (!lockCircuitBreaker.allowRequest()) {
+            fallbackLock(lockKey, waitMillis);
+            return;
+        }
 
+        RLock lock = redisLockRouter.getLock(lockKey);
+        boolean isLock;
         try {
-            boolean isLock = lock.tryLock(1, 15, TimeUnit.SECONDS);
-            if (!isLock) {
-                log.error("==========Lock acquisition failed=========");
-                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
-            }
-        } catch (AccountException e){
-          throw e;
+            isLock = lock.tryLock(waitMillis, leaseMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            lockCircuitBreaker.onCancelled();
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
         } catch (Exception e) {
+            lockCircuitBreaker.onFailure();
+            REDIS_FAILURES.increment();
             log.error("Redis lock failed", e);
+            fallbackLock(lockKey, waitMillis);
+            return;
+        }
+        //tryLock 은 다른 요청이 락을 놓을 때까지 기다리므로 걸린 시간으로 Redis 상태를 판단하지 않는다.
+        lockCircuitBreaker.onSuccess();
+
+        if (!isLock) {
+            log.error("==========Lock acquisition failed=========");
+            REJECTED_BUSY.increment();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        REDIS_LOCKS.increment();
+    }
+
+    public void unlock(String key) {
+        String lockKey = getLockKey(key);
+        log.debug("Unlock for key : {}", key);
+
+        if (localLockStripes.isHeldByCurrentThread(lockKey)) {
+            localLockStripes.unlock(lockKey);
+            return;
+        }
+        try {
+            redisLockRouter.getLock(lockKey).unlock();
+        } catch (Exception e) {
+            //lease 만료나 Redis 장애로 이미 풀린 락. 요청 결과에는 영향을 주지 않는다.
+            log.error("Redis unlock failed", e);
         }
     }
 
-    public void unlock(String accountNumber) {
-        log.debug("Unlock for accountNumber : {}", accountNumber);
-        redissonClient.getLock(getLockKey(accountNumber)).unlock();
+    private void fallbackLock(String lockKey, long waitMillis) {
+        if (redisLockProperties.getFallback() == RedisLockProperties.Fallback.REJECT) {
+            REJECTED_UNAVAILABLE.increment();
+            throw new AccountException(ErrorCode.LOCK_SERVICE_UNAVAILABLE);
+        }
+
+        boolean isLock;
+        try {
+            isLock = localLockStripes.tryLock(lockKey, waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        if (!isLock) {
+            REJECTED_BUSY.increment();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        LOCAL_LOCKS.increment();
     }
 
-    private String getLockKey(String accountNumber) {
-        return "ACLK : " + accountNumber;
+    private String getLockKey(String key) {
+        return "ACLK : " + key;
     }
 }
@@ -0,0 +1,71 @@
+package com.example.account.service;
+
+import com.example.account.domain.TransactionOutbox;
+import com.example.account.dto.TransactionEvent;
+import com.example.account.event.TransactionEventSink;
+import com.example.account.job.JobCoordinator;
+import com.example.account.repository.TransactionOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 아웃박스 릴레이
+ * 아웃박스를 id 순서대로 배치로 읽어 sink 로 발행하고, 발행된 행은 한 번에 삭제한다.
+ * 같은 계좌의 거래는 계좌 락 안에서 커밋되므로 id 순서가 곧 계좌별 거래 순서이다.
+ * 순서를 지키기 위해 리더 노드 하나만 릴레이하고, 배치마다 리더인지 다시 확인한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+    private static final String JOB = "outbox-relay";
+
+    private final TransactionOutboxRepository transactionOutboxRepository;
+    private final TransactionEventSink transactionEventSink;
+    private final JobCoordinator jobCoordinator;
+
+    @Value("${outbox.relay.batch-size}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms}")
+    public void relay() {
+        if (!jobCoordinator.tryLead(JOB)) {
+            return;
+        }
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+                //리스를 잃은 채 계속 발행하면 새 리더와 같은 행을 함께 발행하게 된다.
+            } while (relayed == batchSize && jobCoordinator.tryLead(JOB));
+        } catch (Exception e) {
+            log.error("Outbox relay failed. Will retry on next run.", e);
+        }
+    }
+
+    public int relayBatch() {
+        List<TransactionOutbox> batch =
+                transactionOutboxRepository.findBatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        transactionEventSink.publish(batch.stream()
+                .map(TransactionEvent::from)
+                .collect(Collectors.toList()));
+
+        transactionOutboxRepository.deleteAllByIdInBatch(batch.stream()
+                .map(TransactionOutbox::getId)
+                .collect(Collectors.toList()));
+
+        log.debug("Relayed {} outbox events", batch.size());
+        return batch.size();
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.account.service;
+
+import com.example.account.domain.PostingChunk;
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.PostingChunkRepository;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 이자/수수료 반영 청크 처리
+ * 청크의 계좌를 한 번에 읽어 반영 금액을 계산하고, 잔액 변경/거래/아웃박스/체크포인트를 한 트랜잭션에서 JDBC batch 로 저장한다.
+ * 반영할 계좌는 모두 계좌 락을 기다리지 않고 잡은 뒤 갱신하고, 락은 트랜잭션이 끝난 뒤 푼다.
+ * 라이브 거래가 잡고 있는 계좌는 건드리지 않으므로 라이브 거래의 version 갱신이 반영 때문에 실패하지 않는다.
+ * 잔액은 읽은 version 조건으로 갱신하고, 읽은 뒤 락을 잡기 전에 라이브 거래가 바꾼 계좌만 다시 읽어 반영한다.
+ * 계좌 락을 잡지 못한 계좌는 청크 전체를 실패시키지 않고 건너뛰며, 완료 구간에서 빼 두어 다음 패스나 resume 이 다시 반영한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostingChunkWriter {
+    private static final String SELECT_ACCOUNTS_SQL =
+            "select id, account_number, account_user_id, balance, version from account " +
+            "where id between ? and ? and account_status = 'IN_USE' order by id";
+    private static final String SELECT_ACCOUNT_SQL =
+            "select id, account_number, account_user_id, balance, version from account " +
+            "where id = ? and account_status = 'IN_USE'";
+    private static final String UPDATE_BALANCE_SQL =
+            "update account set balance = ?, version = version + 1, updated_at = ? " +
+            "where id = ? and version = ?";
+    private static final String INSERT_TRANSACTION_SQL =
+            "insert into transaction (id, account_id, transaction_type, transaction_result_type, amount, " +
+            "balance_snapshot, transaction_id, transacted_at, created_at, updated_at) " +
+            "values (next value for hibernate_sequence, ?, ?, 'S', ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_OUTBOX_SQL =
+            "insert into transaction_outbox (id, account_number, transaction_type, transaction_result_type, " +
+            "amount, balance_snapshot, transaction_id, transacted_at, created_at, updated_at) " +
+            "values (next value for hibernate_sequence, ?, ?, 'S', ?, ?, ?, ?, ?, ?)";
+
+    private static final RowMapper<Target> TARGET_MAPPER = (rs, rowNum) -> new Target(
+            rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LockService lockService;
+    private final PostingChunkRepository postingChunkRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * @return 계좌 락을 잡지 못해 건너뛴 계좌 수
+     */
+    @Transactional
+    public int writeChunk(Long runId, PostingRule rule, long firstAccountId, long lastAccountId) {
+        List<Target> postings = new ArrayList<>();
+        for (Target target : jdbcTemplate.query(
+                SELECT_ACCOUNTS_SQL, TARGET_MAPPER, firstAccountId, lastAccountId)) {
+            if (target.post(rule)) {
+                postings.add(target);
+            }
+        }
+
+        List<Target> locked = new ArrayList<>(postings.size());
+        List<Long> skipped = new ArrayList<>();
+        for (Target target : postings) {
+            if (tryLock(target.accountNumber)) {
+                locked.add(target);
+                continue;
+            }
+            log.warn("Posting skipped locked account. runId={}, accountId={}", runId, target.id);
+            skipped.add(target.id);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] updated = updateBalances(locked, now);
+
+        List<Target> posted = new ArrayList<>(locked.size());
+        long retried = 0;
+        for (int i = 0; i < locked.size(); i++) {
+            if (updated[i] != 0) {
+                posted.add(locked.get(i));
+                continue;
+            }
+            retried++;
+            Target retry = repost(locked.get(i), rule, now);
+            if (retry != null) {
+                posted.add(retry);
+            }
+        }
+
+        insertTransactions(rule, posted, now);
+        saveCompletedRanges(runId, firstAccountId, lastAccountId, skipped, posted.size(), retried);
+
+        if (!posted.isEmpty()) {
+            Set<Long> userIds = new HashSet<>();
+            List<String> accountNumbers = new ArrayList<>(posted.size());
+            List<AccountsBulkChangedEvent.Balance> balances = new ArrayList<>(posted.size());
+            for (Target target : posted) {
+                userIds.add(target.userId);
+                accountNumbers.add(target.accountNumber);
+                balances.add(new AccountsBulkChangedEvent.Balance(
+                        target.accountNumber, target.newBalance(), target.version + 1));
+            }
+            applicationEventPublisher.publishEvent(
+                    new AccountsBulkChangedEvent(userIds, accountNumbers, balances));
+        }
+        return skipped.size();
+    }
+
+    private static boolean isLockUnavailable(AccountException e) {
+        return e.getErrorCode() == ErrorCode.ACCOUNT_TRANSACTION_LOCK
+                || e.getErrorCode() == ErrorCode.LOCK_SERVICE_UNAVAILABLE;
+    }
+
+    /**
+     * 건너뛴 계좌를 뺀 나머지 구간을 완료로 남긴다. 반영 건수는 처음 남기는 구간에 모아 둔다.
+     */
+    private void saveCompletedRanges(Long runId, long firstAccountId, long lastAccountId,
+                                     List<Long> skipped, long postedCount, long retriedCount) {
+        long from = firstAccountId;
+        boolean counted = false;
+        for (long skippedId : skipped) {
+            if (skippedId > from) {
+                saveRange(runId, from, skippedId - 1, counted ? 0 : postedCount, counted ? 0 : retriedCount);
+                counted = true;
+            }
+            from = skippedId + 1;
+        }
+        if (from <= lastAccountId) {
+            saveRange(runId, from, lastAccountId, counted ? 0 : postedCount, counted ? 0 : retriedCount);
+        }
+    }
+
+    private void saveRange(Long runId, long firstAccountId, long lastAccountId,
+                           long postedCount, long retriedCount) {
+        postingChunkRepository.save(PostingChunk.builder()
+                .runId(runId)
+                .firstAccountId(firstAccountId)
+                .lastAccountId(lastAccountId)
+                .postedCount(postedCount)
+                .retriedCount(retriedCount)
+                .build());
+    }
+
+    /**
+     * 계좌 락을 기다리지 않고 잡는다. 라이브 거래가 잡고 있으면 false.
+     * 락은 이 트랜잭션이 끝난 뒤 풀어 라이브 거래가 커밋 전 잔액을 읽지 않게 한다.
+     */
+    private boolean tryLock(String accountNumber) {
+        try {
+            lockService.lock(accountNumber, 0, LockService.AUTO_RENEW);
+        } catch (AccountException e) {
+            if (!isLockUnavailable(e)) {
+                throw e;
+            }
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lockService.unlock(accountNumber);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 읽은 뒤 락을 잡기 전에 라이브 거래가 바꾼 계좌. 락을 잡고 있으므로 최신 잔액으로 다시 계산한다.
+     * @return 해지되었거나 반영 금액이 0 이면 null
+     */
+    private Target repost(Target conflicted, PostingRule rule, Timestamp now) {
+        List<Target> current = jdbcTemplate.query(SELECT_ACCOUNT_SQL, TARGET_MAPPER, conflicted.id);
+        if (current.isEmpty() || !current.get(0).post(rule)) {
+            return null;
+        }
+        Target target = current.get(0);
+        if (jdbcTemplate.update(UPDATE_BALANCE_SQL,
+                target.newBalance(), now, target.id, target.version) == 0) {
+            throw new IllegalStateException("Posting conflict under lock. accountId=" + target.id);
+        }
+        return target;
+    }
+
+    private int[] updateBalances(List<Target> postings, Timestamp now) {
+        if (postings.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Target target = postings.get(i);
+                ps.setLong(1, target.newBalance());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, target.id);
+                ps.setLong(4, target.version);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return postings.size();
+            }
+        });
+    }
+
+    private void insertTransactions(PostingRule rule, List<Target> posted, Timestamp now) {
+        if (posted.isEmpty()) {
+            return;
+        }
+        String transactionType = rule.getTransactionType().name();
+        for (Target target : posted) {
+            target.transactionId = UUID.randomUUID().toString().replaceAll("-", "");
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Target target = posted.get(i);
+                ps.setLong(1, target.id);
+                ps.setString(2, transactionType);
+                ps.setLong(3, target.amount);
+                ps.setLong(4, target.newBalance());
+                ps.setString(5, target.transactionId);
+                ps.setTimestamp(6, now);
+                ps.setTimestamp(7, now);
+                ps.setTimestamp(8, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return posted.size();
+            }
+        });
+        //거래와 같은 트랜잭션에서 아웃박스 기록
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Target target = posted.get(i);
+                ps.setString(1, target.accountNumber);
+                ps.setString(2, transactionType);
+                ps.setLong(3, target.amount);
+                ps.setLong(4, target.newBalance());
+                ps.setString(5, target.transactionId);
+                ps.setTimestamp(6, now);
+                ps.setTimestamp(7, now);
+                ps.setTimestamp(8, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return posted.size();
+            }
+        });
+    }
+
+    private static class Target {
+        private final long id;
+        private final String accountNumber;
+        private final long userId;
+        private final long balance;
+        private final long version;
+        private TransactionType transactionType;
+        private long amount;
+        private String transactionId;
+
+        Target(long id, String accountNumber, long userId, long balance, long version) {
+            this.id = id;
+            this.accountNumber = accountNumber;
+            this.userId = userId;
+            this.balance = balance;
+            this.version = version;
+        }
+
+        boolean post(PostingRule rule) {
+            transactionType = rule.getTransactionType();
+            amount = rule.computeAmount(balance);
+            return amount > 0;
+        }
+
+        long newBalance() {
+            return transactionType.apply(balance, amount);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.account.service;
+
+import com.example.account.domain.PostingRun;
+import com.example.account.type.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 계좌 잔액으로 반영 금액을 계산한다. 0 이면 반영하지 않는다.
+ */
+@Getter
+@AllArgsConstructor
+public class PostingRule {
+    private static final long BASIS_POINTS = 10_000L;
+
+    private final TransactionType transactionType;
+    private final long rateBasisPoints;
+    private final long fixedAmount;
+
+    public static PostingRule from(PostingRun run) {
+        return new PostingRule(run.getTransactionType(),
+                run.getRateBasisPoints() == null ? 0 : run.getRateBasisPoints(),
+                run.getFixedAmount() == null ? 0 : run.getFixedAmount());
+    }
+
+    public long computeAmount(long balance) {
+        switch (transactionType) {
+            case INTEREST:
+                return Math.multiplyExact(balance, rateBasisPoints) / BASIS_POINTS;
+            case FEE:
+                //잔액보다 큰 수수료는 잔액만큼만 받는다.
+                return Math.min(fixedAmount, balance);
+            default:
+                throw new IllegalStateException("Not a posting type: " + transactionType);
+        }
+    }
+}
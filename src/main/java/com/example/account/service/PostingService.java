@@ -0,0 +1,252 @@
+package com.example.account.service;
+
+import com.example.account.domain.PostingChunk;
+import com.example.account.domain.PostingRun;
+import com.example.account.dto.Posting;
+import com.example.account.exception.AccountException;
+import com.example.account.job.JobCoordinator;
+import com.example.account.repository.PostingChunkRepository;
+import com.example.account.repository.PostingRunRepository;
+import com.example.account.type.PostingStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.example.account.type.ErrorCode.*;
+import static com.example.account.type.PostingStatus.*;
+import static com.example.account.type.TransactionType.FEE;
+import static com.example.account.type.TransactionType.INTEREST;
+
+/**
+ * 이자/수수료 일괄 반영
+ * IN_USE 계좌를 id 키셋 순서로 chunkSize 개씩 나누고, 청크는 parallelism 개 작업자가 병렬로 반영한다.
+ * 작업 큐가 차면 읽는 스레드가 직접 청크를 처리해 읽기가 쓰기보다 앞서 나가지 않는다.
+ * 반영이 끝난 청크는 PostingChunk 로 남으므로 resume 은 남은 구간만 처리한다.
+ * 계좌 락을 잡지 못해 건너뛴 계좌는 완료 구간에서 빠지므로, 패스를 다시 돌려 그 계좌만 반영한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostingService {
+    private static final String JOB = "posting";
+    private static final String SELECT_CHUNK_IDS_SQL =
+            "select id from account where id > ? and id < ? and account_status = 'IN_USE' " +
+            "order by id limit ?";
+
+    private final PostingChunkWriter postingChunkWriter;
+    private final PostingRunRepository postingRunRepository;
+    private final PostingChunkRepository postingChunkRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JobCoordinator jobCoordinator;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${posting.chunk-size}")
+    private int chunkSize;
+
+    @Value("${posting.parallelism}")
+    private int parallelism;
+
+    @Value("${posting.max-passes}")
+    private int maxPasses;
+
+    //메모리 엔진은 메모리 잔액이 기준이므로 DB 잔액을 직접 바꾸는 일괄 반영을 막는다.
+    @Value("#{'${balance.engine}' == 'memory'}")
+    private boolean memoryEngine;
+
+    //저널을 쓰면 아직 반영되지 않은 차감이 DB 잔액에 없으므로 수수료가 잔액을 넘을 수 있다.
+    @Value("${journal.enabled}")
+    private boolean journalEnabled;
+
+    public Posting.Response start(Posting.Request request) {
+        validateRequest(request);
+        acquireRunning();
+        try {
+            PostingRun run = postingRunRepository.save(PostingRun.builder()
+                    .transactionType(request.getTransactionType())
+                    .rateBasisPoints(request.getRateBasisPoints())
+                    .fixedAmount(request.getAmount())
+                    .status(RUNNING)
+                    .startedAt(LocalDateTime.now())
+                    .build());
+            launch(run);
+            return getRun(run.getId());
+        } catch (RuntimeException e) {
+            releaseRunning();
+            throw e;
+        }
+    }
+
+    public Posting.Response resume(Long runId) {
+        PostingRun run = findRun(runId);
+        if (run.getStatus() == COMPLETED) {
+            return getRun(runId);
+        }
+
+        acquireRunning();
+        try {
+            run.setStatus(RUNNING);
+            run.setFinishedAt(null);
+            launch(postingRunRepository.save(run));
+            return getRun(runId);
+        } catch (RuntimeException e) {
+            releaseRunning();
+            throw e;
+        }
+    }
+
+    public Posting.Response getRun(Long runId) {
+        PostingRun run = findRun(runId);
+        PostingChunkRepository.Summary summary = postingChunkRepository.summarize(runId);
+        return Posting.Response.builder()
+                .runId(runId)
+                .transactionType(run.getTransactionType())
+                .status(run.getStatus())
+                .completedChunks(summary.getChunks())
+                .postedCount(summary.getPosted())
+                .retriedCount(summary.getRetried())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .build();
+    }
+
+    private void launch(PostingRun run) {
+        Thread reader = new Thread(() -> {
+            PostingStatus status = FAILED;
+            try {
+                postAll(run);
+                status = COMPLETED;
+            } catch (Exception e) {
+                log.error("Posting run {} failed. Resume to continue.", run.getId(), e);
+            } finally {
+                try {
+                    finish(run, status);
+                } finally {
+                    releaseRunning();
+                }
+            }
+        }, "posting-" + run.getId());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    void postAll(PostingRun run) throws Exception {
+        for (int pass = 1; ; pass++) {
+            List<PostingChunk> completedChunks =
+                    postingChunkRepository.findByRunIdOrderByFirstAccountIdAsc(run.getId());
+            long skipped = post(run, completedChunks);
+            if (skipped == 0) {
+                return;
+            }
+            if (pass >= maxPasses) {
+                throw new IllegalStateException(skipped + " accounts stayed locked after " + pass + " passes");
+            }
+            log.info("Posting run {} pass {} skipped {} locked accounts. Retrying.", run.getId(), pass, skipped);
+        }
+    }
+
+    /**
+     * @return 계좌 락을 잡지 못해 건너뛴 계좌 수
+     */
+    long post(PostingRun run, List<PostingChunk> completedChunks) throws Exception {
+        PostingRule rule = PostingRule.from(run);
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(parallelism, parallelism,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(parallelism),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            long lastId = 0;
+            int next = 0;
+            while (true) {
+                //이미 반영한 청크는 건너뛰고, 다음 반영된 청크 앞까지만 읽는다.
+                while (next < completedChunks.size()
+                        && completedChunks.get(next).getLastAccountId() <= lastId) {
+                    next++;
+                }
+                long upper = next < completedChunks.size()
+                        ? completedChunks.get(next).getFirstAccountId() : Long.MAX_VALUE;
+
+                List<Long> ids = jdbcTemplate.queryForList(
+                        SELECT_CHUNK_IDS_SQL, Long.class, lastId, upper, chunkSize);
+                if (ids.isEmpty()) {
+                    if (upper == Long.MAX_VALUE) {
+                        break;
+                    }
+                    lastId = completedChunks.get(next).getLastAccountId();
+                    continue;
+                }
+
+                long first = ids.get(0);
+                long last = ids.get(ids.size() - 1);
+                futures.add(workers.submit(
+                        () -> postingChunkWriter.writeChunk(run.getId(), rule, first, last)));
+                lastId = last;
+            }
+
+            long skipped = 0;
+            for (Future<Integer> future : futures) {
+                skipped += future.get();
+            }
+            return skipped;
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private void finish(PostingRun run, PostingStatus status) {
+        run.setStatus(status);
+        run.setFinishedAt(LocalDateTime.now());
+        postingRunRepository.save(run);
+
+        Posting.Response response = getRun(run.getId());
+        log.info("Posting run {} {}. type={}, chunks={}, posted={}, retried={}",
+                run.getId(), status, run.getTransactionType(), response.getCompletedChunks(),
+                response.getPostedCount(), response.getRetriedCount());
+    }
+
+    private void validateRequest(Posting.Request request) {
+        if (memoryEngine || journalEnabled) {
+            throw new AccountException(POSTING_NOT_SUPPORTED);
+        }
+        if (request.getTransactionType() == INTEREST && request.getRateBasisPoints() != null) {
+            return;
+        }
+        if (request.getTransactionType() == FEE && request.getAmount() != null) {
+            return;
+        }
+        throw new AccountException(INVALID_REQUEST);
+    }
+
+    /**
+     * 노드 안에서는 running 으로, 노드 사이에서는 리더 리스로 한 번에 하나만 실행한다.
+     */
+    private void acquireRunning() {
+        if (!running.compareAndSet(false, true)) {
+            throw new AccountException(POSTING_ALREADY_RUNNING);
+        }
+        if (!jobCoordinator.tryLead(JOB)) {
+            running.set(false);
+            throw new AccountException(POSTING_ALREADY_RUNNING);
+        }
+    }
+
+    //끝나면 리스를 놓아 다른 노드에서도 바로 시작할 수 있게 한다.
+    private void releaseRunning() {
+        jobCoordinator.resign(JOB);
+        running.set(false);
+    }
+
+    private PostingRun findRun(Long runId) {
+        return postingRunRepository.findById(runId)
+                .orElseThrow(() -> new AccountException(POSTING_RUN_NOT_FOUND));
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.ReconciliationRun;
+import com.example.account.dto.ReconciliationReport;
+import com.example.account.exception.AccountException;
+import com.example.account.job.JobCoordinator;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.ReconciliationCheckpointRepository;
+import com.example.account.repository.ReconciliationMismatchRepository;
+import com.example.account.repository.ReconciliationRunRepository;
+import com.example.account.type.ReconciliationStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.ErrorCode.RECONCILIATION_ALREADY_RUNNING;
+import static com.example.account.type.ErrorCode.RECONCILIATION_RUN_NOT_FOUND;
+import static com.example.account.type.ReconciliationStatus.*;
+
+/**
+ * 원장 대사 작업 실행
+ * 계좌 id 공간을 rangeSize 구간으로 나누고, 작업마다 만든 ForkJoinPool 에서 구간을 절반씩 쪼개 병렬로 처리한다.
+ * 구간이 끝날 때마다 체크포인트를 남기므로 실패하거나 중단된 작업은 resume 으로 이어서 실행한다.
+ * 처리량은 max-rows-per-second 로, 동시에 쓰는 DB 커넥션은 parallelism 으로 제한한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReconciliationService {
+    private static final String JOB = "reconciliation";
+    private final LedgerReconciler ledgerReconciler;
+    private final AccountRepository accountRepository;
+    private final ReconciliationRunRepository reconciliationRunRepository;
+    private final ReconciliationCheckpointRepository reconciliationCheckpointRepository;
+    private final ReconciliationMismatchRepository reconciliationMismatchRepository;
+
+    private final JobCoordinator jobCoordinator;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${reconciliation.range-size}")
+    private long rangeSize;
+
+    @Value("${reconciliation.parallelism}")
+    private int parallelism;
+
+    @Value("${reconciliation.max-rows-per-second}")
+    private long maxRowsPerSecond;
+
+    public ReconciliationReport start() {
+        acquireRunning();
+        try {
+            long maxAccountId = accountRepository.findFirstByOrderByIdDesc()
+                    .map(Account::getId)
+                    .orElse(0L);
+            ReconciliationRun run = reconciliationRunRepository.save(ReconciliationRun.builder()
+                    .status(RUNNING)
+                    .rangeSize(rangeSize)
+                    .maxAccountId(maxAccountId)
+                    .totalRanges(maxAccountId / rangeSize + 1)
+                    .startedAt(LocalDateTime.now())
+                    .build());
+            launch(run);
+            return getReport(run.getId());
+        } catch (RuntimeException e) {
+            releaseRunning();
+            throw e;
+        }
+    }
+
+    public ReconciliationReport resume(Long runId) {
+        ReconciliationRun run = getRun(runId);
+        if (run.getStatus() == COMPLETED) {
+            return getReport(runId);
+        }
+
+        acquireRunning();
+        try {
+            run.setStatus(RUNNING);
+            run.setFinishedAt(null);
+            launch(reconciliationRunRepository.save(run));
+            return getReport(runId);
+        } catch (RuntimeException e) {
+            releaseRunning();
+            throw e;
+        }
+    }
+
+    public ReconciliationReport getReport(Long runId) {
+        ReconciliationRun run = getRun(runId);
+        ReconciliationCheckpointRepository.Summary summary =
+                reconciliationCheckpointRepository.summarize(runId);
+
+        LocalDateTime end = run.getFinishedAt() != null ? run.getFinishedAt() : LocalDateTime.now();
+        long elapsedMillis = Math.max(1, Duration.between(run.getStartedAt(), end).toMillis());
+        long rows = summary.getAccounts() + summary.getTransactions();
+
+        return ReconciliationReport.builder()
+                .runId(runId)
+                .status(run.getStatus())
+                .totalRanges(run.getTotalRanges())
+                .completedRanges(summary.getRanges())
+                .accountCount(summary.getAccounts())
+                .transactionCount(summary.getTransactions())
+                .mismatchCount(summary.getMismatches())
+                .rowsPerSecond(rows * 1000 / elapsedMillis)
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .mismatches(reconciliationMismatchRepository.findTop100ByRunIdOrderByIdAsc(runId)
+                        .stream()
+                        .map(ReconciliationReport.Mismatch::from)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private void launch(ReconciliationRun run) {
+        Set<Long> completedRanges = new HashSet<>(
+                reconciliationCheckpointRepository.findRangeStartsByRunId(run.getId()));
+        RangeTask root = new RangeTask(run, 0, run.getTotalRanges(), completedRanges,
+                new ReconciliationThrottle(maxRowsPerSecond));
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        pool.execute(() -> {
+            ReconciliationStatus status = FAILED;
+            try {
+                root.invoke();
+                status = COMPLETED;
+            } catch (Exception e) {
+                log.error("Reconciliation run {} failed. Resume to continue.", run.getId(), e);
+            } finally {
+                try {
+                    finish(run, status);
+                } finally {
+                    releaseRunning();
+                    pool.shutdown();
+                }
+            }
+        });
+        log.info("Reconciliation run {} started. ranges={}, alreadyCompleted={}",
+                run.getId(), run.getTotalRanges(), completedRanges.size());
+    }
+
+    private void finish(ReconciliationRun run, ReconciliationStatus status) {
+        run.setStatus(status);
+        run.setFinishedAt(LocalDateTime.now());
+        reconciliationRunRepository.save(run);
+
+        ReconciliationReport report = getReport(run.getId());
+        log.info("Reconciliation run {} {}. accounts={}, transactions={}, mismatches={}, rows/s={}",
+                run.getId(), status, report.getAccountCount(), report.getTransactionCount(),
+                report.getMismatchCount(), report.getRowsPerSecond());
+    }
+
+    /**
+     * 노드 안에서는 running 으로, 노드 사이에서는 리더 리스로 한 번에 하나만 실행한다.
+     */
+    private void acquireRunning() {
+        if (!running.compareAndSet(false, true)) {
+            throw new AccountException(RECONCILIATION_ALREADY_RUNNING);
+        }
+        if (!jobCoordinator.tryLead(JOB)) {
+            running.set(false);
+            throw new AccountException(RECONCILIATION_ALREADY_RUNNING);
+        }
+    }
+
+    //끝나면 리스를 놓아 다른 노드에서도 바로 시작할 수 있게 한다.
+    private void releaseRunning() {
+        jobCoordinator.resign(JOB);
+        running.set(false);
+    }
+
+    private ReconciliationRun getRun(Long runId) {
+        return reconciliationRunRepository.findById(runId)
+                .orElseThrow(() -> new AccountException(RECONCILIATION_RUN_NOT_FOUND));
+    }
+
+    /**
+     * [fromIndex, toIndex) 번째 구간을 처리한다. 구간이 하나가 될 때까지 절반씩 나눈다.
+     */
+    private class RangeTask extends RecursiveAction {
+        private final ReconciliationRun run;
+        private final long fromIndex;
+        private final long toIndex;
+        private final Set<Long> completedRanges;
+        private final ReconciliationThrottle throttle;
+
+        RangeTask(ReconciliationRun run, long fromIndex, long toIndex,
+                  Set<Long> completedRanges, ReconciliationThrottle throttle) {
+            this.run = run;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.completedRanges = completedRanges;
+            this.throttle = throttle;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex > 1) {
+                long mid = (fromIndex + toIndex) >>> 1;
+                invokeAll(new RangeTask(run, fromIndex, mid, completedRanges, throttle),
+                        new RangeTask(run, mid, toIndex, completedRanges, throttle));
+                return;
+            }
+
+            long rangeStart = fromIndex * run.getRangeSize();
+            if (completedRanges.contains(rangeStart)) {
+                return;
+            }
+            LedgerRange range = ledgerReconciler.reconcile(
+                    run.getId(), rangeStart, rangeStart + run.getRangeSize());
+            ledgerReconciler.checkpoint(range);
+            try {
+                throttle.acquire(range.getRowCount());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconciliation interrupted", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.account.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대사 작업 처리량 제한
+ * 작업자들이 처리한 행 수만큼 시간을 예약하고, 1초 분량을 넘게 앞서 나가면 그만큼 쉰다.
+ * 0 이하면 제한하지 않는다.
+ */
+public class ReconciliationThrottle {
+    private final long nanosPerRow;
+    private long nextFreeAt;
+
+    public ReconciliationThrottle(long maxRowsPerSecond) {
+        this.nanosPerRow = maxRowsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxRowsPerSecond : 0;
+        this.nextFreeAt = System.nanoTime();
+    }
+
+    public void acquire(long rows) throws InterruptedException {
+        long waitNanos = reserve(rows, System.nanoTime());
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    synchronized long reserve(long rows, long now) {
+        if (nanosPerRow == 0) {
+            return 0;
+        }
+        nextFreeAt = Math.max(nextFreeAt, now) + rows * nanosPerRow;
+        return nextFreeAt - now - TimeUnit.SECONDS.toNanos(1);
+    }
+}
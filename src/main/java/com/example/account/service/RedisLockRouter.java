@@ -0,0 +1,106 @@
+package com.example.account.service;
+
+import org.redisson.RedissonRedLock;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 락 키를 Redis 노드에 배치한다.
+ * 키마다 consistent hashing 링에서 nodesPerKey 개 노드를 고른다(0 이하면 전체 노드).
+ * 고른 노드가 하나면 그 노드의 락을, 둘 이상이면 Redlock(과반 획득)으로 잡는다.
+ * 같은 키는 항상 같은 노드 조합으로 가므로 lock/unlock 이 일치한다.
+ * 노드가 nodesPerKey 보다 많을 때만 계좌마다 다른 노드 조합으로 락 트래픽이 분산된다.
+ */
+public class RedisLockRouter {
+    private final List<RedissonClient> nodes;
+    private final int nodesPerKey;
+    private final boolean ownsClients;
+    private final TreeMap<Long, Integer> ring = new TreeMap<>();
+
+    public RedisLockRouter(List<RedissonClient> nodes, List<String> nodeNames,
+                           int nodesPerKey, int virtualNodes, boolean ownsClients) {
+        if (nodes.isEmpty() || nodes.size() != nodeNames.size()) {
+            throw new IllegalArgumentException("Lock nodes and node names must match");
+        }
+        this.nodes = nodes;
+        this.nodesPerKey = nodesPerKey <= 0 ? nodes.size() : Math.min(nodesPerKey, nodes.size());
+        this.ownsClients = ownsClients;
+        for (int i = 0; i < nodeNames.size(); i++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                ring.put(hash(nodeNames.get(i) + "#" + v), i);
+            }
+        }
+    }
+
+    public static RedisLockRouter single(RedissonClient redissonClient) {
+        return new RedisLockRouter(List.of(redissonClient), List.of("default"), 1, 1, false);
+    }
+
+    public RLock getLock(String key) {
+        if (nodesPerKey == 1) {
+            return nodes.get(nodeIndexesFor(key).get(0)).getLock(key);
+        }
+        List<Integer> indexes = nodeIndexesFor(key);
+        RLock[] locks = new RLock[indexes.size()];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = nodes.get(indexes.get(i)).getLock(key);
+        }
+        return new RedissonRedLock(locks);
+    }
+
+    List<Integer> nodeIndexesFor(String key) {
+        List<Integer> indexes = new ArrayList<>(nodesPerKey);
+        if (nodes.size() == 1) {
+            indexes.add(0);
+            return indexes;
+        }
+        long hash = hash(key);
+        for (Map.Entry<Long, Integer> entry : ring.tailMap(hash).entrySet()) {
+            if (addIfAbsent(indexes, entry.getValue())) {
+                return indexes;
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : ring.entrySet()) {
+            if (addIfAbsent(indexes, entry.getValue())) {
+                return indexes;
+            }
+        }
+        return indexes;
+    }
+
+    public void shutdown() {
+        if (ownsClients) {
+            nodes.forEach(RedissonClient::shutdown);
+        }
+    }
+
+    private boolean addIfAbsent(List<Integer> indexes, Integer index) {
+        if (!indexes.contains(index)) {
+            indexes.add(index);
+        }
+        return indexes.size() == nodesPerKey;
+    }
+
+    /**
+     * FNV-1a 64bit + murmur3 finalizer
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
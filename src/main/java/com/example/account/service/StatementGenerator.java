@@ -0,0 +1,146 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.job.JobCoordinator;
+import com.example.account.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 월간 거래 내역서 생성 작업
+ * 매월 지난달 내역서를 {directory}/{yyyy-MM}/{계좌번호}.csv 로 만든다.
+ * 계좌 id 공간을 partitions 개 구간으로 나누어 구간마다 한 번의 스트리밍 쿼리로 병렬 처리한다.
+ * 구간은 살아 있는 노드들이 나눠서 맡고, 기간마다 한 구간은 한 노드에서 한 번만 만든다(JobCoordinator).
+ * 자기 구간을 먼저 만들고, 다른 노드의 구간은 이어받기 대기 시간이 지난 뒤 남아 있는 것만 만든다.
+ * 노드마다 다른 구간의 파일을 쓰므로 directory 는 모든 노드가 같이 보는 공유 저장소여야 한다.
+ * 같은 기간을 다시 실행하면 이미 끝난 구간은 건너뛰고, 실패한 구간만 다시 만들어 덮어쓴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatementGenerator {
+    private static final String JOB = "statement";
+
+    private final StatementWriter statementWriter;
+    private final AccountRepository accountRepository;
+    private final JobCoordinator jobCoordinator;
+
+    @Value("${statement.directory}")
+    private String directory;
+
+    @Value("${statement.partitions}")
+    private int partitions;
+
+    @Scheduled(cron = "${statement.cron}")
+    public void generate() {
+        YearMonth period = YearMonth.now().minusMonths(1);
+        try {
+            generate(period);
+        } catch (Exception e) {
+            log.error("Statement generation for {} failed. Will retry on next run.", period, e);
+        }
+    }
+
+    public long generate(YearMonth period) throws IOException, InterruptedException, ExecutionException {
+        LocalDateTime periodStart = period.atDay(1).atStartOfDay();
+        LocalDateTime periodEnd = period.plusMonths(1).atDay(1).atStartOfDay();
+        Path periodDirectory = Files.createDirectories(Paths.get(directory, period.toString()));
+        String runId = period.toString();
+
+        long maxAccountId = accountRepository.findFirstByOrderByIdDesc()
+                .map(Account::getId)
+                .orElse(0L);
+        //노드마다 최대 id 를 다른 시점에 읽으므로 구간 경계는 먼저 정한 노드의 값을 쓴다.
+        long partitionSize = jobCoordinator.agree(JOB, runId, "partition-size",
+                maxAccountId / partitions + 1);
+
+        long start = System.currentTimeMillis();
+        ExecutorService workers = Executors.newFixedThreadPool(partitions);
+        try {
+            List<Integer> owned = jobCoordinator.ownedPartitions(partitions);
+            long[] totals = new long[2];
+            writePartitions(workers, owned, runId, periodDirectory, periodStart, periodEnd,
+                    partitionSize, totals);
+
+            //주인 노드가 자기 구간을 맡을 시간을 준 뒤 남은 구간을 이어받는다.
+            long wait = start + jobCoordinator.getTakeoverDelayMs() - System.currentTimeMillis();
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+            List<Integer> others = new ArrayList<>(partitions);
+            for (int i = 0; i < partitions; i++) {
+                if (!owned.contains(i)) {
+                    others.add(i);
+                }
+            }
+            writePartitions(workers, others, runId, periodDirectory, periodStart, periodEnd,
+                    partitionSize, totals);
+
+            log.info("Generated {} statements for {} with {} transactions",
+                    totals[0], period, totals[1]);
+            return totals[0];
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * 구간들을 병렬로 만들고 끝날 때까지 기다린다. totals 에 계좌 수, 거래 수를 더한다.
+     */
+    private void writePartitions(ExecutorService workers, List<Integer> partitionIndexes, String runId,
+                                 Path periodDirectory, LocalDateTime periodStart, LocalDateTime periodEnd,
+                                 long partitionSize, long[] totals)
+            throws InterruptedException, ExecutionException {
+        List<Future<StatementPartition>> futures = new ArrayList<>(partitionIndexes.size());
+        for (int i : partitionIndexes) {
+            long from = i * partitionSize;
+            long to = from + partitionSize;
+            futures.add(workers.submit(() -> writePartition(
+                    runId, i, periodDirectory, periodStart, periodEnd, from, to)));
+        }
+        for (Future<StatementPartition> future : futures) {
+            StatementPartition partition = future.get();
+            if (partition == null) {
+                continue;
+            }
+            totals[0] += partition.getAccountCount();
+            totals[1] += partition.getTransactionCount();
+        }
+    }
+
+    /**
+     * 다른 노드가 맡았거나 이미 끝난 구간이면 null
+     */
+    private StatementPartition writePartition(String runId, int partition, Path periodDirectory,
+                                              LocalDateTime periodStart, LocalDateTime periodEnd,
+                                              long from, long to) {
+        if (!jobCoordinator.claim(JOB, runId, partition)) {
+            return null;
+        }
+        StatementPartition result;
+        try {
+            result = statementWriter.write(periodDirectory, periodStart, periodEnd, from, to);
+        } catch (RuntimeException e) {
+            jobCoordinator.release(JOB, runId, partition);
+            throw e;
+        }
+        jobCoordinator.complete(JOB, runId, partition);
+        return result;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.account.service;
+
+import com.example.account.type.TransactionType;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+/**
+ * 계좌 id 구간 하나의 거래 내역서 작성
+ * (계좌 id, 거래 id) 순으로 정렬된 행을 한 줄씩 받아 계좌마다 내역서 파일 하나를 쓴다.
+ * 구간의 모든 파일이 direct 버퍼 하나를 재사용하므로 메모리는 계좌/거래 수와 무관하다.
+ * 파일은 임시 이름으로 쓰고 다 쓴 뒤 옮기므로 쓰다 만 내역서는 남지 않는다.
+ */
+@Getter
+public class StatementPartition implements Closeable {
+    private static final String TRANSACTION_HEADER =
+            "transactedAt,transactionId,transactionType,amount,balanceSnapshot\n";
+
+    private final Path directory;
+    private final LocalDateTime periodStart;
+    private final LocalDateTime periodEnd;
+    private final ByteBuffer buffer;
+
+    private long accountCount;
+    private long transactionCount;
+
+    private Long accountId;
+    private long balance;
+    private FileChannel channel;
+    private Path tempFile;
+    private Path file;
+
+    public StatementPartition(Path directory, LocalDateTime periodStart,
+                              LocalDateTime periodEnd, int bufferSize) {
+        this.directory = directory;
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * @param openingBalance 기간 시작 시점 잔액
+     * @param transactionId  기간 안에 거래가 없는 계좌면 null
+     */
+    public void accept(long accountId, String accountNumber, long openingBalance,
+                       String transactionId, TransactionType transactionType,
+                       long amount, long balanceSnapshot, LocalDateTime transactedAt)
+            throws IOException {
+        if (this.accountId == null || this.accountId != accountId) {
+            finishAccount();
+            openAccount(accountId, accountNumber, openingBalance);
+        }
+        if (transactionId == null) {
+            return;
+        }
+
+        transactionCount++;
+        balance = transactionType.apply(balance, amount);
+        put(transactedAt.toString()).put(",")
+                .put(transactionId).put(",")
+                .put(transactionType.name()).put(",")
+                .put(amount).put(",")
+                .put(balanceSnapshot).put("\n");
+    }
+
+    public void finish() throws IOException {
+        finishAccount();
+    }
+
+    /**
+     * 작성 중이던 파일을 버린다. finish 뒤에 호출하면 아무것도 하지 않는다.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } finally {
+            channel = null;
+            accountId = null;
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void openAccount(long accountId, String accountNumber, long openingBalance)
+            throws IOException {
+        this.accountId = accountId;
+        this.balance = openingBalance;
+        this.file = directory.resolve(accountNumber + ".csv");
+        this.tempFile = directory.resolve(accountNumber + ".csv.tmp");
+        this.channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        accountCount++;
+
+        put("accountNumber,").put(accountNumber).put("\n")
+                .put("period,").put(periodStart.toLocalDate().toString())
+                .put(",").put(periodEnd.toLocalDate().toString()).put("\n")
+                .put("openingBalance,").put(openingBalance).put("\n")
+                .put(TRANSACTION_HEADER);
+    }
+
+    private void finishAccount() throws IOException {
+        if (accountId == null) {
+            return;
+        }
+        put("closingBalance,").put(balance).put("\n");
+        flush();
+        channel.close();
+        channel = null;
+        accountId = null;
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private StatementPartition put(long value) throws IOException {
+        return put(Long.toString(value));
+    }
+
+    /**
+     * 내역서의 모든 값(계좌번호, 거래 id, 금액, 일시)은 ASCII 이므로 인코더 없이 바로 버퍼에 쓴다.
+     */
+    private StatementPartition put(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) value.charAt(i));
+        }
+        return this;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.account.service;
+
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * 계좌 id 구간 단위 거래 내역서 생성
+ * 구간의 계좌, 기간 시작 이후 잔액 변동 합계, 기간 안의 성공 거래를 한 번의 쿼리로 스트리밍한다.
+ * 기초 잔액은 현재 잔액에서 기간 시작 이후 변동을 빼서 구하므로 보관(archive)된 과거 거래를 읽지 않고,
+ * 한 문장으로 읽으므로 운영 중에도 기초 잔액과 거래 내역이 어긋나지 않는다.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatementWriter {
+    //TransactionType.sign 을 SQL 로 옮긴 것
+    private static final String SIGNED_AMOUNT = Arrays.stream(TransactionType.values())
+            .map(type -> "when '" + type.name() + "' then " + (type.getSign() < 0 ? "-" : "") + "amount")
+            .collect(Collectors.joining(" ", "case transaction_type ", " end"));
+
+    private static final String PARTITION_SQL =
+            "select a.id, a.account_number, a.balance - coalesce(n.net, 0), " +
+            "t.transaction_id, t.transaction_type, t.amount, t.balance_snapshot, t.transacted_at " +
+            "from account a " +
+            "left join (select account_id, sum(" + SIGNED_AMOUNT + ") net from transaction " +
+            "where transaction_result_type = 'S' and transacted_at >= ? " +
+            "and account_id >= ? and account_id < ? group by account_id) n on n.account_id = a.id " +
+            "left join transaction t on t.account_id = a.id and t.transaction_result_type = 'S' " +
+            "and t.transacted_at >= ? and t.transacted_at < ? " +
+            "where a.id >= ? and a.id < ? and a.registered_at < ? " +
+            "and (a.unregistered_at is null or a.unregistered_at >= ?) " +
+            "order by a.id, t.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${statement.fetch-size}")
+    private int fetchSize;
+
+    @Value("${statement.buffer-size}")
+    private int bufferSize;
+
+    @Transactional
+    public StatementPartition write(Path directory, LocalDateTime periodStart, LocalDateTime periodEnd,
+                                    long fromAccountId, long toAccountId) {
+        Timestamp start = Timestamp.valueOf(periodStart);
+        Timestamp end = Timestamp.valueOf(periodEnd);
+        try (StatementPartition partition =
+                     new StatementPartition(directory, periodStart, periodEnd, bufferSize)) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(PARTITION_SQL);
+                ps.setFetchSize(fetchSize);
+                ps.setTimestamp(1, start);
+                ps.setLong(2, fromAccountId);
+                ps.setLong(3, toAccountId);
+                ps.setTimestamp(4, start);
+                ps.setTimestamp(5, end);
+                ps.setLong(6, fromAccountId);
+                ps.setLong(7, toAccountId);
+                ps.setTimestamp(8, end);
+                ps.setTimestamp(9, start);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                String transactionId = rs.getString(4);
+                try {
+                    partition.accept(rs.getLong(1), rs.getString(2), rs.getLong(3),
+                            transactionId,
+                            transactionId == null ? null : TransactionType.valueOf(rs.getString(5)),
+                            rs.getLong(6), rs.getLong(7),
+                            transactionId == null ? null : rs.getTimestamp(8).toLocalDateTime());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            partition.finish();
+            return partition;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.account.service;
+
+import com.example.account.domain.TransactionArchive;
+import com.example.account.dto.TransactionDto;
+import com.example.account.repository.TransactionArchiveRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 보관 거래 조회와 압축
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionArchiveService {
+    private final TransactionArchiveRepository transactionArchiveRepository;
+    private final ObjectMapper objectMapper;
+
+    public Optional<TransactionDto> findByTransactionId(String transactionId) {
+        return transactionArchiveRepository.findByTransactionId(transactionId)
+                .map(TransactionArchive::getPayload)
+                .map(this::decompress);
+    }
+
+    public boolean isArchived(String transactionId) {
+        return transactionArchiveRepository.existsByTransactionId(transactionId);
+    }
+
+    public byte[] compress(TransactionDto transactionDto) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, transactionDto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public TransactionDto decompress(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(in, TransactionDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
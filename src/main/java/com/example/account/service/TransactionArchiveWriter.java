@@ -0,0 +1,71 @@
+package com.example.account.service;
+
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.TransactionResultType.F;
+
+/**
+ * 거래 보관 청크 처리
+ * 보관 테이블 저장과 원래 거래 삭제를 한 트랜잭션에서 처리해 중간에 실패해도 유실이나 중복이 없다.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionArchiveWriter {
+    private static final String INSERT_ARCHIVE_SQL =
+            "insert into transaction_archive (id, transaction_id, transacted_at, payload, archived_at) " +
+            "values (?, ?, ?, ?, ?)";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchiveService transactionArchiveService;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return 보관한 거래 수
+     */
+    @Transactional
+    public int archiveChunk(LocalDateTime cancelCutoff, LocalDateTime failedCutoff, int batchSize) {
+        List<Transaction> batch = transactionRepository.findArchiveCandidates(
+                cancelCutoff, F, failedCutoff, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp archivedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_ARCHIVE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Transaction transaction = batch.get(i);
+                ps.setLong(1, transaction.getId());
+                ps.setString(2, transaction.getTransactionId());
+                ps.setTimestamp(3, Timestamp.valueOf(transaction.getTransactedAt()));
+                ps.setBytes(4, transactionArchiveService.compress(TransactionDto.fromEntity(transaction)));
+                ps.setTimestamp(5, archivedAt);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+
+        transactionRepository.deleteAllByIdInBatch(batch.stream()
+                .map(Transaction::getId)
+                .collect(Collectors.toList()));
+        return batch.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.account.service;
+
+import com.example.account.job.JobCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 거래 보관 작업
+ * 1년이 지나 취소할 수 없는 거래와 보관 기간이 지난 실패 거래를 청크 단위로 보관 테이블로 옮긴다.
+ * 청크마다 커밋되므로 중간에 멈춰도 다음 실행에서 이어서 처리한다.
+ * 리더 노드에서만 실행하고, 청크마다 리더인지 다시 확인해 리더가 바뀌면 멈춘다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionArchiver {
+    private static final String JOB = "transaction-archive";
+
+    private final TransactionArchiveWriter transactionArchiveWriter;
+    private final JobCoordinator jobCoordinator;
+
+    @Value("${archive.batch-size}")
+    private int batchSize;
+
+    @Value("${archive.failed-retention-days}")
+    private int failedRetentionDays;
+
+    @Scheduled(cron = "${archive.cron}")
+    public void archive() {
+        if (!jobCoordinator.tryLead(JOB)) {
+            return;
+        }
+        try {
+            archive(LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("Transaction archive failed. Will retry on next run.", e);
+        }
+    }
+
+    public long archive(LocalDateTime now) {
+        //TransactionService.validateCancelBalance 의 취소 가능 기간과 같다.
+        LocalDateTime cancelCutoff = now.minusYears(1);
+        LocalDateTime failedCutoff = now.minusDays(failedRetentionDays);
+
+        long archived = 0;
+        int moved = batchSize;
+        while (moved == batchSize && jobCoordinator.tryLead(JOB)) {
+            moved = transactionArchiveWriter.archiveChunk(cancelCutoff, failedCutoff, batchSize);
+            archived += moved;
+        }
+
+        log.info("Archived {} transactions", archived);
+        return archived;
+    }
+}
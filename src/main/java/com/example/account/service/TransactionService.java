@@ -1,64 +1,106 @@
 package com.example.account.service;
 
 import com.example.account.domain.Account;
-import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
+import com.example.account.domain.TransactionOutbox;
 import com.example.account.dto.TransactionDto;
+import com.example.account.event.AccountChangedEvent;
 import com.example.account.exception.AccountException;
+import com.example.account.journal.DebitJournal;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionOutboxRepository;
 import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 import static com.example.account.type.AccountStatus.UNREGISTERED;
 import static com.example.account.type.ErrorCode.*;
 import static com.example.account.type.TransactionResultType.F;
 import static com.example.account.type.TransactionResultType.S;
-import static com.example.account.type.TransactionType.CANCEL;
-import static com.example.account.type.TransactionType.USE;
+import static com.example.account.type.TransactionType.*;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class TransactionService {
+public class TransactionService implements BalanceEngine {
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final TransactionOutboxRepository transactionOutboxRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionArchiveService transactionArchiveService;
+    private final DebitJournal debitJournal;
+    private final VelocityLimitService velocityLimitService;
 
+    @Override
     @Transactional
     public TransactionDto useBalance(Long userId, String accountNumber,
                                      Long amount) {
-        AccountUser accountUser = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
-
-        validateUseBalance(accountUser, account, amount);
+        //저널 반영이 커밋된 뒤 대기 금액이 줄어드므로, 계좌보다 먼저 읽어야 차감이 빠지지 않는다.
+        long pendingDebits = debitJournal.pendingAmount(accountNumber);
+        Account account = findOwnedAccount(userId, accountNumber)
+                .orElseThrow(() -> new AccountException(
+                        getOwnedAccountErrorCode(userId, accountNumber)));
+
+        long balance = account.getBalance() - pendingDebits;
+        validateUseBalance(account, balance, amount);
+        //잔액 검증을 통과한 요청만 한도 카운터를 늘린다.
+        velocityLimitService.use(userId, accountNumber, amount);
+
+        if (debitJournal.isEnabled()) {
+            return TransactionDto.fromJournal(debitJournal.append(account.getId(),
+                    userId, accountNumber, amount, balance - amount));
+        }
 
         account.useBalance(amount);
+        applicationEventPublisher.publishEvent(new AccountChangedEvent(account));
 
         return TransactionDto.fromEntity(saveAndGetTransaction(USE, S, amount, account));
     }
 
-    private void validateUseBalance(
-            AccountUser accountUser, Account account, Long amount) {
-        if (!Objects.equals(accountUser.getId(), account.getAccountUser().getId())) {
-            throw new AccountException(USER_ACCOUNT_UN_MATCH);
+    /**
+     * 소유주 확인까지 한 번의 조회로 끝낸다.
+     */
+    private Optional<Account> findOwnedAccount(Long userId, String accountNumber) {
+        //Redis 락 대신 노드 로컬 락으로 동작 중이면 다른 노드와의 동시 갱신은 계좌 행 락으로 막는다.
+        if (AccountLockContext.isDegraded()) {
+            return accountRepository.findByAccountNumberForUpdate(accountNumber)
+                    .filter(account -> Objects.equals(account.getAccountUser().getId(), userId));
+        }
+        return accountRepository.findByAccountNumberAndUserId(accountNumber, userId);
+    }
+
+    /**
+     * 조회에 실패했을 때만 원인을 가리기 위해 추가로 조회한다.
+     */
+    private ErrorCode getOwnedAccountErrorCode(Long userId, String accountNumber) {
+        if (!accountUserRepository.existsById(userId)) {
+            return USER_NOT_FOUND;
         }
+        if (!accountRepository.existsByAccountNumber(accountNumber)) {
+            return ACCOUNT_NOT_FOUND;
+        }
+        return USER_ACCOUNT_UN_MATCH;
+    }
+
+    private void validateUseBalance(Account account, long balance, Long amount) {
         if (account.getAccountStatus() == UNREGISTERED) {
             throw new AccountException((ACCOUNT_ALREADY_UNREGISTERED));
         }
 
-        if (account.getBalance() < amount) {
+        if (balance < amount) {
             throw new AccountException((BALANCE_IS_SMALLER_THAN_AMOUNT));
         }
     }
@@ -76,7 +118,7 @@ public class TransactionService {
             TransactionResultType transactionResultType,
             Long amount,
             Account account) {
-        return transactionRepository.save(Transaction.builder()
+        Transaction transaction = Transaction.builder()
                 .transactionType(transactionType)
                 .transactionResultType(transactionResultType)
                 .account(account)
@@ -84,30 +126,68 @@ public class TransactionService {
                 .balanceSnapshot(account.getBalance())
                 .transactionId(UUID.randomUUID().toString().replaceAll("-", ""))
                 .transactedAt(LocalDateTime.now())
-                .build()
-        );
+                .build();
+        //거래와 같은 트랜잭션에서 아웃박스 기록
+        transactionOutboxRepository.save(TransactionOutbox.from(transaction));
+
+        return transactionRepository.save(transaction);
     }
 
+    @Override
     @Transactional
     public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
-        Transaction transaction = transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND));
-
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+        //저널 모드에서는 대기 중인 차감을 먼저 반영해야 취소 거래가 그 뒤에 쌓이고 잔액 스냅샷이 맞다.
+        debitJournal.applyPending(accountNumber);
+        Transaction transaction = findTransactionOfAccount(transactionId, accountNumber)
+                .orElseThrow(() -> new AccountException(
+                        getTransactionOfAccountErrorCode(transactionId, accountNumber)));
+        Account account = transaction.getAccount();
 
-        validateCancelBalance(transaction, account, amount);
+        validateCancelBalance(transaction, amount);
 
         account.cancelBalance(amount);
+        applicationEventPublisher.publishEvent(new AccountChangedEvent(account));
 
         return TransactionDto.fromEntity(
                 saveAndGetTransaction(CANCEL, S, amount, account));
 
     }
 
-    private void validateCancelBalance(Transaction transaction, Account account, Long amount) {
-        if (!Objects.equals(transaction.getAccount().getId(), account.getId())) {
-            throw new AccountException(TRANSACTION_UN_MATCH_ACCOUNT);
+    /**
+     * 거래와 계좌가 맞는지까지 한 번의 조회로 끝낸다.
+     */
+    private Optional<Transaction> findTransactionOfAccount(String transactionId, String accountNumber) {
+        //계좌 행만 먼저 잠근다. 거래 조회는 잠근 뒤 읽은 같은 계좌 엔티티를 쓴다.
+        if (AccountLockContext.isDegraded()
+                && accountRepository.findByAccountNumberForUpdate(accountNumber).isEmpty()) {
+            return Optional.empty();
+        }
+        return transactionRepository.findByTransactionIdAndAccountNumber(transactionId, accountNumber);
+    }
+
+    private ErrorCode getTransactionOfAccountErrorCode(String transactionId, String accountNumber) {
+        Optional<Transaction> transaction = transactionRepository.findByTransactionId(transactionId);
+        if (transaction.isEmpty()) {
+            return transactionArchiveService.isArchived(transactionId)
+                    ? TOO_OLD_TRANSACTION : TRANSACTION_NOT_FOUND;
+        }
+        if (!accountRepository.existsByAccountNumber(accountNumber)) {
+            return ACCOUNT_NOT_FOUND;
+        }
+        if (!isCancellable(transaction.get())) {
+            return TRANSACTION_NOT_CANCELLABLE;
+        }
+        return TRANSACTION_UN_MATCH_ACCOUNT;
+    }
+
+    private boolean isCancellable(Transaction transaction) {
+        return transaction.getTransactionType() != INTEREST
+                && transaction.getTransactionType() != FEE;
+    }
+
+    private void validateCancelBalance(Transaction transaction, Long amount) {
+        if (!isCancellable(transaction)) {
+            throw new AccountException(TRANSACTION_NOT_CANCELLABLE);
         }
 
         if (!Objects.equals(transaction.getAmount(), amount)) {
@@ -129,7 +209,9 @@ public class TransactionService {
 
     public TransactionDto getTransactionByTransactionId(String transactionId) {
 
-        return TransactionDto.fromEntity(transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND)));
+        return transactionRepository.findByTransactionId(transactionId)
+                .map(TransactionDto::fromEntity)
+                .or(() -> transactionArchiveService.findByTransactionId(transactionId))
+                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND));
     }
 }
@@ -0,0 +1,181 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.ErrorCode.VELOCITY_LIMIT_EXCEEDED;
+import static com.example.account.type.ErrorCode.VELOCITY_LIMIT_UNAVAILABLE;
+
+/**
+ * 계좌/사용자별 사용 한도 (일 사용 금액, 시간당 사용 횟수)
+ * 거래 내역을 합산하지 않고 Redis 의 일/시간 단위 카운터를 거래마다 늘려서 확인한다.
+ * 모든 카운터의 확인과 증가를 Lua 스크립트 한 번으로 처리하고, 카운터는 버킷이 지나면 만료된다.
+ * 거래 트랜잭션이 롤백되면 늘린 만큼 되돌린다. 한도 값이 0 이면 그 규칙은 쓰지 않는다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VelocityLimitService {
+    private static final Counter REJECTED = Metrics.counter("account.velocity.rejected");
+    private static final Counter REDIS_FAILURES = Metrics.counter("account.velocity.redis.failures");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter HOUR = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    //버킷이 끝난 뒤에도 경계 근처 요청이 있으니 한 버킷 더 둔다.
+    private static final long DAY_TTL_MS = TimeUnit.DAYS.toMillis(2);
+    private static final long HOUR_TTL_MS = TimeUnit.HOURS.toMillis(2);
+    private static final Runnable NO_RELEASE = () -> { };
+
+    //KEYS 카운터, ARGV 증가값 n 개 + 한도 n 개 + 만료(ms) n 개. 넘는 규칙이 있으면 그 번호, 없으면 0
+    private static final String USE_SCRIPT =
+            "local n = #KEYS " +
+            "for i = 1, n do " +
+            "  local current = tonumber(redis.call('get', KEYS[i]) or '0') " +
+            "  if current + tonumber(ARGV[i]) > tonumber(ARGV[n + i]) then return i end " +
+            "end " +
+            "for i = 1, n do " +
+            "  local value = redis.call('incrby', KEYS[i], ARGV[i]) " +
+            "  if value == tonumber(ARGV[i]) then redis.call('pexpire', KEYS[i], ARGV[2 * n + i]) end " +
+            "end " +
+            "return 0";
+    private static final String RELEASE_SCRIPT =
+            "for i = 1, #KEYS do " +
+            "  if redis.call('exists', KEYS[i]) == 1 then redis.call('decrby', KEYS[i], ARGV[i]) end " +
+            "end " +
+            "return 0";
+
+    private final RedissonClient redissonClient;
+
+    @Value("${velocity.enabled}")
+    private boolean enabled;
+
+    @Value("${velocity.account-daily-amount}")
+    private long accountDailyAmount;
+
+    @Value("${velocity.user-daily-amount}")
+    private long userDailyAmount;
+
+    @Value("${velocity.account-hourly-count}")
+    private long accountHourlyCount;
+
+    @Value("${velocity.user-hourly-count}")
+    private long userHourlyCount;
+
+    //Redis 장애 시 true 면 한도 확인 없이 허용, false 면 거절
+    @Value("${velocity.fail-open}")
+    private boolean failOpen;
+
+    /**
+     * 한도 안이면 카운터를 늘리고, 넘으면 VELOCITY_LIMIT_EXCEEDED
+     */
+    public void use(Long userId, String accountNumber, long amount) {
+        Runnable release = reserve(userId, accountNumber, amount);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        release.run();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * use 와 같지만 되돌리기는 호출한 쪽이 한다. 트랜잭션 없이 처리하는 메모리 엔진용.
+     * 돌려준 Runnable 을 실행하면 늘린 만큼 되돌린다.
+     */
+    public Runnable reserve(Long userId, String accountNumber, long amount) {
+        if (!enabled) {
+            return NO_RELEASE;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String day = now.format(DAY);
+        String hour = now.format(HOUR);
+
+        Counters counters = new Counters();
+        counters.add("account : " + accountNumber + " : amount : " + day,
+                amount, accountDailyAmount, DAY_TTL_MS);
+        counters.add("user : " + userId + " : amount : " + day,
+                amount, userDailyAmount, DAY_TTL_MS);
+        counters.add("account : " + accountNumber + " : count : " + hour,
+                1, accountHourlyCount, HOUR_TTL_MS);
+        counters.add("user : " + userId + " : count : " + hour,
+                1, userHourlyCount, HOUR_TTL_MS);
+        if (counters.keys.isEmpty()) {
+            return NO_RELEASE;
+        }
+
+        Long violated;
+        try {
+            violated = redissonClient.getScript(LongCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE, USE_SCRIPT, RScript.ReturnType.INTEGER,
+                    counters.keys, counters.useArgs());
+        } catch (Exception e) {
+            REDIS_FAILURES.increment();
+            log.error("Velocity limit check failed", e);
+            if (failOpen) {
+                return NO_RELEASE;
+            }
+            throw new AccountException(VELOCITY_LIMIT_UNAVAILABLE);
+        }
+        if (violated != null && violated > 0) {
+            REJECTED.increment();
+            throw new AccountException(VELOCITY_LIMIT_EXCEEDED);
+        }
+        return () -> release(counters);
+    }
+
+    private void release(Counters counters) {
+        try {
+            redissonClient.getScript(LongCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE, RELEASE_SCRIPT, RScript.ReturnType.INTEGER,
+                    counters.keys, counters.increments.toArray());
+        } catch (Exception e) {
+            //되돌리지 못하면 그 버킷이 끝날 때까지 한도가 조금 덜 남는다.
+            REDIS_FAILURES.increment();
+            log.error("Velocity limit release failed", e);
+        }
+    }
+
+    private static class Counters {
+        private final List<Object> keys = new ArrayList<>(4);
+        private final List<Long> increments = new ArrayList<>(4);
+        private final List<Long> limits = new ArrayList<>(4);
+        private final List<Long> ttls = new ArrayList<>(4);
+
+        private void add(String key, long increment, long limit, long ttlMs) {
+            if (limit <= 0) {
+                return;
+            }
+            keys.add("VL : " + key);
+            increments.add(increment);
+            limits.add(limit);
+            ttls.add(ttlMs);
+        }
+
+        private Object[] useArgs() {
+            List<Long> args = new ArrayList<>(keys.size() * 3);
+            args.addAll(increments);
+            args.addAll(limits);
+            args.addAll(ttls);
+            return args.toArray();
+        }
+    }
+}
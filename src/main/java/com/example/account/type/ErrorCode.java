@@ -6,20 +6,35 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor
 public enum ErrorCode {
-    INTERNAL_SERVER_ERROR("내부 서버 오류가 발생했습니다."),
-    INVALID_REQUEST("잘못된 요청입니다."),
-    USER_NOT_FOUND("사용자가 없습니다."),
-    ACCOUNT_NOT_FOUND("계좌가 없습니다."),
-    ACCOUNT_TRANSACTION_LOCK("해당 계좌는 사용중입니다."),
-    TRANSACTION_NOT_FOUND("거래가 없습니다!"),
-    MAX_ACCOUNT_PER_USER_10("사용자 최대 계좌는 10개입니다."),
-    USER_ACCOUNT_UN_MATCH("사용자와 계좌의 소유주가 다릅니다."),
-    ACCOUNT_ALREADY_UNREGISTERED("이미 해지된 계좌입니다."),
-    BALANCE_NOT_EMPTY("잔액이 있는 계좌 해지 불가"),
-    BALANCE_IS_SMALLER_THAN_AMOUNT("거래 금액보다 잔액이 적다"),
-    TRANSACTION_UN_MATCH_ACCOUNT("거래와 계좌 일치하지 않는다."),
-    CANCEL_AMOUNT_UN_MATCH_USE_AMOUNT("거래 금액과 거래 취소 금액이 다릅니다."),
-    TOO_OLD_TRANSACTION("1년이 지난 거래는 취소가 불가합니다.");
+    INTERNAL_SERVER_ERROR(0, "내부 서버 오류가 발생했습니다."),
+    INVALID_REQUEST(1, "잘못된 요청입니다."),
+    USER_NOT_FOUND(2, "사용자가 없습니다."),
+    ACCOUNT_NOT_FOUND(3, "계좌가 없습니다."),
+    ACCOUNT_TRANSACTION_LOCK(4, "해당 계좌는 사용중입니다."),
+    LOCK_SERVICE_UNAVAILABLE(5, "계좌 락을 사용할 수 없어 요청을 처리할 수 없습니다."),
+    TOO_MANY_REQUESTS(6, "요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해 주세요."),
+    RATE_LIMIT_EXCEEDED(7, "요청 한도를 넘었습니다. 잠시 후 다시 시도해 주세요."),
+    SERVER_BUSY(8, "처리 중인 요청이 많습니다. 잠시 후 다시 시도해 주세요."),
+    DEBIT_JOURNAL_UNAVAILABLE(9, "거래 저널에 기록할 수 없어 요청을 처리할 수 없습니다."),
+    TRANSACTION_NOT_FOUND(10, "거래가 없습니다!"),
+    MAX_ACCOUNT_PER_USER_10(11, "사용자 최대 계좌는 10개입니다."),
+    USER_ACCOUNT_UN_MATCH(12, "사용자와 계좌의 소유주가 다릅니다."),
+    ACCOUNT_ALREADY_UNREGISTERED(13, "이미 해지된 계좌입니다."),
+    BALANCE_NOT_EMPTY(14, "잔액이 있는 계좌 해지 불가"),
+    BALANCE_IS_SMALLER_THAN_AMOUNT(15, "거래 금액보다 잔액이 적다"),
+    VELOCITY_LIMIT_EXCEEDED(16, "사용 한도를 넘었습니다."),
+    VELOCITY_LIMIT_UNAVAILABLE(17, "사용 한도를 확인할 수 없어 요청을 처리할 수 없습니다."),
+    TRANSACTION_UN_MATCH_ACCOUNT(18, "거래와 계좌 일치하지 않는다."),
+    CANCEL_AMOUNT_UN_MATCH_USE_AMOUNT(19, "거래 금액과 거래 취소 금액이 다릅니다."),
+    TOO_OLD_TRANSACTION(20, "1년이 지난 거래는 취소가 불가합니다."),
+    TRANSACTION_NOT_CANCELLABLE(21, "이자/수수료 거래는 취소할 수 없습니다."),
+    RECONCILIATION_RUN_NOT_FOUND(22, "대사 작업이 없습니다."),
+    RECONCILIATION_ALREADY_RUNNING(23, "이미 실행 중인 대사 작업이 있습니다."),
+    POSTING_RUN_NOT_FOUND(24, "이자/수수료 반영 작업이 없습니다."),
+    POSTING_ALREADY_RUNNING(25, "이미 실행 중인 이자/수수료 반영 작업이 있습니다."),
+    POSTING_NOT_SUPPORTED(26, "메모리 잔액 엔진이나 잔액 사용 저널을 쓰는 중에는 이자/수수료 일괄 반영을 할 수 없습니다.");
+    //바이너리 프로토콜 등 외부로 나가는 고정 번호. 한 번 정한 번호는 바꾸거나 다시 쓰지 않는다.
+    private final int code;
     private final String description;
 
 }
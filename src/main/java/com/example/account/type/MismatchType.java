@@ -0,0 +1,8 @@
+package com.example.account.type;
+
+public enum MismatchType {
+    //직전 거래 잔액 ± 거래 금액 != 거래 잔액 스냅샷
+    SNAPSHOT_CHAIN,
+    //마지막 거래 잔액 스냅샷 != 계좌 잔액
+    BALANCE
+}
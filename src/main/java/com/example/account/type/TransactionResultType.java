@@ -1,6 +1,14 @@
 package com.example.account.type;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
 public enum TransactionResultType {
-    S,
-    F
+    S(0),
+    F(1);
+
+    //바이너리 응답에 싣는 번호 (ErrorCode.code 참고)
+    private final int code;
 }
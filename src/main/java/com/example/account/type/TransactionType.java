@@ -1,5 +1,23 @@
 package com.example.account.type;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
 public enum TransactionType {
-    USE, CANCEL
+    USE(0, -1),
+    CANCEL(1, 1),
+    INTEREST(2, 1),
+    FEE(3, -1);
+
+    //바이너리 응답에 싣는 번호 (ErrorCode.code 참고)
+    private final int code;
+
+    //거래 금액이 잔액에 더해지는 방향
+    private final int sign;
+
+    public long apply(long balance, long amount) {
+        return balance + sign * amount;
+    }
 }
@@ -1,8 +1,8 @@
-insert into account_user(id, name, created_at, updated_at)
-values (1, 'Soni', now(), now());
+insert into account_user(id, name, account_count, created_at, updated_at)
+values (1, 'Soni', 0, now(), now());
 
-insert into account_user(id, name, created_at, updated_at)
-values (2, 'bunny', now(), now());
+insert into account_user(id, name, account_count, created_at, updated_at)
+values (2, 'bunny', 0, now(), now());
 
-insert into account_user(id, name, created_at, updated_at)
-values (3, 'zani', now(), now());
\ No newline at end of file
+insert into account_user(id, name, account_count, created_at, updated_at)
+values (3, 'zani', 0, now(), now());
\ No newline at end of file
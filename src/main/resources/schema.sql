@@ -0,0 +1,2 @@
+-- 계좌번호 시퀀스 (AccountRepository.nextAccountNumber, AccountBulkWriter)
+create sequence if not exists account_number_seq start with 1000000000;
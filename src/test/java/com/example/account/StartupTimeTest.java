@@ -0,0 +1,40 @@
+package com.example.account;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * local 프로필 기동 시간을 잰다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+class StartupTimeTest {
+	private static final Logger log = LoggerFactory.getLogger(StartupTimeTest.class);
+	private static final long MAX_STARTUP_MS = 20_000;
+
+	@Test
+	void reportStartupTime() {
+		long start = System.nanoTime();
+		try (ConfigurableApplicationContext context =
+					 new SpringApplicationBuilder(AccountApplication.class)
+							 .profiles("local")
+							 .properties(
+									 "server.port=0",
+									 "spring.redis.port=6390",
+									 "spring.datasource.url=jdbc:h2:mem:startup")
+							 .run()) {
+			long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			log.info("Application startup (local profile) took {} ms", elapsedMs);
+
+			assertTrue(context.isActive());
+			assertTrue(elapsedMs < MAX_STARTUP_MS, "startup took " + elapsedMs + " ms");
+		}
+	}
+}
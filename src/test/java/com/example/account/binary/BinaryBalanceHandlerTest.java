@@ -0,0 +1,95 @@
+package com.example.account.binary;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.service.LockService;
+import com.example.account.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static com.example.account.type.ErrorCode.BALANCE_IS_SMALLER_THAN_AMOUNT;
+import static com.example.account.type.ErrorCode.INVALID_REQUEST;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BinaryBalanceHandlerTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private LockService lockService;
+
+    @InjectMocks
+    private BinaryBalanceHandler binaryBalanceHandler;
+
+    @Test
+    void useBalanceWithLock() {
+        //given
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willReturn(TransactionDto.builder()
+                        .accountNumber("1000000000")
+                        .transactionType(USE)
+                        .transactionResultType(S)
+                        .amount(1000L)
+                        .balanceSnapshot(9000L)
+                        .transactionId("abc")
+                        .transactedAt(LocalDateTime.now())
+                        .build());
+
+        //when
+        BinaryResponse response = binaryBalanceHandler.handle(useRequest(1000L));
+
+        //then
+        verify(lockService, times(1)).lock("1000000000");
+        verify(lockService, times(1)).unlock("1000000000");
+        assertEquals(BinaryProtocol.STATUS_OK, response.getStatus());
+        assertEquals(11L, response.getCorrelationId());
+        assertEquals("abc", response.getTransactionId());
+    }
+
+    @Test
+    void useBalanceFailedSavesFailedTransaction() {
+        //given
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willThrow(new AccountException(BALANCE_IS_SMALLER_THAN_AMOUNT));
+
+        //when
+        BinaryResponse response = binaryBalanceHandler.handle(useRequest(1000L));
+
+        //then
+        verify(transactionService, times(1)).saveFailedUseTransaction("1000000000", 1000L);
+        verify(lockService, times(1)).unlock("1000000000");
+        assertEquals(BinaryProtocol.STATUS_ERROR, response.getStatus());
+        assertEquals(BALANCE_IS_SMALLER_THAN_AMOUNT, response.getErrorCode());
+    }
+
+    @Test
+    void invalidAmountRejectedWithoutLock() {
+        //when
+        BinaryResponse response = binaryBalanceHandler.handle(useRequest(1L));
+
+        //then
+        verify(lockService, never()).lock(anyString());
+        assertEquals(INVALID_REQUEST, response.getErrorCode());
+    }
+
+    private BinaryRequest useRequest(long amount) {
+        return BinaryRequest.builder()
+                .opcode(BinaryProtocol.OP_USE)
+                .correlationId(11L)
+                .userId(1L)
+                .accountNumber("1000000000")
+                .amount(amount)
+                .build();
+    }
+}
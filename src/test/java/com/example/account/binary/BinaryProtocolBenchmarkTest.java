@@ -0,0 +1,93 @@
+package com.example.account.binary;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.time.LocalDateTime;
+
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 잔액 사용 한 건의 요청+응답 직렬화/역직렬화 비용을 JSON 과 바이너리로 비교한다.
+ * (네트워크/서비스 비용은 제외한 프로토콜 처리 비용, ./gradlew benchmark)
+ * 바이너리가 크기와 시간 모두 JSON 보다 작아야 한다.
+ */
+@Tag("benchmark")
+class BinaryProtocolBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(BinaryProtocolBenchmarkTest.class);
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final TransactionDto transactionDto = TransactionDto.builder()
+            .accountNumber("1000000000")
+            .transactionType(USE)
+            .transactionResultType(S)
+            .amount(1000L)
+            .balanceSnapshot(9000L)
+            .transactionId("0f8fad5bd9cb469fa16570867728950e")
+            .transactedAt(LocalDateTime.now())
+            .build();
+
+    @Test
+    void compareJsonAndBinary() throws Exception {
+        int jsonBytes = jsonRoundTrip();
+        int binaryBytes = binaryRoundTrip();
+
+        for (int i = 0; i < WARMUP; i++) {
+            jsonRoundTrip();
+            binaryRoundTrip();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            jsonRoundTrip();
+        }
+        long jsonNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            binaryRoundTrip();
+        }
+        long binaryNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        log.info("json   : {} bytes/op, {} ns/op", jsonBytes, jsonNanos);
+        log.info("binary : {} bytes/op, {} ns/op", binaryBytes, binaryNanos);
+        assertTrue(binaryBytes < jsonBytes);
+        assertTrue(binaryNanos < jsonNanos, "binary " + binaryNanos + " ns/op, json " + jsonNanos + " ns/op");
+    }
+
+    private int jsonRoundTrip() throws IOException {
+        byte[] request = objectMapper.writeValueAsBytes(
+                new UseBalance.Request(1L, "1000000000", 1000L));
+        objectMapper.readValue(request, UseBalance.Request.class);
+
+        byte[] response = objectMapper.writeValueAsBytes(UseBalance.Response.from(transactionDto));
+        objectMapper.readValue(response, UseBalance.Response.class);
+        return request.length + response.length;
+    }
+
+    private int binaryRoundTrip() throws IOException {
+        ByteArrayOutputStream requestBytes = new ByteArrayOutputStream(64);
+        BinaryProtocol.writeRequest(new DataOutputStream(requestBytes), BinaryRequest.builder()
+                .opcode(BinaryProtocol.OP_USE).correlationId(1L)
+                .userId(1L).accountNumber("1000000000").amount(1000L).build());
+        BinaryProtocol.readRequest(new DataInputStream(
+                new ByteArrayInputStream(requestBytes.toByteArray())));
+
+        ByteArrayOutputStream responseBytes = new ByteArrayOutputStream(128);
+        BinaryProtocol.writeResponse(new DataOutputStream(responseBytes),
+                BinaryResponse.ok(1L, transactionDto));
+        BinaryProtocol.readResponse(new DataInputStream(
+                new ByteArrayInputStream(responseBytes.toByteArray())));
+        return requestBytes.size() + responseBytes.size();
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.account.binary;
+
+import com.example.account.dto.TransactionDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.time.LocalDateTime;
+
+import static com.example.account.type.ErrorCode.BALANCE_IS_SMALLER_THAN_AMOUNT;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryProtocolTest {
+
+    @Test
+    void pipelinedRequestsRoundTrip() throws IOException {
+        //given
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BinaryProtocol.writeRequest(out, BinaryRequest.builder()
+                .opcode(BinaryProtocol.OP_USE).correlationId(1L)
+                .userId(1L).accountNumber("1000000000").amount(1000L).build());
+        BinaryProtocol.writeRequest(out, BinaryRequest.builder()
+                .opcode(BinaryProtocol.OP_CANCEL).correlationId(2L)
+                .transactionId("abc").accountNumber("1000000000").amount(1000L).build());
+        BinaryProtocol.writeRequest(out, BinaryRequest.builder()
+                .opcode(BinaryProtocol.OP_GET).correlationId(3L)
+                .transactionId("abc").build());
+
+        //when
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        BinaryRequest use = BinaryProtocol.readRequest(in);
+        BinaryRequest cancel = BinaryProtocol.readRequest(in);
+        BinaryRequest get = BinaryProtocol.readRequest(in);
+
+        //then
+        assertEquals(1L, use.getUserId());
+        assertEquals("1000000000", use.getAccountNumber());
+        assertEquals(1000L, use.getAmount());
+        assertEquals("abc", cancel.getTransactionId());
+        assertEquals(2L, cancel.getCorrelationId());
+        assertEquals(BinaryProtocol.OP_GET, get.getOpcode());
+        assertNull(BinaryProtocol.readRequest(in));
+    }
+
+    @Test
+    void responseRoundTrip() throws IOException {
+        //given
+        LocalDateTime transactedAt = LocalDateTime.of(2023, 9, 1, 12, 30, 15);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BinaryProtocol.writeResponse(out, BinaryResponse.ok(7L, TransactionDto.builder()
+                .accountNumber("1000000000")
+                .transactionType(USE)
+                .transactionResultType(S)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactionId("abc")
+                .transactedAt(transactedAt)
+                .build()));
+        BinaryProtocol.writeResponse(out, BinaryResponse.error(8L, BALANCE_IS_SMALLER_THAN_AMOUNT));
+
+        //when
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        BinaryResponse ok = BinaryProtocol.readResponse(in);
+        BinaryResponse error = BinaryProtocol.readResponse(in);
+
+        //then
+        assertEquals(BinaryProtocol.STATUS_OK, ok.getStatus());
+        assertEquals(7L, ok.getCorrelationId());
+        assertEquals(USE, ok.getTransactionType());
+        assertEquals(9000L, ok.getBalanceSnapshot());
+        assertEquals(transactedAt, ok.getTransactedAt());
+        assertEquals(BinaryProtocol.STATUS_ERROR, error.getStatus());
+        assertEquals(BALANCE_IS_SMALLER_THAN_AMOUNT, error.getErrorCode());
+    }
+
+    @Test
+    void rejectOversizedFrame() {
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(new byte[]{0x7f, 0, 0, 0}));
+
+        assertThrows(IOException.class, () -> BinaryProtocol.readRequest(in));
+    }
+
+    @Test
+    void rejectTrailingBytesInFrame() throws IOException {
+        //given
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(1 + 8 + 1 + 3 + 2);
+        out.writeByte(BinaryProtocol.OP_GET);
+        out.writeLong(1L);
+        out.writeByte(3);
+        out.writeBytes("abc");
+        out.writeShort(0);
+
+        //when
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        //then
+        assertThrows(IOException.class, () -> BinaryProtocol.readRequest(in));
+    }
+
+    @Test
+    void rejectTruncatedBodyInsteadOfReadingNextFrame() throws IOException {
+        //given
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(1 + 8 + 8);
+        out.writeByte(BinaryProtocol.OP_USE);
+        out.writeLong(1L);
+        out.writeLong(1L);
+        BinaryProtocol.writeRequest(out, BinaryRequest.builder()
+                .opcode(BinaryProtocol.OP_GET).correlationId(2L)
+                .transactionId("abc").build());
+
+        //when
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        //then
+        assertThrows(IOException.class, () -> BinaryProtocol.readRequest(in));
+    }
+
+    @Test
+    void rejectUnknownOpcode() throws IOException {
+        //given
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(1 + 8);
+        out.writeByte(9);
+        out.writeLong(1L);
+
+        //when
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        //then
+        assertThrows(IOException.class, () -> BinaryProtocol.readRequest(in));
+    }
+
+    @Test
+    void errorCodeIsWrittenAsStableCode() throws IOException {
+        //given
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        //when
+        BinaryProtocol.writeResponse(out, BinaryResponse.error(8L, BALANCE_IS_SMALLER_THAN_AMOUNT));
+
+        //then
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        in.readInt();
+        in.readByte();
+        in.readLong();
+        assertEquals(BALANCE_IS_SMALLER_THAN_AMOUNT.getCode(), in.readShort());
+    }
+
+    @Test
+    void rejectUnknownErrorCode() throws IOException {
+        //given
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(1 + 8 + 2);
+        out.writeByte(BinaryProtocol.STATUS_ERROR);
+        out.writeLong(1L);
+        out.writeShort(Short.MAX_VALUE);
+
+        //when
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        //then
+        assertThrows(IOException.class, () -> BinaryProtocol.readResponse(in));
+    }
+}
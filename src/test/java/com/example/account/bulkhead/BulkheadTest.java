@@ -0,0 +1,95 @@
+package com.example.account.bulkhead;
+
+import com.example.account.config.BulkheadProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+    private Bulkhead writeBulkhead;
+    private Bulkhead readBulkhead;
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties.Pool config = new BulkheadProperties.Pool();
+        config.setMaxConcurrent(1);
+        config.setMaxWaiting(1);
+        config.setMaxWaitMs(50);
+        writeBulkhead = new Bulkhead("write-test", config);
+        readBulkhead = new Bulkhead("read-test", config);
+    }
+
+    @Test
+    void rejectAfterWaitTimeout() throws InterruptedException {
+        //given
+        assertTrue(writeBulkhead.tryEnter());
+
+        //when
+        long start = System.nanoTime();
+        boolean entered = writeBulkhead.tryEnter();
+
+        //then
+        assertFalse(entered);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        writeBulkhead.exit();
+        assertTrue(writeBulkhead.tryEnter());
+    }
+
+    @Test
+    void rejectImmediatelyWhenTooManyWaiting() throws Exception {
+        //given
+        assertTrue(writeBulkhead.tryEnter());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch waiting = new CountDownLatch(1);
+        Future<Boolean> waiter = executor.submit(() -> {
+            waiting.countDown();
+            return writeBulkhead.tryEnter();
+        });
+        waiting.await();
+        Thread.sleep(10);
+
+        //when
+        long start = System.nanoTime();
+        boolean entered = writeBulkhead.tryEnter();
+
+        //then
+        assertFalse(entered);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(40));
+        assertFalse(waiter.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void readsUnaffectedByFullWriteBulkhead() throws Exception {
+        //given
+        assertTrue(writeBulkhead.tryEnter());
+        BulkheadFilter filter = new BulkheadFilter(writeBulkhead, readBulkhead, new ObjectMapper());
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        MockHttpServletResponse readResponse = new MockHttpServletResponse();
+        MockFilterChain readChain = new MockFilterChain();
+
+        //when
+        filter.doFilter(new MockHttpServletRequest("POST", "/transaction/use"),
+                writeResponse, new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/account"),
+                readResponse, readChain);
+
+        //then
+        assertEquals(503, writeResponse.getStatus());
+        assertTrue(writeResponse.getContentAsString().contains("SERVER_BUSY"));
+        assertEquals(200, readResponse.getStatus());
+        assertNotNull(readChain.getRequest());
+        assertEquals(0, readBulkhead.getActive());
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.account.cache;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.event.AccountChangedEvent;
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheInvalidationBusTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private NearCacheInvalidationBus invalidationBus;
+
+    private NearCache<Long> balances;
+
+    @BeforeEach
+    void setUp() {
+        invalidationBus = new NearCacheInvalidationBus(redissonClient, objectMapper);
+        ReflectionTestUtils.setField(invalidationBus, "enabled", true);
+        ReflectionTestUtils.setField(invalidationBus, "maxBatch", 2);
+        ReflectionTestUtils.setField(invalidationBus, "topic", topic);
+        balances = new NearCache<>(NearCacheInvalidationBus.ACCOUNT_CACHE, 100, 60000L, invalidationBus);
+    }
+
+    @Test
+    void coalesceAndBatch() throws Exception {
+        //given
+        invalidationBus.invalidate("account", "1000000012", 3L);
+        invalidationBus.invalidate("account", "1000000012", 5L);
+        invalidationBus.invalidate("account", "1000000012", 4L);
+        invalidationBus.invalidate("account", "1000000013", 1L);
+        invalidationBus.invalidate("account", "1000000014", 1L);
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+
+        //when
+        invalidationBus.flush();
+
+        //then
+        verify(topic, times(2)).publish(payloads.capture());
+        int entries = 0;
+        for (Object payload : payloads.getAllValues()) {
+            InvalidationMessage message =
+                    objectMapper.readValue((String) payload, InvalidationMessage.class);
+            for (InvalidationMessage.Entry entry : message.getEntries()) {
+                entries++;
+                if ("1000000012".equals(entry.getKey())) {
+                    assertEquals(5L, entry.getVersion());
+                }
+            }
+        }
+        assertEquals(3, entries);
+    }
+
+    @Test
+    void invalidateLocalCacheOnCommit() {
+        //given
+        balances.put("1000000012", 10000L, 3L);
+        AccountUser user = AccountUser.builder()
+                .name("Pobi").build();
+        user.setId(12L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountNumber("1000000012")
+                .version(4L)
+                .build();
+
+        //when
+        invalidationBus.onAccountChanged(new AccountChangedEvent(account));
+
+        //then
+        assertNull(balances.get("1000000012"));
+    }
+
+    @Test
+    void applyMessageFromOtherNode() throws Exception {
+        //given
+        balances.put("1000000012", 10000L, 3L);
+        balances.put("1000000013", 20000L, 7L);
+        String payload = objectMapper.writeValueAsString(new InvalidationMessage("other-node", List.of(
+                new InvalidationMessage.Entry("account", "1000000012", 4L),
+                //이미 더 새로운 값을 들고 있으면 무시한다.
+                new InvalidationMessage.Entry("account", "1000000013", 6L))));
+
+        //when
+        invalidationBus.onMessage(payload);
+
+        //then
+        assertNull(balances.get("1000000012"));
+        assertEquals(20000L, balances.get("1000000013"));
+    }
+
+    @Test
+    void ignoreOwnMessage() throws Exception {
+        //given
+        balances.put("1000000012", 10000L, 3L);
+        String nodeId = (String) ReflectionTestUtils.getField(invalidationBus, "nodeId");
+        String payload = objectMapper.writeValueAsString(new InvalidationMessage(nodeId, List.of(
+                new InvalidationMessage.Entry("account", "1000000012", 4L))));
+
+        //when
+        invalidationBus.onMessage(payload);
+
+        //then
+        assertEquals(10000L, balances.get("1000000012"));
+    }
+
+    @Test
+    void bulkChangeInvalidatesByCommittedVersion() {
+        //given
+        balances.put("1000000012", 10000L, 3L);
+        balances.put("1000000013", 20000L, 7L);
+
+        //when
+        invalidationBus.onAccountsBulkChanged(new AccountsBulkChangedEvent(
+                List.of(12L), List.of("1000000012", "1000000013"),
+                List.of(new AccountsBulkChangedEvent.Balance("1000000012", 9000L, 4L))));
+
+        //then
+        //먼저 시작한 조회의 옛 값은 들어가지 못하고 커밋된 버전 값은 들어간다.
+        balances.put("1000000012", 10000L, 3L);
+        assertNull(balances.get("1000000012"));
+        balances.put("1000000012", 9000L, 4L);
+        assertEquals(9000L, balances.get("1000000012"));
+        //버전을 모르는 계좌는 흔적이 만료될 때까지 넣지 않는다.
+        balances.put("1000000013", 20000L, 8L);
+        assertNull(balances.get("1000000013"));
+    }
+
+    @Test
+    void requeueFailedPublish() throws Exception {
+        //given
+        invalidationBus.invalidate("account", "1000000012", 5L);
+        given(topic.publish(any()))
+                .willThrow(new IllegalStateException("redis down"))
+                .willReturn(1L);
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+
+        //when
+        invalidationBus.flush();
+        invalidationBus.flush();
+
+        //then
+        verify(topic, times(2)).publish(payloads.capture());
+        InvalidationMessage message =
+                objectMapper.readValue((String) payloads.getValue(), InvalidationMessage.class);
+        assertEquals("1000000012", message.getEntries().get(0).getKey());
+        assertEquals(5L, message.getEntries().get(0).getVersion());
+    }
+
+    @Test
+    void nothingToFlush() {
+        //given
+        //when
+        invalidationBus.flush();
+
+        //then
+        verifyNoInteractions(topic);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.account.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheTest {
+    @Mock
+    private NearCacheInvalidationBus invalidationBus;
+
+    private NearCache<Long> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new NearCache<>("account", 2, 60000L, invalidationBus);
+    }
+
+    @Test
+    void ignoreOutOfOrderInvalidation() {
+        //given
+        cache.put("1000000012", 10000L, 5L);
+
+        //when
+        cache.invalidate("1000000012", 4L);
+
+        //then
+        assertEquals(10000L, cache.get("1000000012"));
+    }
+
+    @Test
+    void rejectStalePutAfterInvalidation() {
+        //given
+        cache.invalidate("1000000012", 5L);
+
+        //when
+        cache.put("1000000012", 10000L, 4L);
+
+        //then
+        assertNull(cache.get("1000000012"));
+        cache.put("1000000012", 9000L, 5L);
+        assertEquals(9000L, cache.get("1000000012"));
+    }
+
+    @Test
+    void invalidateAnyVersion() {
+        //given
+        cache.put("1000000012", 10000L, 5L);
+
+        //when
+        cache.invalidate("1000000012", NearCache.ANY_VERSION);
+
+        //then
+        //버전을 모르므로 흔적이 만료될 때까지 먼저 시작한 조회의 값도 넣지 않는다.
+        assertNull(cache.get("1000000012"));
+        cache.put("1000000012", 9000L, 6L);
+        assertNull(cache.get("1000000012"));
+    }
+
+    @Test
+    void expireAfterWrite() throws Exception {
+        //given
+        NearCache<Long> shortLived = new NearCache<>("account", 2, 10L, invalidationBus);
+        shortLived.put("1000000012", 10000L, 5L);
+        shortLived.invalidate("1000000013", NearCache.ANY_VERSION);
+
+        //when
+        Thread.sleep(30);
+
+        //then
+        assertNull(shortLived.get("1000000012"));
+        shortLived.put("1000000013", 9000L, 1L);
+        assertEquals(9000L, shortLived.get("1000000013"));
+    }
+
+    @Test
+    void evictWhenFull() {
+        //given
+        cache.put("1000000012", 10000L, 1L);
+        cache.put("1000000013", 10000L, 1L);
+
+        //when
+        cache.put("1000000014", 10000L, 1L);
+
+        //then
+        assertEquals(2, cache.size());
+    }
+}
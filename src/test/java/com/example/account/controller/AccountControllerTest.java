@@ -2,11 +2,17 @@ package com.example.account.controller;
 
 import com.example.account.domain.Account;
 import com.example.account.dto.AccountDto;
+import com.example.account.dto.AccountInfo;
+import com.example.account.dto.AccountSummary;
+import com.example.account.dto.BulkCreateAccount;
 import com.example.account.dto.CreateAccount;
 import com.example.account.dto.DeleteAccount;
 import com.example.account.exception.AccountException;
 import com.example.account.type.AccountStatus;
+import com.example.account.service.AccountBalanceCacheService;
+import com.example.account.service.AccountBulkService;
 import com.example.account.service.AccountService;
+import com.example.account.service.AccountSummaryService;
 import com.example.account.type.ErrorCode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -20,8 +26,10 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -34,6 +42,15 @@ class AccountControllerTest {
     //Mock은 Mock인데 Bean으로 등록해주는 Mock //자동으로 Bean등록돼서 AccountController에 주입됨.
     private AccountService accountService;
 
+    @MockBean
+    private AccountBulkService accountBulkService;
+
+    @MockBean
+    private AccountSummaryService accountSummaryService;
+
+    @MockBean
+    private AccountBalanceCacheService accountBalanceCacheService;
+
     //injection을 해줘야하지만 맨 위에 @WebMvcTest()괄호 안에 컨트롤러 넣어줘서 안 해도됨.
 
     @Autowired
@@ -120,6 +137,72 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$[2].balance").value(10000L));
     }
 
+    @Test
+    void successGetAccountSummary() throws Exception {
+        //given
+        given(accountSummaryService.getSummary(anyLong()))
+                .willReturn(AccountSummary.builder()
+                        .userId(1L)
+                        .totalBalance(3000L)
+                        .accounts(Arrays.asList(
+                                AccountSummary.Item.builder()
+                                        .accountNumber("1111111111")
+                                        .balance(1000L)
+                                        .accountStatus(AccountStatus.IN_USE).build(),
+                                AccountSummary.Item.builder()
+                                        .accountNumber("2222222222")
+                                        .balance(2000L)
+                                        .accountStatus(AccountStatus.IN_USE).build()))
+                        .build());
+        //when
+        //then
+        mockMvc.perform(get("/account/summary?user_id=1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalBalance").value(3000L))
+                .andExpect(jsonPath("$.accounts[0].accountNumber").value("1111111111"))
+                .andExpect(jsonPath("$.accounts[1].balance").value(2000L));
+    }
+
+    @Test
+    void successBulkCreateAccounts() throws Exception {
+        //given
+        BulkCreateAccount.Response response = new BulkCreateAccount.Response();
+        response.setTotalRows(2);
+        response.setCreatedCount(1);
+        response.setFailedCount(1);
+        response.getErrors().add(BulkCreateAccount.RowError.of(3, ErrorCode.USER_NOT_FOUND));
+        given(accountBulkService.createAccounts(any(), eq(BulkCreateAccount.Format.CSV)))
+                .willReturn(response);
+        //when
+        //then
+        mockMvc.perform(post("/account/bulk")
+                        .contentType(BulkCreateAccount.TEXT_CSV)
+                        .content("user_id,initial_balance\n1,1000\n99,1000\n"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.createdCount").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].errorCode").value("USER_NOT_FOUND"));
+    }
+
+    @Test
+    void successGetBalance() throws Exception {
+        //given
+        given(accountBalanceCacheService.getBalance(anyString()))
+                .willReturn(AccountInfo.builder()
+                        .accountNumber("1111111111")
+                        .balance(1000L)
+                        .build());
+        //when
+        //then
+        mockMvc.perform(get("/account/1111111111/balance"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value("1111111111"))
+                .andExpect(jsonPath("$.balance").value(1000L));
+    }
+
     @Test
     void successGetAccount() throws Exception {
         //given
@@ -0,0 +1,153 @@
+package com.example.account.engine;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountShardTest {
+    private final List<BalanceChange> changes = new CopyOnWriteArrayList<>();
+    private final List<String> loaded = new CopyOnWriteArrayList<>();
+
+    private AccountShard shard;
+
+    @BeforeEach
+    void setUp() {
+        shard = new AccountShard(0, 4, 16, accountNumber -> {
+            loaded.add(accountNumber);
+            if (!"1000000009".equals(accountNumber)) {
+                throw new AccountException(ErrorCode.ACCOUNT_NOT_FOUND);
+            }
+            return new long[]{9L, 24L, 500L};
+        }, changes::add);
+        shard.load(1000000001L, 1L, 24L, 10000L);
+        shard.load(1000000002L, 2L, 25L, 3000L);
+        shard.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        shard.stop();
+    }
+
+    @Test
+    void useAndCancel() {
+        //when
+        TransactionDto used = shard.use(24L, "1000000001", 4000L);
+        TransactionDto cancelled = shard.cancel(used, "1000000001", 4000L);
+
+        //then
+        assertEquals(USE, used.getTransactionType());
+        assertEquals(S, used.getTransactionResultType());
+        assertEquals(6000L, used.getBalanceSnapshot());
+        assertEquals(CANCEL, cancelled.getTransactionType());
+        assertEquals(10000L, cancelled.getBalanceSnapshot());
+        assertEquals(2, changes.size());
+        assertEquals(1L, changes.get(0).getAccountId());
+        assertEquals(used.getTransactionId(), changes.get(0).getTransactionId());
+    }
+
+    @Test
+    void useValidation() {
+        //when
+        AccountException unMatch = assertThrows(AccountException.class,
+                () -> shard.use(25L, "1000000001", 1000L));
+        AccountException smaller = assertThrows(AccountException.class,
+                () -> shard.use(25L, "1000000002", 3001L));
+        AccountException notFound = assertThrows(AccountException.class,
+                () -> shard.use(25L, "1000000003", 1000L));
+
+        //then
+        assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, unMatch.getErrorCode());
+        assertEquals(ErrorCode.BALANCE_IS_SMALLER_THAN_AMOUNT, smaller.getErrorCode());
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, notFound.getErrorCode());
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    void cancelValidation() {
+        //given
+        TransactionDto interest = TransactionDto.builder()
+                .accountNumber("1000000001").transactionType(INTEREST)
+                .amount(100L).transactedAt(LocalDateTime.now()).build();
+        TransactionDto otherAccount = TransactionDto.builder()
+                .accountNumber("1000000002").transactionType(USE)
+                .amount(100L).transactedAt(LocalDateTime.now()).build();
+        TransactionDto tooOld = TransactionDto.builder()
+                .accountNumber("1000000001").transactionType(USE)
+                .amount(100L).transactedAt(LocalDateTime.now().minusYears(1).minusDays(1)).build();
+
+        //when
+        AccountException notCancellable = assertThrows(AccountException.class,
+                () -> shard.cancel(interest, "1000000001", 100L));
+        AccountException unMatch = assertThrows(AccountException.class,
+                () -> shard.cancel(otherAccount, "1000000001", 100L));
+        AccountException amount = assertThrows(AccountException.class,
+                () -> shard.cancel(otherAccount, "1000000002", 200L));
+        AccountException old = assertThrows(AccountException.class,
+                () -> shard.cancel(tooOld, "1000000001", 100L));
+
+        //then
+        assertEquals(ErrorCode.TRANSACTION_NOT_CANCELLABLE, notCancellable.getErrorCode());
+        assertEquals(ErrorCode.TRANSACTION_UN_MATCH_ACCOUNT, unMatch.getErrorCode());
+        assertEquals(ErrorCode.CANCEL_AMOUNT_UN_MATCH_USE_AMOUNT, amount.getErrorCode());
+        assertEquals(ErrorCode.TOO_OLD_TRANSACTION, old.getErrorCode());
+    }
+
+    @Test
+    void loadAccountOpenedAfterWarmUp() {
+        //when
+        TransactionDto first = shard.use(24L, "1000000009", 100L);
+        TransactionDto second = shard.use(24L, "1000000009", 100L);
+
+        //then
+        assertEquals(400L, first.getBalanceSnapshot());
+        assertEquals(300L, second.getBalanceSnapshot());
+        assertEquals(List.of("1000000009"), loaded);
+        assertEquals(3, shard.size());
+    }
+
+    @Test
+    void removeUnregisteredAccount() {
+        //when
+        shard.remove("1000000001");
+        AccountException exception = assertThrows(AccountException.class,
+                () -> shard.use(24L, "1000000001", 100L));
+        //마지막 슬롯이 지운 자리로 옮겨져도 그대로 찾는다.
+        TransactionDto moved = shard.use(25L, "1000000002", 1000L);
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
+        assertEquals(2000L, moved.getBalanceSnapshot());
+        assertEquals(1, shard.size());
+    }
+
+    @Test
+    void closeAndReopen() {
+        //when
+        boolean otherUser = shard.close(25L, "1000000001");
+        boolean missing = shard.close(24L, "1000000003");
+        boolean closed = shard.close(24L, "1000000001");
+        AccountException exception = assertThrows(AccountException.class,
+                () -> shard.use(24L, "1000000001", 100L));
+        shard.reopen("1000000001");
+        TransactionDto reopened = shard.use(24L, "1000000001", 100L);
+
+        //then
+        assertFalse(otherUser);
+        assertFalse(missing);
+        assertTrue(closed);
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, exception.getErrorCode());
+        assertEquals(9900L, reopened.getBalanceSnapshot());
+    }
+}
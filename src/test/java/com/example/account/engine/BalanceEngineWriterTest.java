@@ -0,0 +1,100 @@
+package com.example.account.engine;
+
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceEngineWriterTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @InjectMocks
+    private BalanceEngineWriter balanceEngineWriter;
+
+    @Test
+    void writeBalanceDeltasPerAccount() throws Exception {
+        //given
+        List<BalanceChange> changes = List.of(
+                change(1L, "1000000001", USE, 1000L, 9000L, "t1"),
+                change(1L, "1000000001", CANCEL, 300L, 9300L, "t2"),
+                change(2L, "1000000002", USE, 500L, 4500L, "t3"));
+        given(jdbcTemplate.query(startsWith("select account_number"), any(RowMapper.class), any()))
+                .willReturn(List.of(
+                        new AccountsBulkChangedEvent.Balance("1000000001", 9300L, 7L),
+                        new AccountsBulkChangedEvent.Balance("1000000002", 4500L, 3L)));
+        ArgumentCaptor<BatchPreparedStatementSetter> balances =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        ArgumentCaptor<BatchPreparedStatementSetter> transactions =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        ArgumentCaptor<AccountsBulkChangedEvent> event =
+                ArgumentCaptor.forClass(AccountsBulkChangedEvent.class);
+
+        //when
+        balanceEngineWriter.write(changes);
+
+        //then
+        verify(jdbcTemplate).batchUpdate(startsWith("update account"), balances.capture());
+        verify(jdbcTemplate).batchUpdate(startsWith("insert into transaction ("), transactions.capture());
+        //계좌별 증감 합계를 더한다.
+        assertEquals(2, balances.getValue().getBatchSize());
+        PreparedStatement first = mock(PreparedStatement.class);
+        balances.getValue().setValues(first, 0);
+        verify(first).setLong(1, -700L);
+        verify(first).setLong(3, 1L);
+        PreparedStatement second = mock(PreparedStatement.class);
+        balances.getValue().setValues(second, 1);
+        verify(second).setLong(1, -500L);
+        verify(second).setLong(3, 2L);
+        //거래는 모두 쓴다.
+        assertEquals(3, transactions.getValue().getBatchSize());
+        verify(applicationEventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of("1000000001", "1000000002"), Set.copyOf(event.getValue().getAccountNumbers()));
+        verify(jdbcTemplate).query(startsWith("select account_number"), any(RowMapper.class), eq(1L), eq(2L));
+        assertEquals(2, event.getValue().getBalances().size());
+    }
+
+    @Test
+    void writeNothing() {
+        //when
+        balanceEngineWriter.write(List.of());
+
+        //then
+        verifyNoInteractions(jdbcTemplate, applicationEventPublisher);
+    }
+
+    private BalanceChange change(long accountId, String accountNumber,
+                                 TransactionType transactionType,
+                                 long amount, long balanceSnapshot, String transactionId) {
+        return new BalanceChange(accountId, 24L, accountNumber, transactionType, amount,
+                balanceSnapshot, transactionId, LocalDateTime.of(2026, 9, 1, 10, 0));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.account.engine;
+
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.service.TransactionArchiveService;
+import com.example.account.service.VelocityLimitService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+
+/**
+ * 메모리 엔진의 잔액 사용 처리량을 잰다. (./gradlew benchmark)
+ * DB 저장은 응답 경로 밖에서 묶어서 하므로 목으로 대신하고, 요청 스레드 -> 샤드 스레드 전달과 샤드 처리 비용만 잰다.
+ * 초당 MIN_OPS_PER_SECOND 건 이상을 처리해야 한다.
+ */
+@Tag("benchmark")
+@ExtendWith(MockitoExtension.class)
+class InMemoryBalanceEngineBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryBalanceEngineBenchmarkTest.class);
+    private static final long MIN_OPS_PER_SECOND = 200_000;
+    private static final int ACCOUNTS = 100_000;
+    private static final int SHARDS = 8;
+    private static final int CLIENTS = 32;
+    private static final int OPERATIONS_PER_CLIENT = 50_000;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private BalanceEngineWriter balanceEngineWriter;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private TransactionArchiveService transactionArchiveService;
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @InjectMocks
+    private InMemoryBalanceEngine engine;
+
+    @Test
+    void throughput() throws Exception {
+        ReflectionTestUtils.setField(engine, "shardCount", SHARDS);
+        ReflectionTestUtils.setField(engine, "expectedAccounts", ACCOUNTS);
+        ReflectionTestUtils.setField(engine, "queueCapacity", 4096);
+        ReflectionTestUtils.setField(engine, "warmupFetchSize", 1000);
+        ReflectionTestUtils.setField(engine, "persistQueueCapacity", 1_000_000);
+        ReflectionTestUtils.setField(engine, "flushBatchSize", 10_000);
+        ReflectionTestUtils.setField(engine, "flushIntervalMs", 1L);
+        ReflectionTestUtils.setField(engine, "retryBackoffMs", 10L);
+        ReflectionTestUtils.setField(engine, "maxFlushAttempts", 3);
+        ReflectionTestUtils.setField(engine, "closeTimeoutMs", 1000L);
+        //사용 한도는 Redis 호출이므로 엔진 처리량에서 뺀다(꺼진 한도 서비스).
+        ReflectionTestUtils.setField(engine, "velocityLimitService", new VelocityLimitService(null));
+        willAnswer(invocation -> {
+            for (int i = 0; i < ACCOUNTS; i++) {
+                engine.load(Long.toString(1_000_000_000L + i), i + 1, 1L, Long.MAX_VALUE / 2);
+            }
+            return null;
+        }).given(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        engine.start();
+        try {
+            run(CLIENTS, OPERATIONS_PER_CLIENT / 10);
+
+            long start = System.nanoTime();
+            run(CLIENTS, OPERATIONS_PER_CLIENT);
+            long elapsed = System.nanoTime() - start;
+
+            long operations = (long) CLIENTS * OPERATIONS_PER_CLIENT;
+            long perSecond = operations * 1_000_000_000L / elapsed;
+            log.info("memory engine : {} ops/s ({} shards, {} clients)", perSecond, SHARDS, CLIENTS);
+            assertTrue(perSecond >= MIN_OPS_PER_SECOND,
+                    "memory engine throughput " + perSecond + " ops/s is below " + MIN_OPS_PER_SECOND);
+        } finally {
+            engine.stop();
+        }
+    }
+
+    private void run(int clients, int operationsPerClient) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < operationsPerClient; j++) {
+                        String accountNumber = Long.toString(1_000_000_000L + random.nextInt(ACCOUNTS));
+                        engine.useBalance(1L, accountNumber, 10L);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
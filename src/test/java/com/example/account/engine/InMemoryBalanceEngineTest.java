@@ -0,0 +1,204 @@
+package com.example.account.engine;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.TransactionDto;
+import com.example.account.event.AccountChangedEvent;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.service.TransactionArchiveService;
+import com.example.account.service.VelocityLimitService;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryBalanceEngineTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private BalanceEngineWriter balanceEngineWriter;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private TransactionArchiveService transactionArchiveService;
+    @Mock
+    private AccountUserRepository accountUserRepository;
+    @Mock
+    private VelocityLimitService velocityLimitService;
+    @Mock
+    private Runnable releaseVelocity;
+
+    @InjectMocks
+    private InMemoryBalanceEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(engine, "shardCount", 2);
+        ReflectionTestUtils.setField(engine, "expectedAccounts", 16);
+        ReflectionTestUtils.setField(engine, "queueCapacity", 16);
+        ReflectionTestUtils.setField(engine, "warmupFetchSize", 100);
+        ReflectionTestUtils.setField(engine, "persistQueueCapacity", 100);
+        ReflectionTestUtils.setField(engine, "flushBatchSize", 100);
+        ReflectionTestUtils.setField(engine, "flushIntervalMs", 200L);
+        ReflectionTestUtils.setField(engine, "retryBackoffMs", 10L);
+        ReflectionTestUtils.setField(engine, "maxFlushAttempts", 2);
+        ReflectionTestUtils.setField(engine, "closeTimeoutMs", 2000L);
+        //시작하지 않는 테스트도 있다.
+        lenient().when(velocityLimitService.reserve(anyLong(), anyString(), anyLong()))
+                .thenReturn(releaseVelocity);
+        lenient().doAnswer(invocation -> {
+            engine.load("1000000001", 1L, 24L, 10000L);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void cancelUnflushedTransaction() {
+        //given
+        engine.start();
+        TransactionDto used = engine.useBalance(24L, "1000000001", 3000L);
+
+        //when
+        TransactionDto cancelled = engine.cancelBalance(used.getTransactionId(), "1000000001", 3000L);
+
+        //then
+        //저장 전 거래는 DB 를 보지 않고 찾는다.
+        verify(transactionRepository, never()).findByTransactionId(anyString());
+        assertEquals(10000L, cancelled.getBalanceSnapshot());
+    }
+
+    @Test
+    void removeUnregisteredAccount() {
+        //given
+        engine.start();
+        given(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("1000000001")))
+                .willThrow(new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED));
+        Account account = Account.builder()
+                .accountUser(AccountUser.builder().name("Pobi").build())
+                .accountNumber("1000000001")
+                .accountStatus(AccountStatus.UNREGISTERED)
+                .build();
+
+        //when
+        engine.onAccountChanged(new AccountChangedEvent(account));
+        AccountException exception = assertThrows(AccountException.class,
+                () -> engine.useBalance(24L, "1000000001", 1000L));
+
+        //then
+        //샤드에서 빠졌으므로 DB 에서 다시 읽어 해지 상태를 확인한다.
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, exception.getErrorCode());
+        //거절된 요청은 사용 한도에서 되돌린다.
+        verify(releaseVelocity).run();
+    }
+
+    @Test
+    void rejectOverVelocityLimitBeforeShard() {
+        //given
+        engine.start();
+        given(velocityLimitService.reserve(24L, "1000000001", 1000L))
+                .willThrow(new AccountException(ErrorCode.VELOCITY_LIMIT_EXCEEDED))
+                .willReturn(releaseVelocity);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> engine.useBalance(24L, "1000000001", 1000L));
+
+        //then
+        //거절된 요청은 잔액에 반영되지 않는다.
+        assertEquals(ErrorCode.VELOCITY_LIMIT_EXCEEDED, exception.getErrorCode());
+        assertEquals(9000L, engine.useBalance(24L, "1000000001", 1000L).getBalanceSnapshot());
+    }
+
+    @Test
+    void deadLetterChangeThatKeepsFailing() {
+        //given
+        willThrow(new DataIntegrityViolationException("bad row"))
+                .given(balanceEngineWriter).write(anyList());
+        engine.start();
+
+        //when
+        engine.useBalance(24L, "1000000001", 1000L);
+
+        //then
+        //두 번 묶음으로 실패한 뒤 한 건씩 저장하다 dead-letter 로 빠지고 다음 묶음으로 넘어간다.
+        verify(balanceEngineWriter, timeout(2000).times(3)).write(anyList());
+        awaitFlushed();
+    }
+
+    @Test
+    void closeWaitsForFlushAndReopensOnRollback() {
+        //given
+        engine.start();
+        engine.useBalance(24L, "1000000001", 1000L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        //when
+        engine.prepareClose(24L, "1000000001");
+
+        //then
+        verify(balanceEngineWriter).write(anyList());
+        AccountException exception = assertThrows(AccountException.class,
+                () -> engine.useBalance(24L, "1000000001", 1000L));
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, exception.getErrorCode());
+
+        for (TransactionSynchronization synchronization
+                : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertEquals(8000L, engine.useBalance(24L, "1000000001", 1000L).getBalanceSnapshot());
+    }
+
+    @Test
+    void refuseToStartWithJournal() {
+        //given
+        ReflectionTestUtils.setField(engine, "journalEnabled", true);
+
+        //when
+        //then
+        assertThrows(IllegalStateException.class, () -> engine.start());
+    }
+
+    private void awaitFlushed() {
+        Map<?, ?> unflushed = (Map<?, ?>) ReflectionTestUtils.getField(engine, "unflushedChanges");
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!unflushed.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(unflushed.isEmpty());
+    }
+}
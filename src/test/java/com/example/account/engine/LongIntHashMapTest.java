@@ -0,0 +1,61 @@
+package com.example.account.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongIntHashMapTest {
+
+    @Test
+    void putGetRemove() {
+        //given
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        //when
+        map.put(1000000001L, 0);
+        map.put(1000000002L, 1);
+        map.put(1000000001L, 2);
+
+        //then
+        assertEquals(2, map.size());
+        assertEquals(2, map.get(1000000001L));
+        assertEquals(1, map.get(1000000002L));
+        assertEquals(LongIntHashMap.MISSING, map.get(1000000003L));
+        assertEquals(1, map.remove(1000000002L));
+        assertEquals(LongIntHashMap.MISSING, map.remove(1000000002L));
+        assertEquals(LongIntHashMap.MISSING, map.get(1000000002L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        //given
+        LongIntHashMap map = new LongIntHashMap(8);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        //when
+        //키 범위를 좁혀 충돌, 재배치, 삭제 후 당겨오기가 자주 일어나게 한다.
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1_000_000_000L + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, LongIntHashMap.MISSING), map.remove(key));
+                expected.remove(key);
+            } else {
+                int value = random.nextInt(Integer.MAX_VALUE);
+                map.put(key, value);
+                expected.put(key, value);
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (long key = 1_000_000_000L; key < 1_000_005_000L; key++) {
+            assertEquals(expected.getOrDefault(key, LongIntHashMap.MISSING), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.account.exception;
+
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 거부된 요청 하나당 예외 비용 비교
+ * 실제 요청은 필터/AOP/트랜잭션 프록시로 스택이 깊으므로 비슷한 깊이에서 던지고 잡는다.
+ * 비용 측정은 ./gradlew benchmark 로 돌린다. 스택 없는 예외는 스택을 채우는 예외보다 MIN_SPEEDUP 배 이상 싸야 한다.
+ */
+class AccountExceptionBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(AccountExceptionBenchmarkTest.class);
+    private static final long MIN_SPEEDUP = 2;
+    private static final int STACK_DEPTH = 120;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void accountExceptionIsStackless() {
+        AccountException e = new AccountException(ErrorCode.BALANCE_IS_SMALLER_THAN_AMOUNT);
+
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(ErrorCode.BALANCE_IS_SMALLER_THAN_AMOUNT, e.getErrorCode());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void costPerRejectedRequest() {
+        long withStackTrace = measure(() -> new RuntimeException("BALANCE_IS_SMALLER_THAN_AMOUNT"));
+        long stackless = measure(() -> new AccountException(ErrorCode.BALANCE_IS_SMALLER_THAN_AMOUNT));
+
+        log.info("rejection with stack trace : {} ns/op", withStackTrace);
+        log.info("stackless AccountException : {} ns/op", stackless);
+        assertTrue(stackless * MIN_SPEEDUP <= withStackTrace,
+                "stackless " + stackless + " ns/op, with stack trace " + withStackTrace + " ns/op");
+    }
+
+    private long measure(ExceptionFactory factory) {
+        run(factory, WARMUP);
+        long start = System.nanoTime();
+        run(factory, ITERATIONS);
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    private void run(ExceptionFactory factory, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            try {
+                throwAtDepth(factory, STACK_DEPTH);
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+
+    private void throwAtDepth(ExceptionFactory factory, int depth) {
+        if (depth == 0) {
+            throw factory.create();
+        }
+        throwAtDepth(factory, depth - 1);
+    }
+
+    @FunctionalInterface
+    private interface ExceptionFactory {
+        RuntimeException create();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.account.exception;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+import static com.example.account.type.ErrorCode.BALANCE_IS_SMALLER_THAN_AMOUNT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ErrorLogThrottleTest {
+
+    @Test
+    void logOncePerIntervalPerKey() {
+        //given
+        ErrorLogThrottle throttle = new ErrorLogThrottle(Duration.ofHours(1));
+
+        //when
+        long first = throttle.acquire(BALANCE_IS_SMALLER_THAN_AMOUNT);
+        long second = throttle.acquire(BALANCE_IS_SMALLER_THAN_AMOUNT);
+        long third = throttle.acquire(BALANCE_IS_SMALLER_THAN_AMOUNT);
+        long otherKey = throttle.acquire(ACCOUNT_NOT_FOUND);
+
+        //then
+        assertEquals(0, first);
+        assertEquals(-1, second);
+        assertEquals(-1, third);
+        assertEquals(0, otherKey);
+    }
+
+    @Test
+    void reportSuppressedCountOnNextLog() throws InterruptedException {
+        //given
+        ErrorLogThrottle throttle = new ErrorLogThrottle(Duration.ofMillis(10));
+        throttle.acquire(BALANCE_IS_SMALLER_THAN_AMOUNT);
+        throttle.acquire(BALANCE_IS_SMALLER_THAN_AMOUNT);
+        throttle.acquire(BALANCE_IS_SMALLER_THAN_AMOUNT);
+
+        //when
+        Thread.sleep(20);
+        long suppressed = throttle.acquire(BALANCE_IS_SMALLER_THAN_AMOUNT);
+
+        //then
+        assertEquals(2, suppressed);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.account.jdbc;
+
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.CreateAccount;
+import com.example.account.dto.UseBalance;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.example.account.jdbc.QueryCounter.assertQueryCount;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 엔드포인트별 SQL 실행 수 고정
+ * N+1 등으로 쿼리 수가 바뀌면 실패한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:querycount")
+@AutoConfigureMockMvc
+class EndpointQueryCountTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void getAccountsByUserId() throws Exception {
+        //사용자 조회 1 + 계좌 목록 조회 1
+        assertQueryCount(2, () ->
+                mockMvc.perform(get("/account?user_id=3"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void createAccount() throws Exception {
+        //사용자 조회 1 + 계좌 수 증가 1 + 계좌번호 시퀀스 1 + id 시퀀스 1 + insert 1
+        assertQueryCount(5, () ->
+                mockMvc.perform(post("/account")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new CreateAccount.Request(2L, 1000L))))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void useBalance() throws Exception {
+        String accountNumber = createAccount(1L);
+
+        //계좌+사용자 조회 1 + (id 시퀀스 1 + insert 1) x 아웃박스, 거래 + 잔액 update 1
+        assertQueryCount(6, () -> useBalance(accountNumber, 100L));
+    }
+
+    @Test
+    void cancelBalance() throws Exception {
+        String accountNumber = createAccount(1L);
+        String transactionId = useBalance(accountNumber, 100L).getTransactionId();
+
+        //거래+계좌+사용자 조회 1 + (id 시퀀스 1 + insert 1) x 아웃박스, 거래 + 잔액 update 1
+        assertQueryCount(6, () ->
+                mockMvc.perform(post("/transaction/cancel")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        new CancelBalance.Request(transactionId, accountNumber, 100L))))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void getTransactionNotFound() throws Exception {
+        //거래 조회 1 + 보관 거래 조회 1
+        assertQueryCount(2, () ->
+                mockMvc.perform(get("/transaction/not-exist"))
+                        .andExpect(status().isOk()));
+    }
+
+    private String createAccount(Long userId) throws Exception {
+        String response = mockMvc.perform(post("/account")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CreateAccount.Request(userId, 1000L))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, CreateAccount.Response.class).getAccountNumber();
+    }
+
+    private UseBalance.Response useBalance(String accountNumber, Long amount) throws Exception {
+        String response = mockMvc.perform(post("/transaction/use")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalance.Request(1L, accountNumber, amount))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, UseBalance.Response.class);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.account.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 테스트에서 특정 동작이 실행한 SQL 수를 세고 검증한다.
+ * MockMvc 처럼 같은 스레드에서 실행되는 동작에만 사용할 수 있다.
+ */
+public final class QueryCounter {
+    private QueryCounter() {
+    }
+
+    public static long count(ThrowingRunnable action) throws Exception {
+        QueryScope scope = QueryCountHolder.open();
+        action.run();
+        return scope.getStatements();
+    }
+
+    public static void assertQueryCount(long expected, ThrowingRunnable action) throws Exception {
+        assertEquals(expected, count(action), "unexpected number of SQL statements");
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.account.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class QueryCountingDataSourceTest {
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Test
+    void countExecutedStatements() throws Exception {
+        //given
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.prepareStatement(anyString())).willReturn(preparedStatement);
+        given(preparedStatement.executeQuery()).willReturn(resultSet);
+        QueryCountingDataSource countingDataSource = new QueryCountingDataSource(dataSource, 1000L);
+
+        //when
+        long statements = QueryCounter.count(() -> {
+            Connection proxy = countingDataSource.getConnection();
+            PreparedStatement statement = proxy.prepareStatement("select 1");
+            statement.setLong(1, 1L);
+            statement.executeQuery();
+            statement.executeQuery();
+            statement.close();
+        });
+
+        //then
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void nestedScopesAreIndependent() throws Exception {
+        //given
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.prepareStatement(anyString())).willReturn(preparedStatement);
+        QueryCountingDataSource countingDataSource = new QueryCountingDataSource(dataSource, 1000L);
+        QueryScope outer = QueryCountHolder.open();
+
+        //when
+        countingDataSource.getConnection().prepareStatement("update a").executeUpdate();
+        long inner = QueryCounter.count(() ->
+                countingDataSource.getConnection().prepareStatement("update b").executeUpdate());
+
+        //then
+        assertEquals(1, inner);
+        assertEquals(2, outer.getStatements());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.account.job;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class JobCoordinatorTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RScript rScript;
+
+    @InjectMocks
+    private JobCoordinator jobCoordinator;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jobCoordinator, "enabled", true);
+        ReflectionTestUtils.setField(jobCoordinator, "heartbeatMs", 1000L);
+        ReflectionTestUtils.setField(jobCoordinator, "leaseMs", 5000L);
+        ReflectionTestUtils.setField(jobCoordinator, "memberTtlMs", 3000L);
+        ReflectionTestUtils.setField(jobCoordinator, "runTtlMs", 60000L);
+        ReflectionTestUtils.setField(jobCoordinator, "running", true);
+    }
+
+    @Test
+    void leadWithoutRedisWhileLeaseIsValid() {
+        //given
+        given(redissonClient.getScript(any())).willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(1L);
+
+        //when
+        boolean first = jobCoordinator.tryLead("outbox-relay");
+        boolean second = jobCoordinator.tryLead("outbox-relay");
+
+        //then
+        assertTrue(first);
+        assertTrue(second);
+        verify(rScript, times(1)).eval(any(RScript.Mode.class), anyString(),
+                any(RScript.ReturnType.class), anyList(), any());
+    }
+
+    @Test
+    void leadHeldByOtherNode() {
+        //given
+        given(redissonClient.getScript(any())).willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(0L);
+
+        //when
+        boolean lead = jobCoordinator.tryLead("outbox-relay");
+
+        //then
+        assertFalse(lead);
+    }
+
+    @Test
+    void lostLeaseIsAcquiredAgain() {
+        //given
+        given(redissonClient.getScript(any())).willReturn(rScript);
+        given(rScript.<Object>eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(1L, List.of(jobCoordinator.getNodeId()), List.of(1L), 0L);
+        jobCoordinator.tryLead("outbox-relay");
+
+        //when
+        jobCoordinator.heartbeat();
+
+        //then
+        assertFalse(jobCoordinator.tryLead("outbox-relay"));
+        assertEquals(List.of(jobCoordinator.getNodeId()), jobCoordinator.getMembers());
+    }
+
+    @Test
+    void ownPartitionsFirst() {
+        //given
+        ReflectionTestUtils.setField(jobCoordinator, "members",
+                List.of("", jobCoordinator.getNodeId()));
+
+        //when
+        List<Integer> owned = jobCoordinator.ownedPartitions(4);
+
+        //then
+        assertEquals(List.of(1, 3), owned);
+        assertEquals(3000L, jobCoordinator.getTakeoverDelayMs());
+    }
+
+    @Test
+    void resignReleasesLeaderLease() {
+        //given
+        given(redissonClient.getScript(any())).willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(1L, 1L, 0L);
+        jobCoordinator.tryLead("reconciliation");
+
+        //when
+        jobCoordinator.resign("reconciliation");
+
+        //then
+        //리스를 놓았으므로 다음 tryLead 는 Redis 에 다시 묻는다.
+        assertFalse(jobCoordinator.tryLead("reconciliation"));
+        verify(rScript, times(3)).eval(any(RScript.Mode.class), anyString(),
+                any(RScript.ReturnType.class), anyList(), any());
+    }
+
+    @Test
+    void skipPartitionWhenRedisFails() {
+        //given
+        given(redissonClient.getScript(any())).willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willThrow(new RedisTimeoutException("timeout"));
+
+        //when
+        boolean claimed = jobCoordinator.claim("statement", "2024-05", 0);
+
+        //then
+        assertFalse(claimed);
+    }
+
+    @Test
+    void runEverythingWhenDisabled() {
+        //given
+        ReflectionTestUtils.setField(jobCoordinator, "enabled", false);
+
+        //when
+        boolean lead = jobCoordinator.tryLead("outbox-relay");
+        boolean claimed = jobCoordinator.claim("statement", "2024-05", 0);
+        List<Integer> owned = jobCoordinator.ownedPartitions(3);
+
+        //then
+        assertTrue(lead);
+        assertTrue(claimed);
+        assertEquals(List.of(0, 1, 2), owned);
+        assertEquals(0L, jobCoordinator.getTakeoverDelayMs());
+        verify(redissonClient, never()).getScript(any());
+    }
+}
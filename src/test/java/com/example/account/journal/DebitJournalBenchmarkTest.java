@@ -0,0 +1,125 @@
+package com.example.account.journal;
+
+import com.example.account.domain.Account;
+import com.example.account.dto.AccountDto;
+import com.example.account.repository.AccountRepository;
+import com.example.account.service.AccountService;
+import com.example.account.service.LockService;
+import com.example.account.service.TransactionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 잔액 사용 한 건의 응답 지연을 JPA 커밋과 저널 기록(force 까지)으로 비교한다.
+ * H2 메모리 DB 는 커밋 시 디스크에 쓰지 않으므로 실제 DB 와의 차이는 이보다 크다. (./gradlew benchmark)
+ * 동시 요청을 한 번의 force 로 묶으므로 동시 처리량은 한 건씩 기록할 때보다 높아야 한다.
+ */
+//한 계좌로 수천 건을 보내므로 사용 한도는 끈다.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:journalbenchmark",
+        "velocity.enabled=false"})
+@Tag("benchmark")
+class DebitJournalBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(DebitJournalBenchmarkTest.class);
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 2_000;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JournalApplier journalApplier;
+
+    @Autowired
+    private SharedPendingDebits sharedPendingDebits;
+
+    @Autowired
+    private LockService lockService;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compareJpaCommitAndJournal() throws Exception {
+        AccountDto accountDto = accountService.createAccount(1L, 1_000_000_000L);
+        Account account = accountRepository.findByAccountNumber(accountDto.getAccountNumber()).get();
+
+        for (int i = 0; i < WARMUP; i++) {
+            transactionService.useBalance(1L, account.getAccountNumber(), 1L);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            transactionService.useBalance(1L, account.getAccountNumber(), 1L);
+        }
+        long jpaNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        DebitJournal debitJournal = new DebitJournal(journalApplier, sharedPendingDebits, lockService);
+        ReflectionTestUtils.setField(debitJournal, "enabled", true);
+        ReflectionTestUtils.setField(debitJournal, "directory", directory.toString());
+        ReflectionTestUtils.setField(debitJournal, "segmentSize", 64 * 1024 * 1024);
+        ReflectionTestUtils.setField(debitJournal, "maxBatch", 256);
+        ReflectionTestUtils.setField(debitJournal, "retryBackoffMs", 100L);
+        debitJournal.start();
+        try {
+            for (int i = 0; i < WARMUP; i++) {
+                append(debitJournal, account);
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                append(debitJournal, account);
+            }
+            long journalNanos = (System.nanoTime() - start) / ITERATIONS;
+
+            //동시 요청은 한 번의 force 로 묶인다.
+            ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            start = System.nanoTime();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(clients.submit(() -> {
+                    for (int j = 0; j < ITERATIONS / THREADS; j++) {
+                        append(debitJournal, account);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long groupedNanos = (System.nanoTime() - start) / ITERATIONS;
+            clients.shutdown();
+
+            log.info("jpa commit     : {} ns/op", jpaNanos);
+            log.info("journal        : {} ns/op", journalNanos);
+            log.info("journal {} thr : {} ns/op (throughput)", THREADS, groupedNanos);
+            assertTrue(groupedNanos < journalNanos,
+                    "grouped " + groupedNanos + " ns/op, sequential " + journalNanos + " ns/op");
+        } finally {
+            debitJournal.stop();
+        }
+    }
+
+    private void append(DebitJournal debitJournal, Account account) {
+        debitJournal.append(account.getId(), 1L, account.getAccountNumber(), 1L, 0L);
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.account.journal;
+
+import com.example.account.exception.AccountException;
+import com.example.account.service.LockService;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DebitJournalTest {
+    @Mock
+    private JournalApplier journalApplier;
+
+    @Mock
+    private SharedPendingDebits sharedPendingDebits;
+
+    @Mock
+    private LockService lockService;
+
+    @TempDir
+    Path directory;
+
+    private DebitJournal debitJournal;
+
+    @BeforeEach
+    void setUp() {
+        debitJournal = new DebitJournal(journalApplier, sharedPendingDebits, lockService);
+        ReflectionTestUtils.setField(debitJournal, "enabled", true);
+        ReflectionTestUtils.setField(debitJournal, "directory", directory.toString());
+        ReflectionTestUtils.setField(debitJournal, "segmentSize", 4096);
+        ReflectionTestUtils.setField(debitJournal, "maxBatch", 16);
+        ReflectionTestUtils.setField(debitJournal, "retryBackoffMs", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        debitJournal.stop();
+    }
+
+    @Test
+    void appendIsDurableBeforeApplied() throws IOException {
+        //given
+        debitJournal.start();
+
+        //when
+        JournalRecord record = debitJournal.append(1L, 24L, "1000000001", 1000L, 9000L);
+
+        //then
+        assertEquals(1L, record.getSequence());
+        List<JournalRecord> written = JournalSegment.read(segments().get(0));
+        assertEquals(1, written.size());
+        assertEquals(record.getTransactionId(), written.get(0).getTransactionId());
+        assertEquals(9000L, written.get(0).getBalanceSnapshot());
+
+        verify(journalApplier, timeout(1000)).apply(anyList());
+        verifyPendingReleased("1000000001");
+        verify(sharedPendingDebits).add(List.of(record));
+        verify(sharedPendingDebits, timeout(1000)).remove(List.of(record));
+        //라이브 거래와 겹치지 않게 계좌 락 안에서 반영한다.
+        verify(lockService).lock("1000000001");
+        verify(lockService, timeout(1000)).unlock("1000000001");
+    }
+
+    @Test
+    void applyPendingBeforeCancel() {
+        //given
+        //취소 요청이 계좌 락을 잡고 있어 반영 스레드는 반영하지 못한다.
+        willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .given(lockService).lock("1000000001");
+        given(sharedPendingDebits.amount("1000000001")).willReturn(1000L, 1000L, 0L);
+        debitJournal.start();
+        JournalRecord record = debitJournal.append(1L, 24L, "1000000001", 1000L, 9000L);
+
+        //when
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            debitJournal.applyPending("1000000001");
+
+            //then
+            //취소와 같은 트랜잭션에서 반영하고, 커밋된 뒤에 대기 금액을 줄인다.
+            verify(journalApplier).apply(List.of(record));
+            assertEquals(1000L, debitJournal.pendingAmount("1000000001"));
+            for (TransactionSynchronization synchronization :
+                    TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(sharedPendingDebits).remove(List.of(record));
+        assertEquals(0L, debitJournal.pendingAmount("1000000001"));
+    }
+
+    @Test
+    void rejectCancelWhileOtherNodePending() {
+        //given
+        given(sharedPendingDebits.amount("1000000001")).willReturn(2000L);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> debitJournal.applyPending("1000000001"));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(journalApplier, never()).apply(anyList());
+    }
+
+    @Test
+    void pendingAmountOfOtherNodes() {
+        //given
+        given(sharedPendingDebits.amount("1000000001")).willReturn(3000L);
+
+        //when
+        long pending = debitJournal.pendingAmount("1000000001");
+
+        //then
+        assertEquals(3000L, pending);
+    }
+
+    @Test
+    void rejectWhenSharedPendingUnavailable() {
+        //given
+        given(sharedPendingDebits.amount("1000000001")).willReturn(-1L);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> debitJournal.pendingAmount("1000000001"));
+
+        //then
+        assertEquals(ErrorCode.DEBIT_JOURNAL_UNAVAILABLE, exception.getErrorCode());
+    }
+
+    @Test
+    void pendingAmountKeptUntilApplied() {
+        //given
+        given(journalApplier.apply(anyList()))
+                .willThrow(new IllegalStateException("db down"))
+                .willReturn(2);
+        ReflectionTestUtils.setField(debitJournal, "retryBackoffMs", 200L);
+        debitJournal.start();
+
+        //when
+        debitJournal.append(1L, 24L, "1000000001", 1000L, 9000L);
+        debitJournal.append(1L, 24L, "1000000001", 500L, 8500L);
+
+        //then
+        //DB 가 돌아와 반영될 때까지 대기 금액으로 잔액을 확인한다.
+        assertEquals(1500L, debitJournal.pendingAmount("1000000001"));
+        verify(journalApplier, timeout(1000).atLeast(2)).apply(anyList());
+        verifyPendingReleased("1000000001");
+    }
+
+    @Test
+    void replayOnStart() throws IOException {
+        //given
+        JournalSegment segment = JournalSegment.create(
+                directory.resolve("debits-00000000000000000007.journal"), 7, 4096);
+        segment.append(record(11L, "t1"));
+        segment.append(record(12L, "t2"));
+        //쓰다 만 기록: 길이만 있고 CRC 가 맞지 않는다.
+        segment.getBuffer().putInt(40).putInt(1234).putLong(13L);
+        segment.force();
+        segment.close();
+        ArgumentCaptor<List<JournalRecord>> captor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        debitJournal.start();
+        JournalRecord next = debitJournal.append(1L, 24L, "1000000001", 1000L, 9000L);
+
+        //then
+        verify(journalApplier, timeout(1000).atLeastOnce()).apply(captor.capture());
+        List<JournalRecord> replayed = captor.getAllValues().get(0);
+        assertEquals(2, replayed.size());
+        assertEquals("t1", replayed.get(0).getTransactionId());
+        assertEquals("t2", replayed.get(1).getTransactionId());
+        assertEquals(13L, next.getSequence());
+        assertEquals(List.of("debits-00000000000000000008.journal"), segments().stream()
+                .map(path -> path.getFileName().toString())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void replayFailureStopsStart() throws IOException {
+        //given
+        JournalSegment segment = JournalSegment.create(
+                directory.resolve("debits-00000000000000000001.journal"), 1, 4096);
+        segment.append(record(1L, "t1"));
+        segment.force();
+        segment.close();
+        given(journalApplier.apply(anyList())).willThrow(new IllegalStateException("db down"));
+
+        //when
+        assertThrows(IllegalStateException.class, () -> debitJournal.start());
+
+        //then
+        assertFalse(debitJournal.isRunning());
+        assertTrue(Files.exists(directory.resolve("debits-00000000000000000001.journal")));
+    }
+
+    private void verifyPendingReleased(String accountNumber) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (debitJournal.pendingAmount(accountNumber) != 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0L, debitJournal.pendingAmount(accountNumber));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private JournalRecord record(long sequence, String transactionId) {
+        return JournalRecord.builder()
+                .sequence(sequence)
+                .accountId(1L)
+                .userId(24L)
+                .accountNumber("1000000001")
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactionId(transactionId)
+                .transactedAt(LocalDateTime.of(2026, 9, 1, 10, 0, 0, 123_000_000))
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.account.journal;
+
+import com.example.account.event.AccountsBulkChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class JournalApplierTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @InjectMocks
+    private JournalApplier journalApplier;
+
+    @Test
+    void recordFailedWhenBalanceIsShort() throws Exception {
+        //given
+        given(jdbcTemplate.queryForList(anyString(), eq(String.class), any()))
+                .willReturn(List.of());
+        given(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .willReturn(new int[]{1, 0});
+        given(jdbcTemplate.query(startsWith("select account_number"), any(RowMapper.class), any()))
+                .willReturn(List.of(new AccountsBulkChangedEvent.Balance("1000000001", 8000L, 4L)));
+        ArgumentCaptor<BatchPreparedStatementSetter> setters =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        ArgumentCaptor<AccountsBulkChangedEvent> event =
+                ArgumentCaptor.forClass(AccountsBulkChangedEvent.class);
+
+        //when
+        int applied = journalApplier.apply(List.of(
+                record("t1", "1000000001", 2L), record("t2", "1000000002", 3L)));
+
+        //then
+        assertEquals(2, applied);
+        verify(jdbcTemplate).batchUpdate(startsWith("insert into transaction ("), setters.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setters.getValue().setValues(ps, 1);
+        //잔액 하한에 걸린 기록은 실패 거래로, 잔액 스냅샷은 차감 전 잔액으로 남긴다.
+        verify(ps).setString(2, "F");
+        verify(ps).setLong(4, 10000L);
+        verify(applicationEventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of("1000000001"), event.getValue().getAccountNumbers());
+        //반영된 계좌의 커밋될 잔액과 version 을 싣는다.
+        verify(jdbcTemplate).query(startsWith("select account_number"), any(RowMapper.class), eq(2L));
+        AccountsBulkChangedEvent.Balance balance = event.getValue().getBalances().iterator().next();
+        assertEquals(8000L, balance.getBalance());
+        assertEquals(4L, balance.getVersion());
+    }
+
+    private JournalRecord record(String transactionId, String accountNumber, long accountId) {
+        return JournalRecord.builder()
+                .sequence(1L)
+                .accountId(accountId)
+                .userId(24L)
+                .accountNumber(accountNumber)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactionId(transactionId)
+                .transactedAt(LocalDateTime.of(2026, 9, 1, 10, 0))
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.account.ratelimit;
+
+import com.example.account.config.RateLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+    @Mock
+    private RequestRateLimiter requestRateLimiter;
+
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitFilter = new RateLimitFilter(
+                requestRateLimiter, new RateLimitProperties(), new ObjectMapper());
+    }
+
+    @Test
+    void limitUseByUserAndAccount() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transaction/use");
+        String body = "{\"userId\":1,\"accountNumber\":\"1000000012\",\"amount\":1000}";
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+        given(requestRateLimiter.tryAcquire(anyList())).willReturn(true);
+        ArgumentCaptor<List<RequestRateLimiter.Quota>> captor =
+                ArgumentCaptor.forClass(List.class);
+
+        //when
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        //then
+        verify(requestRateLimiter).tryAcquire(captor.capture());
+        assertEquals(List.of("user:1", "account:1000000012"), captor.getValue().stream()
+                .map(RequestRateLimiter.Quota::getKey)
+                .collect(Collectors.toList()));
+        //뒤에서 본문을 다시 읽을 수 있어야 한다.
+        assertEquals(body, new String(
+                chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void limitGetByUser() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/account");
+        request.setParameter("user_id", "3");
+        given(requestRateLimiter.tryAcquire(anyList())).willReturn(true);
+        ArgumentCaptor<List<RequestRateLimiter.Quota>> captor =
+                ArgumentCaptor.forClass(List.class);
+
+        //when
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        //then
+        verify(requestRateLimiter).tryAcquire(captor.capture());
+        assertEquals("user:3", captor.getValue().get(0).getKey());
+    }
+
+    @Test
+    void rejectOverLimit() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/transaction/abc");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        given(requestRateLimiter.tryAcquire(anyList())).willReturn(false);
+        given(requestRateLimiter.millisUntilNextWindow()).willReturn(300L);
+
+        //when
+        rateLimitFilter.doFilter(request, response, chain);
+
+        //then
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("RATE_LIMIT_EXCEEDED"));
+        assertNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.account.ratelimit;
+
+import com.example.account.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisTimeoutException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RequestRateLimiterTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RScript rScript;
+
+    private final AtomicLong now = new AtomicLong(10_000L);
+    private RequestRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setWindowMs(1000);
+        properties.setLeasePercent(20);
+        properties.setMinLease(1);
+        rateLimiter = new RequestRateLimiter(redissonClient, properties, now::get);
+        given(redissonClient.getScript(any())).willReturn(rScript);
+    }
+
+    @Test
+    void useLeasedTokensLocally() {
+        //given
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(Collections.singletonList(2L));
+
+        //when
+        boolean first = rateLimiter.tryAcquire(quota("user:1", 10));
+        boolean second = rateLimiter.tryAcquire(quota("user:1", 10));
+
+        //then
+        assertTrue(first);
+        assertTrue(second);
+        verify(rScript, times(1)).eval(any(RScript.Mode.class), anyString(),
+                any(RScript.ReturnType.class), anyList(), any());
+    }
+
+    @Test
+    void leaseAtLeastMinLease() {
+        //given
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setLeasePercent(10);
+        properties.setMinLease(5);
+        rateLimiter = new RequestRateLimiter(redissonClient, properties, now::get);
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(Collections.singletonList(5L));
+
+        //when
+        boolean allowed = true;
+        for (int i = 0; i < 5; i++) {
+            allowed &= rateLimiter.tryAcquire(quota("account:1000000012", 10));
+        }
+
+        //then
+        //한도 10 의 10% 는 1 개지만 5 개씩 받아서 Redis 는 한 번만 부른다.
+        assertTrue(allowed);
+        verify(rScript, times(1)).eval(any(RScript.Mode.class), anyString(),
+                any(RScript.ReturnType.class), anyList(), eq(2000L), eq(5L));
+    }
+
+    @Test
+    void rejectWithoutRedisOnceExhausted() {
+        //given
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(Collections.singletonList(12L));
+
+        //when
+        boolean first = rateLimiter.tryAcquire(quota("user:1", 10));
+        boolean second = rateLimiter.tryAcquire(quota("user:1", 10));
+
+        //then
+        assertFalse(first);
+        assertFalse(second);
+        verify(rScript, times(1)).eval(any(RScript.Mode.class), anyString(),
+                any(RScript.ReturnType.class), anyList(), any());
+    }
+
+    @Test
+    void leaseAllKeysInOneCall() {
+        //given
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(Arrays.asList(2L, 2L));
+        ArgumentCaptor<List<Object>> keys = ArgumentCaptor.forClass(List.class);
+
+        //when
+        boolean allowed = rateLimiter.tryAcquire(Arrays.asList(
+                new RequestRateLimiter.Quota("user:1", 10),
+                new RequestRateLimiter.Quota("account:1000000012", 10)));
+
+        //then
+        assertTrue(allowed);
+        verify(rScript).eval(any(RScript.Mode.class), anyString(),
+                any(RScript.ReturnType.class), keys.capture(), any());
+        assertEquals(Arrays.asList("RL : user:1 : 10", "RL : account:1000000012 : 10"),
+                keys.getValue());
+    }
+
+    @Test
+    void newWindowLeasesAgain() {
+        //given
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(Collections.singletonList(12L))
+                .willReturn(Collections.singletonList(2L));
+        assertFalse(rateLimiter.tryAcquire(quota("user:1", 10)));
+
+        //when
+        now.addAndGet(1000L);
+
+        //then
+        assertTrue(rateLimiter.tryAcquire(quota("user:1", 10)));
+        assertEquals(1, rateLimiter.localKeys());
+    }
+
+    @Test
+    void allowWhenRedisFails() {
+        //given
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willThrow(new RedisTimeoutException("timeout"));
+
+        //when
+        //then
+        assertTrue(rateLimiter.tryAcquire(quota("user:1", 10)));
+    }
+
+    private static List<RequestRateLimiter.Quota> quota(String key, int limit) {
+        return Collections.singletonList(new RequestRateLimiter.Quota(key, limit));
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountInfo;
+import com.example.account.event.AccountChangedEvent;
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBatch;
+import org.redisson.api.RKeys;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisConnectionException;
+import org.redisson.client.codec.Codec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBalanceCacheServiceTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RMap<String, String> balanceMap;
+
+    @Mock
+    private RScript script;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @InjectMocks
+    private AccountBalanceCacheService accountBalanceCacheService;
+
+    @Test
+    void getBalanceFromCache() {
+        //given
+        Map<String, String> entries = new HashMap<>();
+        entries.put("balance", "1000");
+        entries.put("version", "3");
+        given(redissonClient.<String, String>getMap(anyString(), any(Codec.class)))
+                .willReturn(balanceMap);
+        given(balanceMap.readAllMap()).willReturn(entries);
+
+        //when
+        AccountInfo accountInfo = accountBalanceCacheService.getBalance("1000000012");
+
+        //then
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        assertEquals("1000000012", accountInfo.getAccountNumber());
+        assertEquals(1000L, accountInfo.getBalance());
+    }
+
+    @Test
+    void getBalanceMissFallsBackToDb() {
+        //given
+        given(redissonClient.<String, String>getMap(anyString(), any(Codec.class)))
+                .willReturn(balanceMap);
+        given(balanceMap.readAllMap()).willReturn(Collections.emptyMap());
+        given(redissonClient.getScript(any(Codec.class))).willReturn(script);
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account(2000L, 5L)));
+
+        //when
+        AccountInfo accountInfo = accountBalanceCacheService.getBalance("1000000012");
+
+        //then
+        assertEquals(2000L, accountInfo.getBalance());
+        verify(script).eval(eq("ACBL : 1000000012"), eq(RScript.Mode.READ_WRITE),
+                anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(Collections.singletonList("ACBL : 1000000012")),
+                eq("5"), eq("2000"), anyString());
+    }
+
+    @Test
+    void getBalanceRedisDownFallsBackToDb() {
+        //given
+        given(redissonClient.<String, String>getMap(anyString(), any(Codec.class)))
+                .willThrow(new RedisConnectionException("down"));
+        given(redissonClient.getScript(any(Codec.class)))
+                .willThrow(new RedisConnectionException("down"));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account(2000L, 5L)));
+
+        //when
+        AccountInfo accountInfo = accountBalanceCacheService.getBalance("1000000012");
+
+        //then
+        assertEquals(2000L, accountInfo.getBalance());
+    }
+
+    @Test
+    void getBalanceAccountNotFound() {
+        //given
+        given(redissonClient.<String, String>getMap(anyString(), any(Codec.class)))
+                .willReturn(balanceMap);
+        given(balanceMap.readAllMap()).willReturn(Collections.emptyMap());
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.empty());
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountBalanceCacheService.getBalance("1000000012"));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
+    }
+
+    @Test
+    void writeThroughAfterCommit() {
+        //given
+        given(redissonClient.getScript(any(Codec.class))).willReturn(script);
+
+        //when
+        accountBalanceCacheService.onAccountChanged(
+                new AccountChangedEvent(account(700L, 8L)));
+
+        //then
+        verify(script).eval(eq("ACBL : 1000000012"), eq(RScript.Mode.READ_WRITE),
+                anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(Collections.singletonList("ACBL : 1000000012")),
+                eq("8"), eq("700"), anyString());
+    }
+
+    @Test
+    void bulkChangeWritesVersionedBalances() {
+        //given
+        RBatch batch = mock(RBatch.class);
+        RScriptAsync batchScript = mock(RScriptAsync.class);
+        RKeys keys = mock(RKeys.class);
+        given(redissonClient.createBatch()).willReturn(batch);
+        given(batch.getScript(any(Codec.class))).willReturn(batchScript);
+        given(redissonClient.getKeys()).willReturn(keys);
+
+        //when
+        accountBalanceCacheService.onAccountsBulkChanged(new AccountsBulkChangedEvent(
+                Collections.singletonList(12L),
+                Arrays.asList("1000000012", "1000000013"),
+                Collections.singletonList(
+                        new AccountsBulkChangedEvent.Balance("1000000012", 1010L, 9L))));
+
+        //then
+        verify(batchScript).evalAsync(eq("ACBL : 1000000012"), eq(RScript.Mode.READ_WRITE),
+                anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(Collections.singletonList("ACBL : 1000000012")),
+                eq("9"), eq("1010"), anyString());
+        verify(batch).execute();
+        //version 을 모르는 계좌만 지운다.
+        verify(keys).delete("ACBL : 1000000013");
+    }
+
+    private Account account(Long balance, Long version) {
+        AccountUser user = AccountUser.builder()
+                .name("Pobi").build();
+        user.setId(12L);
+        return Account.builder()
+                .accountUser(user)
+                .accountNumber("1000000012")
+                .balance(balance)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.account.service;
+
+import com.example.account.dto.BulkCreateAccount;
+import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBulkServiceTest {
+    @Mock
+    private AccountBulkWriter accountBulkWriter;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private AccountBulkService accountBulkService;
+
+    @Test
+    void createAccountsFromCsv() throws IOException {
+        //given
+        List<List<BulkCreateAccount.Row>> chunks = new ArrayList<>();
+        given(accountBulkWriter.writeChunk(anyList()))
+                .willAnswer(invocation -> {
+                    chunks.add(new ArrayList<>(invocation.getArgument(0)));
+                    return Collections.singletonList(
+                            BulkCreateAccount.RowError.of(3, ErrorCode.USER_NOT_FOUND));
+                });
+
+        //when
+        BulkCreateAccount.Response response = accountBulkService.createAccounts(
+                stream("user_id,initial_balance\n1,1000\n99,500\n\n2,abc\n3,-1\n2,0\n"),
+                BulkCreateAccount.Format.CSV);
+
+        //then
+        assertEquals(1, chunks.size());
+        assertEquals(3, chunks.get(0).size());
+        assertEquals(2L, chunks.get(0).get(0).getLine());
+        assertEquals(1000L, chunks.get(0).get(0).getInitialBalance());
+        assertEquals(5, response.getTotalRows());
+        assertEquals(2, response.getCreatedCount());
+        assertEquals(3, response.getFailedCount());
+        assertEquals(ErrorCode.INVALID_REQUEST, response.getErrors().get(0).getErrorCode());
+        assertEquals(5L, response.getErrors().get(0).getLine());
+        assertEquals(6L, response.getErrors().get(1).getLine());
+        assertEquals(ErrorCode.USER_NOT_FOUND, response.getErrors().get(2).getErrorCode());
+    }
+
+    @Test
+    void createAccountsFromNdjson() throws IOException {
+        //given
+        ArgumentCaptor<List<BulkCreateAccount.Row>> captor = ArgumentCaptor.forClass(List.class);
+        given(accountBulkWriter.writeChunk(captor.capture()))
+                .willReturn(Collections.emptyList());
+
+        //when
+        BulkCreateAccount.Response response = accountBulkService.createAccounts(
+                stream("{\"userId\":1,\"initialBalance\":1000}\n{\"userId\":2}\nnot-json\n"),
+                BulkCreateAccount.Format.NDJSON);
+
+        //then
+        assertEquals(1, captor.getValue().size());
+        assertEquals(3, response.getTotalRows());
+        assertEquals(1, response.getCreatedCount());
+        assertEquals(2, response.getFailedCount());
+    }
+
+    @Test
+    void writeInChunksAndCapReportedErrors() throws IOException {
+        //given
+        int rows = AccountBulkService.CHUNK_SIZE * 2 + 10;
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            csv.append(i % 2 == 0 ? "1,100\n" : "x\n");
+        }
+        given(accountBulkWriter.writeChunk(anyList()))
+                .willReturn(Collections.emptyList());
+
+        //when
+        BulkCreateAccount.Response response = accountBulkService.createAccounts(
+                stream(csv.toString()), BulkCreateAccount.Format.CSV);
+
+        //then
+        verify(accountBulkWriter, times(2)).writeChunk(anyList());
+        assertEquals(rows, response.getTotalRows());
+        assertEquals(rows / 2, response.getFailedCount());
+        assertEquals(AccountBulkService.MAX_REPORTED_ERRORS, response.getErrors().size());
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
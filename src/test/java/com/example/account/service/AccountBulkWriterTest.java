@@ -0,0 +1,103 @@
+package com.example.account.service;
+
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.BulkCreateAccount;
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBulkWriterTest {
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @InjectMocks
+    private AccountBulkWriter accountBulkWriter;
+
+    @Test
+    void writeChunk() throws SQLException {
+        //given
+        AccountUser almostFull = user(1L, 9L);
+        AccountUser empty = user(2L, 0L);
+        given(accountUserRepository.findAllByIdForUpdate(anyCollection()))
+                .willReturn(Arrays.asList(almostFull, empty));
+        ArgumentCaptor<BatchPreparedStatementSetter> captor =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+
+        //when
+        List<BulkCreateAccount.RowError> errors = accountBulkWriter.writeChunk(Arrays.asList(
+                new BulkCreateAccount.Row(1, 1L, 100L),
+                new BulkCreateAccount.Row(2, 1L, 200L),
+                new BulkCreateAccount.Row(3, 3L, 300L),
+                new BulkCreateAccount.Row(4, 2L, 400L)));
+
+        //then
+        assertEquals(2, errors.size());
+        assertEquals(2L, errors.get(0).getLine());
+        assertEquals(ErrorCode.MAX_ACCOUNT_PER_USER_10, errors.get(0).getErrorCode());
+        assertEquals(3L, errors.get(1).getLine());
+        assertEquals(ErrorCode.USER_NOT_FOUND, errors.get(1).getErrorCode());
+
+        verify(jdbcTemplate).batchUpdate(contains("next value for account_number_seq"), captor.capture());
+        BatchPreparedStatementSetter setter = captor.getValue();
+        assertEquals(2, setter.getBatchSize());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.setValues(ps, 1);
+        verify(ps).setLong(1, 2L);
+        verify(ps).setLong(3, 400L);
+        verify(applicationEventPublisher).publishEvent(any(AccountsBulkChangedEvent.class));
+        assertEquals(10L, almostFull.getAccountCount());
+        assertEquals(1L, empty.getAccountCount());
+    }
+
+    @Test
+    void writeChunk_allRejected() {
+        //given
+        given(accountUserRepository.findAllByIdForUpdate(anyCollection()))
+                .willReturn(Collections.emptyList());
+
+        //when
+        List<BulkCreateAccount.RowError> errors = accountBulkWriter.writeChunk(
+                Collections.singletonList(new BulkCreateAccount.Row(1, 5L, 100L)));
+
+        //then
+        assertEquals(1, errors.size());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(applicationEventPublisher, never()).publishEvent(any());
+    }
+
+    private AccountUser user(Long id, long accountCount) {
+        AccountUser accountUser = AccountUser.builder()
+                .name("user" + id)
+                .accountCount(accountCount)
+                .build();
+        accountUser.setId(id);
+        return accountUser;
+    }
+}
@@ -15,6 +15,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
@@ -23,6 +24,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -34,6 +36,10 @@ class AccountServiceTest {
 
     @Mock
     private AccountUserRepository accountUserRepository;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Mock
+    private BalanceEngine balanceEngine;
 
     @InjectMocks //Mock으로 가짜로 만들어준 리포지토리를 service에 주입
     private AccountService accountService;
@@ -46,10 +52,10 @@ class AccountServiceTest {
         user.setId(24L);
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.of(Account.builder()
-                        .accountNumber("1000000012")
-                        .build()));
+        given(accountUserRepository.increaseAccountCount(anyLong(), anyLong(), anyLong()))
+                .willReturn(1);
+        given(accountRepository.nextAccountNumber())
+                .willReturn(1000000013L);
 
         given(accountRepository.save(any()))
                 .willReturn(Account.builder()
@@ -90,6 +96,8 @@ class AccountServiceTest {
         assertEquals(26L, accountDto.getUserId());
         assertEquals("1000000035", captor.getValue().getAccountNumber());
         assertEquals(AccountStatus.UNREGISTERED, captor.getValue().getAccountStatus());
+        verify(accountUserRepository).decreaseAccountCount(26L);
+        verify(balanceEngine).prepareClose(1L, "4444");
     }
 
     @Test
@@ -100,8 +108,10 @@ class AccountServiceTest {
         user.setId(234L);
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.empty());
+        given(accountUserRepository.increaseAccountCount(anyLong(), anyLong(), anyLong()))
+                .willReturn(1);
+        given(accountRepository.nextAccountNumber())
+                .willReturn(1000000000L);
 
         given(accountRepository.save(any()))
                 .willReturn(Account.builder()
@@ -143,14 +153,15 @@ class AccountServiceTest {
         user.setId(234L);
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.countByAccountUser(any()))
-                .willReturn(10);
+        given(accountUserRepository.increaseAccountCount(234L, 1L, 10L))
+                .willReturn(0);
         //when
         AccountException exception = assertThrows(AccountException.class,
                 () -> accountService.createAccount(123L, 567L));
 
         //then
         assertEquals(ErrorCode.MAX_ACCOUNT_PER_USER_10, exception.getErrorCode());
+        verify(accountRepository, never()).save(any());
     }
 
     @Test
@@ -0,0 +1,176 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountSummary;
+import com.example.account.event.AccountChangedEvent;
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RKeys;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.example.account.type.AccountStatus.IN_USE;
+import static com.example.account.type.AccountStatus.UNREGISTERED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountSummaryServiceTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RMap<String, String> summaryMap;
+
+    @Mock
+    private RScript script;
+
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private AccountSummaryService accountSummaryService;
+
+    @Test
+    void getSummaryFromReadModel() {
+        //given
+        Map<String, String> entries = new HashMap<>();
+        entries.put("__built", "1");
+        entries.put("1111111111",
+                "{\"accountNumber\":\"1111111111\",\"balance\":1000,\"accountStatus\":\"IN_USE\"}");
+        entries.put("2222222222",
+                "{\"accountNumber\":\"2222222222\",\"balance\":500,\"accountStatus\":\"UNREGISTERED\"}");
+        given(redissonClient.<String, String>getMap(anyString(), any(Codec.class)))
+                .willReturn(summaryMap);
+        given(summaryMap.readAllMap()).willReturn(entries);
+
+        //when
+        AccountSummary summary = accountSummaryService.getSummary(1L);
+
+        //then
+        verify(accountRepository, never()).findByAccountUser(any());
+        assertEquals(2, summary.getAccounts().size());
+        assertEquals(1000L, summary.getTotalBalance());
+    }
+
+    @Test
+    void getSummaryRebuildsWhenMissing() {
+        //given
+        AccountUser user = AccountUser.builder().name("soni").build();
+        user.setId(12L);
+        given(redissonClient.<String, String>getMap(anyString(), any(Codec.class)))
+                .willReturn(summaryMap);
+        given(summaryMap.readAllMap()).willReturn(new HashMap<>());
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findByAccountUser(any()))
+                .willReturn(Arrays.asList(
+                        Account.builder().accountUser(user).accountNumber("1111111111")
+                                .balance(3000L).accountStatus(IN_USE).build(),
+                        Account.builder().accountUser(user).accountNumber("2222222222")
+                                .balance(0L).accountStatus(UNREGISTERED).build()));
+        given(redissonClient.getScript(any(Codec.class))).willReturn(script);
+        ArgumentCaptor<Map<String, String>> captor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<List<Object>> keysCaptor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        AccountSummary summary = accountSummaryService.getSummary(12L);
+
+        //then
+        verify(redissonClient).getMap(startsWith("ACSM : 12 : "), any(Codec.class));
+        verify(summaryMap).putAll(captor.capture());
+        verify(summaryMap, never()).delete();
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), contains("rename"),
+                eq(RScript.ReturnType.INTEGER), keysCaptor.capture(), any());
+        assertEquals("ACSM : 12", keysCaptor.getValue().get(0));
+        assertTrue(keysCaptor.getValue().get(1).toString().startsWith("ACSM : 12 : "));
+        assertTrue(captor.getValue().containsKey("__built"));
+        assertEquals(3, captor.getValue().size());
+        assertEquals(3000L, summary.getTotalBalance());
+        assertEquals(12L, summary.getUserId());
+    }
+
+    @Test
+    void accountChangedPutsOnlyNewerVersion() {
+        //given
+        AccountUser user = AccountUser.builder().name("soni").build();
+        user.setId(12L);
+        Account account = Account.builder().accountUser(user).accountNumber("1111111111")
+                .balance(3000L).accountStatus(IN_USE).build();
+        account.setVersion(5L);
+        given(redissonClient.getScript(any(Codec.class))).willReturn(script);
+
+        //when
+        accountSummaryService.onAccountChanged(new AccountChangedEvent(account));
+
+        //then
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), contains("hset"),
+                eq(RScript.ReturnType.INTEGER), eq(List.of("ACSM : 12")),
+                eq("1111111111"), eq("5"), contains("\"version\":5"));
+        verify(summaryMap, never()).fastPut(anyString(), anyString());
+    }
+
+    @Test
+    void rebuildUserNotFound() {
+        //given
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.empty());
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountSummaryService.rebuild(1L));
+
+        //then
+        assertEquals(ErrorCode.USER_NOT_FOUND, exception.getErrorCode());
+    }
+
+    @Test
+    void bulkChangedEvictsSummaries() {
+        //given
+        RKeys keys = mock(RKeys.class);
+        given(redissonClient.getKeys()).willReturn(keys);
+
+        //when
+        accountSummaryService.onAccountsBulkChanged(
+                new AccountsBulkChangedEvent(Arrays.asList(1L, 2L), Collections.emptyList()));
+
+        //then
+        verify(keys).delete("ACSM : 1", "ACSM : 2");
+    }
+}
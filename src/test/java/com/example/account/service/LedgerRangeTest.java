@@ -0,0 +1,87 @@
+package com.example.account.service;
+
+import com.example.account.domain.ReconciliationMismatch;
+import com.example.account.type.MismatchType;
+import org.junit.jupiter.api.Test;
+
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerRangeTest {
+
+    @Test
+    void consistentLedger() {
+        //given
+        LedgerRange range = new LedgerRange(1L, 0, 100, 10);
+
+        //when
+        range.accept(1L, "1000000001", 8000L, "t1", USE, 1000L, 9000L);
+        range.accept(1L, "1000000001", 8000L, "t2", USE, 2000L, 7000L);
+        range.accept(1L, "1000000001", 8000L, "t3", CANCEL, 1000L, 8000L);
+        range.accept(2L, "1000000002", 500L, null, null, 0L, 0L);
+        range.finish();
+
+        //then
+        assertEquals(2, range.getAccountCount());
+        assertEquals(3, range.getTransactionCount());
+        assertEquals(0, range.getMismatchCount());
+        assertEquals(5, range.getRowCount());
+    }
+
+    @Test
+    void snapshotChainMismatch() {
+        //given
+        LedgerRange range = new LedgerRange(1L, 0, 100, 10);
+
+        //when
+        range.accept(1L, "1000000001", 6000L, "t1", USE, 1000L, 9000L);
+        range.accept(1L, "1000000001", 6000L, "t2", USE, 2000L, 6500L);
+        range.accept(1L, "1000000001", 6000L, "t3", USE, 500L, 6000L);
+        range.finish();
+
+        //then
+        assertEquals(1, range.getMismatchCount());
+        ReconciliationMismatch mismatch = range.getMismatches().get(0);
+        assertEquals(MismatchType.SNAPSHOT_CHAIN, mismatch.getMismatchType());
+        assertEquals("t2", mismatch.getTransactionId());
+        assertEquals(7000L, mismatch.getExpected());
+        assertEquals(6500L, mismatch.getActual());
+    }
+
+    @Test
+    void balanceMismatch() {
+        //given
+        LedgerRange range = new LedgerRange(1L, 0, 100, 10);
+
+        //when
+        range.accept(1L, "1000000001", 5000L, "t1", USE, 1000L, 9000L);
+        range.accept(2L, "1000000002", 100L, "t2", USE, 100L, 100L);
+        range.finish();
+
+        //then
+        assertEquals(1, range.getMismatchCount());
+        ReconciliationMismatch mismatch = range.getMismatches().get(0);
+        assertEquals(MismatchType.BALANCE, mismatch.getMismatchType());
+        assertEquals("1000000001", mismatch.getAccountNumber());
+        assertNull(mismatch.getTransactionId());
+        assertEquals(9000L, mismatch.getExpected());
+        assertEquals(5000L, mismatch.getActual());
+    }
+
+    @Test
+    void storedMismatchesAreCapped() {
+        //given
+        LedgerRange range = new LedgerRange(1L, 0, 100, 2);
+
+        //when
+        for (long accountId = 1; accountId <= 5; accountId++) {
+            range.accept(accountId, "100000000" + accountId, 0L, "t" + accountId, USE, 100L, 100L);
+        }
+        range.finish();
+
+        //then
+        assertEquals(5, range.getMismatchCount());
+        assertEquals(2, range.getMismatches().size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.account.service;
+
+import com.example.account.config.RedisLockProperties;
+import com.example.account.exception.AdmissionRejectedException;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockAdmissionControlTest {
+    private LockAdmissionControl admissionControl;
+
+    @BeforeEach
+    void setUp() {
+        RedisLockProperties.Admission config = new RedisLockProperties.Admission();
+        config.setMaxPerKey(2);
+        config.setInitialLimit(3);
+        config.setMinLimit(2);
+        config.setMaxLimit(4);
+        config.setTargetLatencyMs(100);
+        config.setBackoffRatio(0.5);
+        config.setRetryAfterMs(1500);
+        admissionControl = new LockAdmissionControl(config);
+    }
+
+    @Test
+    void rejectWhenKeyQueueFull() {
+        //given
+        admissionControl.acquire("hot");
+        admissionControl.acquire("hot");
+
+        //when
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> admissionControl.acquire("hot"));
+
+        //then
+        assertEquals(ErrorCode.TOO_MANY_REQUESTS, exception.getErrorCode());
+        assertEquals(1500L, exception.getRetryAfterMs());
+        assertEquals(2, admissionControl.getInFlight());
+        assertDoesNotThrow(() -> admissionControl.acquire("cold"));
+    }
+
+    @Test
+    void admitAgainAfterRelease() {
+        //given
+        admissionControl.acquire("hot");
+        admissionControl.acquire("hot");
+
+        //when
+        admissionControl.release("hot");
+
+        //then
+        assertDoesNotThrow(() -> admissionControl.acquire("hot"));
+    }
+
+    @Test
+    void rejectWhenNodeLimitReached() {
+        //given
+        admissionControl.acquire("1");
+        admissionControl.acquire("2");
+        admissionControl.acquire("3");
+
+        //when
+        //then
+        assertThrows(AdmissionRejectedException.class, () -> admissionControl.acquire("4"));
+        assertEquals(3, admissionControl.getInFlight());
+    }
+
+    @Test
+    void decreaseLimitWhenSlow() {
+        //given
+        //when
+        admissionControl.onComplete(TimeUnit.MILLISECONDS.toNanos(300));
+        admissionControl.onComplete(TimeUnit.MILLISECONDS.toNanos(300));
+
+        //then
+        assertEquals(2, admissionControl.getLimit());
+    }
+
+    @Test
+    void increaseLimitWhenFast() {
+        //given
+        //when
+        for (int i = 0; i < 10; i++) {
+            admissionControl.onComplete(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        //then
+        assertEquals(4, admissionControl.getLimit());
+    }
+}
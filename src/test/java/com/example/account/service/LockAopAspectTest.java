@@ -1,9 +1,12 @@
 package com.example.account.service;
 
+import com.example.account.aop.AccountLock;
 import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
+import com.example.account.exception.AdmissionRejectedException;
 import com.example.account.type.ErrorCode;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -11,9 +14,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.lang.reflect.Method;
+
 import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -22,9 +32,15 @@ class LockAopAspectTest {
     @Mock
     private LockService lockService;
 
+    @Mock
+    private LockAdmissionControl lockAdmissionControl;
+
     @Mock
     private ProceedingJoinPoint proceedingJoinPoint;
 
+    @Mock
+    private MethodSignature methodSignature;
+
     @InjectMocks
     private LockAopAspect lockAopAspect;
 
@@ -38,17 +54,21 @@ class LockAopAspectTest {
 
         UseBalance.Request request =
                 new UseBalance.Request(123L,"1234",1000L);
+        given(proceedingJoinPoint.getArgs())
+                .willReturn(new Object[]{request});
 
         //when
-        lockAopAspect.aroundMethod(proceedingJoinPoint, request);
+        lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock("byAccount"));
 
         //then
         verify(lockService, times(1))
-                .lock(lockArgumentCaptor.capture());
+                .lock(lockArgumentCaptor.capture(), eq(1000L), eq(15000L));
         verify(lockService, times(1))
                 .unlock(unLockArgumentCaptor.capture());
         assertEquals("1234", lockArgumentCaptor.getValue());
         assertEquals("1234", unLockArgumentCaptor.getValue());
+        verify(lockAdmissionControl).acquire("1234");
+        verify(lockAdmissionControl).release("1234");
     }
 
     @Test
@@ -61,18 +81,96 @@ class LockAopAspectTest {
 
         UseBalance.Request request =
                 new UseBalance.Request(123L,"54321",1000L);
+        given(proceedingJoinPoint.getArgs())
+                .willReturn(new Object[]{request});
         given(proceedingJoinPoint.proceed())
                 .willThrow(new AccountException(ACCOUNT_NOT_FOUND));
         //when
         assertThrows(AccountException.class, () ->
-        lockAopAspect.aroundMethod(proceedingJoinPoint, request));
+        lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock("byAccount")));
 
         //then
         verify(lockService, times(1))
-                .lock(lockArgumentCaptor.capture());
+                .lock(lockArgumentCaptor.capture(), eq(1000L), eq(15000L));
         verify(lockService, times(1))
                 .unlock(unLockArgumentCaptor.capture());
         assertEquals("54321", lockArgumentCaptor.getValue());
         assertEquals("54321", unLockArgumentCaptor.getValue());
+        verify(lockAdmissionControl).release("54321");
+    }
+
+    @Test
+    void lockWithKeyExpression() throws Throwable {
+        //given
+        UseBalance.Request request =
+                new UseBalance.Request(123L,"1234",1000L);
+        given(proceedingJoinPoint.getArgs())
+                .willReturn(new Object[]{request});
+        given(proceedingJoinPoint.getSignature())
+                .willReturn(methodSignature);
+        given(methodSignature.getMethod())
+                .willReturn(method("byUser"));
+
+        //when
+        lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock("byUser"));
+
+        //then
+        verify(lockService).lock("user:123", 3000L, LockService.AUTO_RENEW);
+        verify(lockService).unlock("user:123");
+    }
+
+    @Test
+    void rejectedBeforeLock() throws Throwable {
+        //given
+        UseBalance.Request request =
+                new UseBalance.Request(123L,"1234",1000L);
+        given(proceedingJoinPoint.getArgs())
+                .willReturn(new Object[]{request});
+        willThrow(new AdmissionRejectedException(1000L))
+                .given(lockAdmissionControl).acquire("1234");
+
+        //when
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock("byAccount")));
+
+        //then
+        assertEquals(ErrorCode.TOO_MANY_REQUESTS, exception.getErrorCode());
+        verify(lockService, never()).lock(anyString(), anyLong(), anyLong());
+        verify(lockAdmissionControl, never()).release(anyString());
+        verify(proceedingJoinPoint, never()).proceed();
+    }
+
+    @Test
+    void noLockKey() {
+        //given
+        given(proceedingJoinPoint.getArgs())
+                .willReturn(new Object[]{123L});
+
+        //when
+        //then
+        assertThrows(IllegalStateException.class, () ->
+                lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock("byAccount")));
+    }
+
+    private static AccountLock accountLock(String name) {
+        return method(name).getAnnotation(AccountLock.class);
+    }
+
+    private static Method method(String name) {
+        try {
+            return LockTarget.class.getDeclaredMethod(name, Object.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class LockTarget {
+        @AccountLock
+        void byAccount(Object request) {
+        }
+
+        @AccountLock(key = "'user:' + #p0.userId", tryLockTime = 3000L, autoRenew = true)
+        void byUser(Object request) {
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package com.example.account.service;
+
+import com.example.account.config.RedisLockProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockCircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong();
+    private LockCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        RedisLockProperties.CircuitBreaker config = new RedisLockProperties.CircuitBreaker();
+        config.setWindowSize(10);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setOpenDurationMs(1000);
+        config.setHalfOpenCalls(2);
+        circuitBreaker = new LockCircuitBreaker(config, now::get);
+    }
+
+    @Test
+    void openWhenFailureRateExceeded() {
+        //given
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        //when
+        circuitBreaker.onFailure();
+
+        //then
+        assertEquals(LockCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void stayClosedWhenOnlyLockIsBusy() {
+        //given
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.onSuccess();
+        }
+        //when
+        //then
+        assertEquals(LockCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void stayClosedBelowMinimumCalls() {
+        //given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        //when
+        //then
+        assertEquals(LockCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void halfOpenThenClose() {
+        //given
+        openCircuit();
+        now.addAndGet(ms(1000));
+        //when
+        assertTrue(circuitBreaker.allowRequest());
+        assertTrue(circuitBreaker.allowRequest());
+        assertFalse(circuitBreaker.allowRequest());
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+
+        //then
+        assertEquals(LockCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void halfOpenFailureReopens() {
+        //given
+        openCircuit();
+        now.addAndGet(ms(1000));
+        //when
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.onFailure();
+
+        //then
+        assertEquals(LockCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void cancelledHalfOpenCallReturnsPermit() {
+        //given
+        openCircuit();
+        now.addAndGet(ms(1000));
+        assertTrue(circuitBreaker.allowRequest());
+        assertTrue(circuitBreaker.allowRequest());
+
+        //when
+        circuitBreaker.onCancelled();
+
+        //then
+        assertTrue(circuitBreaker.allowRequest());
+        assertFalse(circuitBreaker.allowRequest());
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+        assertEquals(LockCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure();
+        }
+        assertEquals(LockCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -1,34 +1,52 @@
 package com.example.account.service;
 
+import com.example.account.config.RedisLockProperties;
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisTimeoutException;
+
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class LockServiceTest {
     @Mock
-    private RedissonClient redissonClient;
+    private RedisLockRouter redisLockRouter;
 
     @Mock
     private RLock rLock;
 
+    @Spy
+    private LockCircuitBreaker lockCircuitBreaker =
+            new LockCircuitBreaker(new RedisLockProperties.CircuitBreaker());
+
+    @Spy
+    private LocalLockStripes localLockStripes = new LocalLockStripes(16);
+
+    @Spy
+    private RedisLockProperties redisLockProperties = new RedisLockProperties();
+
     @InjectMocks
     private LockService lockService;
 
     @Test
     void successGetLock() throws InterruptedException {
         //given
-        given(redissonClient.getLock(anyString()))
+        given(redisLockRouter.getLock(anyString()))
                 .willReturn(rLock);
         given(rLock.tryLock(anyLong(), anyLong(), any()))
                 .willReturn(true);
@@ -37,10 +55,25 @@ class LockServiceTest {
         assertDoesNotThrow(() -> lockService.lock("123"));
     }
 
+    @Test
+    void autoRenewLock() throws InterruptedException {
+        //given
+        given(redisLockRouter.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willReturn(true);
+        //when
+        lockService.lock("user:123", 3000L, LockService.AUTO_RENEW);
+
+        //then
+        verify(redisLockRouter).getLock("ACLK : user:123");
+        verify(rLock).tryLock(3000L, -1L, TimeUnit.MILLISECONDS);
+    }
+
     @Test
     void failGetLock() throws InterruptedException {
         //given
-        given(redissonClient.getLock(anyString()))
+        given(redisLockRouter.getLock(anyString()))
                 .willReturn(rLock);
         given(rLock.tryLock(anyLong(), anyLong(), any()))
                 .willReturn(false);
@@ -50,5 +83,83 @@ class LockServiceTest {
 
         //then
         assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(lockCircuitBreaker).onSuccess();
+        verify(lockCircuitBreaker, never()).onFailure();
+    }
+
+    @Test
+    void redisFailure_fallbackToLocalLock() throws InterruptedException {
+        //given
+        given(redisLockRouter.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willThrow(new RedisTimeoutException("timeout"));
+        //when
+        lockService.lock("123");
+
+        //then
+        assertTrue(AccountLockContext.isDegraded());
+        lockService.unlock("123");
+        assertFalse(AccountLockContext.isDegraded());
+        verify(rLock, never()).unlock();
+        verify(lockCircuitBreaker).onFailure();
+    }
+
+    @Test
+    void redisFailure_rejectFallback() throws InterruptedException {
+        //given
+        redisLockProperties.setFallback(RedisLockProperties.Fallback.REJECT);
+        given(redisLockRouter.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willThrow(new RedisTimeoutException("timeout"));
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> lockService.lock("123"));
+
+        //then
+        assertEquals(ErrorCode.LOCK_SERVICE_UNAVAILABLE, exception.getErrorCode());
+        assertFalse(AccountLockContext.isDegraded());
+    }
+
+    @Test
+    void circuitOpen_skipRedis() {
+        //given
+        willReturn(false).given(lockCircuitBreaker).allowRequest();
+        //when
+        lockService.lock("123");
+        lockService.unlock("123");
+
+        //then
+        verify(redisLockRouter, never()).getLock(anyString());
+    }
+
+    @Test
+    void unlock_ignoreRedisFailure() {
+        //given
+        given(redisLockRouter.getLock(anyString()))
+                .willReturn(rLock);
+        willThrow(new IllegalMonitorStateException())
+                .given(rLock).unlock();
+        //when
+        //then
+        assertDoesNotThrow(() -> lockService.unlock("123"));
+    }
+
+    @Test
+    void interrupted_returnCircuitPermit() throws InterruptedException {
+        //given
+        given(redisLockRouter.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+                .willThrow(new InterruptedException());
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> lockService.lock("123"));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(lockCircuitBreaker).onCancelled();
+        assertTrue(Thread.interrupted());
     }
-}
\ No newline at end of file
+}
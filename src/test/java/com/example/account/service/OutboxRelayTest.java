@@ -0,0 +1,125 @@
+package com.example.account.service;
+
+import com.example.account.domain.TransactionOutbox;
+import com.example.account.dto.TransactionEvent;
+import com.example.account.event.TransactionEventSink;
+import com.example.account.job.JobCoordinator;
+import com.example.account.repository.TransactionOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    @Mock
+    private TransactionOutboxRepository transactionOutboxRepository;
+
+    @Mock
+    private TransactionEventSink transactionEventSink;
+
+    @Mock
+    private JobCoordinator jobCoordinator;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+    }
+
+    @Test
+    void relayPublishesInOrderAndDeletes() {
+        //given
+        given(jobCoordinator.tryLead("outbox-relay")).willReturn(true);
+        given(transactionOutboxRepository.findBatch(any()))
+                .willReturn(Arrays.asList(outbox(1L, "1111111111"), outbox(2L, "1111111111")))
+                .willReturn(Collections.singletonList(outbox(3L, "2222222222")));
+        ArgumentCaptor<List<TransactionEvent>> eventCaptor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        outboxRelay.relay();
+
+        //then
+        verify(transactionEventSink, times(2)).publish(eventCaptor.capture());
+        assertEquals(1L, eventCaptor.getAllValues().get(0).get(0).getEventId());
+        assertEquals(2L, eventCaptor.getAllValues().get(0).get(1).getEventId());
+        assertEquals(3L, eventCaptor.getAllValues().get(1).get(0).getEventId());
+        verify(transactionOutboxRepository).deleteAllByIdInBatch(Arrays.asList(1L, 2L));
+        verify(transactionOutboxRepository).deleteAllByIdInBatch(Collections.singletonList(3L));
+    }
+
+    @Test
+    void relayKeepsRowsWhenSinkFails() {
+        //given
+        given(jobCoordinator.tryLead("outbox-relay")).willReturn(true);
+        given(transactionOutboxRepository.findBatch(any()))
+                .willReturn(Collections.singletonList(outbox(1L, "1111111111")));
+        willThrow(new IllegalStateException("sink down"))
+                .given(transactionEventSink).publish(anyList());
+
+        //when
+        outboxRelay.relay();
+
+        //then
+        verify(transactionOutboxRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void relayStopsWhenLeadershipIsLost() {
+        //given
+        given(jobCoordinator.tryLead("outbox-relay")).willReturn(true, false);
+        given(transactionOutboxRepository.findBatch(any()))
+                .willReturn(Arrays.asList(outbox(1L, "1111111111"), outbox(2L, "1111111111")));
+
+        //when
+        outboxRelay.relay();
+
+        //then
+        verify(transactionOutboxRepository, times(1)).findBatch(any());
+        verify(transactionOutboxRepository).deleteAllByIdInBatch(Arrays.asList(1L, 2L));
+    }
+
+    @Test
+    void relayOnlyOnLeader() {
+        //given
+        given(jobCoordinator.tryLead("outbox-relay")).willReturn(false);
+
+        //when
+        outboxRelay.relay();
+
+        //then
+        verify(transactionOutboxRepository, never()).findBatch(any());
+    }
+
+    private TransactionOutbox outbox(Long id, String accountNumber) {
+        TransactionOutbox outbox = TransactionOutbox.builder()
+                .accountNumber(accountNumber)
+                .transactionType(USE)
+                .transactionResultType(S)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactionId("tx" + id)
+                .build();
+        outbox.setId(id);
+        return outbox;
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.account.service;
+
+import com.example.account.domain.PostingChunk;
+import com.example.account.event.AccountsBulkChangedEvent;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.PostingChunkRepository;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.account.type.TransactionType.INTEREST;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostingChunkWriterTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private LockService lockService;
+    @Mock
+    private PostingChunkRepository postingChunkRepository;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @InjectMocks
+    private PostingChunkWriter postingChunkWriter;
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void writeChunkRetriesConflictUnderLock() throws SQLException {
+        //given
+        PostingRule rule = new PostingRule(INTEREST, 100, 0);
+        given(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(1L), eq(2L)))
+                .willAnswer(invocation -> map(invocation.getArgument(1),
+                        row(1L, "1000000001", 10L, 10_000L, 0L),
+                        row(2L, "1000000002", 11L, 20_000L, 3L)));
+        given(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(2L)))
+                .willAnswer(invocation -> map(invocation.getArgument(1),
+                        row(2L, "1000000002", 11L, 25_000L, 4L)));
+        given(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .willReturn(new int[]{1, 0}, new int[]{1, 1}, new int[]{1, 1});
+        given(jdbcTemplate.update(anyString(), eq(25_250L), any(), eq(2L), eq(4L)))
+                .willReturn(1);
+        ArgumentCaptor<PostingChunk> chunkCaptor = ArgumentCaptor.forClass(PostingChunk.class);
+
+        //when
+        int skipped = postingChunkWriter.writeChunk(7L, rule, 1L, 2L);
+
+        //then
+        assertEquals(0, skipped);
+        verify(postingChunkRepository).save(chunkCaptor.capture());
+        PostingChunk chunk = chunkCaptor.getValue();
+        assertEquals(1L, chunk.getFirstAccountId());
+        assertEquals(2L, chunk.getLastAccountId());
+        assertEquals(2L, chunk.getPostedCount());
+        assertEquals(1L, chunk.getRetriedCount());
+        verify(lockService).lock("1000000001", 0L, LockService.AUTO_RENEW);
+        verify(lockService).lock("1000000002", 0L, LockService.AUTO_RENEW);
+        verify(lockService, never()).lock(anyString());
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+
+        ArgumentCaptor<AccountsBulkChangedEvent> captor =
+                ArgumentCaptor.forClass(AccountsBulkChangedEvent.class);
+        verify(applicationEventPublisher).publishEvent(captor.capture());
+        assertTrue(captor.getValue().getAccountNumbers().contains("1000000002"));
+        assertTrue(captor.getValue().getUserIds().contains(10L));
+        AccountsBulkChangedEvent.Balance retried = captor.getValue().getBalances().stream()
+                .filter(balance -> balance.getAccountNumber().equals("1000000002"))
+                .findFirst().orElseThrow();
+        assertEquals(25_250L, retried.getBalance());
+        assertEquals(5L, retried.getVersion());
+
+        //트랜잭션이 끝나야 락을 푼다.
+        verify(lockService, never()).unlock(anyString());
+        for (TransactionSynchronization synchronization :
+                TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        verify(lockService).unlock("1000000001");
+        verify(lockService).unlock("1000000002");
+    }
+
+    @Test
+    void writeChunkSkipsLockedAccount() throws SQLException {
+        //given
+        PostingRule rule = new PostingRule(INTEREST, 100, 0);
+        given(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(1L), eq(3L)))
+                .willAnswer(invocation -> map(invocation.getArgument(1),
+                        row(1L, "1000000001", 10L, 10_000L, 0L),
+                        row(2L, "1000000002", 11L, 20_000L, 3L),
+                        row(3L, "1000000003", 12L, 30_000L, 1L)));
+        given(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .willReturn(new int[]{1, 1}, new int[]{1, 1}, new int[]{1, 1});
+        willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .given(lockService).lock("1000000002", 0L, LockService.AUTO_RENEW);
+        ArgumentCaptor<PostingChunk> chunkCaptor = ArgumentCaptor.forClass(PostingChunk.class);
+        ArgumentCaptor<BatchPreparedStatementSetter> setterCaptor =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+
+        //when
+        int skipped = postingChunkWriter.writeChunk(7L, rule, 1L, 3L);
+
+        //then
+        assertEquals(1, skipped);
+        verify(postingChunkRepository, times(2)).save(chunkCaptor.capture());
+        List<PostingChunk> chunks = chunkCaptor.getAllValues();
+        assertEquals(1L, chunks.get(0).getFirstAccountId());
+        assertEquals(1L, chunks.get(0).getLastAccountId());
+        assertEquals(2L, chunks.get(0).getPostedCount());
+        assertEquals(3L, chunks.get(1).getFirstAccountId());
+        assertEquals(3L, chunks.get(1).getLastAccountId());
+        assertEquals(0L, chunks.get(1).getPostedCount());
+
+        ArgumentCaptor<AccountsBulkChangedEvent> captor =
+                ArgumentCaptor.forClass(AccountsBulkChangedEvent.class);
+        verify(applicationEventPublisher).publishEvent(captor.capture());
+        assertFalse(captor.getValue().getAccountNumbers().contains("1000000002"));
+        assertEquals(2, captor.getValue().getBalances().size());
+
+        //락을 잡지 못한 계좌는 잔액 갱신 batch 에 넣지 않는다.
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), setterCaptor.capture());
+        assertEquals(2, setterCaptor.getAllValues().get(0).getBatchSize());
+        verify(lockService, never()).unlock("1000000002");
+    }
+
+    @Test
+    void writeChunkLeavesAccountToLiveUseBalance() throws SQLException {
+        //given
+        PostingRule rule = new PostingRule(INTEREST, 100, 0);
+        given(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(1L), eq(1L)))
+                .willAnswer(invocation -> map(invocation.getArgument(1),
+                        row(1L, "1000000001", 10L, 10_000L, 3L)))
+                .willAnswer(invocation -> map(invocation.getArgument(1),
+                        row(1L, "1000000001", 10L, 9_000L, 4L)));
+        given(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .willReturn(new int[]{1}, new int[]{1}, new int[]{1});
+        //라이브 useBalance 가 계좌 락을 잡고 있다가 커밋 후 푼다.
+        willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .willDoNothing()
+                .given(lockService).lock("1000000001", 0L, LockService.AUTO_RENEW);
+        ArgumentCaptor<AccountsBulkChangedEvent> captor =
+                ArgumentCaptor.forClass(AccountsBulkChangedEvent.class);
+
+        //when
+        int skippedWhileUsing = postingChunkWriter.writeChunk(7L, rule, 1L, 1L);
+        int skippedAfterUse = postingChunkWriter.writeChunk(8L, rule, 1L, 1L);
+
+        //then
+        assertEquals(1, skippedWhileUsing);
+        assertEquals(0, skippedAfterUse);
+        //사용 중에는 잔액을 건드리지 않아 라이브 거래의 version 갱신이 실패하지 않는다.
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(), any(), any(), any());
+        verify(applicationEventPublisher).publishEvent(captor.capture());
+        assertEquals(9_090L, captor.getValue().getBalances().get(0).getBalance());
+        assertEquals(5L, captor.getValue().getBalances().get(0).getVersion());
+    }
+
+    @Test
+    void writeChunkNothingToPost() {
+        //given
+        PostingRule rule = new PostingRule(INTEREST, 100, 0);
+        given(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(1L), eq(2L)))
+                .willReturn(new ArrayList<>());
+        ArgumentCaptor<PostingChunk> chunkCaptor = ArgumentCaptor.forClass(PostingChunk.class);
+
+        //when
+        int skipped = postingChunkWriter.writeChunk(7L, rule, 1L, 2L);
+
+        //then
+        assertEquals(0, skipped);
+        verify(postingChunkRepository).save(chunkCaptor.capture());
+        assertEquals(0L, chunkCaptor.getValue().getPostedCount());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(applicationEventPublisher, never()).publishEvent(any());
+    }
+
+    private ResultSet row(long id, String accountNumber, long userId, long balance, long version)
+            throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        given(rs.getLong(1)).willReturn(id);
+        given(rs.getString(2)).willReturn(accountNumber);
+        given(rs.getLong(3)).willReturn(userId);
+        given(rs.getLong(4)).willReturn(balance);
+        given(rs.getLong(5)).willReturn(version);
+        return rs;
+    }
+
+    private List<Object> map(RowMapper<?> mapper, ResultSet... rows) throws SQLException {
+        List<Object> mapped = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            mapped.add(mapper.mapRow(rows[i], i));
+        }
+        return mapped;
+    }
+}
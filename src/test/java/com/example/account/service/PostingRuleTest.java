@@ -0,0 +1,34 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.Test;
+
+import static com.example.account.type.TransactionType.FEE;
+import static com.example.account.type.TransactionType.INTEREST;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PostingRuleTest {
+
+    @Test
+    void interest() {
+        //given
+        PostingRule rule = new PostingRule(INTEREST, 125, 0);
+
+        //when
+        //then
+        assertEquals(125L, rule.computeAmount(10_000L));
+        assertEquals(0L, rule.computeAmount(50L));
+        assertEquals(10_125L, INTEREST.apply(10_000L, rule.computeAmount(10_000L)));
+    }
+
+    @Test
+    void feeLimitedByBalance() {
+        //given
+        PostingRule rule = new PostingRule(FEE, 0, 1000);
+
+        //when
+        //then
+        assertEquals(1000L, rule.computeAmount(5000L));
+        assertEquals(300L, rule.computeAmount(300L));
+        assertEquals(0L, FEE.apply(300L, rule.computeAmount(300L)));
+    }
+}
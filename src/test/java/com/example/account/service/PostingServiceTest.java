@@ -0,0 +1,188 @@
+package com.example.account.service;
+
+import com.example.account.domain.PostingChunk;
+import com.example.account.domain.PostingRun;
+import com.example.account.dto.Posting;
+import com.example.account.exception.AccountException;
+import com.example.account.job.JobCoordinator;
+import com.example.account.repository.PostingChunkRepository;
+import com.example.account.repository.PostingRunRepository;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.example.account.type.TransactionType.FEE;
+import static com.example.account.type.TransactionType.INTEREST;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PostingServiceTest {
+    @Mock
+    private PostingChunkWriter postingChunkWriter;
+    @Mock
+    private PostingRunRepository postingRunRepository;
+    @Mock
+    private PostingChunkRepository postingChunkRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private JobCoordinator jobCoordinator;
+
+    @InjectMocks
+    private PostingService postingService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(postingService, "chunkSize", 2);
+        ReflectionTestUtils.setField(postingService, "parallelism", 2);
+        ReflectionTestUtils.setField(postingService, "maxPasses", 2);
+    }
+
+    @Test
+    void postSkipsCompletedChunks() throws Exception {
+        //given
+        PostingRun run = PostingRun.builder()
+                .transactionType(INTEREST)
+                .rateBasisPoints(100L)
+                .build();
+        run.setId(1L);
+        PostingChunk completed = PostingChunk.builder()
+                .runId(1L).firstAccountId(3L).lastAccountId(4L).build();
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(0L), eq(3L), eq(2)))
+                .willReturn(Arrays.asList(1L, 2L));
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2L), eq(3L), eq(2)))
+                .willReturn(Collections.emptyList());
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(4L), eq(Long.MAX_VALUE), eq(2)))
+                .willReturn(Arrays.asList(5L, 6L));
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(6L), eq(Long.MAX_VALUE), eq(2)))
+                .willReturn(Collections.singletonList(7L));
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(7L), eq(Long.MAX_VALUE), eq(2)))
+                .willReturn(Collections.emptyList());
+
+        //when
+        postingService.post(run, Collections.singletonList(completed));
+
+        //then
+        verify(postingChunkWriter).writeChunk(eq(1L), any(), eq(1L), eq(2L));
+        verify(postingChunkWriter).writeChunk(eq(1L), any(), eq(5L), eq(6L));
+        verify(postingChunkWriter).writeChunk(eq(1L), any(), eq(7L), eq(7L));
+        verify(postingChunkWriter, never()).writeChunk(eq(1L), any(), eq(3L), anyLong());
+    }
+
+    @Test
+    void postAllRetriesSkippedAccounts() throws Exception {
+        //given
+        PostingRun run = PostingRun.builder()
+                .transactionType(INTEREST)
+                .rateBasisPoints(100L)
+                .build();
+        run.setId(1L);
+        //첫 패스에서 1번 계좌를 건너뛰어 [2, 2] 만 완료로 남았다.
+        PostingChunk completed = PostingChunk.builder()
+                .runId(1L).firstAccountId(2L).lastAccountId(2L).build();
+        given(postingChunkRepository.findByRunIdOrderByFirstAccountIdAsc(1L))
+                .willReturn(Collections.emptyList(), Collections.singletonList(completed));
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(0L), eq(Long.MAX_VALUE), eq(2)))
+                .willReturn(Arrays.asList(1L, 2L));
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2L), eq(Long.MAX_VALUE), eq(2)))
+                .willReturn(Collections.emptyList());
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(0L), eq(2L), eq(2)))
+                .willReturn(Collections.singletonList(1L));
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1L), eq(2L), eq(2)))
+                .willReturn(Collections.emptyList());
+        given(postingChunkWriter.writeChunk(eq(1L), any(), eq(1L), eq(2L)))
+                .willReturn(1);
+
+        //when
+        postingService.postAll(run);
+
+        //then
+        verify(postingChunkWriter).writeChunk(eq(1L), any(), eq(1L), eq(2L));
+        verify(postingChunkWriter).writeChunk(eq(1L), any(), eq(1L), eq(1L));
+    }
+
+    @Test
+    void postAllFailsWhenAccountsStayLocked() {
+        //given
+        PostingRun run = PostingRun.builder()
+                .transactionType(INTEREST)
+                .rateBasisPoints(100L)
+                .build();
+        run.setId(1L);
+        given(postingChunkRepository.findByRunIdOrderByFirstAccountIdAsc(1L))
+                .willReturn(Collections.emptyList());
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(0L), eq(Long.MAX_VALUE), eq(2)))
+                .willReturn(Collections.singletonList(1L));
+        given(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1L), eq(Long.MAX_VALUE), eq(2)))
+                .willReturn(Collections.emptyList());
+        given(postingChunkWriter.writeChunk(eq(1L), any(), eq(1L), eq(1L)))
+                .willReturn(1);
+
+        //when
+        //then
+        assertThrows(IllegalStateException.class, () -> postingService.postAll(run));
+        verify(postingChunkWriter, times(2)).writeChunk(eq(1L), any(), eq(1L), eq(1L));
+    }
+
+    @Test
+    void startRejectedWhileAnotherNodeRuns() {
+        //given
+        ReflectionTestUtils.setField(postingService, "memoryEngine", false);
+        ReflectionTestUtils.setField(postingService, "journalEnabled", false);
+        given(jobCoordinator.tryLead("posting")).willReturn(false);
+        Posting.Request request = new Posting.Request();
+        request.setTransactionType(FEE);
+        request.setAmount(100L);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> postingService.start(request));
+
+        //then
+        assertEquals(ErrorCode.POSTING_ALREADY_RUNNING, exception.getErrorCode());
+        verify(postingRunRepository, never()).save(any());
+    }
+
+    @Test
+    void startInvalidRequest() {
+        //given
+        Posting.Request request = new Posting.Request(FEE, 100L, null);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> postingService.start(request));
+
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+        verify(postingRunRepository, never()).save(any());
+    }
+
+    @Test
+    void startNotSupportedWithJournal() {
+        //given
+        ReflectionTestUtils.setField(postingService, "journalEnabled", true);
+        Posting.Request request = new Posting.Request(FEE, null, 1000L);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> postingService.start(request));
+
+        //then
+        assertEquals(ErrorCode.POSTING_NOT_SUPPORTED, exception.getErrorCode());
+        verify(postingRunRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.ReconciliationRun;
+import com.example.account.dto.ReconciliationReport;
+import com.example.account.exception.AccountException;
+import com.example.account.job.JobCoordinator;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.ReconciliationCheckpointRepository;
+import com.example.account.repository.ReconciliationMismatchRepository;
+import com.example.account.repository.ReconciliationRunRepository;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Optional;
+
+import static com.example.account.type.ReconciliationStatus.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReconciliationServiceTest {
+    @Mock
+    private LedgerReconciler ledgerReconciler;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private ReconciliationRunRepository reconciliationRunRepository;
+    @Mock
+    private ReconciliationCheckpointRepository reconciliationCheckpointRepository;
+    @Mock
+    private ReconciliationMismatchRepository reconciliationMismatchRepository;
+    @Mock
+    private ReconciliationCheckpointRepository.Summary summary;
+    @Mock
+    private JobCoordinator jobCoordinator;
+
+    @InjectMocks
+    private ReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reconciliationService, "rangeSize", 10L);
+        ReflectionTestUtils.setField(reconciliationService, "parallelism", 2);
+        ReflectionTestUtils.setField(reconciliationService, "maxRowsPerSecond", 0L);
+    }
+
+    @Test
+    void startReconcilesEveryRange() {
+        //given
+        ReconciliationRun[] saved = new ReconciliationRun[1];
+        Account lastAccount = Account.builder().build();
+        lastAccount.setId(25L);
+        given(jobCoordinator.tryLead("reconciliation")).willReturn(true);
+        given(accountRepository.findFirstByOrderByIdDesc())
+                .willReturn(Optional.of(lastAccount));
+        given(reconciliationRunRepository.save(any()))
+                .willAnswer(invocation -> {
+                    ReconciliationRun run = invocation.getArgument(0);
+                    run.setId(1L);
+                    saved[0] = run;
+                    return run;
+                });
+        given(reconciliationRunRepository.findById(1L))
+                .willAnswer(invocation -> Optional.of(saved[0]));
+        given(reconciliationCheckpointRepository.findRangeStartsByRunId(1L))
+                .willReturn(Collections.emptyList());
+        given(reconciliationCheckpointRepository.summarize(1L))
+                .willReturn(summary);
+        given(ledgerReconciler.reconcile(eq(1L), anyLong(), anyLong()))
+                .willAnswer(invocation -> new LedgerRange(1L,
+                        invocation.getArgument(1), invocation.getArgument(2), 10));
+
+        //when
+        ReconciliationReport report = reconciliationService.start();
+
+        //then
+        assertEquals(3L, report.getTotalRanges());
+        verify(ledgerReconciler, timeout(5000).times(3)).checkpoint(any());
+        verify(ledgerReconciler).reconcile(1L, 0L, 10L);
+        verify(ledgerReconciler).reconcile(1L, 10L, 20L);
+        verify(ledgerReconciler).reconcile(1L, 20L, 30L);
+        verify(reconciliationRunRepository, timeout(5000).times(2)).save(any());
+        assertEquals(COMPLETED, saved[0].getStatus());
+        verify(jobCoordinator, timeout(5000)).resign("reconciliation");
+    }
+
+    @Test
+    void resumeSkipsCheckpointedRanges() {
+        //given
+        ReconciliationRun run = ReconciliationRun.builder()
+                .status(FAILED)
+                .rangeSize(10L)
+                .maxAccountId(25L)
+                .totalRanges(3L)
+                .startedAt(LocalDateTime.now().minusMinutes(1))
+                .build();
+        run.setId(1L);
+        given(jobCoordinator.tryLead("reconciliation")).willReturn(true);
+        given(reconciliationRunRepository.findById(1L))
+                .willReturn(Optional.of(run));
+        given(reconciliationRunRepository.save(any()))
+                .willReturn(run);
+        given(reconciliationCheckpointRepository.findRangeStartsByRunId(1L))
+                .willReturn(Collections.singletonList(10L));
+        given(reconciliationCheckpointRepository.summarize(1L))
+                .willReturn(summary);
+        given(ledgerReconciler.reconcile(eq(1L), anyLong(), anyLong()))
+                .willAnswer(invocation -> new LedgerRange(1L,
+                        invocation.getArgument(1), invocation.getArgument(2), 10));
+
+        //when
+        reconciliationService.resume(1L);
+
+        //then
+        verify(ledgerReconciler, timeout(5000).times(2)).checkpoint(any());
+        verify(ledgerReconciler, never()).reconcile(1L, 10L, 20L);
+        verify(reconciliationRunRepository, timeout(5000).times(2)).save(any());
+        assertEquals(COMPLETED, run.getStatus());
+    }
+
+    @Test
+    void startRejectedWhileAnotherNodeRuns() {
+        //given
+        given(jobCoordinator.tryLead("reconciliation")).willReturn(false);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> reconciliationService.start());
+
+        //then
+        assertEquals(ErrorCode.RECONCILIATION_ALREADY_RUNNING, exception.getErrorCode());
+        verify(reconciliationRunRepository, never()).save(any());
+    }
+
+    @Test
+    void resumeRunNotFound() {
+        //given
+        given(reconciliationRunRepository.findById(anyLong()))
+                .willReturn(Optional.empty());
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> reconciliationService.resume(7L));
+
+        //then
+        assertEquals(ErrorCode.RECONCILIATION_RUN_NOT_FOUND, exception.getErrorCode());
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReconciliationThrottleTest {
+
+    @Test
+    void waitOnlyWhenAheadOfRate() {
+        //given
+        ReconciliationThrottle throttle = new ReconciliationThrottle(1000);
+        long now = System.nanoTime();
+
+        //when
+        long first = throttle.reserve(500, now);
+        long second = throttle.reserve(1000, now);
+
+        //then
+        assertTrue(first <= 0);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), second, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    void unlimited() {
+        //given
+        ReconciliationThrottle throttle = new ReconciliationThrottle(0);
+
+        //when
+        //then
+        assertEquals(0, throttle.reserve(1_000_000, System.nanoTime()));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.account.service;
+
+import com.example.account.config.RedisLockProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import redis.embedded.RedisServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 내장 Redis 3대를 독립 노드로 띄워 Redlock 동작을 확인한다.
+ */
+class RedisLockRouterQuorumTest {
+    private static final int[] PORTS = {6391, 6392, 6393};
+
+    private static final List<RedisServer> servers = new ArrayList<>();
+    private static final List<RedissonClient> clients = new ArrayList<>();
+    private static final List<String> addresses = new ArrayList<>();
+    private static RedisLockRouter router;
+
+    @BeforeAll
+    static void startNodes() {
+        for (int port : PORTS) {
+            RedisServer server = new RedisServer(port);
+            server.start();
+            servers.add(server);
+
+            String address = "redis://127.0.0.1:" + port;
+            Config config = new Config();
+            config.useSingleServer().setAddress(address)
+                    .setTimeout(500)
+                    .setRetryAttempts(0);
+            clients.add(Redisson.create(config));
+            addresses.add(address);
+        }
+        router = new RedisLockRouter(clients, addresses, 3, 160, true);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        router.shutdown();
+        servers.forEach(RedisServer::stop);
+    }
+
+    @Test
+    void quorumLockIsExclusive() throws Exception {
+        RLock lock = router.getLock("ACLK : 1000000001");
+        assertTrue(lock.tryLock(1, 5, TimeUnit.SECONDS));
+        try {
+            boolean acquiredByOther = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return router.getLock("ACLK : 1000000001")
+                            .tryLock(200, 5000, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }).get();
+            assertFalse(acquiredByOther);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    void quorumLockSurvivesOneNodeDown() throws Exception {
+        servers.get(2).stop();
+        try {
+            LockService lockService = new LockService(router,
+                    new LockCircuitBreaker(new RedisLockProperties.CircuitBreaker()),
+                    new LocalLockStripes(), new RedisLockProperties());
+            lockService.lock("1000000002", 3000, 5000);
+
+            //내려간 노드에 대한 unlock 실패는 LockService 가 삼킨다. 살아있는 노드의 락은 해제된다.
+            assertDoesNotThrow(() -> lockService.unlock("1000000002"));
+            RLock lock = router.getLock("ACLK : 1000000002");
+            assertTrue(lock.tryLock(3, 5, TimeUnit.SECONDS));
+        } finally {
+            servers.get(2).start();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.RedissonRedLock;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RedisLockRouterTest {
+    private static final List<String> NODE_NAMES = Arrays.asList(
+            "redis://10.0.0.1:6379", "redis://10.0.0.2:6379", "redis://10.0.0.3:6379",
+            "redis://10.0.0.4:6379", "redis://10.0.0.5:6379");
+
+    @Mock
+    private RedissonClient node1;
+    @Mock
+    private RedissonClient node2;
+    @Mock
+    private RedissonClient node3;
+    @Mock
+    private RedissonClient node4;
+    @Mock
+    private RedissonClient node5;
+    @Mock
+    private RLock rLock;
+
+    @Test
+    void singleNodeUsesPlainLock() {
+        //given
+        given(node1.getLock(anyString())).willReturn(rLock);
+        RedisLockRouter router = RedisLockRouter.single(node1);
+
+        //when
+        RLock lock = router.getLock("ACLK : 1000000000");
+
+        //then
+        assertSame(rLock, lock);
+    }
+
+    @Test
+    void sameKeyAlwaysMapsToSameNodes() {
+        //given
+        RedisLockRouter router = newRouter(3);
+
+        //when
+        List<Integer> first = router.nodeIndexesFor("ACLK : 1000000000");
+        List<Integer> second = router.nodeIndexesFor("ACLK : 1000000000");
+
+        //then
+        assertEquals(3, new HashSet<>(first).size());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void keysSpreadAcrossNodes() {
+        //given
+        RedisLockRouter router = newRouter(1);
+        int[] counts = new int[NODE_NAMES.size()];
+
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            counts[router.nodeIndexesFor("ACLK : " + (1000000000L + i)).get(0)]++;
+        }
+
+        //then
+        for (int count : counts) {
+            assertTrue(count > 1000, "unbalanced lock distribution " + Arrays.toString(counts));
+        }
+    }
+
+    @Test
+    void quorumLockUsesOnlySelectedNodes() {
+        //given
+        RedisLockRouter router = newRouter(3);
+        List<RedissonClient> clients = Arrays.asList(node1, node2, node3, node4, node5);
+        List<Integer> selected = router.nodeIndexesFor("ACLK : 1000000000");
+        for (Integer index : selected) {
+            given(clients.get(index).getLock(anyString())).willReturn(rLock);
+        }
+
+        //when
+        RLock lock = router.getLock("ACLK : 1000000000");
+
+        //then
+        assertTrue(lock instanceof RedissonRedLock);
+        Set<Integer> notSelected = new HashSet<>(Arrays.asList(0, 1, 2, 3, 4));
+        notSelected.removeAll(selected);
+        for (Integer index : notSelected) {
+            verify(clients.get(index), never()).getLock(anyString());
+        }
+    }
+
+    private RedisLockRouter newRouter(int nodesPerKey) {
+        return new RedisLockRouter(Arrays.asList(node1, node2, node3, node4, node5),
+                NODE_NAMES, nodesPerKey, 160, false);
+    }
+}
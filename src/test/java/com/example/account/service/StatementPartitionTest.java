@@ -0,0 +1,75 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.account.type.TransactionType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementPartitionTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 9, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2026, 10, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeStatements() throws IOException {
+        //given
+        //버퍼보다 긴 내역서도 나누어 쓴다.
+        StatementPartition partition = new StatementPartition(directory, START, END, 16);
+
+        //when
+        partition.accept(1L, "1000000001", 10000L, "t1", USE, 1000L, 9000L,
+                LocalDateTime.of(2026, 9, 2, 10, 0));
+        partition.accept(1L, "1000000001", 10000L, "t2", CANCEL, 1000L, 10000L,
+                LocalDateTime.of(2026, 9, 3, 10, 0));
+        partition.accept(1L, "1000000001", 10000L, "t3", INTEREST, 100L, 10100L,
+                LocalDateTime.of(2026, 9, 30, 23, 0));
+        partition.accept(2L, "1000000002", 500L, null, null, 0L, 0L, null);
+        partition.finish();
+        partition.close();
+
+        //then
+        assertEquals(2, partition.getAccountCount());
+        assertEquals(3, partition.getTransactionCount());
+        assertEquals(Arrays.asList(
+                "accountNumber,1000000001",
+                "period,2026-09-01,2026-10-01",
+                "openingBalance,10000",
+                "transactedAt,transactionId,transactionType,amount,balanceSnapshot",
+                "2026-09-02T10:00,t1,USE,1000,9000",
+                "2026-09-03T10:00,t2,CANCEL,1000,10000",
+                "2026-09-30T23:00,t3,INTEREST,100,10100",
+                "closingBalance,10100"
+        ), Files.readAllLines(directory.resolve("1000000001.csv")));
+        List<String> empty = Files.readAllLines(directory.resolve("1000000002.csv"));
+        assertEquals("openingBalance,500", empty.get(2));
+        assertEquals("closingBalance,500", empty.get(4));
+        assertFalse(Files.exists(directory.resolve("1000000001.csv.tmp")));
+    }
+
+    @Test
+    void closeDiscardsUnfinishedStatement() throws IOException {
+        //given
+        StatementPartition partition = new StatementPartition(directory, START, END, 1024);
+        partition.accept(1L, "1000000001", 10000L, null, null, 0L, 0L, null);
+        partition.accept(2L, "1000000002", 10000L, "t1", USE, 1000L, 9000L,
+                LocalDateTime.of(2026, 9, 2, 10, 0));
+
+        //when
+        partition.close();
+
+        //then
+        assertTrue(Files.exists(directory.resolve("1000000001.csv")));
+        assertFalse(Files.exists(directory.resolve("1000000002.csv")));
+        assertFalse(Files.exists(directory.resolve("1000000002.csv.tmp")));
+    }
+}
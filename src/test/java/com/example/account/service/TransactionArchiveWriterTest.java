@@ -0,0 +1,115 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.repository.TransactionArchiveRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.TransactionResultType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionArchiveWriterTest {
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archiveChunk() throws SQLException {
+        //given
+        TransactionArchiveService transactionArchiveService = new TransactionArchiveService(
+                transactionArchiveRepository, new ObjectMapper().findAndRegisterModules());
+        TransactionArchiveWriter writer = new TransactionArchiveWriter(
+                transactionRepository, transactionArchiveService, jdbcTemplate);
+        Account account = Account.builder().accountNumber("1000000012").build();
+        Transaction old = transaction(11L, "old", S, account, LocalDateTime.now().minusYears(2));
+        Transaction failed = transaction(12L, "failed", F, account, LocalDateTime.now().minusDays(40));
+        given(transactionRepository.findArchiveCandidates(any(), eq(F), any(), any()))
+                .willReturn(Arrays.asList(old, failed));
+        ArgumentCaptor<BatchPreparedStatementSetter> captor =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+
+        //when
+        int archived = writer.archiveChunk(
+                LocalDateTime.now().minusYears(1), LocalDateTime.now().minusDays(30), 500);
+
+        //then
+        assertEquals(2, archived);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+        verify(transactionRepository).deleteAllByIdInBatch(Arrays.asList(11L, 12L));
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+        captor.getValue().setValues(ps, 1);
+        verify(ps).setLong(1, 12L);
+        verify(ps).setString(2, "failed");
+        verify(ps).setBytes(eq(4), payload.capture());
+
+        TransactionDto restored = transactionArchiveService.decompress(payload.getValue());
+        assertEquals("failed", restored.getTransactionId());
+        assertEquals("1000000012", restored.getAccountNumber());
+        assertEquals(F, restored.getTransactionResultType());
+        assertEquals(failed.getTransactedAt(), restored.getTransactedAt());
+    }
+
+    @Test
+    void archiveChunk_nothingToArchive() {
+        //given
+        TransactionArchiveWriter writer = new TransactionArchiveWriter(
+                transactionRepository,
+                new TransactionArchiveService(transactionArchiveRepository, new ObjectMapper()),
+                jdbcTemplate);
+        given(transactionRepository.findArchiveCandidates(any(), any(), any(), any()))
+                .willReturn(Collections.emptyList());
+
+        //when
+        int archived = writer.archiveChunk(
+                LocalDateTime.now().minusYears(1), LocalDateTime.now().minusDays(30), 500);
+
+        //then
+        assertEquals(0, archived);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(transactionRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private Transaction transaction(Long id, String transactionId, TransactionResultType resultType,
+                                    Account account, LocalDateTime transactedAt) {
+        Transaction transaction = Transaction.builder()
+                .transactionType(USE)
+                .transactionResultType(resultType)
+                .account(account)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactionId(transactionId)
+                .transactedAt(transactedAt)
+                .build();
+        transaction.setId(id);
+        return transaction;
+    }
+}
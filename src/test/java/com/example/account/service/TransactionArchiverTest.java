@@ -0,0 +1,87 @@
+package com.example.account.service;
+
+import com.example.account.job.JobCoordinator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionArchiverTest {
+    @Mock
+    private TransactionArchiveWriter transactionArchiveWriter;
+
+    @Mock
+    private JobCoordinator jobCoordinator;
+
+    @InjectMocks
+    private TransactionArchiver transactionArchiver;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transactionArchiver, "batchSize", 2);
+        ReflectionTestUtils.setField(transactionArchiver, "failedRetentionDays", 30);
+    }
+
+    @Test
+    void archiveUntilChunkIsNotFull() {
+        //given
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 4, 0);
+        given(jobCoordinator.tryLead("transaction-archive")).willReturn(true);
+        given(transactionArchiveWriter.archiveChunk(
+                eq(now.minusYears(1)), eq(now.minusDays(30)), eq(2)))
+                .willReturn(2, 2, 1);
+
+        //when
+        long archived = transactionArchiver.archive(now);
+
+        //then
+        assertEquals(5L, archived);
+        verify(transactionArchiveWriter, times(3))
+                .archiveChunk(eq(now.minusYears(1)), eq(now.minusDays(30)), eq(2));
+    }
+
+    @Test
+    void archiveStopsWhenLeadershipIsLost() {
+        //given
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 4, 0);
+        given(jobCoordinator.tryLead("transaction-archive")).willReturn(true, false);
+        given(transactionArchiveWriter.archiveChunk(
+                eq(now.minusYears(1)), eq(now.minusDays(30)), eq(2)))
+                .willReturn(2);
+
+        //when
+        long archived = transactionArchiver.archive(now);
+
+        //then
+        assertEquals(2L, archived);
+        verify(transactionArchiveWriter, times(1))
+                .archiveChunk(eq(now.minusYears(1)), eq(now.minusDays(30)), eq(2));
+    }
+
+    @Test
+    void archiveOnlyOnLeader() {
+        //given
+        given(jobCoordinator.tryLead("transaction-archive")).willReturn(false);
+
+        //when
+        transactionArchiver.archive();
+
+        //then
+        verify(transactionArchiveWriter, never()).archiveChunk(any(), any(), anyInt());
+    }
+}
@@ -6,8 +6,11 @@ import com.example.account.domain.Transaction;
 import com.example.account.dto.AccountDto;
 import com.example.account.dto.TransactionDto;
 import com.example.account.exception.AccountException;
+import com.example.account.journal.DebitJournal;
+import com.example.account.journal.JournalRecord;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionOutboxRepository;
 import com.example.account.repository.TransactionRepository;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
@@ -16,9 +19,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -32,6 +37,9 @@ import static com.example.account.type.TransactionType.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -45,6 +53,16 @@ class TransactionServiceTest {
     private AccountUserRepository accountUserRepository;
     @Mock
     private TransactionRepository transactionRepository;
+    @Mock
+    private TransactionOutboxRepository transactionOutboxRepository;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Mock
+    private TransactionArchiveService transactionArchiveService;
+    @Mock
+    private DebitJournal debitJournal;
+    @Mock
+    private VelocityLimitService velocityLimitService;
 
     @InjectMocks
     private TransactionService transactionService;
@@ -62,9 +80,7 @@ class TransactionServiceTest {
                 .accountNumber("1000000035")
                 .build();
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountRepository.findByAccountNumberAndUserId(anyString(), anyLong()))
                 .willReturn(Optional.of(account));
 
         given(transactionRepository.save(any()))
@@ -81,7 +97,9 @@ class TransactionServiceTest {
         TransactionDto transactionDto = transactionService.useBalance(1L, "100000002", 4000L);
 
         //then
+        verify(velocityLimitService).use(1L, "100000002", 4000L);
         verify(transactionRepository,times(1)).save(captor.capture());
+        verify(transactionOutboxRepository, times(1)).save(any());
         assertEquals(4000L, captor.getValue().getAmount());
         assertEquals(6000L, captor.getValue().getBalanceSnapshot());
         assertEquals(S, transactionDto.getTransactionResultType());
@@ -89,12 +107,82 @@ class TransactionServiceTest {
         assertEquals(9000L, transactionDto.getBalanceSnapshot());
         assertEquals(10000L, transactionDto.getAmount());
     }
+    @Test
+    @DisplayName("저널 모드 - 반영 대기 금액을 빼고 잔액 사용")
+    void useBalance_journaled() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("soni").build();
+        user.setId(24L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .balance(10000L)
+                .accountStatus(IN_USE)
+                .accountNumber("1000000035")
+                .build();
+        account.setId(1L);
+
+        given(debitJournal.isEnabled()).willReturn(true);
+        given(debitJournal.pendingAmount(anyString())).willReturn(3000L);
+        given(accountRepository.findByAccountNumberAndUserId(anyString(), anyLong()))
+                .willReturn(Optional.of(account));
+        given(debitJournal.append(1L, 24L, "1000000035", 4000L, 3000L))
+                .willReturn(JournalRecord.builder()
+                        .sequence(1L)
+                        .accountId(1L)
+                        .userId(24L)
+                        .accountNumber("1000000035")
+                        .amount(4000L)
+                        .balanceSnapshot(3000L)
+                        .transactionId("transactionId")
+                        .transactedAt(LocalDateTime.now())
+                        .build());
+
+        //when
+        TransactionDto transactionDto = transactionService.useBalance(24L, "1000000035", 4000L);
+
+        //then
+        verify(transactionRepository, times(0)).save(any());
+        assertEquals(10000L, account.getBalance());
+        assertEquals(3000L, transactionDto.getBalanceSnapshot());
+        assertEquals("transactionId", transactionDto.getTransactionId());
+        assertEquals(USE, transactionDto.getTransactionType());
+    }
+
+    @Test
+    @DisplayName("저널 모드 - 반영 대기 금액 때문에 잔액 부족")
+    void useBalance_journaledBalanceIsSmallerThanAmount() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("soni").build();
+        user.setId(24L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .balance(10000L)
+                .accountStatus(IN_USE)
+                .accountNumber("1000000035")
+                .build();
+
+        given(debitJournal.pendingAmount(anyString())).willReturn(7000L);
+        given(accountRepository.findByAccountNumberAndUserId(anyString(), anyLong()))
+                .willReturn(Optional.of(account));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(24L, "1000000035", 4000L));
+
+        //then
+        assertEquals(ErrorCode.BALANCE_IS_SMALLER_THAN_AMOUNT, exception.getErrorCode());
+    }
+
     @Test
     @DisplayName("해당 유저 없음 - 잔액 사용 실패")
     void useBalance_UserNotFound() {
         //given
-        given(accountUserRepository.findById(anyLong()))
+        given(accountRepository.findByAccountNumberAndUserId(anyString(), anyLong()))
                 .willReturn(Optional.empty());
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(false);
 
         //when
         AccountException exception = assertThrows(AccountException.class,
@@ -107,13 +195,12 @@ class TransactionServiceTest {
     @DisplayName("해당 계좌 없음 - 잔액 사용 실패")
     void useBalance_AccountNotFound() {
         //given
-        AccountUser user = AccountUser.builder()
-                .name("soni").build();
-        user.setId(234L);
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(any()))
+        given(accountRepository.findByAccountNumberAndUserId(anyString(), anyLong()))
                 .willReturn(Optional.empty());
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(true);
+        given(accountRepository.existsByAccountNumber(anyString()))
+                .willReturn(false);
         //when
         AccountException exception = assertThrows(AccountException.class,
                 () -> transactionService.useBalance(1L, "1111", 1003L));
@@ -126,21 +213,12 @@ class TransactionServiceTest {
     @DisplayName("계좌 소유주 다름 - 잔액 사용 실패")
     void useBalance_userUnMatch() {
         //given
-        AccountUser soni = AccountUser.builder()
-                .name("soni").build();
-        soni.setId(234L);
-        AccountUser bunny = AccountUser.builder()
-                .name("bunny").build();
-        bunny.setId(15L);
-
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(soni));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(Account.builder()
-                        .accountUser(bunny)
-                        .balance(0L)
-                        .accountNumber("1000000035")
-                        .build()));
+        given(accountRepository.findByAccountNumberAndUserId(anyString(), anyLong()))
+                .willReturn(Optional.empty());
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(true);
+        given(accountRepository.existsByAccountNumber(anyString()))
+                .willReturn(true);
 
         //when
         AccountException exception = assertThrows(AccountException.class,
@@ -158,9 +236,7 @@ class TransactionServiceTest {
                 .name("soni").build();
         soni.setId(234L);
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(soni));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountRepository.findByAccountNumberAndUserId(anyString(), anyLong()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(soni)
                         .balance(0L)
@@ -190,9 +266,7 @@ class TransactionServiceTest {
                 .accountStatus(IN_USE)
                 .accountNumber("1000000035")
                 .build();
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(soni));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountRepository.findByAccountNumberAndUserId(anyString(), anyLong()))
                 .willReturn(Optional.of(account));
 
         //when
@@ -201,9 +275,39 @@ class TransactionServiceTest {
 
         //then
         verify(transactionRepository, times(0)).save(any());
+        verify(velocityLimitService, times(0)).use(anyLong(), anyString(), anyLong());
         assertEquals(ErrorCode.BALANCE_IS_SMALLER_THAN_AMOUNT, exception.getErrorCode());
     }
 
+    @Test
+    @DisplayName("사용 한도 초과 - 잔액 사용 실패")
+    void useBalance_velocityLimitExceeded() {
+        //given
+        AccountUser soni = AccountUser.builder()
+                .name("soni").build();
+        soni.setId(234L);
+
+        Account account = Account.builder()
+                .accountUser(soni)
+                .balance(10000L)
+                .accountStatus(IN_USE)
+                .accountNumber("1000000035")
+                .build();
+        given(accountRepository.findByAccountNumberAndUserId(anyString(), anyLong()))
+                .willReturn(Optional.of(account));
+        willThrow(new AccountException(ErrorCode.VELOCITY_LIMIT_EXCEEDED))
+                .given(velocityLimitService).use(234L, "1000000035", 1000L);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () ->transactionService.useBalance(234L, "1000000035", 1000L));
+
+        //then
+        verify(transactionRepository, times(0)).save(any());
+        assertEquals(10000L, account.getBalance());
+        assertEquals(ErrorCode.VELOCITY_LIMIT_EXCEEDED, exception.getErrorCode());
+    }
+
     @Test
     @DisplayName("실패 트랜잭션 저장 성공")
     void saveFailedUseTransaction() {
@@ -260,10 +364,8 @@ class TransactionServiceTest {
                 .balanceSnapshot(9000L)
                 .transactedAt(LocalDateTime.now())
                 .build();
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findByTransactionIdAndAccountNumber(anyString(), anyString()))
                 .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account));
         given(transactionRepository.save(any()))
                 .willReturn(Transaction.builder()
                         .transactionType(CANCEL)
@@ -287,14 +389,185 @@ class TransactionServiceTest {
         assertEquals(10000L, transactionDto.getBalanceSnapshot());
         assertEquals(CANCEL_AMOUNT, transactionDto.getAmount());
     }
+
+    @Test
+    @DisplayName("저널 모드 - 대기 중인 차감을 먼저 반영하고 취소")
+    void cancelBalance_appliesPendingDebitsFirst() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("soni").build();
+        user.setId(24L);
+        //대기 중이던 차감 3000 이 반영된 잔액
+        Account account = Account.builder()
+                .accountUser(user)
+                .balance(7000L)
+                .accountStatus(IN_USE)
+                .accountNumber("1000000035")
+                .build();
+        Transaction transaction = Transaction.builder()
+                .transactionType(USE)
+                .account(account)
+                .transactionId("transactionIdForCancel")
+                .transactionResultType(S)
+                .amount(CANCEL_AMOUNT)
+                .balanceSnapshot(9000L)
+                .transactedAt(LocalDateTime.now())
+                .build();
+        given(transactionRepository.findByTransactionIdAndAccountNumber(anyString(), anyString()))
+                .willReturn(Optional.of(transaction));
+        given(transactionRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+        //when
+        transactionService.cancelBalance("transactionIdForCancel", "1000000035", CANCEL_AMOUNT);
+
+        //then
+        //계좌를 읽기 전에 반영해야 잔액 스냅샷에 대기 중이던 차감이 들어간다.
+        InOrder inOrder = inOrder(debitJournal, transactionRepository);
+        inOrder.verify(debitJournal).applyPending("1000000035");
+        inOrder.verify(transactionRepository).findByTransactionIdAndAccountNumber(
+                "transactionIdForCancel", "1000000035");
+        inOrder.verify(transactionRepository).save(captor.capture());
+        assertEquals(7000L + CANCEL_AMOUNT, captor.getValue().getBalanceSnapshot());
+    }
+
+    @Test
+    @DisplayName("저널 모드 - 다른 노드의 차감이 남아 있으면 취소하지 않음")
+    void cancelBalance_otherNodePendingDebits() {
+        //given
+        willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .given(debitJournal).applyPending("1000000035");
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("trId", "1000000035", CANCEL_AMOUNT));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(transactionRepository, never()).save(any());
+    }
+    @Test
+    @DisplayName("로컬 락 모드 - 계좌 행만 잠그고 잔액 사용")
+    void useBalance_degradedLocksOnlyAccount() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("soni").build();
+        user.setId(24L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .balance(10000L)
+                .accountStatus(IN_USE)
+                .accountNumber("1000000035")
+                .build();
+        given(accountRepository.findByAccountNumberForUpdate("1000000035"))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        AccountLockContext.addLocalLock("1000000035");
+        TransactionDto transactionDto;
+        try {
+            transactionDto = transactionService.useBalance(24L, "1000000035", 4000L);
+        } finally {
+            AccountLockContext.removeLocalLock("1000000035");
+        }
+
+        //then
+        verify(accountRepository, never()).findByAccountNumberAndUserId(anyString(), anyLong());
+        assertEquals(6000L, transactionDto.getBalanceSnapshot());
+    }
+
+    @Test
+    @DisplayName("로컬 락 모드 - 다른 사용자의 계좌는 잠가도 사용할 수 없음")
+    void useBalance_degradedUserUnMatch() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("soni").build();
+        user.setId(24L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .balance(10000L)
+                .accountStatus(IN_USE)
+                .accountNumber("1000000035")
+                .build();
+        given(accountRepository.findByAccountNumberForUpdate("1000000035"))
+                .willReturn(Optional.of(account));
+        given(accountUserRepository.existsById(13L)).willReturn(true);
+        given(accountRepository.existsByAccountNumber("1000000035")).willReturn(true);
+
+        //when
+        AccountLockContext.addLocalLock("1000000035");
+        AccountException exception;
+        try {
+            exception = assertThrows(AccountException.class,
+                    () -> transactionService.useBalance(13L, "1000000035", 4000L));
+        } finally {
+            AccountLockContext.removeLocalLock("1000000035");
+        }
+
+        //then
+        assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("로컬 락 모드 - 계좌 행을 먼저 잠그고 잔액 사용 취소")
+    void cancelBalance_degradedLocksAccountFirst() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("soni").build();
+        user.setId(24L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .balance(10000L)
+                .accountStatus(IN_USE)
+                .accountNumber("1000000035")
+                .build();
+        Transaction transaction = Transaction.builder()
+                .transactionType(USE)
+                .account(account)
+                .transactionId("transactionIdForCancel")
+                .transactionResultType(S)
+                .amount(CANCEL_AMOUNT)
+                .balanceSnapshot(9000L)
+                .transactedAt(LocalDateTime.now())
+                .build();
+        given(accountRepository.findByAccountNumberForUpdate("1000000035"))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.findByTransactionIdAndAccountNumber(
+                "transactionIdForCancel", "1000000035"))
+                .willReturn(Optional.of(transaction));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        AccountLockContext.addLocalLock("1000000035");
+        TransactionDto transactionDto;
+        try {
+            transactionDto = transactionService.cancelBalance(
+                    "transactionIdForCancel", "1000000035", CANCEL_AMOUNT);
+        } finally {
+            AccountLockContext.removeLocalLock("1000000035");
+        }
+
+        //then
+        InOrder inOrder = inOrder(accountRepository, transactionRepository);
+        inOrder.verify(accountRepository).findByAccountNumberForUpdate("1000000035");
+        inOrder.verify(transactionRepository).findByTransactionIdAndAccountNumber(
+                "transactionIdForCancel", "1000000035");
+        assertEquals(10000L + CANCEL_AMOUNT, transactionDto.getBalanceSnapshot());
+    }
+
     @Test
     @DisplayName("해당 계좌 없음 - 잔액 사용 취소 실패")
     void cancelBalance_AccountNotFound() {
         //given
+        given(transactionRepository.findByTransactionIdAndAccountNumber(anyString(), anyString()))
+                .willReturn(Optional.empty());
         given(transactionRepository.findByTransactionId(anyString()))
                 .willReturn(Optional.of(Transaction.builder().build()));
-        given(accountRepository.findByAccountNumber(any()))
-                .willReturn(Optional.empty());
+        given(accountRepository.existsByAccountNumber(anyString()))
+                .willReturn(false);
         //when
         AccountException exception = assertThrows(AccountException.class,
                 () -> transactionService.cancelBalance("trId", "1111", 1003L));
@@ -330,12 +603,6 @@ class TransactionServiceTest {
                 .balance(10000L)
                 .accountNumber("1000000035").build();
         account.setId(1L);
-        Account accountNotUse = Account.builder()
-                .accountUser(user)
-                .accountStatus(IN_USE)
-                .balance(10000L)
-                .accountNumber("1000000036").build();
-        accountNotUse.setId(2L);
         Transaction transaction = Transaction.builder()
                 .account(account)
                 .transactionType(USE)
@@ -345,10 +612,12 @@ class TransactionServiceTest {
                 .amount(1000L)
                 .balanceSnapshot(9000L)
                 .build();
+        given(transactionRepository.findByTransactionIdAndAccountNumber(anyString(), anyString()))
+                .willReturn(Optional.empty());
         given(transactionRepository.findByTransactionId(anyString()))
                 .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(any()))
-                .willReturn(Optional.of(accountNotUse));
+        given(accountRepository.existsByAccountNumber(anyString()))
+                .willReturn(true);
         //when
         AccountException exception = assertThrows(AccountException.class,
                 () -> transactionService.cancelBalance(
@@ -379,10 +648,8 @@ class TransactionServiceTest {
                 .amount(15000L)
                 .balanceSnapshot(9000L)
                 .build();
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findByTransactionIdAndAccountNumber(anyString(), anyString()))
                 .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(any()))
-                .willReturn(Optional.of(account));
         //when
         AccountException exception = assertThrows(AccountException.class,
                 () -> transactionService.cancelBalance(
@@ -413,10 +680,8 @@ class TransactionServiceTest {
                 .amount(10000L)
                 .balanceSnapshot(9000L)
                 .build();
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findByTransactionIdAndAccountNumber(anyString(), anyString()))
                 .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(any()))
-                .willReturn(Optional.of(account));
         //when
         AccountException exception = assertThrows(AccountException.class,
                 () -> transactionService.cancelBalance(
@@ -426,6 +691,38 @@ class TransactionServiceTest {
         assertEquals(ErrorCode.TOO_OLD_TRANSACTION, exception.getErrorCode());
     }
 
+    @Test
+    @DisplayName("이자 거래 - 잔액 사용 취소 실패")
+    void cancelBalance_interestNotCancellable() {
+        AccountUser user = AccountUser.builder()
+                .name("soni").build();
+        user.setId(24L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000035").build();
+        account.setId(1L);
+        Transaction transaction = Transaction.builder()
+                .account(account)
+                .transactionType(INTEREST)
+                .transactionResultType(S)
+                .transactionId("transactionId")
+                .transactedAt(LocalDateTime.now())
+                .amount(100L)
+                .balanceSnapshot(10100L)
+                .build();
+        given(transactionRepository.findByTransactionIdAndAccountNumber(anyString(), anyString()))
+                .willReturn(Optional.of(transaction));
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance(
+                        "trId", "1000000035", 100L));
+
+        //then
+        assertEquals(ErrorCode.TRANSACTION_NOT_CANCELLABLE, exception.getErrorCode());
+    }
+
     @Test
     void successGetTransactionByTrId() {
         AccountUser user = AccountUser.builder()
@@ -473,4 +770,45 @@ class TransactionServiceTest {
         //then
         assertEquals(TRANSACTION_NOT_FOUND, exception.getErrorCode());
      }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("보관된 거래 - 잔액 사용 취소 실패")
+    void cancelBalance_archivedTransaction() {
+        //given
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.empty());
+        given(transactionArchiveService.isArchived(anyString()))
+                .willReturn(true);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("trId", "1111", 1003L));
+
+        //then
+        assertEquals(ErrorCode.TOO_OLD_TRANSACTION, exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("보관된 거래 조회")
+    void getTransaction_fromArchive() {
+        //given
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.empty());
+        given(transactionArchiveService.findByTransactionId(anyString()))
+                .willReturn(Optional.of(TransactionDto.builder()
+                        .accountNumber("1000000012")
+                        .transactionType(USE)
+                        .transactionResultType(S)
+                        .transactionId("archivedId")
+                        .amount(1000L)
+                        .transactedAt(LocalDateTime.now().minusYears(2))
+                        .build()));
+
+        //when
+        TransactionDto transactionDto = transactionService.getTransactionByTransactionId("archivedId");
+
+        //then
+        assertEquals("archivedId", transactionDto.getTransactionId());
+        assertEquals(1000L, transactionDto.getAmount());
+    }
+}
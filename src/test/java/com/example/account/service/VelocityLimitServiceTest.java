@@ -0,0 +1,155 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class VelocityLimitServiceTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RScript rScript;
+
+    @InjectMocks
+    private VelocityLimitService velocityLimitService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(velocityLimitService, "enabled", true);
+        ReflectionTestUtils.setField(velocityLimitService, "accountDailyAmount", 10000L);
+        ReflectionTestUtils.setField(velocityLimitService, "userDailyAmount", 20000L);
+        ReflectionTestUtils.setField(velocityLimitService, "accountHourlyCount", 0L);
+        ReflectionTestUtils.setField(velocityLimitService, "userHourlyCount", 5L);
+        ReflectionTestUtils.setField(velocityLimitService, "failOpen", true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void useWithinLimit() {
+        //given
+        given(redissonClient.getScript(any())).willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(0L);
+        ArgumentCaptor<List<Object>> keys = ArgumentCaptor.forClass(List.class);
+
+        //when
+        velocityLimitService.use(1L, "1000000012", 3000L);
+
+        //then
+        verify(rScript).eval(any(RScript.Mode.class), anyString(),
+                any(RScript.ReturnType.class), keys.capture(), any());
+        //시간당 계좌 횟수 규칙은 0 이라 빠진다.
+        assertEquals(3, keys.getValue().size());
+        assertTrue(keys.getValue().get(0).toString().startsWith("VL : account : 1000000012 : amount : "));
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    @Test
+    void useOverLimit() {
+        //given
+        given(redissonClient.getScript(any())).willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(1L);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> velocityLimitService.use(1L, "1000000012", 30000L));
+
+        //then
+        assertEquals(ErrorCode.VELOCITY_LIMIT_EXCEEDED, exception.getErrorCode());
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    @Test
+    void releaseOnRollback() {
+        //given
+        given(redissonClient.getScript(any())).willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willReturn(0L);
+        velocityLimitService.use(1L, "1000000012", 3000L);
+
+        //when
+        for (TransactionSynchronization synchronization
+                : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        //then
+        verify(rScript, times(2)).eval(any(RScript.Mode.class), anyString(),
+                any(RScript.ReturnType.class), anyList(), any());
+    }
+
+    @Test
+    void failOpenWhenRedisFails() {
+        //given
+        given(redissonClient.getScript(any())).willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willThrow(new RedisTimeoutException("timeout"));
+
+        //when
+        //then
+        assertDoesNotThrow(() -> velocityLimitService.use(1L, "1000000012", 3000L));
+    }
+
+    @Test
+    void failClosedWhenRedisFails() {
+        //given
+        ReflectionTestUtils.setField(velocityLimitService, "failOpen", false);
+        given(redissonClient.getScript(any())).willReturn(rScript);
+        given(rScript.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class),
+                anyList(), any()))
+                .willThrow(new RedisTimeoutException("timeout"));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> velocityLimitService.use(1L, "1000000012", 3000L));
+
+        //then
+        assertEquals(ErrorCode.VELOCITY_LIMIT_UNAVAILABLE, exception.getErrorCode());
+    }
+
+    @Test
+    void disabled() {
+        //given
+        ReflectionTestUtils.setField(velocityLimitService, "enabled", false);
+
+        //when
+        velocityLimitService.use(1L, "1000000012", 3000L);
+
+        //then
+        verify(redissonClient, never()).getScript(any());
+    }
+}